@@ -30,6 +30,7 @@ import bisq.common.logging.AsciiLogo;
 import bisq.common.logging.LogSetup;
 import bisq.common.platform.MemoryReport;
 import bisq.common.platform.PlatformUtils;
+import bisq.common.threading.VirtualThreadMode;
 import bisq.common.util.ExceptionUtil;
 import bisq.i18n.Res;
 import bisq.persistence.PersistenceService;
@@ -83,7 +84,8 @@ public abstract class ApplicationService implements Service {
                     config.getBoolean("devMode"),
                     config.getString("keyIds"),
                     config.getBoolean("ignoreSigningKeyInResourcesCheck"),
-                    config.getBoolean("ignoreSignatureVerification"));
+                    config.getBoolean("ignoreSignatureVerification"),
+                    config.getBoolean("useVirtualThreads"));
         }
 
         private final Path baseDir;
@@ -92,13 +94,15 @@ public abstract class ApplicationService implements Service {
         private final List<String> keyIds;
         private final boolean ignoreSigningKeyInResourcesCheck;
         private final boolean ignoreSignatureVerification;
+        private final boolean useVirtualThreads;
 
         public Config(Path baseDir,
                       String appName,
                       boolean devMode,
                       String keyIds,
                       boolean ignoreSigningKeyInResourcesCheck,
-                      boolean ignoreSignatureVerification) {
+                      boolean ignoreSignatureVerification,
+                      boolean useVirtualThreads) {
             this.baseDir = baseDir;
             this.appName = appName;
             this.devMode = devMode;
@@ -108,6 +112,7 @@ public abstract class ApplicationService implements Service {
             this.keyIds = List.of(keyIds.split(","));
             this.ignoreSigningKeyInResourcesCheck = ignoreSigningKeyInResourcesCheck;
             this.ignoreSignatureVerification = ignoreSignatureVerification;
+            this.useVirtualThreads = useVirtualThreads;
         }
     }
 
@@ -143,6 +148,8 @@ public abstract class ApplicationService implements Service {
 
         typesafeAppConfig = typesafeConfig.getConfig("application");
         config = Config.from(typesafeAppConfig, args);
+        // Must be set before the first executor thread gets created
+        VirtualThreadMode.setEnabled(config.isUseVirtualThreads());
 
         Path dataDir = config.getBaseDir();
         try {
@@ -156,6 +163,9 @@ public abstract class ApplicationService implements Service {
         log.info(AsciiLogo.getAsciiLogo());
         log.info("Data directory: {}", config.getBaseDir());
         log.info("Version: {}", ApplicationVersion.getVersion());
+        if (config.isUseVirtualThreads()) {
+            log.info("Using virtual threads for executors");
+        }
         if (customConfigProvided) {
             log.info("Using custom config file");
         }
@@ -25,12 +25,12 @@ import bisq.common.observable.Observable;
 import bisq.common.observable.collection.ObservableSet;
 import bisq.common.proto.PersistableProto;
 import bisq.common.proto.UnresolvableProtobufMessageException;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @ToString
 @Getter
@@ -42,7 +42,9 @@ public abstract class ChatChannel<M extends ChatMessage> implements PersistableP
     protected final Observable<ChatChannelNotificationType> chatChannelNotificationType = new Observable<>();
     @Getter
     protected final transient ObservableSet<String> userProfileIdsOfActiveParticipants = new ObservableSet<>();
-    protected final transient Map<String, AtomicInteger> numMessagesByAuthorId = new HashMap<>();
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final transient ChatMessageIndex<M> chatMessageIndex = new ChatMessageIndex<>();
     @Getter
     protected final transient Set<String> userProfileIdsOfSendingLeaveMessage = new HashSet<>();
 
@@ -96,9 +98,7 @@ public abstract class ChatChannel<M extends ChatMessage> implements PersistableP
     public boolean addChatMessage(M chatMessage) {
         boolean changed = getChatMessages().add(chatMessage);
         if (changed) {
-            String authorUserProfileId = chatMessage.getAuthorUserProfileId();
-            numMessagesByAuthorId.putIfAbsent(authorUserProfileId, new AtomicInteger());
-            numMessagesByAuthorId.get(authorUserProfileId).incrementAndGet();
+            chatMessageIndex.add(chatMessage);
         }
         return changed;
     }
@@ -106,13 +106,11 @@ public abstract class ChatChannel<M extends ChatMessage> implements PersistableP
     public boolean removeChatMessage(M chatMessage) {
         boolean changed = getChatMessages().remove(chatMessage);
         if (changed) {
+            chatMessageIndex.remove(chatMessage);
             String authorUserProfileId = chatMessage.getAuthorUserProfileId();
-            if (numMessagesByAuthorId.containsKey(authorUserProfileId)) {
-                AtomicInteger numMessages = numMessagesByAuthorId.get(authorUserProfileId);
-                if (numMessages.get() > 0 && numMessages.decrementAndGet() == 0) {
-                    // If no more messages of that user exist we remove them from userProfileIdsOfParticipants
-                    userProfileIdsOfActiveParticipants.remove(chatMessage.getAuthorUserProfileId());
-                }
+            if (chatMessageIndex.getByAuthorId(authorUserProfileId).isEmpty()) {
+                // If no more messages of that user exist we remove them from userProfileIdsOfParticipants
+                userProfileIdsOfActiveParticipants.remove(authorUserProfileId);
             }
         }
         return changed;
@@ -122,6 +120,18 @@ public abstract class ChatChannel<M extends ChatMessage> implements PersistableP
         messages.forEach(this::removeChatMessage);
     }
 
+    public Optional<M> findChatMessage(String chatMessageId) {
+        return chatMessageIndex.findById(chatMessageId);
+    }
+
+    public Set<M> getChatMessagesByAuthor(String authorUserProfileId) {
+        return chatMessageIndex.getByAuthorId(authorUserProfileId);
+    }
+
+    public Collection<M> getExpiredChatMessages() {
+        return chatMessageIndex.getExpired(System.currentTimeMillis());
+    }
+
     public abstract String getDisplayString();
 
     public abstract ObservableSet<M> getChatMessages();
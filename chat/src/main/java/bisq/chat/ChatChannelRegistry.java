@@ -0,0 +1,75 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.chat;
+
+import bisq.common.observable.collection.CollectionObserver;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Id keyed view of the channels of a channel service. It observes the ObservableArray holding the channels, so it
+ * stays in sync with all mutations including the ones from applying the persisted store.
+ */
+class ChatChannelRegistry<C extends ChatChannel<?>> implements CollectionObserver<C> {
+    private final Map<String, C> channelById = new ConcurrentHashMap<>();
+
+    Optional<C> find(String channelId) {
+        return Optional.ofNullable(channelById.get(channelId));
+    }
+
+    int size() {
+        return channelById.size();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // CollectionObserver
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void add(C channel) {
+        channelById.put(channel.getId(), channel);
+    }
+
+    @Override
+    public void setAll(Collection<? extends C> channels) {
+        // We add the new channels before removing the outdated ones, so that lookups of channels contained in both
+        // collections do not fail in between.
+        channels.forEach(this::add);
+        Set<String> channelIds = channels.stream().map(ChatChannel::getId).collect(Collectors.toSet());
+        channelById.keySet().retainAll(channelIds);
+    }
+
+    @Override
+    public void remove(Object element) {
+        if (element instanceof ChatChannel) {
+            ChatChannel<?> channel = (ChatChannel<?>) element;
+            channelById.remove(channel.getId(), channel);
+        }
+    }
+
+    @Override
+    public void clear() {
+        channelById.clear();
+    }
+}
@@ -29,9 +29,8 @@ import bisq.user.identity.UserIdentityService;
 import bisq.user.profile.UserProfileService;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collection;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Slf4j
 public abstract class ChatChannelService<M extends ChatMessage, C extends ChatChannel<M>, S extends PersistableStore<S>>
@@ -41,15 +40,21 @@ public abstract class ChatChannelService<M extends ChatMessage, C extends ChatCh
     protected final UserProfileService userProfileService;
     protected final ChatChannelDomain chatChannelDomain;
     protected final BannedUserService bannedUserService;
+    private final ChatChannelRegistry<C> channelRegistry = new ChatChannelRegistry<>();
 
     public ChatChannelService(NetworkService networkService,
                               UserService userService,
-                              ChatChannelDomain chatChannelDomain) {
+                              ChatChannelDomain chatChannelDomain,
+                              ObservableArray<C> channels) {
         this.networkService = networkService;
         userIdentityService = userService.getUserIdentityService();
         userProfileService = userService.getUserProfileService();
         bannedUserService = userService.getBannedUserService();
         this.chatChannelDomain = chatChannelDomain;
+
+        // The channels array of the store is final and applying the persisted data is done via setAll, so the
+        // registry stays in sync for the lifetime of the service.
+        channels.addObserver(channelRegistry);
     }
 
     public void setChatChannelNotificationType(ChatChannel<? extends ChatMessage> chatChannel,
@@ -98,9 +103,7 @@ public abstract class ChatChannelService<M extends ChatMessage, C extends ChatCh
     public abstract ObservableArray<C> getChannels();
 
     protected void doRemoveExpiredMessages(C channel) {
-        Set<M> toRemove = channel.getChatMessages().stream()
-                .filter(ChatMessage::isExpired)
-                .collect(Collectors.toSet());
+        Collection<M> toRemove = channel.getExpiredChatMessages();
         if (!toRemove.isEmpty()) {
             synchronized (getPersistableStore()) {
                 channel.removeChatMessages(toRemove);
@@ -110,9 +113,7 @@ public abstract class ChatChannelService<M extends ChatMessage, C extends ChatCh
     }
 
     public Optional<C> findChannel(String channelId) {
-        return getChannels().stream()
-                .filter(channel -> channel.getId().equals(channelId))
-                .findAny();
+        return channelRegistry.find(channelId);
     }
 
     public Optional<C> getDefaultChannel() {
@@ -195,6 +195,10 @@ public abstract class ChatMessage implements NetworkProto, Comparable<ChatMessag
         return (System.currentTimeMillis() - getDate() > getMetaData().getTtl());
     }
 
+    public long getExpirationDate() {
+        return getDate() + getMetaData().getTtl();
+    }
+
     protected abstract MetaData getMetaData();
 
     public boolean isMyMessage(UserIdentityService userIdentityService) {
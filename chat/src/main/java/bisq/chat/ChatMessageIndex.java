@@ -0,0 +1,106 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.chat;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * Indexes of the chat messages of a channel. Kept in sync with the channel's chatMessages set by
+ * ChatChannel.addChatMessage and ChatChannel.removeChatMessage.
+ * <ul>
+ *     <li>By message ID for lookups (e.g. for applying reactions).</li>
+ *     <li>By expiration date, so expired messages are found without iterating over all messages.</li>
+ *     <li>By author user profile ID.</li>
+ * </ul>
+ */
+class ChatMessageIndex<M extends ChatMessage> {
+    private static final class TimeKey implements Comparable<TimeKey> {
+        private final long time;
+        private final String messageId;
+
+        private TimeKey(long time, String messageId) {
+            this.time = time;
+            this.messageId = messageId;
+        }
+
+        @Override
+        public int compareTo(TimeKey other) {
+            int result = Long.compare(time, other.time);
+            return result != 0 ? result : messageId.compareTo(other.messageId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TimeKey)) return false;
+            TimeKey timeKey = (TimeKey) o;
+            return time == timeKey.time && messageId.equals(timeKey.messageId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(time) + messageId.hashCode();
+        }
+    }
+
+    private final Map<String, M> messageById = new ConcurrentHashMap<>();
+    private final NavigableMap<TimeKey, M> messagesByExpirationDate = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<M>> messagesByAuthorId = new ConcurrentHashMap<>();
+
+    void add(M message) {
+        String id = message.getId();
+        messageById.put(id, message);
+        messagesByExpirationDate.put(new TimeKey(message.getExpirationDate(), id), message);
+        messagesByAuthorId.computeIfAbsent(message.getAuthorUserProfileId(), key -> ConcurrentHashMap.newKeySet())
+                .add(message);
+    }
+
+    void remove(M message) {
+        String id = message.getId();
+        // We only remove the entries of that message instance, in case another message with the same ID was added
+        messageById.remove(id, message);
+        messagesByExpirationDate.remove(new TimeKey(message.getExpirationDate(), id), message);
+        messagesByAuthorId.computeIfPresent(message.getAuthorUserProfileId(), (key, messages) -> {
+            messages.remove(message);
+            return messages.isEmpty() ? null : messages;
+        });
+    }
+
+    Optional<M> findById(String messageId) {
+        return Optional.ofNullable(messageById.get(messageId));
+    }
+
+    Set<M> getByAuthorId(String authorUserProfileId) {
+        Set<M> messages = messagesByAuthorId.get(authorUserProfileId);
+        return messages == null ? Collections.emptySet() : Collections.unmodifiableSet(messages);
+    }
+
+    Collection<M> getExpired(long now) {
+        // Messages with an expiration date equal to now are not expired yet (see ChatMessage.isExpired)
+        return messagesByExpirationDate.headMap(new TimeKey(now, ""), false).values().stream()
+                .collect(Collectors.toList());
+    }
+}
@@ -22,10 +22,15 @@ import bisq.chat.ChatChannelNotificationType;
 import bisq.chat.pub.PublicChatChannel;
 import bisq.common.currency.Market;
 import bisq.i18n.Res;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Getter
 @ToString(callSuper = true)
 @EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
@@ -37,6 +42,9 @@ public final class BisqEasyOfferbookChannel extends PublicChatChannel<BisqEasyOf
     }
 
     private final Market market;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final transient Map<String, BisqEasyOfferbookMessage> messageByOfferId = new ConcurrentHashMap<>();
 
     public BisqEasyOfferbookChannel(Market market) {
         this(createId(market), ChatChannelNotificationType.ALL, market);
@@ -64,6 +72,28 @@ public final class BisqEasyOfferbookChannel extends PublicChatChannel<BisqEasyOf
                 Market.fromProto(proto.getMarket()));
     }
 
+    @Override
+    public boolean addChatMessage(BisqEasyOfferbookMessage chatMessage) {
+        boolean changed = super.addChatMessage(chatMessage);
+        if (changed) {
+            chatMessage.getBisqEasyOffer().ifPresent(offer -> messageByOfferId.put(offer.getId(), chatMessage));
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean removeChatMessage(BisqEasyOfferbookMessage chatMessage) {
+        boolean changed = super.removeChatMessage(chatMessage);
+        if (changed) {
+            chatMessage.getBisqEasyOffer().ifPresent(offer -> messageByOfferId.remove(offer.getId(), chatMessage));
+        }
+        return changed;
+    }
+
+    public Optional<BisqEasyOfferbookMessage> findMessageByOfferId(String offerId) {
+        return Optional.ofNullable(messageByOfferId.get(offerId));
+    }
+
     @Override
     public String getDisplayString() {
         return market.getMarketCodes();
@@ -19,7 +19,6 @@ package bisq.chat.bisqeasy.offerbook;
 
 import bisq.chat.ChatChannelDomain;
 import bisq.chat.Citation;
-import bisq.chat.pub.PublicChatChannel;
 import bisq.chat.pub.PublicChatChannelService;
 import bisq.chat.reactions.BisqEasyOfferbookMessageReaction;
 import bisq.chat.reactions.Reaction;
@@ -40,7 +39,6 @@ import bisq.user.profile.UserProfile;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -49,14 +47,22 @@ import java.util.Optional;
 public class BisqEasyOfferbookChannelService extends PublicChatChannelService<BisqEasyOfferbookMessage,
         BisqEasyOfferbookChannel, BisqEasyOfferbookChannelStore, BisqEasyOfferbookMessageReaction> {
     @Getter
-    private final BisqEasyOfferbookChannelStore persistableStore = new BisqEasyOfferbookChannelStore();
+    private final BisqEasyOfferbookChannelStore persistableStore;
     @Getter
     private final Persistence<BisqEasyOfferbookChannelStore> persistence;
 
     public BisqEasyOfferbookChannelService(PersistenceService persistenceService,
                                            NetworkService networkService,
                                            UserService userService) {
-        super(networkService, userService, ChatChannelDomain.BISQ_EASY_OFFERBOOK);
+        this(persistenceService, networkService, userService, new BisqEasyOfferbookChannelStore());
+    }
+
+    private BisqEasyOfferbookChannelService(PersistenceService persistenceService,
+                                            NetworkService networkService,
+                                            UserService userService,
+                                            BisqEasyOfferbookChannelStore persistableStore) {
+        super(networkService, userService, ChatChannelDomain.BISQ_EASY_OFFERBOOK, persistableStore.getChannels());
+        this.persistableStore = persistableStore;
         persistence = persistenceService.getOrCreatePersistence(this, DbSubDirectory.CACHE, persistableStore);
     }
 
@@ -114,10 +120,8 @@ public class BisqEasyOfferbookChannelService extends PublicChatChannelService<Bi
 
     public Optional<BisqEasyOfferbookMessage> findMessageByOffer(BisqEasyOffer offer) {
         return findChannel(offer.getMarket())
-                .map(PublicChatChannel::getChatMessages).stream()
-                .flatMap(Collection::stream)
-                .filter(chatMessage -> offer.equals(chatMessage.getBisqEasyOffer().orElse(null)))
-                .findAny();
+                .flatMap(channel -> channel.findMessageByOfferId(offer.getId()))
+                .filter(chatMessage -> offer.equals(chatMessage.getBisqEasyOffer().orElse(null)));
     }
 
 
@@ -55,15 +55,23 @@ public class BisqEasyOpenTradeChannelService extends PrivateGroupChatChannelServ
         BisqEasyOpenTradeMessage, BisqEasyOpenTradeChannel, BisqEasyOpenTradeChannelStore> {
 
     @Getter
-    private final BisqEasyOpenTradeChannelStore persistableStore = new BisqEasyOpenTradeChannelStore();
+    private final BisqEasyOpenTradeChannelStore persistableStore;
     @Getter
     private final Persistence<BisqEasyOpenTradeChannelStore> persistence;
 
     public BisqEasyOpenTradeChannelService(PersistenceService persistenceService,
                                            NetworkService networkService,
                                            UserService userService) {
-        super(networkService, userService, ChatChannelDomain.BISQ_EASY_OPEN_TRADES);
+        this(persistenceService, networkService, userService, new BisqEasyOpenTradeChannelStore());
+    }
+
+    private BisqEasyOpenTradeChannelService(PersistenceService persistenceService,
+                                            NetworkService networkService,
+                                            UserService userService,
+                                            BisqEasyOpenTradeChannelStore persistableStore) {
+        super(networkService, userService, ChatChannelDomain.BISQ_EASY_OPEN_TRADES, persistableStore.getChannels());
 
+        this.persistableStore = persistableStore;
         persistence = persistenceService.getOrCreatePersistence(this, DbSubDirectory.PRIVATE, persistableStore);
     }
 
@@ -244,9 +252,7 @@ public class BisqEasyOpenTradeChannelService extends PrivateGroupChatChannelServ
     }
 
     public Optional<BisqEasyOpenTradeChannel> findChannelByTradeId(String tradeId) {
-        return getChannels().stream()
-                .filter(channel -> channel.getTradeId().equals(tradeId))
-                .findAny();
+        return findChannel(BisqEasyOpenTradeChannel.createId(tradeId));
     }
 
 
@@ -44,7 +44,7 @@ import java.util.Optional;
 public final class CommonPublicChatChannelService extends PublicChatChannelService<CommonPublicChatMessage,
         CommonPublicChatChannel, CommonPublicChatChannelStore, CommonPublicChatMessageReaction> {
     @Getter
-    private final CommonPublicChatChannelStore persistableStore = new CommonPublicChatChannelStore();
+    private final CommonPublicChatChannelStore persistableStore;
     @Getter
     private final Persistence<CommonPublicChatChannelStore> persistence;
     private final List<CommonPublicChatChannel> channels;
@@ -54,8 +54,18 @@ public final class CommonPublicChatChannelService extends PublicChatChannelServi
                                           UserService userService,
                                           ChatChannelDomain chatChannelDomain,
                                           List<CommonPublicChatChannel> channels) {
-        super(networkService, userService, chatChannelDomain);
+        this(persistenceService, networkService, userService, chatChannelDomain, channels, new CommonPublicChatChannelStore());
+    }
+
+    private CommonPublicChatChannelService(PersistenceService persistenceService,
+                                           NetworkService networkService,
+                                           UserService userService,
+                                           ChatChannelDomain chatChannelDomain,
+                                           List<CommonPublicChatChannel> channels,
+                                           CommonPublicChatChannelStore persistableStore) {
+        super(networkService, userService, chatChannelDomain, persistableStore.getChannels());
 
+        this.persistableStore = persistableStore;
         this.channels = channels;
 
         String name = StringUtils.capitalize(StringUtils.snakeCaseToCamelCase(chatChannelDomain.name().toLowerCase()));
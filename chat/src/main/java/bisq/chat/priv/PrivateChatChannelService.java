@@ -20,6 +20,7 @@ package bisq.chat.priv;
 import bisq.chat.*;
 import bisq.chat.reactions.PrivateChatMessageReaction;
 import bisq.chat.reactions.Reaction;
+import bisq.common.observable.collection.ObservableArray;
 import bisq.common.util.StringUtils;
 import bisq.i18n.Res;
 import bisq.network.NetworkService;
@@ -53,8 +54,9 @@ public abstract class PrivateChatChannelService<
 
     public PrivateChatChannelService(NetworkService networkService,
                                      UserService userService,
-                                     ChatChannelDomain chatChannelDomain) {
-        super(networkService, userService, chatChannelDomain);
+                                     ChatChannelDomain chatChannelDomain,
+                                     ObservableArray<C> channels) {
+        super(networkService, userService, chatChannelDomain, channels);
     }
 
 
@@ -211,9 +213,7 @@ public abstract class PrivateChatChannelService<
 
     protected void processMessageReaction(R messageReaction) {
         findChannel(messageReaction.getChatChannelId())
-                .flatMap(channel -> channel.getChatMessages().stream()
-                        .filter(message -> message.getId().equals(messageReaction.getChatMessageId()))
-                        .findFirst())
+                .flatMap(channel -> channel.findChatMessage(messageReaction.getChatMessageId()))
                 .ifPresentOrElse(
                         message -> addMessageReaction(messageReaction, message),
                         () -> unprocessedReactions.add(messageReaction));
@@ -19,6 +19,7 @@ package bisq.chat.priv;
 
 import bisq.chat.ChatChannelDomain;
 import bisq.chat.reactions.PrivateChatMessageReaction;
+import bisq.common.observable.collection.ObservableArray;
 import bisq.network.NetworkService;
 import bisq.network.p2p.services.confidential.ConfidentialMessageService;
 import bisq.persistence.PersistableStore;
@@ -36,7 +37,8 @@ public abstract class PrivateGroupChatChannelService<
 
     public PrivateGroupChatChannelService(NetworkService networkService,
                                           UserService userService,
-                                          ChatChannelDomain chatChannelDomain) {
-        super(networkService, userService, chatChannelDomain);
+                                          ChatChannelDomain chatChannelDomain,
+                                          ObservableArray<C> channels) {
+        super(networkService, userService, chatChannelDomain, channels);
     }
 }
@@ -20,6 +20,7 @@ package bisq.chat.pub;
 import bisq.chat.*;
 import bisq.chat.reactions.ChatMessageReaction;
 import bisq.chat.reactions.Reaction;
+import bisq.common.observable.collection.ObservableArray;
 import bisq.network.NetworkService;
 import bisq.network.identity.NetworkIdWithKeyPair;
 import bisq.network.p2p.services.data.BroadcastResult;
@@ -44,8 +45,9 @@ public abstract class PublicChatChannelService<M extends PublicChatMessage, C ex
 
     public PublicChatChannelService(NetworkService networkService,
                                     UserService userService,
-                                    ChatChannelDomain chatChannelDomain) {
-        super(networkService, userService, chatChannelDomain);
+                                    ChatChannelDomain chatChannelDomain,
+                                    ObservableArray<C> channels) {
+        super(networkService, userService, chatChannelDomain, channels);
     }
 
 
@@ -174,17 +176,13 @@ public abstract class PublicChatChannelService<M extends PublicChatMessage, C ex
 
     protected void processAddedReaction(R chatMessageReaction) {
         findChannel(chatMessageReaction.getChatChannelId())
-                .flatMap(channel -> channel.getChatMessages().stream()
-                        .filter(message -> message.getId().equals(chatMessageReaction.getChatMessageId()))
-                        .findFirst())
+                .flatMap(channel -> channel.findChatMessage(chatMessageReaction.getChatMessageId()))
                 .ifPresent(message -> addMessageReaction(chatMessageReaction, message));
     }
 
     protected void processRemovedReaction(R chatMessageReaction) {
         findChannel(chatMessageReaction.getChatChannelId())
-                .flatMap(channel -> channel.getChatMessages().stream()
-                        .filter(message -> message.getId().equals(chatMessageReaction.getChatMessageId()))
-                        .findFirst())
+                .flatMap(channel -> channel.findChatMessage(chatMessageReaction.getChatMessageId()))
                 .ifPresent(message -> removeMessageReaction(chatMessageReaction, message));
     }
 
@@ -46,7 +46,7 @@ import java.util.concurrent.CompletableFuture;
 public class TwoPartyPrivateChatChannelService extends PrivateChatChannelService<TwoPartyPrivateChatMessageReaction,
         TwoPartyPrivateChatMessage, TwoPartyPrivateChatChannel, TwoPartyPrivateChatChannelStore> {
     @Getter
-    private final TwoPartyPrivateChatChannelStore persistableStore = new TwoPartyPrivateChatChannelStore();
+    private final TwoPartyPrivateChatChannelStore persistableStore;
     @Getter
     private final Persistence<TwoPartyPrivateChatChannelStore> persistence;
 
@@ -54,7 +54,16 @@ public class TwoPartyPrivateChatChannelService extends PrivateChatChannelService
                                              NetworkService networkService,
                                              UserService userService,
                                              ChatChannelDomain chatChannelDomain) {
-        super(networkService, userService, chatChannelDomain);
+        this(persistenceService, networkService, userService, chatChannelDomain, new TwoPartyPrivateChatChannelStore());
+    }
+
+    private TwoPartyPrivateChatChannelService(PersistenceService persistenceService,
+                                              NetworkService networkService,
+                                              UserService userService,
+                                              ChatChannelDomain chatChannelDomain,
+                                              TwoPartyPrivateChatChannelStore persistableStore) {
+        super(networkService, userService, chatChannelDomain, persistableStore.getChannels());
+        this.persistableStore = persistableStore;
         String name = StringUtils.capitalize(StringUtils.snakeCaseToCamelCase(chatChannelDomain.name().toLowerCase()));
         persistence = persistenceService.getOrCreatePersistence(this,
                 DbSubDirectory.PRIVATE,
@@ -0,0 +1,112 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.chat;
+
+import bisq.chat.bisqeasy.offerbook.BisqEasyOfferbookChannel;
+import bisq.common.currency.Market;
+import bisq.common.observable.collection.ObservableArray;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ChatChannelRegistryTest {
+    private static final Market USD = new Market("BTC", "USD", "Bitcoin", "US Dollar");
+    private static final Market EUR = new Market("BTC", "EUR", "Bitcoin", "Euro");
+
+    private ObservableArray<BisqEasyOfferbookChannel> channels;
+    private ChatChannelRegistry<BisqEasyOfferbookChannel> registry;
+
+    @BeforeEach
+    public void setUp() {
+        channels = new ObservableArray<>();
+        registry = new ChatChannelRegistry<>();
+        channels.addObserver(registry);
+    }
+
+    @Test
+    void addAndRemove() {
+        BisqEasyOfferbookChannel usdChannel = new BisqEasyOfferbookChannel(USD);
+        BisqEasyOfferbookChannel eurChannel = new BisqEasyOfferbookChannel(EUR);
+        channels.add(usdChannel);
+        channels.add(eurChannel);
+
+        assertThat(registry.find(usdChannel.getId())).containsSame(usdChannel);
+        assertThat(registry.find(eurChannel.getId())).containsSame(eurChannel);
+        assertThat(registry.find("unknown")).isEmpty();
+
+        channels.remove(usdChannel);
+        assertThat(registry.find(usdChannel.getId())).isEmpty();
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    @Test
+    void replaceBySet() {
+        BisqEasyOfferbookChannel usdChannel = new BisqEasyOfferbookChannel(USD);
+        BisqEasyOfferbookChannel eurChannel = new BisqEasyOfferbookChannel(EUR);
+        channels.add(usdChannel);
+
+        channels.set(0, eurChannel);
+
+        assertThat(registry.find(usdChannel.getId())).isEmpty();
+        assertThat(registry.find(eurChannel.getId())).containsSame(eurChannel);
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    @Test
+    void replaceBySetWithSameId() {
+        BisqEasyOfferbookChannel usdChannel = new BisqEasyOfferbookChannel(USD);
+        BisqEasyOfferbookChannel replacement = new BisqEasyOfferbookChannel(USD);
+        channels.add(usdChannel);
+
+        channels.set(0, replacement);
+
+        assertThat(registry.find(usdChannel.getId())).containsSame(replacement);
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    @Test
+    void setAllAndClear() {
+        BisqEasyOfferbookChannel usdChannel = new BisqEasyOfferbookChannel(USD);
+        BisqEasyOfferbookChannel eurChannel = new BisqEasyOfferbookChannel(EUR);
+        channels.add(usdChannel);
+
+        // As done when the persisted store gets applied
+        channels.setAll(List.of(eurChannel));
+        assertThat(registry.find(usdChannel.getId())).isEmpty();
+        assertThat(registry.find(eurChannel.getId())).containsSame(eurChannel);
+
+        channels.clear();
+        assertThat(registry.find(eurChannel.getId())).isEmpty();
+        assertThat(registry.size()).isEqualTo(0);
+    }
+
+    @Test
+    void containsChannelsAddedBeforeObserving() {
+        ObservableArray<BisqEasyOfferbookChannel> existingChannels = new ObservableArray<>();
+        BisqEasyOfferbookChannel usdChannel = new BisqEasyOfferbookChannel(USD);
+        existingChannels.add(usdChannel);
+
+        ChatChannelRegistry<BisqEasyOfferbookChannel> lateRegistry = new ChatChannelRegistry<>();
+        existingChannels.addObserver(lateRegistry);
+
+        assertThat(lateRegistry.find(usdChannel.getId())).containsSame(usdChannel);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.chat;
+
+import bisq.chat.bisqeasy.offerbook.BisqEasyOfferbookChannel;
+import bisq.chat.bisqeasy.offerbook.BisqEasyOfferbookMessage;
+import bisq.common.currency.Market;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ChatChannelTest {
+    private static final String AUTHOR_1 = "a".repeat(40);
+    private static final String AUTHOR_2 = "b".repeat(40);
+
+    private BisqEasyOfferbookChannel channel;
+
+    @BeforeEach
+    public void setUp() {
+        channel = new BisqEasyOfferbookChannel(new Market("BTC", "USD", "Bitcoin", "US Dollar"));
+    }
+
+    @Test
+    void indexIsConsistentAfterRemove() {
+        long now = System.currentTimeMillis();
+        BisqEasyOfferbookMessage message1 = createMessage(AUTHOR_1, now - 3000);
+        BisqEasyOfferbookMessage message2 = createMessage(AUTHOR_1, now - 2000);
+        BisqEasyOfferbookMessage message3 = createMessage(AUTHOR_2, now - 1000);
+        assertThat(channel.addChatMessage(message1)).isTrue();
+        assertThat(channel.addChatMessage(message2)).isTrue();
+        assertThat(channel.addChatMessage(message3)).isTrue();
+        assertThat(channel.addChatMessage(message3)).isFalse();
+
+        assertThat(channel.findChatMessage(message2.getId())).hasValue(message2);
+        assertThat(channel.getChatMessagesByAuthor(AUTHOR_1)).containsExactlyInAnyOrder(message1, message2);
+        assertThat(channel.getChatMessagesByAuthor(AUTHOR_2)).containsExactly(message3);
+
+        assertThat(channel.removeChatMessage(message2)).isTrue();
+        assertThat(channel.removeChatMessage(message2)).isFalse();
+
+        assertThat(channel.getChatMessages()).containsExactlyInAnyOrder(message1, message3);
+        assertThat(channel.findChatMessage(message2.getId())).isEmpty();
+        assertThat(channel.getChatMessagesByAuthor(AUTHOR_1)).containsExactly(message1);
+        assertThat(channel.getChatMessagesByAuthor(AUTHOR_2)).containsExactly(message3);
+        assertThat(channel.findChatMessage(message1.getId())).hasValue(message1);
+        assertThat(channel.findChatMessage(message3.getId())).hasValue(message3);
+        assertThat(channel.getExpiredChatMessages()).isEmpty();
+    }
+
+    @Test
+    void removeLastMessageOfAuthor() {
+        BisqEasyOfferbookMessage message = createMessage(AUTHOR_2, System.currentTimeMillis());
+        channel.addChatMessage(message);
+        channel.getUserProfileIdsOfActiveParticipants().add(AUTHOR_2);
+
+        channel.removeChatMessage(message);
+
+        assertThat(channel.getChatMessagesByAuthor(AUTHOR_2)).isEmpty();
+        assertThat(channel.getUserProfileIdsOfActiveParticipants()).doesNotContain(AUTHOR_2);
+    }
+
+    @Test
+    void indexIsConsistentAfterRemovingExpiredMessages() {
+        // BisqEasyOfferbookMessage has a TTL of 10 days
+        long now = System.currentTimeMillis();
+        BisqEasyOfferbookMessage expired1 = createMessage(AUTHOR_1, now - TimeUnit.DAYS.toMillis(12));
+        BisqEasyOfferbookMessage expired2 = createMessage(AUTHOR_2, now - TimeUnit.DAYS.toMillis(11));
+        BisqEasyOfferbookMessage notExpired = createMessage(AUTHOR_1, now - TimeUnit.DAYS.toMillis(9));
+        channel.addChatMessage(expired1);
+        channel.addChatMessage(notExpired);
+        channel.addChatMessage(expired2);
+
+        assertThat(channel.getExpiredChatMessages()).containsExactly(expired1, expired2);
+        assertThat(channel.getExpiredChatMessages()).allMatch(ChatMessage::isExpired);
+
+        channel.removeChatMessages(channel.getExpiredChatMessages());
+
+        assertThat(channel.getExpiredChatMessages()).isEmpty();
+        assertThat(channel.getChatMessages()).containsExactly(notExpired);
+        assertThat(channel.findChatMessage(expired1.getId())).isEmpty();
+        assertThat(channel.findChatMessage(expired2.getId())).isEmpty();
+        assertThat(channel.getChatMessagesByAuthor(AUTHOR_1)).containsExactly(notExpired);
+        assertThat(channel.getChatMessagesByAuthor(AUTHOR_2)).isEmpty();
+        assertThat(channel.findChatMessage(notExpired.getId())).hasValue(notExpired);
+    }
+
+    private BisqEasyOfferbookMessage createMessage(String authorUserProfileId, long date) {
+        return new BisqEasyOfferbookMessage(channel.getId(),
+                authorUserProfileId,
+                Optional.empty(),
+                Optional.of("text"),
+                Optional.empty(),
+                date,
+                false);
+    }
+}
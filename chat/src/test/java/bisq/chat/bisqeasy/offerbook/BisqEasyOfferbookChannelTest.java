@@ -0,0 +1,126 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.chat.bisqeasy.offerbook;
+
+import bisq.common.currency.Market;
+import bisq.common.util.StringUtils;
+import bisq.offer.Direction;
+import bisq.offer.amount.spec.QuoteSideFixedAmountSpec;
+import bisq.offer.bisq_easy.BisqEasyOffer;
+import bisq.offer.price.spec.MarketPriceSpec;
+import bisq.security.keys.KeyGeneration;
+import bisq.security.keys.PubKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BisqEasyOfferbookChannelTest {
+    private static final String AUTHOR = "a".repeat(40);
+    private static final Market MARKET = new Market("BTC", "USD", "Bitcoin", "US Dollar");
+
+    private BisqEasyOfferbookChannel channel;
+
+    @BeforeEach
+    public void setUp() {
+        channel = new BisqEasyOfferbookChannel(MARKET);
+    }
+
+    @Test
+    void findMessageByOfferId() {
+        BisqEasyOffer offer = createOffer();
+        BisqEasyOfferbookMessage offerMessage = createMessage(Optional.of(offer));
+        BisqEasyOfferbookMessage textMessage = createMessage(Optional.empty());
+        channel.addChatMessage(offerMessage);
+        channel.addChatMessage(textMessage);
+
+        assertThat(channel.findMessageByOfferId(offer.getId())).hasValue(offerMessage);
+        assertThat(channel.findMessageByOfferId("unknownOfferId")).isEmpty();
+
+        // Messages without an offer do not affect the offer ID index
+        channel.removeChatMessage(textMessage);
+        assertThat(channel.findMessageByOfferId(offer.getId())).hasValue(offerMessage);
+
+        channel.removeChatMessage(offerMessage);
+        assertThat(channel.findMessageByOfferId(offer.getId())).isEmpty();
+    }
+
+    @Test
+    void removingNotAddedMessageDoesNotChangeOfferIdIndex() {
+        BisqEasyOffer offer = createOffer();
+        BisqEasyOfferbookMessage offerMessage = createMessage(Optional.of(offer));
+        channel.addChatMessage(offerMessage);
+
+        // Another message with the same offer, e.g. a message which was not added to that channel
+        BisqEasyOfferbookMessage otherMessage = createMessage(Optional.of(offer));
+        assertThat(channel.removeChatMessage(otherMessage)).isFalse();
+
+        assertThat(channel.findMessageByOfferId(offer.getId())).hasValue(offerMessage);
+    }
+
+    @Test
+    void findMessageByOfferIdAfterExpiredMessagesGotRemoved() {
+        BisqEasyOffer expiredOffer = createOffer();
+        // BisqEasyOfferbookMessage has a TTL of 10 days
+        long expiredDate = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(11);
+        BisqEasyOfferbookMessage expiredMessage = createMessage(Optional.of(expiredOffer), expiredDate);
+        BisqEasyOffer offer = createOffer();
+        BisqEasyOfferbookMessage offerMessage = createMessage(Optional.of(offer));
+        channel.addChatMessage(expiredMessage);
+        channel.addChatMessage(offerMessage);
+
+        channel.removeChatMessages(channel.getExpiredChatMessages());
+
+        assertThat(channel.findMessageByOfferId(expiredOffer.getId())).isEmpty();
+        assertThat(channel.findMessageByOfferId(offer.getId())).hasValue(offerMessage);
+    }
+
+    private BisqEasyOfferbookMessage createMessage(Optional<BisqEasyOffer> offer) {
+        return createMessage(offer, System.currentTimeMillis());
+    }
+
+    private BisqEasyOfferbookMessage createMessage(Optional<BisqEasyOffer> offer, long date) {
+        return new BisqEasyOfferbookMessage(channel.getId(),
+                AUTHOR,
+                offer,
+                Optional.of("text"),
+                Optional.empty(),
+                date,
+                false);
+    }
+
+    // We create the offer from its protobuf representation as the constructor requires the payment method types,
+    // which are not available in the chat module
+    private static BisqEasyOffer createOffer() {
+        PubKey pubKey = new PubKey(KeyGeneration.generateKeyPair().getPublic(), "keyId");
+        return BisqEasyOffer.fromProto(bisq.offer.protobuf.Offer.newBuilder()
+                .setId(StringUtils.createUid())
+                .setDate(System.currentTimeMillis())
+                .setMakerNetworkId(bisq.network.identity.protobuf.NetworkId.newBuilder()
+                        .setPubKey(pubKey.toProto(false)))
+                .setDirection(Direction.SELL.toProtoEnum())
+                .setMarket(MARKET.toProto(false))
+                .setAmountSpec(new QuoteSideFixedAmountSpec(1_000_000).toProto(false))
+                .setPriceSpec(new MarketPriceSpec().toProto(false))
+                .setBisqEasyOffer(bisq.offer.protobuf.BisqEasyOffer.newBuilder().addSupportedLanguageCodes("en"))
+                .build());
+    }
+}
@@ -62,7 +62,10 @@ public class ObservableArray<S> extends ObservableCollection<S> implements List<
     @Override
     public S set(int index, S element) {
         S previous = getList().set(index, element);
-        observers.forEach(observer -> observer.add(element));
+        observers.forEach(observer -> {
+            observer.remove(previous);
+            observer.add(element);
+        });
         return previous;
     }
 
@@ -24,6 +24,7 @@ import org.jetbrains.annotations.NotNull;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -147,6 +148,11 @@ public abstract class ObservableCollection<S> implements Collection<S> {
         return collection.iterator();
     }
 
+    @Override
+    public Spliterator<S> spliterator() {
+        return collection.spliterator();
+    }
+
     @Override
     public Object[] toArray() {
         return collection.toArray();
@@ -18,11 +18,17 @@
 package bisq.common.observable.collection;
 
 import lombok.EqualsAndHashCode;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
 
+/**
+ * Backed by a SnapshotHashSet, so contains, add and remove are O(1) and iteration operates on a snapshot.
+ * Bulk changes are applied under a single lock and observers get notified once with only the elements which
+ * actually got added or removed.
+ */
 @EqualsAndHashCode(callSuper = true)
 public class ObservableSet<S> extends ObservableCollection<S> implements Set<S> {
     public ObservableSet() {
@@ -35,10 +41,40 @@ public class ObservableSet<S> extends ObservableCollection<S> implements Set<S>
 
     @Override
     protected Collection<S> createCollection() {
-        return new CopyOnWriteArraySet<>();
+        return new SnapshotHashSet<>();
+    }
+
+    @Override
+    public boolean addAll(@NotNull Collection<? extends S> values) {
+        List<S> added = getSnapshotHashSet().addAllAbsent(values);
+        if (added.isEmpty()) {
+            return false;
+        }
+        observers.forEach(observer -> observer.addAll(added));
+        return true;
+    }
+
+    @Override
+    public void setAll(@NotNull Collection<? extends S> values) {
+        getSnapshotHashSet().setAll(values);
+        observers.forEach(observer -> observer.setAll(values));
+    }
+
+    @Override
+    public boolean removeAll(@NotNull Collection<?> values) {
+        List<Object> removed = getSnapshotHashSet().removeAllPresent(values);
+        if (removed.isEmpty()) {
+            return false;
+        }
+        observers.forEach(observer -> observer.removeAll(removed));
+        return true;
     }
 
     public Set<S> getSet() {
         return (Set<S>) collection;
     }
+
+    private SnapshotHashSet<S> getSnapshotHashSet() {
+        return (SnapshotHashSet<S>) collection;
+    }
 }
\ No newline at end of file
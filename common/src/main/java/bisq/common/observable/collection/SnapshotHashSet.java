@@ -0,0 +1,277 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.observable.collection;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread safe set with hash based lookup, preserving insertion order (same as CopyOnWriteArraySet).
+ * Iterators operate on an immutable snapshot, so observers can iterate while other threads mutate the set.
+ * Other than with CopyOnWriteArraySet, mutations do not copy the backing array. The snapshot is created lazily
+ * at the first iteration after a mutation and reused until the next mutation.
+ */
+final class SnapshotHashSet<E> extends AbstractSet<E> {
+    private final LinkedHashSet<E> set = new LinkedHashSet<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Null if set got mutated since the last snapshot was created
+    private volatile Object[] snapshot;
+
+    SnapshotHashSet() {
+    }
+
+    @Override
+    public boolean add(E element) {
+        lock.writeLock().lock();
+        try {
+            boolean changed = set.add(element);
+            if (changed) {
+                snapshot = null;
+            }
+            return changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean addAll(@NotNull Collection<? extends E> values) {
+        return !addAllAbsent(values).isEmpty();
+    }
+
+    /**
+     * Adds all values under a single lock.
+     *
+     * @return The values which have not been in the set before, in iteration order of the given values.
+     */
+    List<E> addAllAbsent(Collection<? extends E> values) {
+        List<E> added = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            for (E value : values) {
+                if (set.add(value)) {
+                    added.add(value);
+                }
+            }
+            if (!added.isEmpty()) {
+                snapshot = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return added;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        lock.writeLock().lock();
+        try {
+            boolean changed = set.remove(element);
+            if (changed) {
+                snapshot = null;
+            }
+            return changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean removeAll(@NotNull Collection<?> values) {
+        return !removeAllPresent(values).isEmpty();
+    }
+
+    /**
+     * Removes all values under a single lock.
+     *
+     * @return The values which have been in the set.
+     */
+    List<Object> removeAllPresent(Collection<?> values) {
+        List<Object> removed = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            for (Object value : values) {
+                if (set.remove(value)) {
+                    removed.add(value);
+                }
+            }
+            if (!removed.isEmpty()) {
+                snapshot = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean retainAll(@NotNull Collection<?> values) {
+        lock.writeLock().lock();
+        try {
+            boolean changed = set.retainAll(values);
+            if (changed) {
+                snapshot = null;
+            }
+            return changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the content under a single lock, so readers never see an empty set in between.
+     */
+    void setAll(Collection<? extends E> values) {
+        lock.writeLock().lock();
+        try {
+            set.clear();
+            set.addAll(values);
+            snapshot = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            set.clear();
+            snapshot = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        lock.readLock().lock();
+        try {
+            return set.contains(element);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsAll(@NotNull Collection<?> values) {
+        lock.readLock().lock();
+        try {
+            return set.containsAll(values);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return set.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @NotNull
+    @Override
+    public Iterator<E> iterator() {
+        return new SnapshotIterator(getSnapshot());
+    }
+
+    /**
+     * The default spliterator would take the size from the set but iterate the snapshot, which fails if the set got
+     * mutated in between.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliterator(getSnapshot(), Spliterator.DISTINCT | Spliterator.ORDERED);
+    }
+
+    @NotNull
+    @Override
+    public Object[] toArray() {
+        return getSnapshot().clone();
+    }
+
+    private Object[] getSnapshot() {
+        Object[] current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        lock.readLock().lock();
+        try {
+            // Concurrent readers might create the same snapshot twice, which is harmless
+            current = set.toArray();
+            snapshot = current;
+            return current;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private class SnapshotIterator implements Iterator<E> {
+        private final Object[] elements;
+        private int cursor;
+        private int lastReturned = -1;
+
+        private SnapshotIterator(Object[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < elements.length;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = cursor;
+            //noinspection unchecked
+            return (E) elements[cursor++];
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            SnapshotHashSet.this.remove(elements[lastReturned]);
+            lastReturned = -1;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.proto;
+
+import bisq.common.annotation.ExcludeForHash;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Caches the ExcludeForHash annotated fields per class, so that we do not need to use reflection at each
+ * serializeForHash call.
+ */
+final class ExcludedFieldsCache {
+    private static final class ExcludedField {
+        private final String name;
+        private final int[] excludeOnlyInVersions;
+
+        private ExcludedField(String name, int[] excludeOnlyInVersions) {
+            this.name = name;
+            this.excludeOnlyInVersions = excludeOnlyInVersions;
+        }
+
+        private boolean isExcludedInVersion(int version) {
+            return excludeOnlyInVersions.length == 0 ||
+                    Arrays.stream(excludeOnlyInVersions).anyMatch(excludedVersion -> excludedVersion == version);
+        }
+    }
+
+    private static final class ExcludedFields {
+        private final List<ExcludedField> fields;
+        // Used if no field is restricted to specific versions, which is the common case
+        private final Set<String> namesIfVersionIndependent;
+
+        private ExcludedFields(List<ExcludedField> fields) {
+            this.fields = fields;
+            boolean isVersionIndependent = fields.stream().allMatch(field -> field.excludeOnlyInVersions.length == 0);
+            namesIfVersionIndependent = isVersionIndependent
+                    ? fields.stream().map(field -> field.name).collect(Collectors.toUnmodifiableSet())
+                    : null;
+        }
+    }
+
+    private static final ClassValue<ExcludedFields> EXCLUDED_FIELDS_BY_CLASS = new ClassValue<>() {
+        @Override
+        protected ExcludedFields computeValue(Class<?> type) {
+            List<ExcludedField> fields = new ArrayList<>();
+            for (Field field : type.getDeclaredFields()) {
+                ExcludeForHash annotation = field.getAnnotation(ExcludeForHash.class);
+                if (annotation != null) {
+                    fields.add(new ExcludedField(field.getName(), annotation.excludeOnlyInVersions()));
+                }
+            }
+            return new ExcludedFields(fields);
+        }
+    };
+
+    private ExcludedFieldsCache() {
+    }
+
+    static Set<String> getExcludedFields(Class<?> type, int version) {
+        ExcludedFields excludedFields = EXCLUDED_FIELDS_BY_CLASS.get(type);
+        if (excludedFields.namesIfVersionIndependent != null) {
+            return excludedFields.namesIfVersionIndependent;
+        }
+        return excludedFields.fields.stream()
+                .filter(field -> field.isExcludedInVersion(version))
+                .map(field -> field.name)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
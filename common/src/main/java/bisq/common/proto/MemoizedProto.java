@@ -0,0 +1,59 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.proto;
+
+import com.google.protobuf.Message;
+
+/**
+ * Opt-in for Proto implementations which memoize their protobuf representation, the serialized bytes and the bytes
+ * used for hashing. Useful for data which is serialized repeatedly, like data requests which are hashed, signed,
+ * sent to many peers and counted for the network load.
+ * <p>
+ * Only classes which are deeply immutable (including all nested Proto fields) must implement it, as changes after
+ * the first serialization would not be reflected. The returned byte arrays are shared and must not be modified.
+ * <p>
+ * Implementations hold the cache as transient field, so that it is excluded from Lombok's equals and hashCode:
+ * <pre>
+ * &#64;Getter
+ * private final transient SerializationCache serializationCache = new SerializationCache();
+ * </pre>
+ */
+public interface MemoizedProto extends Proto {
+    SerializationCache getSerializationCache();
+
+    @Override
+    default <T extends Message> T resolveProto(boolean serializeForHash) {
+        return getSerializationCache().getProto(this, serializeForHash);
+    }
+
+    @Override
+    default byte[] serialize() {
+        return getSerializationCache().getSerialized(this);
+    }
+
+    @Override
+    default byte[] serializeForHash() {
+        return getSerializationCache().getSerializedForHash(this);
+    }
+
+    @Override
+    default int getSerializedSize() {
+        // Protobuf memoizes the size in the message instance
+        return resolveProto(false).getSerializedSize();
+    }
+}
@@ -17,7 +17,6 @@
 
 package bisq.common.proto;
 
-import bisq.common.annotation.ExcludeForHash;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.Message;
 import org.slf4j.Logger;
@@ -25,10 +24,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.lang.reflect.Field;
-import java.util.Arrays;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Interface for any object which gets serialized using protobuf.
@@ -75,16 +71,7 @@ public interface Proto {
     }
 
     default Set<String> getExcludedFields() {
-        return Arrays.stream(getClass().getDeclaredFields())
-                .peek(field -> field.setAccessible(true))
-                .filter(field -> field.isAnnotationPresent(ExcludeForHash.class))
-                .filter(field -> {
-                    int[] excludeOnlyInVersions = field.getAnnotation(ExcludeForHash.class).excludeOnlyInVersions();
-                    return excludeOnlyInVersions.length == 0 ||
-                            Arrays.stream(excludeOnlyInVersions).boxed().anyMatch(version -> version == getVersion());
-                })
-                .map(Field::getName)
-                .collect(Collectors.toSet());
+        return ExcludedFieldsCache.getExcludedFields(getClass(), getVersion());
     }
 
     default int getVersion() {
@@ -99,11 +86,14 @@ public interface Proto {
      */
     default <B extends Message.Builder> B clearAnnotatedFields(B builder) {
         Set<String> excludedFields = getExcludedFields();
-        if (!excludedFields.isEmpty()) {
-            getLogger().debug("Clear fields in builder annotated with @ExcludeForHash: {}", excludedFields);
+        if (excludedFields.isEmpty()) {
+            return builder;
         }
-        for (Descriptors.FieldDescriptor fieldDesc : builder.getAllFields().keySet()) {
-            if (excludedFields.contains(fieldDesc.getName())) {
+        getLogger().debug("Clear fields in builder annotated with @ExcludeForHash: {}", excludedFields);
+        Descriptors.Descriptor descriptor = builder.getDescriptorForType();
+        for (String excludedField : excludedFields) {
+            Descriptors.FieldDescriptor fieldDesc = descriptor.findFieldByName(excludedField);
+            if (fieldDesc != null) {
                 builder.clearField(fieldDesc);
             }
         }
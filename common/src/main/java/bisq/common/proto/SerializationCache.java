@@ -0,0 +1,74 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.proto;
+
+import com.google.protobuf.Message;
+
+/**
+ * Holds the memoized serialization results of a {@link MemoizedProto}.
+ * <p>
+ * Values are computed lazily. Concurrent first calls might compute a value more than once, which is harmless as
+ * the serialization is deterministic.
+ * We do not keep the protobuf instance for hashing, only its bytes, to limit the memory overhead.
+ */
+public final class SerializationCache {
+    private volatile Message proto;
+    private volatile byte[] serialized;
+    private volatile byte[] serializedForHash;
+
+    <T extends Message> T getProto(Proto source, boolean serializeForHash) {
+        if (serializeForHash) {
+            //noinspection unchecked
+            return (T) build(source, true);
+        }
+        Message result = proto;
+        if (result == null) {
+            result = build(source, false);
+            proto = result;
+        }
+        //noinspection unchecked
+        return (T) result;
+    }
+
+    byte[] getSerialized(Proto source) {
+        byte[] result = serialized;
+        if (result == null) {
+            result = getProto(source, false).toByteArray();
+            serialized = result;
+        }
+        return result;
+    }
+
+    byte[] getSerializedForHash(Proto source) {
+        byte[] result = serializedForHash;
+        if (result == null) {
+            result = getProto(source, true).toByteArray();
+            serializedForHash = result;
+        }
+        return result;
+    }
+
+    private static Message build(Proto source, boolean serializeForHash) {
+        return source.resolveBuilder(source.getBuilder(serializeForHash), serializeForHash).build();
+    }
+
+    @Override
+    public String toString() {
+        return "SerializationCache";
+    }
+}
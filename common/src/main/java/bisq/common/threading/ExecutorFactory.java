@@ -42,18 +42,12 @@ public class ExecutorFactory {
     }
 
     public static ExecutorService newSingleThreadExecutor(String name) {
-        ThreadFactory threadFactory = new ThreadFactoryBuilder()
-                .setNameFormat(getNameWithThreadNum(name))
-                .setDaemon(true)
-                .build();
+        ThreadFactory threadFactory = createThreadFactory(name, true);
         return Executors.newSingleThreadExecutor(threadFactory);
     }
 
     public static ScheduledExecutorService newSingleThreadScheduledExecutor(String name) {
-        ThreadFactory threadFactory = new ThreadFactoryBuilder()
-                .setNameFormat(getNameWithThreadNum(name))
-                .setDaemon(true)
-                .build();
+        ThreadFactory threadFactory = createThreadFactory(name, true);
         return Executors.newSingleThreadScheduledExecutor(threadFactory);
     }
 
@@ -62,10 +56,7 @@ public class ExecutorFactory {
      * To be used when we want to avoid overhead for new thread creation/destruction and no queuing functionality.
      */
     public static ExecutorService newCachedThreadPool(String name) {
-        ThreadFactory threadFactory = new ThreadFactoryBuilder()
-                .setNameFormat(getNameWithThreadNum(name))
-                .setDaemon(true)
-                .build();
+        ThreadFactory threadFactory = createThreadFactory(name, true);
         ExecutorService executorService = Executors.newCachedThreadPool(threadFactory);
         ((ThreadPoolExecutor) executorService).setKeepAliveTime(5, TimeUnit.SECONDS);
         ((ThreadPoolExecutor) executorService).setMaximumPoolSize(1000);
@@ -77,9 +68,7 @@ public class ExecutorFactory {
     }
 
     public static ExecutorService newCachedThreadPool(String name, int corePoolSize, int maxPoolSize, long keepAliveInSeconds) {
-        ThreadFactory threadFactory = new ThreadFactoryBuilder()
-                .setNameFormat(getNameWithThreadNum(name))
-                .build();
+        ThreadFactory threadFactory = createThreadFactory(name, false);
         ExecutorService executorService = Executors.newCachedThreadPool(threadFactory);
         ((ThreadPoolExecutor) executorService).setKeepAliveTime(keepAliveInSeconds, TimeUnit.SECONDS);
         ((ThreadPoolExecutor) executorService).setCorePoolSize(corePoolSize);
@@ -95,10 +84,9 @@ public class ExecutorFactory {
     }
 
     public static ExecutorService newFixedThreadPool(String name, int numThreads) {
-        ThreadFactory threadFactory = new ThreadFactoryBuilder()
-                .setNameFormat(getNameWithThreadNum(name))
-                .setDaemon(true)
-                .build();
+        // In VirtualThreadMode we keep the fixed number of threads, so the pool still limits parallelism for CPU
+        // heavy tasks, but blocking tasks do not pin a platform thread.
+        ThreadFactory threadFactory = createThreadFactory(name, true);
         return Executors.newFixedThreadPool(numThreads, threadFactory);
     }
 
@@ -114,15 +102,32 @@ public class ExecutorFactory {
                                                            int maximumPoolSize,
                                                            long keepAliveTimeInSec,
                                                            BlockingQueue<Runnable> workQueue) {
-        ThreadFactory threadFactory = new ThreadFactoryBuilder()
-                .setNameFormat(getNameWithThreadNum(name))
-                .setDaemon(true)
-                .build();
+        ThreadFactory threadFactory = createThreadFactory(name, true);
 
         return new ThreadPoolExecutor(corePoolSize, maximumPoolSize, keepAliveTimeInSec,
                 TimeUnit.MILLISECONDS, workQueue, threadFactory);
     }
 
+    // The thread type is decided when a thread gets created, not when the executor gets created. Static executors
+    // (e.g. WORKER_POOL) are created at class loading, which can happen before the VirtualThreadMode got set, but
+    // their threads are only created at the first submitted task.
+    private static ThreadFactory createThreadFactory(String name, boolean isDaemon) {
+        ThreadFactoryBuilder platformThreadFactoryBuilder = new ThreadFactoryBuilder()
+                .setNameFormat(getNameWithThreadNum(name));
+        if (isDaemon) {
+            platformThreadFactoryBuilder.setDaemon(true);
+        }
+        ThreadFactory platformThreadFactory = platformThreadFactoryBuilder.build();
+        // Virtual threads are always daemon threads
+        ThreadFactory virtualThreadFactory = new ThreadFactoryBuilder()
+                .setNameFormat(getNameWithThreadNum(name))
+                .setThreadFactory(Thread.ofVirtual().factory())
+                .build();
+        return runnable -> VirtualThreadMode.applyMode() ?
+                virtualThreadFactory.newThread(runnable) :
+                platformThreadFactory.newThread(runnable);
+    }
+
     private static String getNameWithThreadNum(String name) {
         return name + "-%d";
     }
@@ -0,0 +1,57 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.threading;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * If enabled, the ExecutorFactory backs all executors with virtual threads. Blocking calls (socket IO, throttle
+ * pauses) then only park a cheap virtual thread instead of occupying a platform thread.
+ * The mode is applied when the first executor thread gets created. Changing it afterwards is ignored, as we would
+ * end up with a mix of thread types.
+ */
+@Slf4j
+public class VirtualThreadMode {
+    private static boolean isEnabled;
+    private static boolean isApplied;
+
+    public static synchronized void setEnabled(boolean enabled) {
+        if (isApplied && enabled != isEnabled) {
+            log.warn("Executor threads have been created already with VirtualThreadMode enabled={}. " +
+                    "We ignore the change to enabled={}.", isEnabled, enabled);
+            return;
+        }
+        isEnabled = enabled;
+    }
+
+    public static synchronized boolean isEnabled() {
+        return isEnabled;
+    }
+
+    static synchronized boolean applyMode() {
+        isApplied = true;
+        return isEnabled;
+    }
+
+    @VisibleForTesting
+    static synchronized void reset() {
+        isEnabled = false;
+        isApplied = false;
+    }
+}
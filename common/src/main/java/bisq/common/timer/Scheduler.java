@@ -22,25 +22,40 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Optional;
-import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * All Scheduler instances share one timer thread which is only used for timing. When a task is due it gets executed
+ * on a shared cached thread pool, so a long-running task does not delay the tasks of other schedulers (this was the
+ * reason why we used a dedicated executor per instance before). A repeated task gets re-scheduled only after its
+ * execution has completed, so the executions of one Scheduler never overlap (same as with scheduleWithFixedDelay).
+ * Calling one of the scheduling methods again replaces the previous schedule, so there is always only one pending
+ * timer entry which gets cancelled by stop().
+ */
 @Slf4j
 public class Scheduler implements TaskScheduler {
-    // We do not use a ScheduledThreadPoolExecutor as the queue cannot be customized. It would cause undesired behaviour 
-    // in case we would use a static executor for all Scheduler instances and multiple schedule calls would get 
-    // queued up instead of starting a new scheduler.
-    private final ScheduledExecutorService executor;
+    private static final ScheduledExecutorService TIMER = ExecutorFactory.newSingleThreadScheduledExecutor("Scheduler-timer");
+    private static final ExecutorService EXECUTOR = ExecutorFactory.newCachedThreadPool("Scheduler");
+
     private final Runnable task;
     private volatile boolean stopped;
+    private final AtomicBoolean isActive = new AtomicBoolean();
+    private volatile Optional<ScheduledFuture<?>> future = Optional.empty();
+    // Incremented at each call of repeated. Executions of a replaced schedule do not re-schedule themselves.
+    private volatile long generation;
+    // An execution of a replaced schedule might still be running when the new schedule is due
+    private final Object executionLock = new Object();
     @Getter
-    private long counter;
+    private volatile long counter;
     private Optional<String> threadName = Optional.empty();
 
     private Scheduler(Runnable task) {
         this.task = task;
-        executor = ExecutorFactory.newSingleThreadScheduledExecutor("Scheduler-" + new Random().nextInt(1000));
     }
 
     public static Scheduler run(Runnable task) {
@@ -89,43 +104,88 @@ public class Scheduler implements TaskScheduler {
 
     @Override
     public Scheduler repeated(long initialDelay, long delay, TimeUnit timeUnit, long cycles) {
-        if (stopped) {
-            return this;
-        }
-        if (cycles == 1) {
-            executor.schedule(() -> {
-                if (stopped) {
-                    return;
-                }
-                threadName.ifPresent(name -> Thread.currentThread().setName(name));
-                try {
-                    task.run();
-                } finally {
-                    stop();
-                }
-            }, delay, timeUnit);
-        } else {
-            executor.scheduleWithFixedDelay(() -> {
-                if (stopped) {
-                    return;
-                }
-                threadName.ifPresent(name -> Thread.currentThread().setName(name));
-                try {
-                    task.run();
-                } finally {
-                    counter++;
-                    if (counter >= cycles) {
-                        stop();
-                    }
-                }
-            }, initialDelay, delay, timeUnit);
+        synchronized (this) {
+            if (stopped) {
+                return this;
+            }
+            if (isActive.compareAndSet(false, true)) {
+                SchedulerMetrics.onTaskScheduled();
+            }
+            future.ifPresent(scheduledFuture -> scheduledFuture.cancel(false));
+            generation++;
+            schedule(generation, timeUnit.toNanos(initialDelay), timeUnit.toNanos(delay), cycles);
         }
         return this;
     }
 
     @Override
     public void stop() {
-        stopped = true;
-        ExecutorFactory.shutdownAndAwaitTermination(executor);
+        synchronized (this) {
+            stopped = true;
+            future.ifPresent(scheduledFuture -> scheduledFuture.cancel(false));
+            future = Optional.empty();
+        }
+        if (isActive.compareAndSet(true, false)) {
+            SchedulerMetrics.onTaskStopped();
+        }
+    }
+
+    private synchronized void schedule(long scheduleGeneration, long delayNanos, long periodNanos, long cycles) {
+        if (stopped || scheduleGeneration != generation) {
+            return;
+        }
+        long dueTime = System.nanoTime() + delayNanos;
+        try {
+            future = Optional.of(TIMER.schedule(() -> dispatch(scheduleGeneration, dueTime, periodNanos, cycles),
+                    delayNanos,
+                    TimeUnit.NANOSECONDS));
+        } catch (RejectedExecutionException e) {
+            // Only happens if the timer got shut down at application shutdown
+            log.warn("Timer rejected scheduled task. The Scheduler gets stopped.", e);
+            stop();
+        }
+    }
+
+    private void dispatch(long scheduleGeneration, long dueTime, long periodNanos, long cycles) {
+        try {
+            EXECUTOR.execute(() -> execute(scheduleGeneration, dueTime, periodNanos, cycles));
+        } catch (RejectedExecutionException e) {
+            // We skip that execution but keep the schedule, otherwise a periodic task would silently stop forever
+            log.error("Executor rejected scheduled task. We skip that execution and try again after {} ms.",
+                    TimeUnit.NANOSECONDS.toMillis(periodNanos), e);
+            schedule(scheduleGeneration, periodNanos, periodNanos, cycles);
+        }
+    }
+
+    private void execute(long scheduleGeneration, long dueTime, long periodNanos, long cycles) {
+        synchronized (executionLock) {
+            if (stopped || scheduleGeneration != generation) {
+                return;
+            }
+            SchedulerMetrics.onTaskExecuted(System.nanoTime() - dueTime);
+
+            // Threads are shared, so we restore the name after execution
+            Thread thread = Thread.currentThread();
+            String previousThreadName = thread.getName();
+            threadName.ifPresent(thread::setName);
+            boolean failed = false;
+            try {
+                task.run();
+            } catch (Throwable throwable) {
+                // As with scheduleWithFixedDelay, an exception suppresses subsequent executions
+                log.error("Scheduled task failed. Further executions are suppressed.", throwable);
+                failed = true;
+            } finally {
+                thread.setName(previousThreadName);
+                counter++;
+                if (failed || counter >= cycles) {
+                    if (scheduleGeneration == generation) {
+                        stop();
+                    }
+                } else {
+                    schedule(scheduleGeneration, periodNanos, periodNanos, cycles);
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,75 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Metrics of all Scheduler instances. The lag is the time between the due time of a task and the start of its
+ * execution. A growing lag indicates that the shared Scheduler threads are saturated.
+ */
+public class SchedulerMetrics {
+    private static final AtomicInteger numScheduledTasks = new AtomicInteger();
+    private static final AtomicLong numExecutions = new AtomicLong();
+    private static final AtomicLong totalLagNanos = new AtomicLong();
+    private static final LongAccumulator maxLagNanos = new LongAccumulator(Math::max, 0);
+
+    static void onTaskScheduled() {
+        numScheduledTasks.incrementAndGet();
+    }
+
+    static void onTaskStopped() {
+        numScheduledTasks.decrementAndGet();
+    }
+
+    static void onTaskExecuted(long lagNanos) {
+        numExecutions.incrementAndGet();
+        totalLagNanos.addAndGet(lagNanos);
+        maxLagNanos.accumulate(lagNanos);
+    }
+
+    /**
+     * @return Number of schedulers which have been started and are not stopped yet.
+     */
+    public static int getNumScheduledTasks() {
+        return numScheduledTasks.get();
+    }
+
+    public static long getNumExecutions() {
+        return numExecutions.get();
+    }
+
+    public static long getAverageLagMs() {
+        long numExecutions = getNumExecutions();
+        return numExecutions == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLagNanos.get() / numExecutions);
+    }
+
+    public static long getMaxLagMs() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLagNanos.get());
+    }
+
+    public static String getSummary() {
+        return "numScheduledTasks=" + getNumScheduledTasks() +
+                ", numExecutions=" + getNumExecutions() +
+                ", averageLagMs=" + getAverageLagMs() +
+                ", maxLagMs=" + getMaxLagMs();
+    }
+}
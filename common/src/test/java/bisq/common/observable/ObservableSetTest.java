@@ -0,0 +1,179 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.observable;
+
+import bisq.common.observable.collection.CollectionObserver;
+import bisq.common.observable.collection.ObservableSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ObservableSetTest {
+    @Test
+    public void testIterationOnSnapshot() {
+        ObservableSet<Integer> set = new ObservableSet<>(List.of(1, 2, 3));
+        Iterator<Integer> iterator = set.iterator();
+        set.add(4);
+        set.remove(1);
+
+        List<Integer> iterated = new ArrayList<>();
+        iterator.forEachRemaining(iterated::add);
+        assertThat(iterated).containsExactly(1, 2, 3);
+        assertThat(set).containsExactly(2, 3, 4);
+    }
+
+    @Test
+    public void testBatchedNotifications() {
+        ObservableSet<Integer> set = new ObservableSet<>(List.of(1, 2));
+        List<Collection<? extends Integer>> addedBatches = new ArrayList<>();
+        List<Collection<?>> removedBatches = new ArrayList<>();
+        set.addObserver(new CollectionObserver<>() {
+            @Override
+            public void add(Integer element) {
+                addedBatches.add(List.of(element));
+            }
+
+            @Override
+            public void addAll(Collection<? extends Integer> values) {
+                addedBatches.add(values);
+            }
+
+            @Override
+            public void remove(Object element) {
+                removedBatches.add(List.of(element));
+            }
+
+            @Override
+            public void removeAll(Collection<?> values) {
+                removedBatches.add(values);
+            }
+
+            @Override
+            public void clear() {
+            }
+        });
+        addedBatches.clear();
+
+        assertThat(set.addAll(List.of(2, 3, 4))).isTrue();
+        assertThat(set.addAll(List.of(3, 4))).isFalse();
+        assertThat(addedBatches).containsExactly(List.of(3, 4));
+
+        assertThat(set.removeAll(List.of(1, 5))).isTrue();
+        assertThat(set.removeAll(List.of(5))).isFalse();
+        assertThat(removedBatches).containsExactly(List.of(1));
+        assertThat(set).containsExactly(2, 3, 4);
+    }
+
+    @Test
+    public void testInsertionOrderAndDeduplication() {
+        ObservableSet<String> set = new ObservableSet<>();
+        assertThat(set.add("c")).isTrue();
+        assertThat(set.add("a")).isTrue();
+        assertThat(set.add("c")).isFalse();
+        assertThat(set.add("b")).isTrue();
+        assertThat(set).containsExactly("c", "a", "b");
+        assertThat(set.contains("a")).isTrue();
+        assertThat(set.contains("d")).isFalse();
+
+        assertThat(set.remove("a")).isTrue();
+        assertThat(set.remove("a")).isFalse();
+        assertThat(set.add("a")).isTrue();
+        assertThat(set).containsExactly("c", "b", "a");
+        assertThat(set.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void testSnapshotGetsRenewedAfterMutation() {
+        ObservableSet<Integer> set = new ObservableSet<>(List.of(1, 2));
+        assertThat(set.stream().toList()).containsExactly(1, 2);
+        assertThat(set.stream().toList()).containsExactly(1, 2);
+
+        set.add(3);
+        assertThat(set.stream().toList()).containsExactly(1, 2, 3);
+
+        set.setAll(List.of(5, 4));
+        assertThat(set.stream().toList()).containsExactly(5, 4);
+        assertThat(set.toArray()).containsExactly(5, 4);
+
+        set.clear();
+        assertThat(set.stream().toList()).isEmpty();
+        assertThat(set.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        ObservableSet<Integer> set = new ObservableSet<>(List.of(1, 2, 3));
+        Iterator<Integer> iterator = set.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() % 2 == 1) {
+                iterator.remove();
+            }
+        }
+        assertThat(set).containsExactly(2);
+    }
+
+    @Test
+    public void testConcurrentAddAndIterate() throws Exception {
+        ObservableSet<Integer> set = new ObservableSet<>();
+        int numThreads = 4;
+        int numElementsPerThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < numThreads; i++) {
+                int offset = i * numElementsPerThread;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    // Overlapping ranges, so threads add the same elements concurrently
+                    IntStream.range(offset, offset + 2 * numElementsPerThread).forEach(set::add);
+                    return null;
+                }));
+            }
+            Future<?> reader = executor.submit(() -> {
+                start.await();
+                while (set.size() < (numThreads + 1) * numElementsPerThread) {
+                    // Iteration must never fail and never contain duplicates
+                    List<Integer> snapshot = set.stream().toList();
+                    assertThat(snapshot).doesNotHaveDuplicates();
+                }
+                return null;
+            });
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            reader.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(set.size()).isEqualTo((numThreads + 1) * numElementsPerThread);
+        assertThat(set.stream().distinct().count()).isEqualTo(set.size());
+    }
+}
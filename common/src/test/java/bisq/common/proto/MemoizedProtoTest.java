@@ -0,0 +1,61 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.proto;
+
+import bisq.common.proto.mocks.ChildMock;
+import bisq.common.proto.mocks.MemoizedParentMockWithExcludedValue;
+import bisq.common.proto.mocks.ParentMockWithExcludedValue;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class MemoizedProtoTest {
+    @Test
+    public void testSameResultAsNotMemoized() {
+        ParentMockWithExcludedValue parent = new ParentMockWithExcludedValue("parentValue", new ChildMock("childValue"));
+        MemoizedParentMockWithExcludedValue memoizedParent = new MemoizedParentMockWithExcludedValue("parentValue", new ChildMock("childValue"));
+
+        assertArrayEquals(parent.serialize(), memoizedParent.serialize());
+        assertArrayEquals(parent.serializeForHash(), memoizedParent.serializeForHash());
+        assertEquals(parent.getSerializedSize(), memoizedParent.getSerializedSize());
+        assertEquals(parent.toProto(false), memoizedParent.toProto(false));
+        assertEquals(parent.toProto(true), memoizedParent.toProto(true));
+    }
+
+    @Test
+    public void testResultsAreMemoized() {
+        MemoizedParentMockWithExcludedValue parent = new MemoizedParentMockWithExcludedValue("parentValue", new ChildMock("childValue"));
+
+        assertSame(parent.serialize(), parent.serialize());
+        assertSame(parent.serializeForHash(), parent.serializeForHash());
+        assertSame(parent.toProto(false), parent.toProto(false));
+        assertSame(parent.completeProto(), parent.toProto(false));
+    }
+
+    @Test
+    public void testCacheIsExcludedFromEquals() {
+        MemoizedParentMockWithExcludedValue parent1 = new MemoizedParentMockWithExcludedValue("parentValue", new ChildMock("childValue"));
+        MemoizedParentMockWithExcludedValue parent2 = new MemoizedParentMockWithExcludedValue("parentValue", new ChildMock("childValue"));
+        parent1.serialize();
+
+        assertEquals(parent1, parent2);
+        assertEquals(parent1.hashCode(), parent2.hashCode());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.threading;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VirtualThreadModeTest {
+    @BeforeEach
+    public void setUp() {
+        VirtualThreadMode.reset();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        VirtualThreadMode.reset();
+    }
+
+    @Test
+    public void threadTypeIsDecidedAtThreadCreation() throws Exception {
+        // Like the static pools, the executor gets created before the mode is set
+        ExecutorService executor = ExecutorFactory.newFixedThreadPool("VirtualThreadModeTest", 1);
+        VirtualThreadMode.setEnabled(true);
+        try {
+            assertTrue(executor.submit(() -> Thread.currentThread().isVirtual()).get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void ignoreChangeAfterThreadsGotCreated() throws Exception {
+        ExecutorService executor = ExecutorFactory.newFixedThreadPool("VirtualThreadModeTest", 1);
+        try {
+            assertFalse(executor.submit(() -> Thread.currentThread().isVirtual()).get());
+            VirtualThreadMode.setEnabled(true);
+            assertFalse(VirtualThreadMode.isEnabled());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void blockingTasksDoNotOccupyPlatformThreads() throws Exception {
+        VirtualThreadMode.setEnabled(true);
+        ExecutorService executor = ExecutorFactory.newCachedThreadPool("VirtualThreadModeTest");
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        int numPlatformThreadsBefore = threadMXBean.getThreadCount();
+        int numTasks = 500;
+        CountDownLatch allStarted = new CountDownLatch(numTasks);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < numTasks; i++) {
+                futures.add(executor.submit(() -> {
+                    allStarted.countDown();
+                    release.await();
+                    return null;
+                }));
+            }
+            assertTrue(allStarted.await(10, TimeUnit.SECONDS));
+
+            // Only the carrier threads of the virtual threads get added
+            int numAddedPlatformThreads = threadMXBean.getThreadCount() - numPlatformThreadsBefore;
+            assertTrue(numAddedPlatformThreads <= Runtime.getRuntime().availableProcessors() + 10,
+                    "numAddedPlatformThreads=" + numAddedPlatformThreads);
+
+            release.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
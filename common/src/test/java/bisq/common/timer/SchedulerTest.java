@@ -0,0 +1,106 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.timer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SchedulerTest {
+    // Max. time we wait for an execution which must not happen
+    private static final long NO_EXECUTION_TIMEOUT = 200;
+
+    @Test
+    public void runAfterDelay() throws InterruptedException {
+        CountDownLatch executed = new CountDownLatch(2);
+        Scheduler scheduler = Scheduler.run(executed::countDown).after(10);
+        assertFalse(executed.await(NO_EXECUTION_TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals(1, executed.getCount());
+        assertEquals(1, scheduler.getCounter());
+    }
+
+    @Test
+    public void stopAfterSchedulingTwice() throws InterruptedException {
+        AtomicInteger numExecutions = new AtomicInteger();
+        AtomicInteger maxExecutions = new AtomicInteger(Integer.MAX_VALUE);
+        CountDownLatch executed = new CountDownLatch(2);
+        CountDownLatch executedAfterStop = new CountDownLatch(1);
+        Scheduler scheduler = Scheduler.run(() -> {
+            if (numExecutions.incrementAndGet() > maxExecutions.get()) {
+                executedAfterStop.countDown();
+            }
+            executed.countDown();
+        });
+        scheduler.periodically(10);
+        // Replaces the first schedule, so stop must cancel all executions
+        scheduler.periodically(10);
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+
+        scheduler.stop();
+        // An execution which was already running at stop might still complete, but no further execution must start
+        maxExecutions.set(numExecutions.get() + 1);
+        assertFalse(executedAfterStop.await(NO_EXECUTION_TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void schedulingAgainReplacesPreviousSchedule() throws InterruptedException {
+        AtomicInteger numRunning = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch overlapping = new CountDownLatch(1);
+        CountDownLatch executed = new CountDownLatch(10);
+        Scheduler scheduler = Scheduler.run(() -> {
+            int running = numRunning.incrementAndGet();
+            maxRunning.accumulateAndGet(running, Math::max);
+            if (running > 1) {
+                overlapping.countDown();
+            } else {
+                // Keeps the execution running long enough that an overlapping execution would be detected
+                try {
+                    overlapping.await(20, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ignore) {
+                }
+            }
+            numRunning.decrementAndGet();
+            executed.countDown();
+        });
+        scheduler.periodically(1);
+        scheduler.periodically(1);
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+        scheduler.stop();
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void failingTaskSuppressesFurtherExecutions() throws InterruptedException {
+        AtomicInteger numExecutions = new AtomicInteger();
+        CountDownLatch executed = new CountDownLatch(2);
+        Scheduler.run(() -> {
+            numExecutions.incrementAndGet();
+            executed.countDown();
+            throw new RuntimeException("Test");
+        }).periodically(10);
+        assertFalse(executed.await(NO_EXECUTION_TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals(1, numExecutions.get());
+    }
+}
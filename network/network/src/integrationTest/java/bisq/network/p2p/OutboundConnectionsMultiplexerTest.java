@@ -25,6 +25,7 @@ import bisq.network.common.TransportType;
 import bisq.network.p2p.node.*;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.authorization.AuthorizationTokenType;
+import bisq.network.p2p.node.network_load.AggregatedConnectionMetrics;
 import bisq.network.p2p.node.network_load.NetworkLoad;
 import bisq.network.p2p.services.peer_group.BanList;
 import bisq.security.pow.equihash.EquihashProofOfWorkService;
@@ -45,6 +46,7 @@ import java.util.concurrent.*;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @Slf4j
 public class OutboundConnectionsMultiplexerTest {
@@ -66,7 +68,7 @@ public class OutboundConnectionsMultiplexerTest {
                 new NetworkLoad(),
                 mock(BanList.class),
                 createAuthorizationService(),
-                mock(Node.class),
+                createNode(),
                 ServerSocketChannel.open()
         );
 
@@ -92,7 +94,7 @@ public class OutboundConnectionsMultiplexerTest {
                         mock(BanList.class),
                         new NetworkLoad(),
                         outboundCapability,
-                        mock(Node.class),
+                        createNode(),
                         selector
                 );
                 var connectionMultiplexer = new OutboundConnectionMultiplexer(outboundConnectionManager);
@@ -137,4 +139,10 @@ public class OutboundConnectionsMultiplexerTest {
     private static Capability createCapability(Address address, List<TransportType> supportedTransportTypes) {
         return new Capability(Capability.VERSION, address, supportedTransportTypes, new ArrayList<>(), ApplicationVersion.getVersion().getVersionAsString());
     }
+
+    private static Node createNode() {
+        Node node = mock(Node.class);
+        when(node.getAggregatedConnectionMetrics()).thenReturn(new AggregatedConnectionMetrics());
+        return node;
+    }
 }
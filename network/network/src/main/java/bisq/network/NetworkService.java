@@ -35,6 +35,7 @@ import bisq.network.p2p.ServiceNodesByTransport;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.message.NetworkEnvelope;
 import bisq.network.p2p.node.Connection;
+import bisq.network.p2p.node.ConnectionMultiplexer;
 import bisq.network.p2p.node.Node;
 import bisq.network.p2p.node.network_load.NetworkLoadService;
 import bisq.network.p2p.node.network_load.NetworkLoadSnapshot;
@@ -220,7 +221,8 @@ public class NetworkService implements PersistenceClient<NetworkServiceStore>, S
                     return true;
                 })
                 .thenCompose(result -> serviceNodesByTransport.shutdown()
-                        .thenApply(list -> list.stream().filter(e -> e).count() == supportedTransportTypes.size()));
+                        .thenApply(list -> list.stream().filter(e -> e).count() == supportedTransportTypes.size()))
+                .whenComplete((result, throwable) -> ConnectionMultiplexer.shutdownInstance());
     }
 
 
@@ -9,4 +9,11 @@ package bisq.network.p2p.message;
  */
 public interface Response {
     String getRequestId();
+
+    /**
+     * @return True if the response is delivered in multiple messages and more messages for that requestId will follow.
+     */
+    default boolean hasMoreResponses() {
+        return false;
+    }
 }
@@ -36,12 +36,16 @@ import javax.annotation.Nullable;
 import java.io.EOFException;
 import java.io.IOException;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -64,11 +68,20 @@ public abstract class Connection {
     }
 
     protected interface Handler {
-        void handleNetworkMessage(EnvelopePayloadMessage envelopePayloadMessage,
-                                  AuthorizationToken authorizationToken,
-                                  Connection connection);
+        // Called on the InboundMessagePipeline's authorization pool
+        boolean isMessageAuthorized(EnvelopePayloadMessage envelopePayloadMessage,
+                                    AuthorizationToken authorizationToken,
+                                    Connection connection);
+
+        // Called on the dispatcher thread, in the order the messages got received
+        void handleAuthorizedNetworkMessage(EnvelopePayloadMessage envelopePayloadMessage, Connection connection);
 
         void handleConnectionClosed(Connection connection, CloseReason closeReason);
+
+        // Called on the OutboundMessageQueue's writer thread
+        Connection send(EnvelopePayloadMessage envelopePayloadMessage, Connection connection);
+
+        InboundMessagePipelineMetrics getInboundMessagePipelineMetrics();
     }
 
     public interface Listener {
@@ -88,14 +101,21 @@ public abstract class Connection {
     @Getter
     private final RequestResponseManager requestResponseManager;
 
+    private final Socket socket;
+    @Nullable
     private NetworkEnvelopeSocket networkEnvelopeSocket;
+    @Nullable
+    private volatile MultiplexedSocketChannel multiplexedSocketChannel;
     private final ConnectionThrottle connectionThrottle;
     private final Handler handler;
+    private final BiConsumer<Connection, Exception> errorHandler;
+    private final InboundMessagePipeline inboundMessagePipeline;
+    private final OutboundMessageQueue outboundMessageQueue;
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
     @Nullable
     private Future<?> inputHandlerFuture;
     private final AtomicInteger sentMessageCounter = new AtomicInteger(0);
-    private final Object writeLock = new Object();
+    private final ReentrantLock writeLock = new ReentrantLock();
     private volatile boolean shutdownStarted;
     private volatile boolean listeningStopped;
 
@@ -106,16 +126,41 @@ public abstract class Connection {
                          ConnectionThrottle connectionThrottle,
                          Handler handler,
                          BiConsumer<Connection, Exception> errorHandler) {
+        this.socket = socket;
         this.peersCapability = peersCapability;
         this.peersNetworkLoadSnapshot = peersNetworkLoadSnapshot;
         this.connectionThrottle = connectionThrottle;
         this.handler = handler;
         this.connectionMetrics = connectionMetrics;
+        this.errorHandler = errorHandler;
         requestResponseManager = new RequestResponseManager(connectionMetrics);
+        inboundMessagePipeline = new InboundMessagePipeline(this, connectionThrottle, handler);
+        outboundMessageQueue = new OutboundMessageQueue(this, connectionThrottle, handler);
+    }
 
+    // Called by the node after the connection is fully constructed and registered at the authorization service,
+    // so that no message gets handled before.
+    void startListening() {
         try {
-            PeerSocket peerSocket = new DefaultPeerSocket(socket);
-            this.networkEnvelopeSocket = new NetworkEnvelopeSocket(peerSocket);
+            SocketChannel socketChannel = socket.getChannel();
+            if (socketChannel != null) {
+                // Transports which provide a SocketChannel (clear-net, Tor) are served by the shared selector thread
+                multiplexedSocketChannel = ConnectionMultiplexer.getInstance().register(socketChannel,
+                        new MultiplexedSocketChannel.Handler() {
+                            @Override
+                            public boolean onFrame(byte[] frame) {
+                                return Connection.this.onFrame(frame);
+                            }
+
+                            @Override
+                            public void onException(Exception exception) {
+                                handleInputException(exception);
+                            }
+                        });
+            } else {
+                PeerSocket peerSocket = new DefaultPeerSocket(socket);
+                this.networkEnvelopeSocket = new NetworkEnvelopeSocket(peerSocket);
+            }
         } catch (IOException exception) {
             log.error("Could not create objectOutputStream/objectInputStream for socket " + socket, exception);
             errorHandler.accept(this, exception);
@@ -123,6 +168,10 @@ public abstract class Connection {
             return;
         }
 
+        if (multiplexedSocketChannel != null) {
+            return;
+        }
+
         inputHandlerFuture = NetworkService.NETWORK_IO_POOL.submit(() -> {
             Thread.currentThread().setName("Connection.read-" + getThreadNameId());
             try {
@@ -131,35 +180,11 @@ public abstract class Connection {
                     // parsing might need some time wo we check again if connection is still active
                     if (isInputStreamActive()) {
                         checkNotNull(proto, "Proto from NetworkEnvelope.parseDelimitedFrom(inputStream) must not be null");
-
-                        connectionThrottle.throttleReceiveMessage();
-
-                        long ts = System.currentTimeMillis();
-                        NetworkEnvelope networkEnvelope = NetworkEnvelope.fromProto(proto);
-                        long deserializeTime = System.currentTimeMillis() - ts;
-                        networkEnvelope.verifyVersion();
-                        connectionMetrics.onReceived(networkEnvelope, deserializeTime);
-
-                        EnvelopePayloadMessage envelopePayloadMessage = networkEnvelope.getEnvelopePayloadMessage();
-                        log.debug("Received message: {} at: {}",
-                                StringUtils.truncate(envelopePayloadMessage.toString(), 200), this);
-                        requestResponseManager.onReceived(envelopePayloadMessage);
-                        NetworkService.DISPATCHER.submit(() -> handler.handleNetworkMessage(envelopePayloadMessage,
-                                networkEnvelope.getAuthorizationToken(),
-                                this));
+                        handleReceivedProto(proto);
                     }
                 }
             } catch (Exception exception) {
-                //todo (deferred) StreamCorruptedException from i2p at shutdown. prob it send some text data at shut down
-                if (isInputStreamActive()) {
-                    log.debug("Exception at input handler on {}", this, exception);
-                    shutdown(CloseReason.EXCEPTION.exception(exception));
-
-                    // EOFException expected if connection got closed (Socket closed message)
-                    if (!(exception instanceof EOFException)) {
-                        errorHandler.accept(this, exception);
-                    }
-                }
+                handleInputException(exception);
             }
         });
     }
@@ -220,7 +245,7 @@ public abstract class Connection {
             return this;
         }
 
-        connectionThrottle.throttleSendMessage();
+        connectionThrottle.onSendMessage();
 
         requestResponseManager.onSent(envelopePayloadMessage);
 
@@ -228,17 +253,24 @@ public abstract class Connection {
             NetworkEnvelope networkEnvelope = new NetworkEnvelope(authorizationToken, envelopePayloadMessage);
             boolean sent = false;
             long ts = System.currentTimeMillis();
-            synchronized (writeLock) {
-                try {
+            // We use a ReentrantLock instead of synchronized, as a blocking socket write inside a synchronized block
+            // would pin the carrier thread if we run on a virtual thread.
+            writeLock.lock();
+            try {
+                if (multiplexedSocketChannel != null) {
+                    multiplexedSocketChannel.send(networkEnvelope.completeProto());
+                } else {
                     networkEnvelopeSocket.send(networkEnvelope);
-                    sent = true;
-                } catch (Exception exception) {
-                    if (isRunning()) {
-                        throw exception;
-                    } else {
-                        log.info("Send message at stopped connection {} failed with {}", this, ExceptionUtil.getRootCauseMessage(exception));
-                    }
                 }
+                sent = true;
+            } catch (Exception exception) {
+                if (isRunning()) {
+                    throw exception;
+                } else {
+                    log.info("Send message at stopped connection {} failed with {}", this, ExceptionUtil.getRootCauseMessage(exception));
+                }
+            } finally {
+                writeLock.unlock();
             }
             if (sent) {
                 connectionMetrics.onSent(networkEnvelope, System.currentTimeMillis() - ts);
@@ -261,6 +293,10 @@ public abstract class Connection {
         }
     }
 
+    CompletableFuture<Connection> sendAsync(EnvelopePayloadMessage envelopePayloadMessage, Optional<String> coalescingKey) {
+        return outboundMessageQueue.enqueue(envelopePayloadMessage, coalescingKey);
+    }
+
     void stopListening() {
         listeningStopped = true;
     }
@@ -273,12 +309,18 @@ public abstract class Connection {
         log.info("Close {}; \ncloseReason: {}", this, closeReason);
         shutdownStarted = true;
         requestResponseManager.onClosed();
+        inboundMessagePipeline.shutdown();
+        outboundMessageQueue.shutdown();
         if (inputHandlerFuture != null) {
             inputHandlerFuture.cancel(true);
         }
-        try {
-            networkEnvelopeSocket.close();
-        } catch (IOException ignore) {
+        if (multiplexedSocketChannel != null) {
+            multiplexedSocketChannel.close();
+        } else if (networkEnvelopeSocket != null) {
+            try {
+                networkEnvelopeSocket.close();
+            } catch (IOException ignore) {
+            }
         }
         NetworkService.DISPATCHER.submit(() -> {
             handler.handleConnectionClosed(this, closeReason);
@@ -308,7 +350,7 @@ public abstract class Connection {
     }
 
     boolean isStopped() {
-        return shutdownStarted || networkEnvelopeSocket.isClosed() || Thread.currentThread().isInterrupted();
+        return shutdownStarted || isSocketClosed() || Thread.currentThread().isInterrupted();
     }
 
 
@@ -320,6 +362,74 @@ public abstract class Connection {
         return StringUtils.truncate(getPeerAddress().toString() + "-" + id.substring(0, 8));
     }
 
+    private boolean isSocketClosed() {
+        if (multiplexedSocketChannel != null) {
+            return multiplexedSocketChannel.isClosed();
+        }
+        return networkEnvelopeSocket == null || networkEnvelopeSocket.isClosed();
+    }
+
+    // Called on the NETWORK_IO_POOL which serves all multiplexed connections, thus we must not block.
+    private boolean onFrame(byte[] frame) {
+        if (!isInputStreamActive()) {
+            return true;
+        }
+        if (!inboundMessagePipeline.tryAcquireCapacity(this::onInboundCapacityAvailable)) {
+            // The frame stays at the channel, which stops reading from the socket if more frames pile up
+            return false;
+        }
+        try {
+            NetworkEnvelope networkEnvelope = toNetworkEnvelope(bisq.network.protobuf.NetworkEnvelope.parseFrom(frame));
+            inboundMessagePipeline.submitWithAcquiredCapacity(networkEnvelope.getEnvelopePayloadMessage(),
+                    networkEnvelope.getAuthorizationToken());
+        } catch (Exception exception) {
+            inboundMessagePipeline.releaseCapacity();
+            handleInputException(exception);
+        }
+        return true;
+    }
+
+    private void onInboundCapacityAvailable() {
+        // Frames can be dispatched before register() has returned, thus we resolve the field lazily
+        MultiplexedSocketChannel channel = multiplexedSocketChannel;
+        if (channel != null) {
+            channel.onHandlerReady();
+        }
+    }
+
+    private void handleReceivedProto(bisq.network.protobuf.NetworkEnvelope proto) throws InterruptedException {
+        NetworkEnvelope networkEnvelope = toNetworkEnvelope(proto);
+        // Blocks if too many messages are pending, which pauses reading from the socket
+        inboundMessagePipeline.submit(networkEnvelope.getEnvelopePayloadMessage(), networkEnvelope.getAuthorizationToken());
+    }
+
+    private NetworkEnvelope toNetworkEnvelope(bisq.network.protobuf.NetworkEnvelope proto) {
+        long ts = System.currentTimeMillis();
+        NetworkEnvelope networkEnvelope = NetworkEnvelope.fromProto(proto);
+        long deserializeTime = System.currentTimeMillis() - ts;
+        networkEnvelope.verifyVersion();
+        connectionMetrics.onReceived(networkEnvelope, deserializeTime);
+
+        EnvelopePayloadMessage envelopePayloadMessage = networkEnvelope.getEnvelopePayloadMessage();
+        log.debug("Received message: {} at: {}",
+                StringUtils.truncate(envelopePayloadMessage.toString(), 200), this);
+        requestResponseManager.onReceived(envelopePayloadMessage);
+        return networkEnvelope;
+    }
+
+    private void handleInputException(Exception exception) {
+        //todo (deferred) StreamCorruptedException from i2p at shutdown. prob it send some text data at shut down
+        if (isInputStreamActive()) {
+            log.debug("Exception at input handler on {}", this, exception);
+            shutdown(CloseReason.EXCEPTION.exception(exception));
+
+            // EOFException expected if connection got closed (Socket closed message)
+            if (!(exception instanceof EOFException)) {
+                errorHandler.accept(this, exception);
+            }
+        }
+    }
+
     private boolean isInputStreamActive() {
         return !listeningStopped && isRunning();
     }
@@ -0,0 +1,171 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import bisq.common.threading.ExecutorFactory;
+import bisq.network.NetworkService;
+import bisq.network.p2p.node.envelope.parser.nio.ByteBufferPool;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Drives the socket IO of all connections which are backed by a SocketChannel from a single selector thread.
+ * Instead of blocking one thread per connection on a read, the selector thread reads what is available, splits it
+ * into frames and hands the frames over to a worker (one at a time per connection, so message order is preserved).
+ * Writes are done directly by the sending thread and only queued for the selector thread if the socket send buffer
+ * is full.
+ * <p>
+ * Connections from transports which do not provide a SocketChannel (I2P) keep using the blocking read loop.
+ */
+@Slf4j
+public class ConnectionMultiplexer {
+    static final int MAX_FRAME_SIZE = 100 * 1024 * 1024;
+
+    private static ConnectionMultiplexer instance;
+
+    static synchronized ConnectionMultiplexer getInstance() throws IOException {
+        if (instance == null) {
+            instance = new ConnectionMultiplexer();
+        }
+        return instance;
+    }
+
+    /**
+     * Called at shutdown of the NetworkService, after all nodes got shut down.
+     */
+    public static synchronized void shutdownInstance() {
+        if (instance != null) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    private final Selector selector;
+    @Getter
+    private final ByteBufferPool byteBufferPool = new ByteBufferPool();
+    private final ByteBuffer readBuffer;
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+    private final ExecutorService selectorExecutor;
+    private volatile boolean isStopped;
+
+    private ConnectionMultiplexer() throws IOException {
+        selector = Selector.open();
+        // Only the selector thread reads, so one buffer is enough
+        readBuffer = byteBufferPool.acquire();
+        selectorExecutor = ExecutorFactory.newSingleThreadExecutor("ConnectionMultiplexer.selector");
+        selectorExecutor.submit(this::selectorLoop);
+    }
+
+    MultiplexedSocketChannel register(SocketChannel socketChannel,
+                                      MultiplexedSocketChannel.Handler handler) throws IOException {
+        socketChannel.configureBlocking(false);
+        MultiplexedSocketChannel multiplexedSocketChannel = new MultiplexedSocketChannel(socketChannel,
+                this,
+                handler,
+                NetworkService.NETWORK_IO_POOL);
+        executeOnSelectorThread(() -> {
+            try {
+                SelectionKey selectionKey = socketChannel.register(selector, SelectionKey.OP_READ, multiplexedSocketChannel);
+                multiplexedSocketChannel.setSelectionKey(selectionKey);
+            } catch (ClosedChannelException exception) {
+                multiplexedSocketChannel.onIOException(exception);
+            }
+        });
+        return multiplexedSocketChannel;
+    }
+
+    void executeOnSelectorThread(Runnable task) {
+        selectorTasks.add(task);
+        selector.wakeup();
+    }
+
+    private void shutdown() {
+        if (isStopped) {
+            return;
+        }
+        isStopped = true;
+        try {
+            selector.close();
+        } catch (IOException ignore) {
+        }
+        ExecutorFactory.shutdownAndAwaitTermination(selectorExecutor, 100);
+    }
+
+    private void selectorLoop() {
+        while (!isStopped) {
+            try {
+                selector.select();
+                runSelectorTasks();
+
+                Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                while (iterator.hasNext()) {
+                    SelectionKey selectionKey = iterator.next();
+                    iterator.remove();
+                    handleSelectionKey(selectionKey);
+                }
+            } catch (ClosedSelectorException exception) {
+                return;
+            } catch (Exception exception) {
+                if (!isStopped) {
+                    log.error("Unexpected exception at selector loop", exception);
+                }
+            }
+        }
+    }
+
+    private void runSelectorTasks() {
+        Runnable task;
+        while ((task = selectorTasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (CancelledKeyException ignore) {
+            } catch (Exception exception) {
+                log.error("Selector task failed", exception);
+            }
+        }
+    }
+
+    private void handleSelectionKey(SelectionKey selectionKey) {
+        MultiplexedSocketChannel channel = (MultiplexedSocketChannel) selectionKey.attachment();
+        try {
+            if (selectionKey.isValid() && selectionKey.isReadable()) {
+                channel.onReadable(readBuffer);
+            }
+            if (selectionKey.isValid() && selectionKey.isWritable()) {
+                channel.onWritable();
+            }
+        } catch (CancelledKeyException ignore) {
+            // Channel got closed concurrently
+        } catch (IOException exception) {
+            channel.onIOException(exception);
+        }
+    }
+}
@@ -18,95 +18,133 @@
 package bisq.network.p2p.node;
 
 import bisq.common.util.MathUtils;
+import bisq.network.p2p.node.network_load.ConnectionMetrics;
 import bisq.network.p2p.node.network_load.NetworkLoadSnapshot;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 /**
- * Checks if time between last send/receive is larger than the throttle time adjusted with the network load.
- * If so we pause the remaining time to ensure only 1 message is sent in that time slot.
- * This should avoid that a node gets flooded (at receive using the peers network load to adjust the throttle time) or
- * flooding their peers (at send using my network load to adjust the throttle time).
- * As larger value in the config for sendMessageTimestamp and receiveMessageTimestamp means it is more likely that
- * message send/receive get paused.
- * Messages are not dropped by we only pause the executing thread. We use lower and upper bounds for the pause, so
- * even with extreme values from the config the throttling should not have severe impacts on the
- * connection (e.g. lead to timeouts).
+ * Rate limits the messages sent and received at a connection with a token bucket per direction. The refill interval
+ * is the throttle time from the config adjusted with the network load (at receive using my network load, at send
+ * using the peers network load), so a loaded node gets less messages and we do not flood loaded peers.
+ * Up to MAX_BURST messages can pass without any delay.
+ * <p>
+ * The throttle never blocks the calling thread. It only tells how long a message should be deferred:
+ * <ul>
+ *     <li>At send the OutboundMessageQueue reschedules its writer task for the returned delay. Messages sent
+ *     directly (not via the queue) are never delayed, but consume a token, so they delay the queued messages.</li>
+ *     <li>At receive the InboundMessagePipeline reschedules the authorization of the pending messages. Deferred
+ *     messages keep their slot in the pipeline, so if the peer keeps on sending, the pipeline gets full and we stop
+ *     reading from the socket.</li>
+ * </ul>
+ * Messages are not dropped. We use lower and upper bounds for the refill interval, so even with extreme values from
+ * the config the throttling should not have severe impacts on the connection (e.g. lead to timeouts).
  */
 @Slf4j
 public class ConnectionThrottle {
     private static final long MIN_THROTTLE_TIME = 20;
     private static final long MAX_THROTTLE_TIME = 1000;
-    private static final long MAX_LOG_FREQUENCY = TimeUnit.SECONDS.toMillis(30);
+    private static final int MAX_BURST = 10;
 
-    // We apply the log throttle globally, so we use static fields
-    private static AtomicLong lastLoggedTs = new AtomicLong();
-    private static final List<String> LAST_LOGS = new CopyOnWriteArrayList<>();
+    /**
+     * Token bucket implemented as generic cell rate algorithm: Instead of the number of tokens we store the
+     * theoretical arrival time at which the bucket would be full again. A message conforms if that time is not more
+     * than (MAX_BURST - 1) intervals in the future.
+     */
+    private static class TokenBucket {
+        private final AtomicLong theoreticalArrivalTime = new AtomicLong();
+
+        private long getDelay(long now, long interval) {
+            long burstTolerance = (MAX_BURST - 1) * interval;
+            return Math.max(0, theoreticalArrivalTime.get() - burstTolerance - now);
+        }
+
+        private void consume(long now, long interval) {
+            theoreticalArrivalTime.accumulateAndGet(now, (previous, current) -> Math.max(previous, current) + interval);
+        }
+    }
 
     private final NetworkLoadSnapshot peersNetworkLoadSnapshot;
     private final NetworkLoadSnapshot myNetworkLoadSnapshot;
+    private final ConnectionMetrics connectionMetrics;
     private final long sendMessageThrottleTime;
     private final long receiveMessageThrottleTime;
-    private final AtomicLong sendMessageTimestamp = new AtomicLong();
-    private final AtomicLong receiveMessageTimestamp = new AtomicLong();
+    private final TokenBucket sendTokenBucket = new TokenBucket();
+    private final TokenBucket receiveTokenBucket = new TokenBucket();
+    private final LongSupplier clock;
 
     public ConnectionThrottle(NetworkLoadSnapshot peersNetworkLoadSnapshot,
                               NetworkLoadSnapshot myNetworkLoadSnapshot,
+                              ConnectionMetrics connectionMetrics,
                               Node.Config config) {
+        this(peersNetworkLoadSnapshot, myNetworkLoadSnapshot, connectionMetrics, config, System::currentTimeMillis);
+    }
+
+    // The clock returns the current time in ms. Only tests use another clock than System::currentTimeMillis.
+    ConnectionThrottle(NetworkLoadSnapshot peersNetworkLoadSnapshot,
+                       NetworkLoadSnapshot myNetworkLoadSnapshot,
+                       ConnectionMetrics connectionMetrics,
+                       Node.Config config,
+                       LongSupplier clock) {
         this.peersNetworkLoadSnapshot = peersNetworkLoadSnapshot;
         this.myNetworkLoadSnapshot = myNetworkLoadSnapshot;
+        this.connectionMetrics = connectionMetrics;
         sendMessageThrottleTime = config.getSendMessageThrottleTime(); // default 200
         receiveMessageThrottleTime = config.getReceiveMessageThrottleTime(); // default 200
+        this.clock = clock;
+    }
+
+    /**
+     * @return The time in ms the next message should be deferred before sending. 0 if it can be sent immediately.
+     */
+    long getSendMessageDelay() {
+        long delay = sendTokenBucket.getDelay(clock.getAsLong(), getSendInterval());
+        if (delay > 0) {
+            connectionMetrics.onSendMessageDeferred(delay);
+            log.debug("Defer sending of message for {} ms", delay);
+        }
+        return delay;
+    }
+
+    /**
+     * Called when a message gets sent. Never blocks, even if the send rate is exceeded.
+     */
+    void onSendMessage() {
+        sendTokenBucket.consume(clock.getAsLong(), getSendInterval());
     }
 
-    void throttleSendMessage() {
-        throttle(sendMessageTimestamp, peersNetworkLoadSnapshot, sendMessageThrottleTime, "send");
+    /**
+     * Consumes a token if the next received message can be processed immediately.
+     *
+     * @return The time in ms the processing of the next message should be deferred. 0 if it can be processed
+     * immediately.
+     */
+    long tryAcquireReceiveMessage() {
+        long now = clock.getAsLong();
+        long interval = getReceiveInterval();
+        long delay = receiveTokenBucket.getDelay(now, interval);
+        if (delay > 0) {
+            connectionMetrics.onReceivedMessageDeferred(delay);
+            log.debug("Defer processing of received message for {} ms", delay);
+            return delay;
+        }
+        receiveTokenBucket.consume(now, interval);
+        return 0;
+    }
+
+    private long getSendInterval() {
+        return getInterval(sendMessageThrottleTime, peersNetworkLoadSnapshot);
     }
 
-    void throttleReceiveMessage() {
-        throttle(receiveMessageTimestamp, myNetworkLoadSnapshot, receiveMessageThrottleTime, "receive");
+    private long getReceiveInterval() {
+        return getInterval(receiveMessageThrottleTime, myNetworkLoadSnapshot);
     }
 
-    private void throttle(AtomicLong timestamp, NetworkLoadSnapshot networkLoadSnapshot, long throttleTime, String direction) {
-        long now = System.currentTimeMillis();
-        long passed = now - timestamp.get();
+    private static long getInterval(long throttleTime, NetworkLoadSnapshot networkLoadSnapshot) {
         double load = networkLoadSnapshot.getCurrentNetworkLoad().getLoad();
-        throttleTime = MIN_THROTTLE_TIME + Math.round(throttleTime * load);
-        throttleTime = MathUtils.bounded(MIN_THROTTLE_TIME, MAX_THROTTLE_TIME, throttleTime);
-        if (passed < throttleTime) {
-            try {
-                long pause = throttleTime - passed;
-                pause = MathUtils.bounded(1, MAX_THROTTLE_TIME, pause);
-                String logMessage = String.format("Pause '%s' message for %d ms. Network=%f", direction, pause, load);
-                long passedSinceLastLog = now - lastLoggedTs.get();
-                if (passedSinceLastLog < MAX_LOG_FREQUENCY) {
-                    LAST_LOGS.add(logMessage);
-                    if (lastLoggedTs.get() == 0) {
-                        lastLoggedTs.set(now);
-                    }
-                } else {
-                    if (LAST_LOGS.isEmpty()) {
-                        log.info(logMessage);
-                    } else {
-                        LAST_LOGS.add(logMessage);
-                        List<String> temp = new ArrayList<>(LAST_LOGS);
-                        int size = temp.size();
-                        List<String> subList = temp.subList(0, Math.min(5, size));
-                        log.info("{} accumulated log messages in the past {} sec. Log message (max 5 displayed): {}",
-                                size, passedSinceLastLog / 1000, subList);
-                        LAST_LOGS.clear();
-                    }
-                    lastLoggedTs.set(now);
-                }
-                Thread.sleep(pause);
-            } catch (InterruptedException ignore) {
-            }
-        }
-        timestamp.set(now);
+        long interval = MIN_THROTTLE_TIME + Math.round(throttleTime * load);
+        return MathUtils.bounded(MIN_THROTTLE_TIME, MAX_THROTTLE_TIME, interval);
     }
 }
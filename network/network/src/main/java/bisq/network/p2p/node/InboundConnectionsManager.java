@@ -124,6 +124,7 @@ public class InboundConnectionsManager {
                     log.warn("{} have already an InboundConnection from {}. This can happen when a " + "handshake was in progress while we received a new connection from that address. " + "We will close the socket of that new connection and use the existing instead.", this, peerAddress);
                     closeChannel(networkEnvelopeSocketChannel);
                 } else {
+                    authorizationService.onConnect(inboundConnection.getId());
                     connectionByChannel.put(socketChannel, inboundConnection);
                     connectionByAddress.put(peerAddress, inboundConnection);
                     verifiedConnections.add(socketChannel);
@@ -152,8 +153,14 @@ public class InboundConnectionsManager {
                         networkEnvelope.getAuthorizationToken(),
                         inboundConnection
                 ));
+
+                if (!socketChannel.isOpen()) {
+                    // The channel got closed at reaching the end of stream
+                    closeConnection(socketChannel, CloseReason.EXCEPTION.details("End of stream"));
+                }
             } catch (IOException e) {
                 log.error("Couldn't receive messages from socketChannel", e);
+                closeConnection(socketChannel, CloseReason.EXCEPTION.exception(e));
             }
         }
     }
@@ -202,7 +209,7 @@ public class InboundConnectionsManager {
                             handshakeRequest.getCapability(),
                             peersNetworkLoadSnapshot,
                             networkEnvelopeSocketChannel,
-                            new ConnectionMetrics()
+                            new ConnectionMetrics(node.getAggregatedConnectionMetrics())
                     )
             );
         } catch (ConnectionException e) {
@@ -218,6 +225,17 @@ public class InboundConnectionsManager {
         return connectionByAddress.containsKey(peerAddress);
     }
 
+    private void closeConnection(SocketChannel socketChannel, CloseReason closeReason) {
+        verifiedConnections.remove(socketChannel);
+        networkEnvelopeChannelBySocketChannel.remove(socketChannel);
+        InboundConnectionChannel inboundConnection = connectionByChannel.remove(socketChannel);
+        if (inboundConnection != null) {
+            connectionByAddress.remove(inboundConnection.getPeerAddress(), inboundConnection);
+            authorizationService.onDisconnect(inboundConnection.getId());
+            inboundConnection.close(closeReason);
+        }
+    }
+
     private void closeChannel(NetworkEnvelopeSocketChannel networkEnvelopeSocket) {
         try {
             networkEnvelopeSocket.close();
@@ -0,0 +1,227 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import bisq.common.threading.ExecutorFactory;
+import bisq.network.NetworkService;
+import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.network.p2p.node.authorization.AuthorizationToken;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Processes the received messages of one connection in 2 stages:
+ * <ol>
+ *     <li>Authorization (proof of work verification) on the shared AUTHORIZATION_POOL. The messages of one connection
+ *     are authorized serially and in order, messages of different connections in parallel.</li>
+ *     <li>Delivery of the authorized messages to the listeners on the DISPATCHER thread, in the order of receipt.</li>
+ * </ol>
+ * At most MAX_PENDING_MESSAGES messages per connection can be in the pipeline. If that limit is reached the blocking
+ * socket reader gets blocked, so we stop reading from the socket and TCP flow control pushes back on the peer.
+ * Multiplexed connections must not block the shared IO threads. They use tryAcquireCapacity and get notified once
+ * capacity is available again.
+ * <p>
+ * If the receive rate limit of the ConnectionThrottle is exceeded, the authorization task gets rescheduled after the
+ * required delay. The deferred messages stay in the pipeline, so a peer exceeding the rate limit runs into the
+ * backpressure described above.
+ * <p>
+ * At shutdown a blocked socket reader gets released and the pending messages get dropped.
+ */
+@Slf4j
+class InboundMessagePipeline {
+    private static final ExecutorService AUTHORIZATION_POOL = ExecutorFactory.newFixedThreadPool("InboundMessagePipeline.authorization");
+    private static final int MAX_PENDING_MESSAGES = 100;
+    // Max. number of messages authorized in one go before giving other connections a chance to use the thread
+    private static final int MAX_BATCH_SIZE = 10;
+
+    private static class PendingMessage {
+        private final EnvelopePayloadMessage envelopePayloadMessage;
+        private final AuthorizationToken authorizationToken;
+        private final long queuedAt;
+
+        private PendingMessage(EnvelopePayloadMessage envelopePayloadMessage,
+                               AuthorizationToken authorizationToken,
+                               long queuedAt) {
+            this.envelopePayloadMessage = envelopePayloadMessage;
+            this.authorizationToken = authorizationToken;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    private final Connection connection;
+    private final ConnectionThrottle connectionThrottle;
+    private final Connection.Handler handler;
+    private final InboundMessagePipelineMetrics metrics;
+    private final Semaphore capacity = new Semaphore(MAX_PENDING_MESSAGES);
+    private final Queue<PendingMessage> pendingAuthorization = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean isAuthorizing = new AtomicBoolean();
+    private final AtomicBoolean isWaitingForCapacity = new AtomicBoolean();
+    private volatile Runnable capacityListener = () -> {
+    };
+    private volatile boolean isShutdown;
+
+    InboundMessagePipeline(Connection connection, ConnectionThrottle connectionThrottle, Connection.Handler handler) {
+        this.connection = connection;
+        this.connectionThrottle = connectionThrottle;
+        this.handler = handler;
+        metrics = handler.getInboundMessagePipelineMetrics();
+    }
+
+    /**
+     * Called from the socket reader thread. Blocks while MAX_PENDING_MESSAGES messages are in the pipeline, until
+     * capacity is available or the pipeline got shut down.
+     */
+    void submit(EnvelopePayloadMessage envelopePayloadMessage,
+                AuthorizationToken authorizationToken) throws InterruptedException {
+        while (!capacity.tryAcquire(1, TimeUnit.SECONDS)) {
+            if (isShutdown || connection.isStopped()) {
+                return;
+            }
+            log.debug("Inbound message pipeline of {} is full. We pause reading from the socket.", connection);
+        }
+        submitWithAcquiredCapacity(envelopePayloadMessage, authorizationToken);
+    }
+
+    /**
+     * Non-blocking alternative to submit. If true is returned the caller has to call submitWithAcquiredCapacity or
+     * releaseCapacity. If false is returned, capacityListener gets called once capacity got released.
+     */
+    boolean tryAcquireCapacity(Runnable capacityListener) {
+        if (capacity.tryAcquire()) {
+            return true;
+        }
+        this.capacityListener = capacityListener;
+        isWaitingForCapacity.set(true);
+        // Capacity might have been released before we have set the flag. The listener might get called in that case,
+        // which does no harm.
+        return capacity.tryAcquire();
+    }
+
+    void submitWithAcquiredCapacity(EnvelopePayloadMessage envelopePayloadMessage,
+                                    AuthorizationToken authorizationToken) {
+        if (isShutdown) {
+            return;
+        }
+        metrics.onQueued();
+        pendingAuthorization.add(new PendingMessage(envelopePayloadMessage, authorizationToken, System.nanoTime()));
+        if (isAuthorizing.compareAndSet(false, true)) {
+            AUTHORIZATION_POOL.execute(this::authorizePendingMessages);
+        }
+    }
+
+    void releaseCapacity() {
+        capacity.release();
+        if (isWaitingForCapacity.compareAndSet(true, false)) {
+            try {
+                capacityListener.run();
+            } catch (Exception e) {
+                log.error("Calling capacityListener failed", e);
+            }
+        }
+    }
+
+    /**
+     * Drops the pending messages and releases a socket reader blocked in submit.
+     */
+    void shutdown() {
+        if (isShutdown) {
+            return;
+        }
+        isShutdown = true;
+        PendingMessage pendingMessage;
+        while ((pendingMessage = pendingAuthorization.poll()) != null) {
+            metrics.onDone();
+        }
+        // Wakes up a blocked submit call. Capacity does not matter anymore.
+        capacity.release(MAX_PENDING_MESSAGES);
+    }
+
+    private void authorizePendingMessages() {
+        if (isShutdown) {
+            isAuthorizing.set(false);
+            return;
+        }
+        for (int i = 0; i < MAX_BATCH_SIZE; i++) {
+            if (!pendingAuthorization.isEmpty()) {
+                long delay = connectionThrottle.tryAcquireReceiveMessage();
+                if (delay > 0) {
+                    // We keep the isAuthorizing flag, so no other authorization task gets started meanwhile
+                    CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, AUTHORIZATION_POOL)
+                            .execute(this::authorizePendingMessages);
+                    return;
+                }
+            }
+            PendingMessage pendingMessage = pendingAuthorization.poll();
+            if (pendingMessage == null) {
+                isAuthorizing.set(false);
+                // A message might have been added after our poll but before we have reset the flag
+                if (!pendingAuthorization.isEmpty() && isAuthorizing.compareAndSet(false, true)) {
+                    AUTHORIZATION_POOL.execute(this::authorizePendingMessages);
+                }
+                return;
+            }
+            authorize(pendingMessage);
+        }
+        // Continue after the tasks of other connections which got queued meanwhile
+        AUTHORIZATION_POOL.execute(this::authorizePendingMessages);
+    }
+
+    private void authorize(PendingMessage pendingMessage) {
+        long startedAt = System.nanoTime();
+        boolean isAuthorized = false;
+        try {
+            isAuthorized = handler.isMessageAuthorized(pendingMessage.envelopePayloadMessage,
+                    pendingMessage.authorizationToken,
+                    connection);
+        } catch (Exception e) {
+            log.error("Authorization of message at {} failed", connection, e);
+        }
+        long authorizedAt = System.nanoTime();
+        metrics.onAuthorized(startedAt - pendingMessage.queuedAt, authorizedAt - startedAt);
+        if (!isAuthorized || isShutdown) {
+            onDone();
+            return;
+        }
+
+        NetworkService.DISPATCHER.execute(() -> {
+            try {
+                if (isShutdown) {
+                    return;
+                }
+                metrics.onDelivery(System.nanoTime() - authorizedAt);
+                handler.handleAuthorizedNetworkMessage(pendingMessage.envelopePayloadMessage, connection);
+            } catch (Exception e) {
+                log.error("Delivery of message at {} failed", connection, e);
+            } finally {
+                onDone();
+            }
+        });
+    }
+
+    private void onDone() {
+        metrics.onDone();
+        releaseCapacity();
+    }
+}
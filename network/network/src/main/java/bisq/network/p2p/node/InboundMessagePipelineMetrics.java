@@ -0,0 +1,108 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Metrics of the InboundMessagePipelines of all connections of one node.
+ * <ul>
+ *     <li>Queue depth: Number of received messages which are not delivered yet.</li>
+ *     <li>Authorization wait: Time a message waited for the authorization stage.</li>
+ *     <li>Authorization time: Time used for authorization (proof of work verification).</li>
+ *     <li>Delivery wait: Time an authorized message waited for the DISPATCHER thread.</li>
+ * </ul>
+ */
+public class InboundMessagePipelineMetrics {
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final LongAccumulator maxQueueDepth = new LongAccumulator(Math::max, 0);
+    private final AtomicLong numAuthorized = new AtomicLong();
+    private final AtomicLong totalAuthorizationWaitNanos = new AtomicLong();
+    private final AtomicLong totalAuthorizationNanos = new AtomicLong();
+    private final LongAccumulator maxAuthorizationNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLong numDelivered = new AtomicLong();
+    private final AtomicLong totalDeliveryWaitNanos = new AtomicLong();
+    private final LongAccumulator maxDeliveryWaitNanos = new LongAccumulator(Math::max, 0);
+
+    void onQueued() {
+        maxQueueDepth.accumulate(queueDepth.incrementAndGet());
+    }
+
+    void onAuthorized(long waitNanos, long authorizationNanos) {
+        numAuthorized.incrementAndGet();
+        totalAuthorizationWaitNanos.addAndGet(waitNanos);
+        totalAuthorizationNanos.addAndGet(authorizationNanos);
+        maxAuthorizationNanos.accumulate(authorizationNanos);
+    }
+
+    void onDelivery(long waitNanos) {
+        numDelivered.incrementAndGet();
+        totalDeliveryWaitNanos.addAndGet(waitNanos);
+        maxDeliveryWaitNanos.accumulate(waitNanos);
+    }
+
+    void onDone() {
+        queueDepth.decrementAndGet();
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    public double getAverageAuthorizationWaitMs() {
+        return average(totalAuthorizationWaitNanos, numAuthorized);
+    }
+
+    public double getAverageAuthorizationMs() {
+        return average(totalAuthorizationNanos, numAuthorized);
+    }
+
+    public long getMaxAuthorizationMs() {
+        return TimeUnit.NANOSECONDS.toMillis(maxAuthorizationNanos.get());
+    }
+
+    public double getAverageDeliveryWaitMs() {
+        return average(totalDeliveryWaitNanos, numDelivered);
+    }
+
+    public long getMaxDeliveryWaitMs() {
+        return TimeUnit.NANOSECONDS.toMillis(maxDeliveryWaitNanos.get());
+    }
+
+    public String getSummary() {
+        return "queueDepth=" + getQueueDepth() +
+                ", maxQueueDepth=" + getMaxQueueDepth() +
+                ", averageAuthorizationWaitMs=" + getAverageAuthorizationWaitMs() +
+                ", averageAuthorizationMs=" + getAverageAuthorizationMs() +
+                ", maxAuthorizationMs=" + getMaxAuthorizationMs() +
+                ", averageDeliveryWaitMs=" + getAverageDeliveryWaitMs() +
+                ", maxDeliveryWaitMs=" + getMaxDeliveryWaitMs();
+    }
+
+    private static double average(AtomicLong totalNanos, AtomicLong count) {
+        long numSamples = count.get();
+        return numSamples == 0 ? 0 : totalNanos.get() / 1e6 / numSamples;
+    }
+}
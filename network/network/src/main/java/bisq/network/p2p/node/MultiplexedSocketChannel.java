@@ -0,0 +1,294 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import bisq.network.p2p.node.envelope.parser.nio.ByteBufferPool;
+import bisq.network.p2p.node.envelope.parser.nio.NetworkEnvelopeFrameDecoder;
+import bisq.network.p2p.node.envelope.parser.nio.NetworkEnvelopeFrameEncoder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Non-blocking SocketChannel registered at the ConnectionMultiplexer.
+ * <p>
+ * Received frames are delivered to the handler on the executor, serially and in order. If the handler cannot keep up
+ * (e.g. because of the receive throttle) we stop reading from the socket until the backlog is processed, so that TCP
+ * flow control pushes back on the peer instead of us buffering an unbounded amount of messages.
+ * The handler must not block the executor thread. If it cannot accept a frame, it returns false and calls
+ * onHandlerReady once it can accept frames again. Meanwhile the frame stays in the queue.
+ * <p>
+ * Sending threads write directly to the socket. Only if the socket send buffer is full the remaining bytes are queued
+ * and flushed by the selector thread once the socket becomes writable again.
+ */
+@Slf4j
+class MultiplexedSocketChannel {
+    interface Handler {
+        /**
+         * @return false if the frame cannot be accepted yet. onHandlerReady has to be called once it can be accepted.
+         */
+        boolean onFrame(byte[] frame);
+
+        void onException(Exception exception);
+    }
+
+    private static final int MAX_PENDING_FRAMES = 64;
+    private static final int RESUME_READ_PENDING_FRAMES = 16;
+    private static final int MAX_PENDING_WRITE_BYTES = 32 * 1024 * 1024;
+
+    private final SocketChannel socketChannel;
+    private final ConnectionMultiplexer connectionMultiplexer;
+    private final ByteBufferPool byteBufferPool;
+    private final Handler handler;
+    private final Executor executor;
+    private final NetworkEnvelopeFrameDecoder frameDecoder = new NetworkEnvelopeFrameDecoder(ConnectionMultiplexer.MAX_FRAME_SIZE);
+
+    private final Queue<byte[]> receivedFrames = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger numReceivedFrames = new AtomicInteger();
+    private final AtomicBoolean isDispatching = new AtomicBoolean();
+    private volatile boolean isHandlerBusy;
+    private final AtomicBoolean isReadPaused = new AtomicBoolean();
+    private final AtomicBoolean isExceptionDelivered = new AtomicBoolean();
+    private volatile Exception readException;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Queue<ByteBuffer> pendingWrites = new ArrayDeque<>();
+    private long numPendingWriteBytes;
+
+    private volatile SelectionKey selectionKey;
+    private volatile boolean isClosed;
+
+    MultiplexedSocketChannel(SocketChannel socketChannel,
+                             ConnectionMultiplexer connectionMultiplexer,
+                             Handler handler,
+                             Executor executor) {
+        this.socketChannel = socketChannel;
+        this.connectionMultiplexer = connectionMultiplexer;
+        this.handler = handler;
+        this.executor = executor;
+        byteBufferPool = connectionMultiplexer.getByteBufferPool();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // Package scope API
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    void send(bisq.network.protobuf.NetworkEnvelope proto) throws IOException {
+        ByteBuffer byteBuffer = NetworkEnvelopeFrameEncoder.encode(proto, byteBufferPool);
+        writeLock.lock();
+        try {
+            if (isClosed) {
+                byteBufferPool.release(byteBuffer);
+                throw new ClosedChannelException();
+            }
+            if (pendingWrites.isEmpty()) {
+                try {
+                    socketChannel.write(byteBuffer);
+                } catch (IOException exception) {
+                    byteBufferPool.release(byteBuffer);
+                    throw exception;
+                }
+                if (!byteBuffer.hasRemaining()) {
+                    byteBufferPool.release(byteBuffer);
+                    return;
+                }
+                pendingWrites.add(byteBuffer);
+                numPendingWriteBytes += byteBuffer.remaining();
+                connectionMultiplexer.executeOnSelectorThread(() -> setInterest(SelectionKey.OP_WRITE, true));
+            } else {
+                if (numPendingWriteBytes + byteBuffer.remaining() > MAX_PENDING_WRITE_BYTES) {
+                    byteBufferPool.release(byteBuffer);
+                    throw new IOException("Peer does not read fast enough. Pending bytes to write: " + numPendingWriteBytes);
+                }
+                pendingWrites.add(byteBuffer);
+                numPendingWriteBytes += byteBuffer.remaining();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void close() {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        try {
+            socketChannel.close();
+        } catch (IOException ignore) {
+        }
+        writeLock.lock();
+        try {
+            pendingWrites.forEach(byteBufferPool::release);
+            pendingWrites.clear();
+            numPendingWriteBytes = 0;
+        } finally {
+            writeLock.unlock();
+        }
+        receivedFrames.clear();
+        // Let the selector deregister the cancelled key so the socket gets released
+        connectionMultiplexer.executeOnSelectorThread(() -> {
+        });
+    }
+
+    boolean isClosed() {
+        return isClosed || !socketChannel.isOpen();
+    }
+
+    void setSelectionKey(SelectionKey selectionKey) {
+        this.selectionKey = selectionKey;
+    }
+
+    void onHandlerReady() {
+        isHandlerBusy = false;
+        maybeDispatch();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // Called on selector thread
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    void onReadable(ByteBuffer readBuffer) throws IOException {
+        readBuffer.clear();
+        int numBytes = socketChannel.read(readBuffer);
+        if (numBytes < 0) {
+            onIOException(new EOFException("Socket closed by peer"));
+            return;
+        }
+        readBuffer.flip();
+        frameDecoder.decode(readBuffer, this::onFrameDecoded);
+    }
+
+    void onWritable() throws IOException {
+        writeLock.lock();
+        try {
+            while (!pendingWrites.isEmpty()) {
+                ByteBuffer byteBuffer = pendingWrites.peek();
+                numPendingWriteBytes -= socketChannel.write(byteBuffer);
+                if (byteBuffer.hasRemaining()) {
+                    return;
+                }
+                pendingWrites.poll();
+                byteBufferPool.release(byteBuffer);
+            }
+            setInterest(SelectionKey.OP_WRITE, false);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void onIOException(Exception exception) {
+        if (readException != null) {
+            return;
+        }
+        readException = exception;
+        SelectionKey key = selectionKey;
+        if (key != null) {
+            key.cancel();
+        }
+        // Frames received before the exception are still delivered, the exception is reported after them
+        maybeDispatch();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void onFrameDecoded(byte[] frame) {
+        receivedFrames.add(frame);
+        if (numReceivedFrames.incrementAndGet() >= MAX_PENDING_FRAMES && isReadPaused.compareAndSet(false, true)) {
+            log.debug("Pause reading from {} as {} received messages are not processed yet", socketChannel, MAX_PENDING_FRAMES);
+            setInterest(SelectionKey.OP_READ, false);
+            // The worker might have drained the queue before we set the flag
+            maybeResumeReading();
+        }
+        maybeDispatch();
+    }
+
+    private void maybeDispatch() {
+        if (isDispatching.compareAndSet(false, true)) {
+            executor.execute(this::dispatch);
+        }
+    }
+
+    private void dispatch() {
+        try {
+            byte[] frame;
+            while (!isClosed && (frame = receivedFrames.peek()) != null) {
+                // Set before calling the handler, as onHandlerReady might get called before onFrame returns
+                isHandlerBusy = true;
+                if (!handler.onFrame(frame)) {
+                    // The frame stays in the queue. If the handler stays busy, the queue fills up and we stop reading.
+                    break;
+                }
+                isHandlerBusy = false;
+                receivedFrames.poll();
+                numReceivedFrames.decrementAndGet();
+                maybeResumeReading();
+            }
+        } finally {
+            isDispatching.set(false);
+        }
+
+        if (isClosed) {
+            return;
+        }
+        if (!receivedFrames.isEmpty()) {
+            if (!isHandlerBusy) {
+                maybeDispatch();
+            }
+        } else if (readException != null && isExceptionDelivered.compareAndSet(false, true)) {
+            handler.onException(readException);
+        }
+    }
+
+    private void maybeResumeReading() {
+        if (numReceivedFrames.get() <= RESUME_READ_PENDING_FRAMES && isReadPaused.compareAndSet(true, false)) {
+            connectionMultiplexer.executeOnSelectorThread(() -> setInterest(SelectionKey.OP_READ, true));
+        }
+    }
+
+    private void setInterest(int operation, boolean enabled) {
+        SelectionKey key = selectionKey;
+        if (key == null || !key.isValid()) {
+            return;
+        }
+        int interestOps = key.interestOps();
+        key.interestOps(enabled ? interestOps | operation : interestOps & ~operation);
+    }
+
+    @Override
+    public String toString() {
+        return "MultiplexedSocketChannel [" + socketChannel + "]";
+    }
+}
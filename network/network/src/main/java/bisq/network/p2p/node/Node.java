@@ -31,6 +31,7 @@ import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.authorization.AuthorizationToken;
 import bisq.network.p2p.node.handshake.ConnectionHandshake;
+import bisq.network.p2p.node.network_load.AggregatedConnectionMetrics;
 import bisq.network.p2p.node.network_load.NetworkLoadSnapshot;
 import bisq.network.p2p.node.transport.ServerSocketResult;
 import bisq.network.p2p.node.transport.TransportService;
@@ -175,6 +176,10 @@ public class Node implements Connection.Handler {
     public final Observable<State> observableState = new Observable<>(State.NEW);
     @Getter
     public final NetworkLoadSnapshot networkLoadSnapshot;
+    @Getter
+    private final InboundMessagePipelineMetrics inboundMessagePipelineMetrics = new InboundMessagePipelineMetrics();
+    @Getter
+    private final AggregatedConnectionMetrics aggregatedConnectionMetrics = new AggregatedConnectionMetrics();
     private final Config config;
     private Optional<CountDownLatch> startingStateLatch = Optional.empty();
 
@@ -268,7 +273,8 @@ public class Node implements Connection.Handler {
                 socketTimeout,
                 myCapability,
                 authorizationService,
-                keyBundle);
+                keyBundle,
+                aggregatedConnectionMetrics);
         connectionHandshakes.put(connectionHandshake.getId(), connectionHandshake);
         log.debug("Inbound handshake request at: {}", myCapability.getAddress());
         try {
@@ -291,7 +297,10 @@ public class Node implements Connection.Handler {
             }
 
             NetworkLoadSnapshot peersNetworkLoadSnapshot = new NetworkLoadSnapshot(result.getPeersNetworkLoad());
-            ConnectionThrottle connectionThrottle = new ConnectionThrottle(peersNetworkLoadSnapshot, networkLoadSnapshot, config);
+            ConnectionThrottle connectionThrottle = new ConnectionThrottle(peersNetworkLoadSnapshot,
+                    networkLoadSnapshot,
+                    result.getConnectionMetrics(),
+                    config);
             InboundConnection connection = new InboundConnection(socket,
                     serverSocketResult,
                     result.getPeersCapability(),
@@ -300,6 +309,7 @@ public class Node implements Connection.Handler {
                     connectionThrottle,
                     this,
                     this::handleException);
+            startListening(connection);
             inboundConnectionsByAddress.put(connection.getPeerAddress(), connection);
             DISPATCHER.submit(() -> listeners.forEach(listener -> {
                 try {
@@ -344,6 +354,30 @@ public class Node implements Connection.Handler {
         return send(envelopePayloadMessage, connection);
     }
 
+    /**
+     * Queues the message at the outbound queue of the connection. Messages to different peers are sent in parallel,
+     * messages to the same peer in the order they got queued.
+     */
+    public CompletableFuture<Connection> sendAsync(EnvelopePayloadMessage envelopePayloadMessage,
+                                                   Connection connection) {
+        return sendAsync(envelopePayloadMessage, connection, Optional.empty());
+    }
+
+    /**
+     * @param coalescingKey If a message with the same key is still queued for that connection, the message is not
+     *                      queued again and the future of the already queued message is returned. Only messages which
+     *                      are redundant to each other must share a key.
+     */
+    public CompletableFuture<Connection> sendAsync(EnvelopePayloadMessage envelopePayloadMessage,
+                                                   Connection connection,
+                                                   Optional<String> coalescingKey) {
+        if (connection.isStopped()) {
+            return CompletableFuture.failedFuture(new ConnectionClosedException(connection));
+        }
+        return connection.sendAsync(envelopePayloadMessage, coalescingKey);
+    }
+
+    @Override
     public Connection send(EnvelopePayloadMessage envelopePayloadMessage, Connection connection) {
         if (connection.isStopped()) {
             log.debug("Send message failed as connection is already stopped {}", this);
@@ -354,7 +388,8 @@ public class Node implements Connection.Handler {
                     connection.getPeersNetworkLoadSnapshot().getCurrentNetworkLoad(),
                     connection.getPeerAddress().getFullAddress(),
                     connection.getSentMessageCounter().incrementAndGet(),
-                    connection.getPeersCapability().getFeatures());
+                    connection.getPeersCapability().getFeatures(),
+                    connection::isStopped);
             maybeSimulateDelay();
             return connection.send(envelopePayloadMessage, token);
         } catch (Exception exception) {
@@ -448,7 +483,7 @@ public class Node implements Connection.Handler {
             return outboundConnectionsByAddress.get(address);
         }
 
-        ConnectionHandshake connectionHandshake = new ConnectionHandshake(socket, banList, socketTimeout, myCapability, authorizationService, keyBundle);
+        ConnectionHandshake connectionHandshake = new ConnectionHandshake(socket, banList, socketTimeout, myCapability, authorizationService, keyBundle, aggregatedConnectionMetrics);
         connectionHandshakes.put(connectionHandshake.getId(), connectionHandshake);
         log.debug("Outbound handshake started: Initiated by {} to {}", myCapability.getAddress(), address);
         try {
@@ -481,7 +516,10 @@ public class Node implements Connection.Handler {
             }
 
             NetworkLoadSnapshot peersNetworkLoadSnapshot = new NetworkLoadSnapshot(result.getPeersNetworkLoad());
-            ConnectionThrottle connectionThrottle = new ConnectionThrottle(peersNetworkLoadSnapshot, networkLoadSnapshot, config);
+            ConnectionThrottle connectionThrottle = new ConnectionThrottle(peersNetworkLoadSnapshot,
+                    networkLoadSnapshot,
+                    result.getConnectionMetrics(),
+                    config);
             OutboundConnection connection = new OutboundConnection(socket,
                     address,
                     result.getPeersCapability(),
@@ -490,6 +528,7 @@ public class Node implements Connection.Handler {
                     connectionThrottle,
                     this,
                     this::handleException);
+            startListening(connection);
             outboundConnectionsByAddress.put(address, connection);
             DISPATCHER.submit(() -> listeners.forEach(listener -> {
                 try {
@@ -542,11 +581,15 @@ public class Node implements Connection.Handler {
     ///////////////////////////////////////////////////////////////////////////////////////////////////
 
     @Override
-    public void handleNetworkMessage(EnvelopePayloadMessage envelopePayloadMessage,
-                                     AuthorizationToken authorizationToken,
-                                     Connection connection) {
+    public boolean isMessageAuthorized(EnvelopePayloadMessage envelopePayloadMessage,
+                                       AuthorizationToken authorizationToken,
+                                       Connection connection) {
         if (isShutdown()) {
-            return;
+            return false;
+        }
+        if (connection.isStopped()) {
+            log.debug("Connection {} is already stopped. We reject the message.", connection);
+            return false;
         }
         maybeSimulateDelay();
         String myAddress = findMyAddress().orElseThrow().getFullAddress();
@@ -556,27 +599,34 @@ public class Node implements Connection.Handler {
                 networkLoadSnapshot.getPreviousNetworkLoad(),
                 connection.getId(),
                 myAddress);
-        if (isAuthorized) {
-            if (envelopePayloadMessage instanceof CloseConnectionMessage) {
-                CloseConnectionMessage closeConnectionMessage = (CloseConnectionMessage) envelopePayloadMessage;
-                log.debug("Received CloseConnectionMessage from {} with reason: {}",
-                        connection.getPeerAddress(), closeConnectionMessage.getCloseReason());
-                closeConnection(connection, CloseReason.CLOSE_MSG_RECEIVED.details(closeConnectionMessage.getCloseReason().name()));
-            } else {
-                // We got called from Connection on the dispatcher thread, so no mapping needed here.
-                connection.notifyListeners(envelopePayloadMessage);
-                listeners.forEach(listener -> {
-                    try {
-                        listener.onMessage(envelopePayloadMessage, connection, networkId);
-                    } catch (Exception e) {
-                        log.error("Calling onMessage at listener {} failed", listener, e);
-                    }
-                });
-            }
-        } else {
+        if (!isAuthorized) {
             //todo (Critical) should we add the connection to the ban list in that case or close the connection?
             log.warn("Message authorization failed. authorizedMessage={}", StringUtils.truncate(envelopePayloadMessage.toString()));
         }
+        return isAuthorized;
+    }
+
+    @Override
+    public void handleAuthorizedNetworkMessage(EnvelopePayloadMessage envelopePayloadMessage, Connection connection) {
+        if (isShutdown()) {
+            return;
+        }
+        if (envelopePayloadMessage instanceof CloseConnectionMessage) {
+            CloseConnectionMessage closeConnectionMessage = (CloseConnectionMessage) envelopePayloadMessage;
+            log.debug("Received CloseConnectionMessage from {} with reason: {}",
+                    connection.getPeerAddress(), closeConnectionMessage.getCloseReason());
+            closeConnection(connection, CloseReason.CLOSE_MSG_RECEIVED.details(closeConnectionMessage.getCloseReason().name()));
+        } else {
+            // We got called from Connection on the dispatcher thread, so no mapping needed here.
+            connection.notifyListeners(envelopePayloadMessage);
+            listeners.forEach(listener -> {
+                try {
+                    listener.onMessage(envelopePayloadMessage, connection, networkId);
+                } catch (Exception e) {
+                    log.error("Calling onMessage at listener {} failed", listener, e);
+                }
+            });
+        }
     }
 
     public void handleNetworkMessage(EnvelopePayloadMessage envelopePayloadMessage,
@@ -612,6 +662,7 @@ public class Node implements Connection.Handler {
     public void handleConnectionClosed(Connection connection, CloseReason closeReason) {
         Address peerAddress = connection.getPeerAddress();
         log.debug("Got called onConnectionClosed. connection={}, peerAddress={}", connection, peerAddress);
+        authorizationService.onDisconnect(connection.getId());
         boolean wasRemoved = false;
         if (connection instanceof InboundConnection) {
             wasRemoved = inboundConnectionsByAddress.remove(peerAddress) != null;
@@ -735,6 +786,12 @@ public class Node implements Connection.Handler {
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////////////
 
+    private void startListening(Connection connection) {
+        // The message counter window has to exist before the first message of the connection gets authorized
+        authorizationService.onConnect(connection.getId());
+        connection.startListening();
+    }
+
     private void handleException(Connection connection, Throwable exception) {
         log.debug("Got called handleException. connection={}, exception={}", connection, exception.getMessage());
         if (isShutdown()) {
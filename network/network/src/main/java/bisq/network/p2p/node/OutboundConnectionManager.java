@@ -169,9 +169,10 @@ public class OutboundConnectionManager {
                     peerCapability,
                     peersNetworkLoadSnapshot,
                     networkEnvelopeSocketChannel,
-                    new ConnectionMetrics()
+                    new ConnectionMetrics(node.getAggregatedConnectionMetrics())
             );
 
+            authorizationService.onConnect(outboundConnectionChannel.getId());
             connectionByChannel.put(socketChannel, outboundConnectionChannel);
             listeners.forEach(listener -> {
                 try {
@@ -189,7 +190,13 @@ public class OutboundConnectionManager {
             OutboundConnectionChannel connectionChannel = connectionByChannel.get(socketChannel);
 
             NetworkEnvelopeSocketChannel envelopeSocketChannel = connectionChannel.getNetworkEnvelopeSocketChannel();
-            List<NetworkEnvelope> networkEnvelopes = envelopeSocketChannel.receiveNetworkEnvelopes();
+            List<NetworkEnvelope> networkEnvelopes;
+            try {
+                networkEnvelopes = envelopeSocketChannel.receiveNetworkEnvelopes();
+            } catch (IOException e) {
+                closeConnection(socketChannel, CloseReason.EXCEPTION.exception(e));
+                throw e;
+            }
             log.debug("Received {} messages from peer {}.",
                     networkEnvelopes.size(), connectionChannel.getPeerAddress().getFullAddress());
 
@@ -198,6 +205,11 @@ public class OutboundConnectionManager {
                     networkEnvelope.getAuthorizationToken(),
                     connectionChannel
             ));
+
+            if (!socketChannel.isOpen()) {
+                // The channel got closed at reaching the end of stream
+                closeConnection(socketChannel, CloseReason.EXCEPTION.details("End of stream"));
+            }
         }
     }
 
@@ -241,6 +253,21 @@ public class OutboundConnectionManager {
         }
     }
 
+    private void closeConnection(SocketChannel socketChannel, CloseReason closeReason) {
+        verifiedConnections.remove(socketChannel);
+        Address address = addressByChannel.remove(socketChannel);
+        if (address != null) {
+            channelByAddress.remove(address, socketChannel);
+            completableFutureByPeerAddress.remove(address);
+        }
+        handshakeInitiatorByChannel.remove(socketChannel);
+        OutboundConnectionChannel connectionChannel = connectionByChannel.remove(socketChannel);
+        if (connectionChannel != null) {
+            authorizationService.onDisconnect(connectionChannel.getId());
+            connectionChannel.close(closeReason);
+        }
+    }
+
     private ByteBuffer wrapPayloadInByteBuffer(NetworkEnvelope networkEnvelope) {
         bisq.network.protobuf.NetworkEnvelope poWRequest = networkEnvelope.completeProto();
         byte[] requestInBytes = poWRequest.toByteArray();
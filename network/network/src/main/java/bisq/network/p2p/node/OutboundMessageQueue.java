@@ -0,0 +1,179 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import bisq.network.NetworkService;
+import bisq.network.p2p.message.EnvelopePayloadMessage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queue for the messages to be sent to the peer of one connection. A single writer task per connection drains the
+ * queue on the NETWORK_IO_POOL. Sending to a slow peer (PoW minting, throttling, slow socket) does not delay the
+ * sending to other peers, and the messages to one peer are sent in the order they have been queued.
+ * <p>
+ * If a coalescing key is given and a message with the same key is still waiting in the queue, the message is not
+ * queued again and the caller gets the future of the pending message. Messages without a key are always sent.
+ * <p>
+ * At shutdown the pending messages are dropped and their futures get completed with a ConnectionClosedException.
+ * <p>
+ * If the send rate limit of the ConnectionThrottle is exceeded, the writer task gets rescheduled after the required
+ * delay instead of blocking the thread.
+ */
+@Slf4j
+class OutboundMessageQueue {
+    private static final int MAX_PENDING_MESSAGES = 1000;
+    // Max. number of messages sent in one go before giving other connections a chance to use the thread
+    private static final int MAX_BATCH_SIZE = 10;
+
+    private static class PendingMessage {
+        private final EnvelopePayloadMessage envelopePayloadMessage;
+        private final Optional<String> coalescingKey;
+        private final CompletableFuture<Connection> future = new CompletableFuture<>();
+
+        private PendingMessage(EnvelopePayloadMessage envelopePayloadMessage, Optional<String> coalescingKey) {
+            this.envelopePayloadMessage = envelopePayloadMessage;
+            this.coalescingKey = coalescingKey;
+        }
+    }
+
+    private final Connection connection;
+    private final ConnectionThrottle connectionThrottle;
+    private final Connection.Handler handler;
+    private final Queue<PendingMessage> pendingMessages = new ConcurrentLinkedQueue<>();
+    private final Map<String, PendingMessage> coalescableMessages = new ConcurrentHashMap<>();
+    private final AtomicInteger numPendingMessages = new AtomicInteger();
+    private final AtomicBoolean isWriting = new AtomicBoolean();
+    private volatile boolean isShutdown;
+
+    OutboundMessageQueue(Connection connection, ConnectionThrottle connectionThrottle, Connection.Handler handler) {
+        this.connection = connection;
+        this.connectionThrottle = connectionThrottle;
+        this.handler = handler;
+    }
+
+    CompletableFuture<Connection> enqueue(EnvelopePayloadMessage envelopePayloadMessage, Optional<String> coalescingKey) {
+        if (isShutdown) {
+            return CompletableFuture.failedFuture(new ConnectionClosedException(connection));
+        }
+
+        PendingMessage pendingMessage = new PendingMessage(envelopePayloadMessage, coalescingKey);
+        if (coalescingKey.isPresent()) {
+            PendingMessage existing = coalescableMessages.putIfAbsent(coalescingKey.get(), pendingMessage);
+            if (existing != null) {
+                log.debug("Message {} with coalescing key {} is already queued for {}. We do not queue it again.",
+                        envelopePayloadMessage.getClass().getSimpleName(), coalescingKey.get(), connection);
+                return existing.future;
+            }
+        }
+
+        if (numPendingMessages.incrementAndGet() > MAX_PENDING_MESSAGES) {
+            numPendingMessages.decrementAndGet();
+            coalescingKey.ifPresent(key -> coalescableMessages.remove(key, pendingMessage));
+            log.warn("Outbound message queue of {} is full. We drop the message {}.",
+                    connection, envelopePayloadMessage.getClass().getSimpleName());
+            pendingMessage.future.completeExceptionally(new ConnectionException("Outbound message queue is full"));
+            return pendingMessage.future;
+        }
+
+        pendingMessages.add(pendingMessage);
+        if (isShutdown) {
+            // Shutdown happened after our check, and the drain might have missed our message
+            dropPendingMessages();
+            return pendingMessage.future;
+        }
+        if (isWriting.compareAndSet(false, true)) {
+            NetworkService.NETWORK_IO_POOL.execute(this::sendPendingMessages);
+        }
+        return pendingMessage.future;
+    }
+
+    void shutdown() {
+        isShutdown = true;
+        dropPendingMessages();
+    }
+
+    int getNumPendingMessages() {
+        return numPendingMessages.get();
+    }
+
+    private void dropPendingMessages() {
+        PendingMessage pendingMessage;
+        while ((pendingMessage = pendingMessages.poll()) != null) {
+            removeFromQueue(pendingMessage);
+            pendingMessage.future.completeExceptionally(new ConnectionClosedException(connection));
+        }
+    }
+
+    private void sendPendingMessages() {
+        for (int i = 0; i < MAX_BATCH_SIZE; i++) {
+            if (isShutdown) {
+                dropPendingMessages();
+                isWriting.set(false);
+                return;
+            }
+
+            if (!pendingMessages.isEmpty()) {
+                long delay = connectionThrottle.getSendMessageDelay();
+                if (delay > 0) {
+                    // We keep the isWriting flag, so no other writer task gets started meanwhile
+                    CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, NetworkService.NETWORK_IO_POOL)
+                            .execute(this::sendPendingMessages);
+                    return;
+                }
+            }
+            PendingMessage pendingMessage = pendingMessages.poll();
+            if (pendingMessage == null) {
+                isWriting.set(false);
+                // A message might have been added after our poll but before we have reset the flag
+                if (!pendingMessages.isEmpty() && isWriting.compareAndSet(false, true)) {
+                    NetworkService.NETWORK_IO_POOL.execute(this::sendPendingMessages);
+                }
+                return;
+            }
+            send(pendingMessage);
+        }
+        // Continue after the tasks of other connections which got queued meanwhile
+        NetworkService.NETWORK_IO_POOL.execute(this::sendPendingMessages);
+    }
+
+    private void send(PendingMessage pendingMessage) {
+        // Once we start sending, a message with the same coalescing key gets queued again
+        removeFromQueue(pendingMessage);
+        try {
+            handler.send(pendingMessage.envelopePayloadMessage, connection);
+            pendingMessage.future.complete(connection);
+        } catch (Exception e) {
+            pendingMessage.future.completeExceptionally(e);
+        }
+    }
+
+    private void removeFromQueue(PendingMessage pendingMessage) {
+        pendingMessage.coalescingKey.ifPresent(key -> coalescableMessages.remove(key, pendingMessage));
+        numPendingMessages.decrementAndGet();
+    }
+}
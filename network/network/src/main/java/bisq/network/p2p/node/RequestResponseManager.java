@@ -32,12 +32,16 @@ public class RequestResponseManager {
 
     void onReceived(EnvelopePayloadMessage envelopePayloadMessage) {
         if (envelopePayloadMessage instanceof Response) {
-            String requestId = ((Response) envelopePayloadMessage).getRequestId();
+            Response response = (Response) envelopePayloadMessage;
+            String requestId = response.getRequestId();
             synchronized (pendingRequests) {
                 if (pendingRequests.containsKey(requestId)) {
-                    long ts = pendingRequests.get(requestId);
-                    pendingRequests.remove(requestId);
-                    connectionMetrics.addRtt(System.currentTimeMillis() - ts);
+                    // We keep the request pending until we got the last response
+                    if (!response.hasMoreResponses()) {
+                        long ts = pendingRequests.get(requestId);
+                        pendingRequests.remove(requestId);
+                        connectionMetrics.addRtt(System.currentTimeMillis() - ts);
+                    }
                 } else {
                     log.warn("We received a Response message but did not had a matching request. envelopePayloadMessage={}",
                             StringUtils.truncate(envelopePayloadMessage.toString(), 500));
@@ -17,6 +17,7 @@
 
 package bisq.network.p2p.node.authorization;
 
+import bisq.common.util.StringUtils;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.node.Feature;
 import bisq.network.p2p.node.authorization.token.equi_hash.EquiHashTokenService;
@@ -29,6 +30,7 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -78,11 +80,21 @@ public class AuthorizationService {
                                           String peerAddress,
                                           int messageCounter,
                                           List<Feature> features) {
+        return createToken(message, networkLoad, peerAddress, messageCounter, features, () -> false);
+    }
+
+    public AuthorizationToken createToken(EnvelopePayloadMessage message,
+                                          NetworkLoad networkLoad,
+                                          String peerAddress,
+                                          int messageCounter,
+                                          List<Feature> features,
+                                          BooleanSupplier isCancelled) {
         AuthorizationTokenType preferredAuthorizationTokenType = selectAuthorizationTokenType(features);
         return supportedServices.get(preferredAuthorizationTokenType).createToken(message,
                 networkLoad,
                 peerAddress,
-                messageCounter);
+                messageCounter,
+                isCancelled);
     }
 
     public boolean isAuthorized(EnvelopePayloadMessage message,
@@ -117,6 +129,32 @@ public class AuthorizationService {
                 myAddress);
     }
 
+    /**
+     * Handshake messages are received before the connection exists. We use a temporary connection ID which is only
+     * valid for the verification of that single message.
+     */
+    public boolean isHandshakeMessageAuthorized(EnvelopePayloadMessage message,
+                                                AuthorizationToken authorizationToken,
+                                                NetworkLoad currentNetworkLoad,
+                                                String myAddress) {
+        String connectionId = StringUtils.createUid();
+        onConnect(connectionId);
+        try {
+            return isAuthorized(message, authorizationToken, currentNetworkLoad, connectionId, myAddress);
+        } finally {
+            onDisconnect(connectionId);
+        }
+    }
+
+    // Needs to be called before the first message of the connection gets authorized
+    public void onConnect(String connectionId) {
+        supportedServices.values().forEach(service -> service.onConnect(connectionId));
+    }
+
+    public void onDisconnect(String connectionId) {
+        supportedServices.values().forEach(service -> service.onDisconnect(connectionId));
+    }
+
     // Get first match with peers feature based on order of myPreferredFilterTypes
     private AuthorizationTokenType selectAuthorizationTokenType(List<Feature> peersFeatures) {
         return selectAuthorizationTokenType(myPreferredAuthorizationTokenTypes, peersFeatures);
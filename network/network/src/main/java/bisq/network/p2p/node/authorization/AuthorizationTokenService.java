@@ -4,20 +4,60 @@ import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.node.network_load.NetworkLoad;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
 
 @Slf4j
 public abstract class AuthorizationTokenService<T extends AuthorizationToken> {
+    // Keep track of message counter per connection to avoid reuse of pow
+    private final Map<String, MessageCounterWindow> messageCounterWindowByConnectionId = new ConcurrentHashMap<>();
 
     abstract public T createToken(EnvelopePayloadMessage message,
                                   NetworkLoad networkLoad,
                                   String peerAddress,
                                   int messageCounter);
 
+    /**
+     * @param isCancelled Allows to abort creation of costly tokens (e.g. if the connection got closed meanwhile).
+     *                    Implementations supporting it throw a CancellationException.
+     */
+    public T createToken(EnvelopePayloadMessage message,
+                         NetworkLoad networkLoad,
+                         String peerAddress,
+                         int messageCounter,
+                         BooleanSupplier isCancelled) {
+        return createToken(message, networkLoad, peerAddress, messageCounter);
+    }
+
     public abstract boolean isAuthorized(EnvelopePayloadMessage message,
                                          AuthorizationToken authorizationToken,
                                          NetworkLoad currentNetworkLoad,
                                          Optional<NetworkLoad> previousNetworkLoad,
                                          String connectionId,
                                          String myAddress);
+
+    public void onConnect(String connectionId) {
+        messageCounterWindowByConnectionId.putIfAbsent(connectionId, new MessageCounterWindow());
+    }
+
+    public void onDisconnect(String connectionId) {
+        messageCounterWindowByConnectionId.remove(connectionId);
+    }
+
+    /**
+     * @return True if the message counter was not used before at that connection and is not too old to be verified.
+     * The message counter is then marked as used. Messages of unknown or already closed connections are rejected, so
+     * a late authorization cannot recreate the window of a closed connection.
+     */
+    protected boolean tryAcceptMessageCounter(String connectionId, int messageCounter) {
+        MessageCounterWindow messageCounterWindow = messageCounterWindowByConnectionId.get(connectionId);
+        if (messageCounterWindow == null) {
+            log.debug("No message counter window found for connectionId {}. The connection is not known or got already closed.",
+                    connectionId);
+            return false;
+        }
+        return messageCounterWindow.tryAccept(messageCounter);
+    }
 }
@@ -0,0 +1,95 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.authorization;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window anti-replay check for the message counters of one connection (as used by IPsec, see RFC 4303 and
+ * RFC 6479). The sender increments the message counter for each message, but as messages get sent concurrently they
+ * might arrive out of order. We accept each counter only once and only if it is not older than WINDOW_SIZE counters
+ * behind the highest received counter.
+ * <p>
+ * The received counters inside the window are stored in a bitmap used as a ring buffer (bit index is counter modulo
+ * WINDOW_SIZE), so memory is constant independent of the number of received messages.
+ */
+public class MessageCounterWindow {
+    public static final int WINDOW_SIZE = 1024;
+    private static final int NUM_WORDS = WINDOW_SIZE / Long.SIZE;
+
+    private final long[] bitmap = new long[NUM_WORDS];
+    private long highestCounter;
+    private boolean isEmpty = true;
+
+    /**
+     * @return True if the counter was not received before and is inside the window. In that case the counter is
+     * marked as received.
+     */
+    public synchronized boolean tryAccept(long counter) {
+        if (isEmpty) {
+            isEmpty = false;
+            highestCounter = counter;
+            setBit(counter);
+            return true;
+        }
+
+        if (counter > highestCounter) {
+            long advance = counter - highestCounter;
+            if (advance >= WINDOW_SIZE) {
+                Arrays.fill(bitmap, 0);
+            } else {
+                // Clear the bits of the counters which got skipped and are now inside the window
+                for (long skipped = highestCounter + 1; skipped < counter; skipped++) {
+                    clearBit(skipped);
+                }
+            }
+            highestCounter = counter;
+            setBit(counter);
+            return true;
+        }
+
+        if (highestCounter - counter >= WINDOW_SIZE) {
+            // Too old, we cannot tell if it was received already
+            return false;
+        }
+        if (isBitSet(counter)) {
+            return false;
+        }
+        setBit(counter);
+        return true;
+    }
+
+    private boolean isBitSet(long counter) {
+        int index = getBitIndex(counter);
+        return (bitmap[index / Long.SIZE] & (1L << (index % Long.SIZE))) != 0;
+    }
+
+    private void setBit(long counter) {
+        int index = getBitIndex(counter);
+        bitmap[index / Long.SIZE] |= 1L << (index % Long.SIZE);
+    }
+
+    private void clearBit(long counter) {
+        int index = getBitIndex(counter);
+        bitmap[index / Long.SIZE] &= ~(1L << (index % Long.SIZE));
+    }
+
+    private static int getBitIndex(long counter) {
+        return (int) Math.floorMod(counter, (long) WINDOW_SIZE);
+    }
+}
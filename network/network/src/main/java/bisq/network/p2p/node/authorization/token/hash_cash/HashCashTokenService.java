@@ -18,8 +18,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigInteger;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
 
 @Slf4j
 public class HashCashTokenService extends AuthorizationTokenService<HashCashToken> {
@@ -31,8 +31,6 @@ public class HashCashTokenService extends AuthorizationTokenService<HashCashToke
     public final static int DIFFICULTY_TOLERANCE = 50_000;
 
     private final HashCashProofOfWorkService proofOfWorkService;
-    // Keep track of message counter per connection to avoid reuse of pow
-    private final Map<String, Set<Integer>> receivedMessageCountersByConnectionId = new ConcurrentHashMap<>();
     @Getter
     private double accumulatedPoWDuration;
     @Getter
@@ -49,11 +47,20 @@ public class HashCashTokenService extends AuthorizationTokenService<HashCashToke
                                      NetworkLoad networkLoad,
                                      String peerAddress,
                                      int messageCounter) {
+        return createToken(message, networkLoad, peerAddress, messageCounter, () -> false);
+    }
+
+    @Override
+    public HashCashToken createToken(EnvelopePayloadMessage message,
+                                     NetworkLoad networkLoad,
+                                     String peerAddress,
+                                     int messageCounter,
+                                     BooleanSupplier isCancelled) {
         long ts = System.currentTimeMillis();
         double difficulty = calculateDifficulty(message, networkLoad);
         byte[] challenge = getChallenge(peerAddress, messageCounter);
         byte[] payload = getPayload(message);
-        ProofOfWork proofOfWork = proofOfWorkService.mint(payload, challenge, difficulty);
+        ProofOfWork proofOfWork = proofOfWorkService.mint(payload, challenge, difficulty, isCancelled);
         HashCashToken token = new HashCashToken(proofOfWork, messageCounter);
         long duration = System.currentTimeMillis() - ts;
         accumulatedPoWDuration += duration;
@@ -104,18 +111,11 @@ public class HashCashTokenService extends AuthorizationTokenService<HashCashToke
         int messageCounter = hashCashToken.getMessageCounter();
 
         // Verify that pow is not reused
-        Set<Integer> receivedMessageCounters;
-        if (receivedMessageCountersByConnectionId.containsKey(connectionId)) {
-            receivedMessageCounters = receivedMessageCountersByConnectionId.get(connectionId);
-            if (receivedMessageCounters.contains(messageCounter)) {
-                log.warn("Invalid receivedMessageCounters. We received the proofOfWork for that message already.");
-                return false;
-            }
-        } else {
-            receivedMessageCounters = new HashSet<>();
-            receivedMessageCountersByConnectionId.put(connectionId, receivedMessageCounters);
+        if (!tryAcceptMessageCounter(connectionId, messageCounter)) {
+            log.warn("Invalid messageCounter. We received the proofOfWork for that message already or the " +
+                    "messageCounter is too old. messageCounter={}", messageCounter);
+            return false;
         }
-        receivedMessageCounters.add(messageCounter);
 
         // Verify payload
         byte[] payload = getPayload(message);
@@ -0,0 +1,68 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.envelope.parser.nio;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded pool of equally sized direct ByteBuffers. Direct buffers avoid the extra copy the JDK does for heap buffers
+ * at socket reads and writes, but are expensive to allocate, so we keep them around.
+ * If the pool is exhausted we allocate a new buffer. Released buffers are dropped if the pool is full.
+ */
+public class ByteBufferPool {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    public static final int DEFAULT_MAX_POOLED_BUFFERS = 256;
+
+    @Getter
+    private final int bufferSize;
+    private final BlockingQueue<ByteBuffer> pool;
+
+    public ByteBufferPool() {
+        this(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_POOLED_BUFFERS);
+    }
+
+    public ByteBufferPool(int bufferSize, int maxPooledBuffers) {
+        this.bufferSize = bufferSize;
+        pool = new ArrayBlockingQueue<>(maxPooledBuffers);
+    }
+
+    public ByteBuffer acquire() {
+        ByteBuffer byteBuffer = pool.poll();
+        if (byteBuffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        byteBuffer.clear();
+        return byteBuffer;
+    }
+
+    public void release(ByteBuffer byteBuffer) {
+        // Buffers not allocated by the pool (e.g. for messages larger than bufferSize) are left to the GC
+        if (byteBuffer.isDirect() && byteBuffer.capacity() == bufferSize) {
+            byteBuffer.clear();
+            pool.offer(byteBuffer);
+        }
+    }
+
+    public int numPooledBuffers() {
+        return pool.size();
+    }
+}
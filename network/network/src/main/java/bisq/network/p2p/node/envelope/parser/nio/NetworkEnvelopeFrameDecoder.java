@@ -0,0 +1,95 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.envelope.parser.nio;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Incrementally splits a stream of varint length-delimited protobuf messages (as written by
+ * `writeDelimitedTo`) into frames. Bytes can be fed in arbitrary chunks, a frame is only emitted once it is complete.
+ * Not thread safe. Each connection uses its own instance.
+ * <p>
+ * The frame buffer grows with the received bytes instead of being allocated at the announced length, so a peer
+ * cannot make us allocate maxFrameSize bytes by sending only a length prefix.
+ */
+public class NetworkEnvelopeFrameDecoder {
+    private static final int MAX_VARINT_BYTES = 5;
+    private static final int INITIAL_FRAME_BUFFER_SIZE = 8 * 1024;
+
+    private final int maxFrameSize;
+    private int lengthBytesRead;
+    private int lengthPrefix;
+    private int frameLength;
+    @Nullable
+    private byte[] frame;
+    private int frameBytesRead;
+
+    public NetworkEnvelopeFrameDecoder(int maxFrameSize) {
+        this.maxFrameSize = maxFrameSize;
+    }
+
+    /**
+     * Consumes all remaining bytes of the byteBuffer and passes each completed frame to the frameHandler.
+     *
+     * @throws IOException if the length prefix is malformed or exceeds maxFrameSize. The stream cannot be
+     *                     recovered in that case and the connection must be closed.
+     */
+    public void decode(ByteBuffer byteBuffer, Consumer<byte[]> frameHandler) throws IOException {
+        while (byteBuffer.hasRemaining()) {
+            if (frame == null) {
+                byte readByte = byteBuffer.get();
+                lengthPrefix |= (readByte & 0x7f) << (7 * lengthBytesRead);
+                lengthBytesRead++;
+                if ((readByte & 0x80) != 0) {
+                    if (lengthBytesRead == MAX_VARINT_BYTES) {
+                        throw new IOException("Malformed message length prefix");
+                    }
+                    continue;
+                }
+                if (lengthPrefix < 0 || lengthPrefix > maxFrameSize) {
+                    throw new IOException("Message length " + lengthPrefix + " exceeds maxFrameSize " + maxFrameSize);
+                }
+                frameLength = lengthPrefix;
+                frame = new byte[Math.min(frameLength, INITIAL_FRAME_BUFFER_SIZE)];
+                frameBytesRead = 0;
+                lengthBytesRead = 0;
+                lengthPrefix = 0;
+            }
+
+            if (frameBytesRead == frame.length && frame.length < frameLength) {
+                frame = Arrays.copyOf(frame, (int) Math.min(frameLength, 2L * frame.length));
+            }
+            int numBytes = Math.min(byteBuffer.remaining(), frame.length - frameBytesRead);
+            byteBuffer.get(frame, frameBytesRead, numBytes);
+            frameBytesRead += numBytes;
+            if (frameBytesRead == frameLength) {
+                byte[] completedFrame = frame;
+                frame = null;
+                frameHandler.accept(completedFrame);
+            }
+        }
+    }
+
+    public boolean hasPartialFrame() {
+        return frame != null || lengthBytesRead > 0;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.envelope.parser.nio;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes a varint length-delimited protobuf message into a ByteBuffer. Same wire format as `writeDelimitedTo`, so
+ * it is compatible with peers using the blocking socket streams.
+ */
+public class NetworkEnvelopeFrameEncoder {
+    /**
+     * @return A flipped ByteBuffer ready for writing to a channel. If the frame fits into a pooled buffer it is taken
+     * from the byteBufferPool and should be released after it has been written.
+     */
+    public static ByteBuffer encode(MessageLite proto, ByteBufferPool byteBufferPool) throws IOException {
+        int messageLength = proto.getSerializedSize();
+        int frameLength = CodedOutputStream.computeUInt32SizeNoTag(messageLength) + messageLength;
+        ByteBuffer byteBuffer = frameLength <= byteBufferPool.getBufferSize() ?
+                byteBufferPool.acquire() :
+                ByteBuffer.allocate(frameLength);
+        CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(byteBuffer);
+        codedOutputStream.writeUInt32NoTag(messageLength);
+        proto.writeTo(codedOutputStream);
+        codedOutputStream.flush();
+        byteBuffer.flip();
+        return byteBuffer;
+    }
+}
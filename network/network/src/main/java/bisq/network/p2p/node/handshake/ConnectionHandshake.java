@@ -29,6 +29,7 @@ import bisq.network.p2p.node.ConnectionException;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.authorization.AuthorizationToken;
 import bisq.network.p2p.node.envelope.NetworkEnvelopeSocket;
+import bisq.network.p2p.node.network_load.AggregatedConnectionMetrics;
 import bisq.network.p2p.node.network_load.ConnectionMetrics;
 import bisq.network.p2p.node.network_load.NetworkLoad;
 import bisq.network.p2p.services.peer_group.BanList;
@@ -60,6 +61,7 @@ public final class ConnectionHandshake {
     private final Capability capability;
     private final AuthorizationService authorizationService;
     private final KeyBundle myKeyBundle;
+    private final AggregatedConnectionMetrics aggregatedConnectionMetrics;
     private NetworkEnvelopeSocket networkEnvelopeSocket;
 
     @Getter
@@ -191,11 +193,13 @@ public final class ConnectionHandshake {
                                int socketTimeout,
                                Capability capability,
                                AuthorizationService authorizationService,
-                               KeyBundle myKeyBundle) {
+                               KeyBundle myKeyBundle,
+                               AggregatedConnectionMetrics aggregatedConnectionMetrics) {
         this.banList = banList;
         this.capability = capability;
         this.authorizationService = authorizationService;
         this.myKeyBundle = myKeyBundle;
+        this.aggregatedConnectionMetrics = aggregatedConnectionMetrics;
 
         try {
             // socket.setTcpNoDelay(true);
@@ -212,7 +216,7 @@ public final class ConnectionHandshake {
     // Client side protocol
     public Result start(NetworkLoad myNetworkLoad, Address peerAddress) {
         try {
-            ConnectionMetrics connectionMetrics = new ConnectionMetrics();
+            ConnectionMetrics connectionMetrics = new ConnectionMetrics(aggregatedConnectionMetrics);
 
             Address myAddress = capability.getAddress();
             long signatureDate = System.currentTimeMillis();
@@ -251,10 +255,9 @@ public final class ConnectionHandshake {
                 throw new ConnectionException(ADDRESS_BANNED, "PeerAddress is banned. address=" + address);
             }
 
-            boolean isAuthorized = authorizationService.isAuthorized(response,
+            boolean isAuthorized = authorizationService.isHandshakeMessageAuthorized(response,
                     responseNetworkEnvelope.getAuthorizationToken(),
                     myNetworkLoad,
-                    StringUtils.createUid(),
                     myAddress.getFullAddress());
 
             if (!isAuthorized) {
@@ -284,7 +287,7 @@ public final class ConnectionHandshake {
     // Server side protocol
     public Result onSocket(NetworkLoad myNetworkLoad) {
         try {
-            ConnectionMetrics connectionMetrics = new ConnectionMetrics();
+            ConnectionMetrics connectionMetrics = new ConnectionMetrics(aggregatedConnectionMetrics);
             bisq.network.protobuf.NetworkEnvelope requestProto = networkEnvelopeSocket.receiveNextEnvelope();
             if (requestProto == null) {
                 throw new ConnectionException(PROTOBUF_IS_NULL,
@@ -310,10 +313,9 @@ public final class ConnectionHandshake {
             Address myAddress = capability.getAddress();
             // As the request did not know our load at the initial request, they used the NetworkLoad.INITIAL_LOAD for the
             // AuthorizationToken.
-            boolean isAuthorized = authorizationService.isAuthorized(request,
+            boolean isAuthorized = authorizationService.isHandshakeMessageAuthorized(request,
                     requestNetworkEnvelope.getAuthorizationToken(),
                     NetworkLoad.INITIAL_NETWORK_LOAD,
-                    StringUtils.createUid(),
                     myAddress.getFullAddress());
             if (!isAuthorized) {
                 throw new ConnectionException(AUTHORIZATION_FAILED, "Authorization of inbound connection request failed. AuthorizationToken=" + requestNetworkEnvelope.getAuthorizationToken());
@@ -17,7 +17,6 @@
 
 package bisq.network.p2p.node.handshake;
 
-import bisq.common.util.StringUtils;
 import bisq.network.common.Address;
 import bisq.network.common.AddressOwnershipProof;
 import bisq.network.common.AddressOwnershipProofGenerator;
@@ -103,10 +102,9 @@ public class ConnectionHandshakeInitiator {
             throw new ConnectionException(ADDRESS_BANNED, "PeerAddress is banned. address=" + address);
         }
 
-        boolean isAuthorized = authorizationService.isAuthorized(response,
+        boolean isAuthorized = authorizationService.isHandshakeMessageAuthorized(response,
                 responseNetworkEnvelope.getAuthorizationToken(),
                 myNetworkLoad,
-                StringUtils.createUid(),
                 myCapability.getAddress().getFullAddress());
 
         if (!isAuthorized) {
@@ -19,7 +19,6 @@ package bisq.network.p2p.node.handshake;
 
 import bisq.common.data.Pair;
 import bisq.common.encoding.Hex;
-import bisq.common.util.StringUtils;
 import bisq.network.common.Address;
 import bisq.network.p2p.message.NetworkEnvelope;
 import bisq.network.p2p.node.Capability;
@@ -99,11 +98,10 @@ public class ConnectionHandshakeResponder {
         String myAddress = myCapability.getAddress().getFullAddress();
         // As the request did not know our load at the initial request, they used the NetworkLoad.INITIAL_LOAD for the
         // AuthorizationToken.
-        boolean isAuthorized = authorizationService.isAuthorized(
+        boolean isAuthorized = authorizationService.isHandshakeMessageAuthorized(
                 request,
                 requestNetworkEnvelope.getAuthorizationToken(),
                 NetworkLoad.INITIAL_NETWORK_LOAD,
-                StringUtils.createUid(),
                 myAddress
         );
 
@@ -0,0 +1,93 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.network_load;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregates the ConnectionMetrics of all connections of a node at the time they get updated. Allows to read the
+ * values of the last hour in constant time instead of iterating all connections. Traffic of closed connections is
+ * included until it falls out of the time window.
+ */
+public class AggregatedConnectionMetrics {
+    private static final long MINUTE = 60_000;
+
+    private final MinuteTimeSeries numMessagesSentPerMinute = new MinuteTimeSeries();
+    private final MinuteTimeSeries sentBytesPerMinute = new MinuteTimeSeries();
+    private final MinuteTimeSeries spentSendMessageTimePerMinute = new MinuteTimeSeries();
+    private final MinuteTimeSeries deserializeTimePerMinute = new MinuteTimeSeries();
+    private final MinuteTimeSeries numMessagesReceivedPerMinute = new MinuteTimeSeries();
+    private final MinuteTimeSeries receivedBytesPerMinute = new MinuteTimeSeries();
+    private final Map<String, AtomicLong> numSentMessagesByMessageClassName = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> numReceivedMessagesByMessageClassName = new ConcurrentHashMap<>();
+
+    void onSent(long now, String messageClassName, long serializedSize, long spentTime) {
+        long minute = now / MINUTE;
+        sentBytesPerMinute.add(minute, serializedSize);
+        numMessagesSentPerMinute.add(minute, 1);
+        spentSendMessageTimePerMinute.add(minute, spentTime);
+        numSentMessagesByMessageClassName.computeIfAbsent(messageClassName, key -> new AtomicLong()).getAndIncrement();
+    }
+
+    void onReceived(long now, String messageClassName, long serializedSize, long deserializeTime) {
+        long minute = now / MINUTE;
+        receivedBytesPerMinute.add(minute, serializedSize);
+        numMessagesReceivedPerMinute.add(minute, 1);
+        deserializeTimePerMinute.add(minute, deserializeTime);
+        numReceivedMessagesByMessageClassName.computeIfAbsent(messageClassName, key -> new AtomicLong()).getAndIncrement();
+    }
+
+    public long getNumMessagesSentOfLastHour() {
+        return sumOfLastHour(numMessagesSentPerMinute);
+    }
+
+    public long getSentBytesOfLastHour() {
+        return sumOfLastHour(sentBytesPerMinute);
+    }
+
+    public long getSpentSendMessageTimeOfLastHour() {
+        return sumOfLastHour(spentSendMessageTimePerMinute);
+    }
+
+    public long getNumMessagesReceivedOfLastHour() {
+        return sumOfLastHour(numMessagesReceivedPerMinute);
+    }
+
+    public long getReceivedBytesOfLastHour() {
+        return sumOfLastHour(receivedBytesPerMinute);
+    }
+
+    public long getDeserializeTimeOfLastHour() {
+        return sumOfLastHour(deserializeTimePerMinute);
+    }
+
+    public Map<String, AtomicLong> getNumSentMessagesByMessageClassName() {
+        return Collections.unmodifiableMap(numSentMessagesByMessageClassName);
+    }
+
+    public Map<String, AtomicLong> getNumReceivedMessagesByMessageClassName() {
+        return Collections.unmodifiableMap(numReceivedMessagesByMessageClassName);
+    }
+
+    private long sumOfLastHour(MinuteTimeSeries timeSeries) {
+        return timeSeries.getSumOfLastMinutes(System.currentTimeMillis() / MINUTE, 60);
+    }
+}
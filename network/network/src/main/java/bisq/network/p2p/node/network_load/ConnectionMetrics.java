@@ -23,29 +23,45 @@ import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Per connection metrics. Is called from the read and send threads of the connection, thus all fields are
+ * thread safe. The per minute values are kept in fixed size ring buffers covering the last hour, so memory stays
+ * constant for long-lived connections.
+ */
 @Slf4j
-@Getter
 @ToString
 public class ConnectionMetrics {
+    @Getter
     private final long created;
+    @Getter
     private final AtomicLong lastUpdate = new AtomicLong();
-    private final TreeMap<Integer, AtomicLong> numMessagesSentPerMinute = new TreeMap<>();
-    private final TreeMap<Integer, AtomicLong> sentBytesPerMinute = new TreeMap<>();
-    private final TreeMap<Integer, AtomicLong> spentSendMessageTimePerMinute = new TreeMap<>();
-    private final TreeMap<Integer, AtomicLong> deserializeTimePerMinute = new TreeMap<>();
-    private final TreeMap<Integer, AtomicLong> numMessagesReceivedPerMinute = new TreeMap<>();
-    private final TreeMap<Integer, AtomicLong> receivedBytesPerMinute = new TreeMap<>();
-    private final Map<String, AtomicLong> numSentMessagesByMessageClassName = new HashMap<>();
-    private final Map<String, AtomicLong> numReceivedMessagesByMessageClassName = new HashMap<>();
-
-    private final AtomicLong numMessagesReceived = new AtomicLong();
-    private final List<Long> rrtList = new CopyOnWriteArrayList<>();
-
-    public ConnectionMetrics() {
+    private final MinuteTimeSeries numMessagesSentPerMinute = new MinuteTimeSeries();
+    private final MinuteTimeSeries sentBytesPerMinute = new MinuteTimeSeries();
+    private final MinuteTimeSeries spentSendMessageTimePerMinute = new MinuteTimeSeries();
+    private final MinuteTimeSeries deserializeTimePerMinute = new MinuteTimeSeries();
+    private final MinuteTimeSeries numMessagesReceivedPerMinute = new MinuteTimeSeries();
+    private final MinuteTimeSeries receivedBytesPerMinute = new MinuteTimeSeries();
+    @Getter
+    private final Map<String, AtomicLong> numSentMessagesByMessageClassName = new ConcurrentHashMap<>();
+    @Getter
+    private final Map<String, AtomicLong> numReceivedMessagesByMessageClassName = new ConcurrentHashMap<>();
+    private final RttHistogram rttHistogram = new RttHistogram();
+    // Throttle stats. A deferral is counted each time the sending or processing of the next message got rescheduled.
+    private final LongAdder numSendMessageDeferrals = new LongAdder();
+    private final LongAdder sendMessageDeferralTime = new LongAdder();
+    private final LongAdder numReceivedMessageDeferrals = new LongAdder();
+    private final LongAdder receivedMessageDeferralTime = new LongAdder();
+    @ToString.Exclude
+    private final AggregatedConnectionMetrics aggregatedConnectionMetrics;
+
+    public ConnectionMetrics(AggregatedConnectionMetrics aggregatedConnectionMetrics) {
+        this.aggregatedConnectionMetrics = aggregatedConnectionMetrics;
         created = System.currentTimeMillis();
     }
 
@@ -61,70 +77,98 @@ public class ConnectionMetrics {
         long now = System.currentTimeMillis();
         lastUpdate.set(now);
 
-        int ageInMinutes = getAgeInMinutes(now);
-        sentBytesPerMinute.putIfAbsent(ageInMinutes, new AtomicLong());
-        sentBytesPerMinute.get(ageInMinutes).getAndAdd(networkEnvelope.getSerializedSize());
-
-        numMessagesSentPerMinute.putIfAbsent(ageInMinutes, new AtomicLong());
-        numMessagesSentPerMinute.get(ageInMinutes).incrementAndGet();
-
-        spentSendMessageTimePerMinute.putIfAbsent(ageInMinutes, new AtomicLong());
-        spentSendMessageTimePerMinute.get(ageInMinutes).getAndAdd(spentTime);
+        long ageInMinutes = getAgeInMinutes(now);
+        int serializedSize = networkEnvelope.getSerializedSize();
+        sentBytesPerMinute.add(ageInMinutes, serializedSize);
+        numMessagesSentPerMinute.add(ageInMinutes, 1);
+        spentSendMessageTimePerMinute.add(ageInMinutes, spentTime);
 
         String name = ClassUtils.getClassName(networkEnvelope.getEnvelopePayloadMessage().getClass());
-        numSentMessagesByMessageClassName.putIfAbsent(name, new AtomicLong());
-        numSentMessagesByMessageClassName.get(name).getAndIncrement();
+        numSentMessagesByMessageClassName.computeIfAbsent(name, key -> new AtomicLong()).getAndIncrement();
+        aggregatedConnectionMetrics.onSent(now, name, serializedSize, spentTime);
     }
 
     public void onReceived(NetworkEnvelope networkEnvelope, long deserializeTime) {
         long now = System.currentTimeMillis();
         lastUpdate.set(now);
 
-        int ageInMinutes = getAgeInMinutes(now);
-        receivedBytesPerMinute.putIfAbsent(ageInMinutes, new AtomicLong());
-        receivedBytesPerMinute.get(ageInMinutes).getAndAdd(networkEnvelope.getSerializedSize());
+        long ageInMinutes = getAgeInMinutes(now);
+        int serializedSize = networkEnvelope.getSerializedSize();
+        receivedBytesPerMinute.add(ageInMinutes, serializedSize);
+        numMessagesReceivedPerMinute.add(ageInMinutes, 1);
+        deserializeTimePerMinute.add(ageInMinutes, deserializeTime);
 
-        numMessagesReceivedPerMinute.putIfAbsent(ageInMinutes, new AtomicLong());
-        numMessagesReceivedPerMinute.get(ageInMinutes).incrementAndGet();
+        String name = ClassUtils.getClassName(networkEnvelope.getEnvelopePayloadMessage().getClass());
+        numReceivedMessagesByMessageClassName.computeIfAbsent(name, key -> new AtomicLong()).getAndIncrement();
+        aggregatedConnectionMetrics.onReceived(now, name, serializedSize, deserializeTime);
+    }
 
-        deserializeTimePerMinute.putIfAbsent(ageInMinutes, new AtomicLong());
-        deserializeTimePerMinute.get(ageInMinutes).getAndAdd(deserializeTime);
+    public void onSendMessageDeferred(long delay) {
+        numSendMessageDeferrals.increment();
+        sendMessageDeferralTime.add(delay);
+    }
 
-        String name = ClassUtils.getClassName(networkEnvelope.getEnvelopePayloadMessage().getClass());
-        numReceivedMessagesByMessageClassName.putIfAbsent(name, new AtomicLong());
-        numReceivedMessagesByMessageClassName.get(name).getAndIncrement();
+    public void onReceivedMessageDeferred(long delay) {
+        numReceivedMessageDeferrals.increment();
+        receivedMessageDeferralTime.add(delay);
     }
 
     public void addRtt(long value) {
-        this.rrtList.add(value);
+        rttHistogram.add(value);
     }
 
     public double getAverageRtt() {
-        return rrtList.stream().mapToLong(e -> e).average().orElse(0d);
+        return rttHistogram.getAverage();
+    }
+
+    /**
+     * @param percentile Value between 0 and 1
+     * @return Approximated RTT in ms (upper bound of the power of 2 histogram bucket containing the percentile)
+     */
+    public long getRttPercentile(double percentile) {
+        return rttHistogram.getPercentile(percentile);
     }
 
     public long getSentBytes() {
-        return sumOf(sentBytesPerMinute);
+        return sentBytesPerMinute.getTotal();
     }
 
     public long getNumMessagesSent() {
-        return sumOf(numMessagesSentPerMinute);
+        return numMessagesSentPerMinute.getTotal();
     }
 
     public long getSpentSendMessageTimePerMinute() {
-        return sumOf(spentSendMessageTimePerMinute);
+        return spentSendMessageTimePerMinute.getTotal();
     }
 
     public long getReceivedBytes() {
-        return sumOf(receivedBytesPerMinute);
+        return receivedBytesPerMinute.getTotal();
     }
 
     public long getNumMessagesReceived() {
-        return sumOf(numMessagesReceivedPerMinute);
+        return numMessagesReceivedPerMinute.getTotal();
     }
 
     public long getDeserializeTimePerMinute() {
-        return sumOf(deserializeTimePerMinute);
+        return deserializeTimePerMinute.getTotal();
+    }
+
+    public long getNumSendMessageDeferrals() {
+        return numSendMessageDeferrals.sum();
+    }
+
+    // In ms
+    public long getSendMessageDeferralTime() {
+        return sendMessageDeferralTime.sum();
+    }
+
+    public long getNumReceivedMessageDeferrals() {
+        return numReceivedMessageDeferrals.sum();
+    }
+
+    // In ms
+    public long getReceivedMessageDeferralTime() {
+        return receivedMessageDeferralTime.sum();
     }
 
     public long getNumMessagesSentOfLastHour() {
@@ -151,42 +195,36 @@ public class ConnectionMetrics {
         return getNumMessagesReceivedOfLastMinutes(60);
     }
 
+    // lastMinutes is limited to MinuteTimeSeries.CAPACITY_IN_MINUTES (60)
     public long getNumMessagesSentOfLastMinutes(int lastMinutes) {
-        return sumOfLastMinute(numMessagesSentPerMinute, lastMinutes);
+        return sumOfLastMinutes(numMessagesSentPerMinute, lastMinutes);
     }
 
     public long getSentBytesOfLastMinutes(int lastMinutes) {
-        return sumOfLastMinute(sentBytesPerMinute, lastMinutes);
+        return sumOfLastMinutes(sentBytesPerMinute, lastMinutes);
     }
 
     public long getSpentSendMessageTimeOfLastMinutes(int lastMinutes) {
-        return sumOfLastMinute(spentSendMessageTimePerMinute, lastMinutes);
+        return sumOfLastMinutes(spentSendMessageTimePerMinute, lastMinutes);
     }
 
     public long getNumMessagesReceivedOfLastMinutes(int lastMinutes) {
-        return sumOfLastMinute(numMessagesReceivedPerMinute, lastMinutes);
+        return sumOfLastMinutes(numMessagesReceivedPerMinute, lastMinutes);
     }
 
     public long getReceivedBytesOfLastMinutes(int lastMinutes) {
-        return sumOfLastMinute(receivedBytesPerMinute, lastMinutes);
+        return sumOfLastMinutes(receivedBytesPerMinute, lastMinutes);
     }
 
     public long getDeserializeTimeOfLastMinutes(int lastMinutes) {
-        return sumOfLastMinute(deserializeTimePerMinute, lastMinutes);
-    }
-
-    private long sumOf(TreeMap<Integer, AtomicLong> treeMap) {
-        return treeMap.values().stream().mapToLong(AtomicLong::get).sum();
+        return sumOfLastMinutes(deserializeTimePerMinute, lastMinutes);
     }
 
-    private long sumOfLastMinute(TreeMap<Integer, AtomicLong> treeMap, int lastMinutes) {
-        // The Treemap returns the values in ascending order of the corresponding keys.
-        int from = Math.max(0, treeMap.size() - lastMinutes);
-        List<AtomicLong> list = new ArrayList<>(treeMap.values()).subList(from, treeMap.size());
-        return list.stream().mapToLong(AtomicLong::get).sum();
+    private long sumOfLastMinutes(MinuteTimeSeries timeSeries, int lastMinutes) {
+        return timeSeries.getSumOfLastMinutes(getAgeInMinutes(System.currentTimeMillis()), lastMinutes);
     }
 
-    private int getAgeInMinutes(long now) {
-        return (int) (now - created) / 60000;
+    private long getAgeInMinutes(long now) {
+        return (now - created) / 60000;
     }
-}
\ No newline at end of file
+}
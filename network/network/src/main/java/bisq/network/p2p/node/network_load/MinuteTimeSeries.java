@@ -0,0 +1,91 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.network_load;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free time series with one bucket per minute, kept in a fixed size ring buffer. Buckets older than the
+ * capacity get reused, so memory stays constant for long-lived connections. The total over the whole lifetime is
+ * tracked separately.
+ */
+class MinuteTimeSeries {
+    static final int CAPACITY_IN_MINUTES = 60;
+
+    private static final class Bucket {
+        private final long minute;
+        private final LongAdder value = new LongAdder();
+
+        private Bucket(long minute) {
+            this.minute = minute;
+        }
+    }
+
+    private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(CAPACITY_IN_MINUTES);
+    private final LongAdder total = new LongAdder();
+
+    void add(long minute, long value) {
+        total.add(value);
+        getBucket(minute).value.add(value);
+    }
+
+    long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * @return The sum of the buckets from the given number of minutes before (exclusive) up to the current minute
+     * (inclusive). lastMinutes is limited to CAPACITY_IN_MINUTES.
+     */
+    long getSumOfLastMinutes(long currentMinute, int lastMinutes) {
+        long fromMinute = currentMinute - Math.min(lastMinutes, CAPACITY_IN_MINUTES);
+        long sum = 0;
+        for (int i = 0; i < CAPACITY_IN_MINUTES; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.minute > fromMinute && bucket.minute <= currentMinute) {
+                sum += bucket.value.sum();
+            }
+        }
+        return sum;
+    }
+
+    private Bucket getBucket(long minute) {
+        int index = (int) (minute % CAPACITY_IN_MINUTES);
+        while (true) {
+            Bucket bucket = buckets.get(index);
+            if (bucket != null && bucket.minute == minute) {
+                return bucket;
+            }
+            if (bucket != null && bucket.minute > minute) {
+                // Only happens if the caller was delayed by more than the capacity. We drop the value from the time
+                // series but have it counted in the total.
+                return new Bucket(minute);
+            }
+            Bucket newBucket = new Bucket(minute);
+            if (buckets.compareAndSet(index, bucket, newBucket)) {
+                return newBucket;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MinuteTimeSeries{total=" + total.sum() + "}";
+    }
+}
@@ -18,13 +18,11 @@
 package bisq.network.p2p.node.network_load;
 
 import bisq.common.data.ByteUnit;
-import bisq.common.proto.Proto;
 import bisq.common.timer.Scheduler;
+import bisq.common.timer.SchedulerMetrics;
 import bisq.common.util.MathUtils;
 import bisq.network.p2p.ServiceNodesByTransport;
-import bisq.network.p2p.node.Connection;
 import bisq.network.p2p.node.Node;
-import bisq.network.p2p.services.data.DataRequest;
 import bisq.network.p2p.services.data.DataService;
 import bisq.network.p2p.services.data.storage.StorageService;
 import lombok.Setter;
@@ -36,12 +34,25 @@ import java.util.Optional;
 import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
+/**
+ * Calculates the network load from the aggregated connection metrics of all nodes and the size of the network DB.
+ * Both are maintained incrementally, so the calculation is cheap and done every few seconds. The network load snapshot
+ * is only updated if the load has changed significantly or after MAX_SNAPSHOT_AGE, as peers use our network load for
+ * calculating the PoW difficulty and every update invalidates the load they might still be using.
+ */
 @Slf4j
 public class NetworkLoadService {
-    private static final long INITIAL_DELAY = TimeUnit.SECONDS.toSeconds(15);
-    private static final long INTERVAL = TimeUnit.MINUTES.toSeconds(3);
+    private static final long INITIAL_DELAY = 15;
+    private static final long INTERVAL = 10;
+    private static final long MAX_SNAPSHOT_AGE = TimeUnit.MINUTES.toMillis(3);
+    private static final long LOG_INTERVAL = TimeUnit.MINUTES.toMillis(3);
+    // Relative change of the load which triggers an update of the snapshot
+    private static final double SIGNIFICANT_LOAD_CHANGE = 0.1;
+    private static final double MIN_LOAD_FOR_CHANGE_DETECTION = 0.01;
 
     private final ServiceNodesByTransport serviceNodesByTransport;
     private final NetworkLoadSnapshot networkLoadSnapshot;
@@ -49,6 +60,7 @@ public class NetworkLoadService {
     @Setter
     private double difficultyAdjustmentFactor = NetworkLoad.DEFAULT_DIFFICULTY_ADJUSTMENT;
     private Optional<Scheduler> updateNetworkLoadScheduler = Optional.empty();
+    private long lastLogTime;
 
     public NetworkLoadService(ServiceNodesByTransport serviceNodesByTransport,
                               DataService dataService,
@@ -70,98 +82,63 @@ public class NetworkLoadService {
     }
 
     private void updateNetworkLoad() {
-        List<? extends DataRequest> dataRequests = storageService.getAllDataRequestMapEntries()
-                .map(Map.Entry::getValue)
+        long now = System.currentTimeMillis();
+        boolean logStatistics = now - lastLogTime >= LOG_INTERVAL;
+        if (logStatistics) {
+            lastLogTime = now;
+        }
+
+        List<Node> allNodes = getAllNodes();
+        long numConnections = allNodes.stream()
+                .mapToLong(node -> node.getAllConnections().count())
+                .sum();
+        List<AggregatedConnectionMetrics> allConnectionMetrics = allNodes.stream()
+                .map(Node::getAggregatedConnectionMetrics)
                 .collect(Collectors.toList());
-
-        double load = calculateLoad(getAllConnectionMetrics(), dataRequests);
+        double load = calculateLoad(numConnections,
+                allConnectionMetrics,
+                storageService.getNetworkDatabaseSize(),
+                storageService.getNumNetworkDatabaseEntries(),
+                logStatistics);
         NetworkLoad networkLoad = new NetworkLoad(load, difficultyAdjustmentFactor);
-        networkLoadSnapshot.updateNetworkLoad(networkLoad);
+        if (isSnapshotUpdateRequired(networkLoad, now)) {
+            networkLoadSnapshot.updateNetworkLoad(networkLoad);
+        }
+
+        if (logStatistics) {
+            log.info("Scheduler metrics: {}", SchedulerMetrics.getSummary());
+            allNodes.forEach(node -> log.info("Inbound message pipeline metrics of {}: {}",
+                    node.getNodeInfo(), node.getInboundMessagePipelineMetrics().getSummary()));
+        }
     }
 
-    private List<ConnectionMetrics> getAllConnectionMetrics() {
+    private boolean isSnapshotUpdateRequired(NetworkLoad networkLoad, long now) {
+        NetworkLoad currentNetworkLoad = networkLoadSnapshot.getCurrentNetworkLoad();
+        if (now - networkLoadSnapshot.getLastUpdated() >= MAX_SNAPSHOT_AGE ||
+                networkLoad.getDifficultyAdjustmentFactor() != currentNetworkLoad.getDifficultyAdjustmentFactor()) {
+            return true;
+        }
+        double reference = Math.max(MIN_LOAD_FOR_CHANGE_DETECTION, currentNetworkLoad.getLoad());
+        return Math.abs(networkLoad.getLoad() - currentNetworkLoad.getLoad()) / reference > SIGNIFICANT_LOAD_CHANGE;
+    }
+
+    private List<Node> getAllNodes() {
         return serviceNodesByTransport.getAllServices().stream()
                 .flatMap(serviceNode -> serviceNode.getNodesById().getAllNodes().stream())
-                .flatMap(Node::getAllConnections)
-                .map(Connection::getConnectionMetrics)
                 .collect(Collectors.toList());
     }
 
-    private static double calculateLoad(List<ConnectionMetrics> allConnectionMetrics, List<? extends DataRequest> dataRequests) {
-        long numConnections = allConnectionMetrics.size();
-        long sentBytesOfLastHour = allConnectionMetrics.stream()
-                .map(ConnectionMetrics::getSentBytesOfLastHour)
-                .mapToLong(e -> e)
-                .sum();
-        long spentSendMessageTimeOfLastHour = allConnectionMetrics.stream()
-                .map(ConnectionMetrics::getSpentSendMessageTimeOfLastHour)
-                .mapToLong(e -> e)
-                .sum();
-        long numMessagesSentOfLastHour = allConnectionMetrics.stream()
-                .map(ConnectionMetrics::getNumMessagesSentOfLastHour)
-                .mapToLong(e -> e)
-                .sum();
-        long receivedBytesOfLastHour = allConnectionMetrics.stream()
-                .map(ConnectionMetrics::getReceivedBytesOfLastHour)
-                .mapToLong(e -> e)
-                .sum();
-        long deserializeTimeOfLastHour = allConnectionMetrics.stream()
-                .map(ConnectionMetrics::getDeserializeTimeOfLastHour)
-                .mapToLong(e -> e)
-                .sum();
-        long numMessagesReceivedOfLastHour = allConnectionMetrics.stream()
-                .map(ConnectionMetrics::getNumMessagesReceivedOfLastHour)
-                .mapToLong(e -> e)
-                .sum();
-        long networkDatabaseSize = dataRequests.stream().mapToLong(Proto::getSerializedSize).sum();
-
-        Map<String, AtomicLong> numSentMessagesByMessageClassName = new TreeMap<>();
-        allConnectionMetrics.stream()
-                .map(ConnectionMetrics::getNumSentMessagesByMessageClassName)
-                .forEach(map -> {
-                    map.forEach((name, value) -> {
-                        numSentMessagesByMessageClassName.putIfAbsent(name, new AtomicLong());
-                        numSentMessagesByMessageClassName.get(name).addAndGet(value.get());
-                    });
-                });
-        StringBuilder numSentMsgPerClassName = new StringBuilder();
-        numSentMessagesByMessageClassName.forEach((key, value) -> {
-            numSentMsgPerClassName.append("\n - ");
-            numSentMsgPerClassName.append(key);
-            numSentMsgPerClassName.append(": ");
-            numSentMsgPerClassName.append(value.get());
-        });
-
-        Map<String, AtomicLong> numReceivedMessagesByMessageClassName = new TreeMap<>();
-        allConnectionMetrics.stream()
-                .map(ConnectionMetrics::getNumReceivedMessagesByMessageClassName)
-                .forEach(map -> {
-                    map.forEach((name, value) -> {
-                        numReceivedMessagesByMessageClassName.putIfAbsent(name, new AtomicLong());
-                        numReceivedMessagesByMessageClassName.get(name).addAndGet(value.get());
-                    });
-                });
-        StringBuilder numRecMsgPerClassName = new StringBuilder();
-        numReceivedMessagesByMessageClassName.forEach((key, value) -> {
-            numRecMsgPerClassName.append("\n - ");
-            numRecMsgPerClassName.append(key);
-            numRecMsgPerClassName.append(": ");
-            numRecMsgPerClassName.append(value.get());
-        });
-
-        StringBuilder sb = new StringBuilder("\n\n////////////////////////////////////////////////////////////////////////////////////////////////////");
-        sb.append("\nNetwork statistics").append(("\n////////////////////////////////////////////////////////////////////////////////////////////////////"))
-                .append("\nNumber of Connections: ").append(numConnections)
-                .append("\nNumber of messages sent in last hour: ").append(numMessagesSentOfLastHour)
-                .append("\nNumber of messages sent by class name:").append(numSentMsgPerClassName)
-                .append("\nNumber of messages received in last hour: ").append(numMessagesReceivedOfLastHour)
-                .append("\nNumber of messages received by class name:").append(numRecMsgPerClassName)
-                .append("\nSize of network DB: ").append(ByteUnit.BYTE.toMB(networkDatabaseSize)).append(" MB")
-                .append("\nData sent in last hour: ").append(ByteUnit.BYTE.toMB(sentBytesOfLastHour)).append(" MB")
-                .append("\nData received in last hour: ").append(ByteUnit.BYTE.toMB(receivedBytesOfLastHour)).append(" MB")
-                .append("\nTime for message sending in last hour: ").append(spentSendMessageTimeOfLastHour / 1000d).append(" sec.")
-                .append("\nTime for message deserializing in last hour: ").append(deserializeTimeOfLastHour / 1000d).append(" sec.")
-                .append("\n////////////////////////////////////////////////////////////////////////////////////////////////////");
+    private static double calculateLoad(long numConnections,
+                                        List<AggregatedConnectionMetrics> allConnectionMetrics,
+                                        long networkDatabaseSize,
+                                        long numNetworkDatabaseEntries,
+                                        boolean logStatistics) {
+        long sentBytesOfLastHour = sum(allConnectionMetrics, AggregatedConnectionMetrics::getSentBytesOfLastHour);
+        long spentSendMessageTimeOfLastHour = sum(allConnectionMetrics, AggregatedConnectionMetrics::getSpentSendMessageTimeOfLastHour);
+        long numMessagesSentOfLastHour = sum(allConnectionMetrics, AggregatedConnectionMetrics::getNumMessagesSentOfLastHour);
+        long receivedBytesOfLastHour = sum(allConnectionMetrics, AggregatedConnectionMetrics::getReceivedBytesOfLastHour);
+        long deserializeTimeOfLastHour = sum(allConnectionMetrics, AggregatedConnectionMetrics::getDeserializeTimeOfLastHour);
+        long numMessagesReceivedOfLastHour = sum(allConnectionMetrics, AggregatedConnectionMetrics::getNumMessagesReceivedOfLastHour);
 
         double MAX_NUM_CON = 30;
         double NUM_CON_WEIGHT = 0.1;
@@ -203,23 +180,62 @@ public class NetworkLoadService {
                 deserializeTimeImpact +
                 numMessagesReceivedImpact +
                 networkDatabaseSizeImpact;
-        sb.append("\n\n----------------------------------------------------------------------------------------------------")
-                .append("\nCalculated network load:")
-                .append(("\n----------------------------------------------------------------------------------------------------"))
-                .append("\nnumConnectionsImpact=").append(numConnectionsImpact)
-                .append("\nsentBytesImpact=").append(sentBytesImpact)
-                .append("\nspentSendTimeImpact=").append(spentSendTimeImpact)
-                .append("\nnumMessagesSentImpact=").append(numMessagesSentImpact)
-                .append("\nreceivedBytesImpact=").append(receivedBytesImpact)
-                .append("\ndeserializeTimeImpact=").append(deserializeTimeImpact)
-                .append("\nnumMessagesReceivedImpact=").append(numMessagesReceivedImpact)
-                .append("\nnetworkDatabaseSizeImpact=").append(networkDatabaseSizeImpact)
-                .append("\nNetwork load=").append(load)
-                .append("\n----------------------------------------------------------------------------------------------------\n");
-        log.info(sb.toString());
+
+        if (logStatistics) {
+            StringBuilder sb = new StringBuilder("\n\n////////////////////////////////////////////////////////////////////////////////////////////////////");
+            sb.append("\nNetwork statistics").append(("\n////////////////////////////////////////////////////////////////////////////////////////////////////"))
+                    .append("\nNumber of Connections: ").append(numConnections)
+                    .append("\nNumber of messages sent in last hour: ").append(numMessagesSentOfLastHour)
+                    .append("\nNumber of messages sent by class name:").append(toDisplayString(allConnectionMetrics, AggregatedConnectionMetrics::getNumSentMessagesByMessageClassName))
+                    .append("\nNumber of messages received in last hour: ").append(numMessagesReceivedOfLastHour)
+                    .append("\nNumber of messages received by class name:").append(toDisplayString(allConnectionMetrics, AggregatedConnectionMetrics::getNumReceivedMessagesByMessageClassName))
+                    .append("\nNumber of network DB entries: ").append(numNetworkDatabaseEntries)
+                    .append("\nSize of network DB: ").append(ByteUnit.BYTE.toMB(networkDatabaseSize)).append(" MB")
+                    .append("\nData sent in last hour: ").append(ByteUnit.BYTE.toMB(sentBytesOfLastHour)).append(" MB")
+                    .append("\nData received in last hour: ").append(ByteUnit.BYTE.toMB(receivedBytesOfLastHour)).append(" MB")
+                    .append("\nTime for message sending in last hour: ").append(spentSendMessageTimeOfLastHour / 1000d).append(" sec.")
+                    .append("\nTime for message deserializing in last hour: ").append(deserializeTimeOfLastHour / 1000d).append(" sec.")
+                    .append("\n////////////////////////////////////////////////////////////////////////////////////////////////////");
+            sb.append("\n\n----------------------------------------------------------------------------------------------------")
+                    .append("\nCalculated network load:")
+                    .append(("\n----------------------------------------------------------------------------------------------------"))
+                    .append("\nnumConnectionsImpact=").append(numConnectionsImpact)
+                    .append("\nsentBytesImpact=").append(sentBytesImpact)
+                    .append("\nspentSendTimeImpact=").append(spentSendTimeImpact)
+                    .append("\nnumMessagesSentImpact=").append(numMessagesSentImpact)
+                    .append("\nreceivedBytesImpact=").append(receivedBytesImpact)
+                    .append("\ndeserializeTimeImpact=").append(deserializeTimeImpact)
+                    .append("\nnumMessagesReceivedImpact=").append(numMessagesReceivedImpact)
+                    .append("\nnetworkDatabaseSizeImpact=").append(networkDatabaseSizeImpact)
+                    .append("\nNetwork load=").append(load)
+                    .append("\n----------------------------------------------------------------------------------------------------\n");
+            log.info(sb.toString());
+        }
 
         //TODO load calculation has some bugs at spentSendTimeImpact. Until fixed we limit load to 0.1 to avoid high difficulty
         return MathUtils.bounded(0, 0.1, load);
         //return MathUtils.bounded(0, 1, load);
     }
-}
\ No newline at end of file
+
+    private static long sum(List<AggregatedConnectionMetrics> allConnectionMetrics,
+                            ToLongFunction<AggregatedConnectionMetrics> getter) {
+        return allConnectionMetrics.stream().mapToLong(getter).sum();
+    }
+
+    private static String toDisplayString(List<AggregatedConnectionMetrics> allConnectionMetrics,
+                                          Function<AggregatedConnectionMetrics, Map<String, AtomicLong>> getter) {
+        Map<String, Long> numMessagesByMessageClassName = new TreeMap<>();
+        allConnectionMetrics.stream()
+                .map(getter)
+                .forEach(map -> map.forEach((name, value) ->
+                        numMessagesByMessageClassName.merge(name, value.get(), Long::sum)));
+        StringBuilder sb = new StringBuilder();
+        numMessagesByMessageClassName.forEach((key, value) -> {
+            sb.append("\n - ");
+            sb.append(key);
+            sb.append(": ");
+            sb.append(value);
+        });
+        return sb.toString();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.network_load;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Constant memory histogram of round trip times in milliseconds. Bucket i counts the values in the range
+ * [2^(i-1), 2^i), bucket 0 counts values of 0. Percentiles are therefore approximated by the upper bound of the bucket.
+ */
+class RttHistogram {
+    private static final int NUM_BUCKETS = Long.SIZE;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    void add(long rtt) {
+        long value = Math.max(0, rtt);
+        buckets.incrementAndGet(getBucketIndex(value));
+        count.increment();
+        sum.add(value);
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    double getAverage() {
+        long numValues = count.sum();
+        return numValues == 0 ? 0d : sum.sum() / (double) numValues;
+    }
+
+    /**
+     * @param percentile Value between 0 and 1
+     * @return The upper bound of the bucket containing the given percentile, or 0 if no values have been added.
+     */
+    long getPercentile(double percentile) {
+        long[] snapshot = new long[NUM_BUCKETS];
+        long numValues = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            numValues += snapshot[i];
+        }
+        if (numValues == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(Math.min(1, Math.max(0, percentile)) * numValues);
+        long accumulated = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            accumulated += snapshot[i];
+            if (accumulated >= threshold && snapshot[i] > 0) {
+                return getUpperBound(i);
+            }
+        }
+        return getUpperBound(NUM_BUCKETS - 1);
+    }
+
+    private static int getBucketIndex(long value) {
+        return Long.SIZE - Long.numberOfLeadingZeros(value);
+    }
+
+    private static long getUpperBound(int bucketIndex) {
+        return bucketIndex == 0 ? 0 : (bucketIndex >= Long.SIZE - 1 ? Long.MAX_VALUE : (1L << bucketIndex) - 1);
+    }
+
+    @Override
+    public String toString() {
+        return "RttHistogram{count=" + count.sum() + ", average=" + getAverage() + "}";
+    }
+}
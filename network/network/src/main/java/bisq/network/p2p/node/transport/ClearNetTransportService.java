@@ -12,8 +12,11 @@ import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
@@ -111,7 +114,8 @@ public class ClearNetTransportService implements TransportService {
 
         maybeSimulateDelay();
         try {
-            ServerSocket serverSocket = new ServerSocket(port);
+            // We use a channel backed server socket, so that accepted sockets can be served by the ConnectionMultiplexer
+            ServerSocket serverSocket = ServerSocketChannel.open().bind(new InetSocketAddress(port)).socket();
             Address address = Address.localHost(port);
             log.debug("ServerSocket created at port {}", port);
 
@@ -130,7 +134,8 @@ public class ClearNetTransportService implements TransportService {
     public Socket getSocket(Address address) throws IOException {
         log.debug("Create new Socket to {}", address);
         maybeSimulateDelay();
-        Socket socket = new Socket(address.getHost(), address.getPort());
+        // We use a channel backed socket, so that the connection can be served by the ConnectionMultiplexer
+        Socket socket = SocketChannel.open(new InetSocketAddress(address.getHost(), address.getPort())).socket();
         numSocketsCreated++;
 
         bootstrapInfo.getBootstrapState().set(BootstrapState.CONNECTED_TO_PEERS);
@@ -15,7 +15,6 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.Optional;
@@ -105,9 +104,8 @@ public class TorTransportService implements TransportService {
     public Socket getSocket(Address address) throws IOException {
         long ts = System.currentTimeMillis();
         log.info("Start creating tor socket to {}", address);
-        Socket socket = torService.getSocket(null); // Blocking call. Takes 5-15 sec usually.
-        InetSocketAddress inetSocketAddress = InetSocketAddress.createUnresolved(address.getHost(), address.getPort());
-        socket.connect(inetSocketAddress);
+        // We connect via the socks channel, so that the connection can be served by the ConnectionMultiplexer
+        Socket socket = torService.getSocketChannel(address.getHost(), address.getPort()).socket(); // Blocking call. Takes 5-15 sec usually.
         numSocketsCreated++;
         bootstrapInfo.getBootstrapState().set(BootstrapState.CONNECTED_TO_PEERS);
         bootstrapInfo.getBootstrapProgress().set(Math.min(1, 0.5 + numSocketsCreated / 10d));
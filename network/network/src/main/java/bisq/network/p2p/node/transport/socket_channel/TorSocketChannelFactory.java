@@ -34,9 +34,14 @@ public class TorSocketChannelFactory implements SocketChannelFactory {
 
     @Override
     public SocketChannel getSocketChannelForAddress(Address address) throws IOException {
-        try (TorSocketChannel torSocketChannel = TorSocketChannel.open()) {
+        // Must not close the TorSocketChannel on success as it would close the returned SocketChannel
+        TorSocketChannel torSocketChannel = TorSocketChannel.open();
+        try {
             var connectionData = new TorSocksConnectionData(torSocksProxyPort, address.getHost(), address.getPort());
             return torSocketChannel.connect(connectionData, ByteBuffer.allocate(1024));
+        } catch (IOException e) {
+            torSocketChannel.close();
+            throw e;
         }
     }
 }
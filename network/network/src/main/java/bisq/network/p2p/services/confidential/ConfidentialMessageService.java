@@ -17,6 +17,7 @@
 
 package bisq.network.p2p.services.confidential;
 
+import bisq.common.data.ByteArray;
 import bisq.common.threading.ExecutorFactory;
 import bisq.common.util.CompletableFutureUtils;
 import bisq.network.common.Address;
@@ -37,6 +38,7 @@ import bisq.network.p2p.services.data.storage.MetaData;
 import bisq.network.p2p.services.data.storage.mailbox.MailboxData;
 import bisq.network.p2p.services.data.storage.mailbox.MailboxMessage;
 import bisq.security.ConfidentialData;
+import bisq.security.DigestUtil;
 import bisq.security.HybridEncryption;
 import bisq.security.keys.KeyBundleService;
 import bisq.security.keys.KeyGeneration;
@@ -46,10 +48,11 @@ import lombok.extern.slf4j.Slf4j;
 import java.security.GeneralSecurityException;
 import java.security.KeyPair;
 import java.security.PublicKey;
-import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -69,13 +72,20 @@ public class ConfidentialMessageService implements Node.Listener, DataService.Li
         }
     }
 
+    private static final int MAX_PENDING_CONFIDENTIAL_MESSAGES = 10_000;
+
     private final NodesById nodesById;
     private final KeyBundleService keyBundleService;
     private final Optional<DataService> dataService;
     private final Optional<MessageDeliveryStatusService> messageDeliveryStatusService;
     private final Optional<ResendMessageService> resendMessageService;
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
-    private final Set<EnvelopePayloadMessage> processedEnvelopePayloadMessages = new HashSet<>();
+    // Hashes of the confidentialMessages we have decrypted
+    private final ProcessedMessageCache processedConfidentialMessages = new ProcessedMessageCache();
+    // Hashes of the decrypted messages we have delivered to the listeners
+    private final ProcessedMessageCache processedEnvelopePayloadMessages = new ProcessedMessageCache();
+    // Hashes of the confidentialMessages which are getting decrypted
+    private final Map<ByteArray, CompletableFuture<Boolean>> pendingConfidentialMessages = new ConcurrentHashMap<>();
     private volatile boolean isShutdownInProgress;
 
     public ConfidentialMessageService(NodesById nodesById,
@@ -389,39 +399,79 @@ public class ConfidentialMessageService implements Node.Listener, DataService.Li
     }
 
     private CompletableFuture<Boolean> processConfidentialMessage(ConfidentialMessage confidentialMessage) {
-        return keyBundleService.findKeyPair(confidentialMessage.getReceiverKeyId())
-                .map(receiversKeyPair -> supplyAsync(() -> {
-                    try {
-                        log.info("Found a matching key for processing confidentialMessage");
-                        ConfidentialData confidentialData = confidentialMessage.getConfidentialData();
-                        byte[] decryptedBytes = HybridEncryption.decryptAndVerify(confidentialData, receiversKeyPair);
-                        bisq.network.protobuf.EnvelopePayloadMessage decryptedProto = bisq.network.protobuf.EnvelopePayloadMessage.parseFrom(decryptedBytes);
-                        EnvelopePayloadMessage decryptedEnvelopePayloadMessage = EnvelopePayloadMessage.fromProto(decryptedProto);
-
-                        // For backward compatibility we send 2 versions of mailbox data, thus we will receive each
-                        // mailbox data 2 times. We do not want that client code need to deal with duplications,
-                        // thus we filter here out the duplicated message and.
-                        boolean wasNotPresent = processedEnvelopePayloadMessages.add(decryptedEnvelopePayloadMessage);
-                        if (wasNotPresent) {
-                            PublicKey senderPublicKey = KeyGeneration.generatePublic(confidentialData.getSenderPublicKey());
-                            log.info("Decrypted confidentialMessage");
-                            runAsync(() -> {
-                                listeners.forEach(listener -> {
-                                    try {
-                                        listener.onMessage(decryptedEnvelopePayloadMessage);
-                                        listener.onConfidentialMessage(decryptedEnvelopePayloadMessage, senderPublicKey);
-                                    } catch (Exception e) {
-                                        log.error("Calling onMessage(decryptedEnvelopePayloadMessage, senderPublicKey) at messageListener {} failed", listener, e);
-                                    }
-                                });
-                            }, DISPATCHER);
-                        }
-                        return true;
-                    } catch (Exception e) {
-                        log.error("Error at decryption using receiversKeyId={}", confidentialMessage.getReceiverKeyId(), e);
-                        throw new RuntimeException(e);
+        Optional<KeyPair> receiversKeyPair = keyBundleService.findKeyPair(confidentialMessage.getReceiverKeyId());
+        if (receiversKeyPair.isEmpty()) {
+            // We don't have a key for that receiverKeyId
+            return CompletableFuture.completedFuture(false);
+        }
+
+        // For backward compatibility we send 2 versions of mailbox data with the same confidentialMessage, and we
+        // might receive the same mailbox data from multiple peers. We decrypt each confidentialMessage only once.
+        ByteArray hash = new ByteArray(DigestUtil.sha256(confidentialMessage.serialize()));
+        if (processedConfidentialMessages.contains(hash)) {
+            log.debug("We have processed that confidentialMessage already");
+            return CompletableFuture.completedFuture(true);
+        }
+        if (pendingConfidentialMessages.size() >= MAX_PENDING_CONFIDENTIAL_MESSAGES) {
+            // Should not happen as entries get removed once decrypted. If the WORKER_POOL is that much behind, we do
+            // not track the message. A duplicate would then be decrypted twice but still get filtered out by
+            // processedEnvelopePayloadMessages.
+            log.warn("Too many confidentialMessages are getting decrypted. We do not track that confidentialMessage.");
+            return supplyAsync(() -> decryptAndNotifyListeners(confidentialMessage, receiversKeyPair.get()), ExecutorFactory.WORKER_POOL);
+        }
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        CompletableFuture<Boolean> pendingFuture = pendingConfidentialMessages.putIfAbsent(hash, future);
+        if (pendingFuture != null) {
+            // The same confidentialMessage is getting decrypted already
+            return pendingFuture;
+        }
+
+        // Decryption is done in parallel on the WORKER_POOL, which speeds up processing of the many mailbox messages
+        // we might get at startup from the inventory.
+        supplyAsync(() -> decryptAndNotifyListeners(confidentialMessage, receiversKeyPair.get()), ExecutorFactory.WORKER_POOL)
+                .whenComplete((result, throwable) -> {
+                    if (throwable == null) {
+                        processedConfidentialMessages.add(hash);
                     }
-                }, ExecutorFactory.WORKER_POOL))
-                .orElse(CompletableFuture.completedFuture(false)); // We don't have a key for that receiverKeyId
+                    pendingConfidentialMessages.remove(hash);
+                    if (throwable == null) {
+                        future.complete(result);
+                    } else {
+                        future.completeExceptionally(throwable);
+                    }
+                });
+        return future;
+    }
+
+    private boolean decryptAndNotifyListeners(ConfidentialMessage confidentialMessage, KeyPair receiversKeyPair) {
+        try {
+            log.info("Found a matching key for processing confidentialMessage");
+            ConfidentialData confidentialData = confidentialMessage.getConfidentialData();
+            byte[] decryptedBytes = HybridEncryption.decryptAndVerify(confidentialData, receiversKeyPair);
+            // If a message was sent directly and stored in the mailbox as well, we get it in 2 confidentialMessages
+            // with different encryption. We do not want that client code need to deal with duplications, thus we
+            // filter here out the duplicated message.
+            boolean wasNotPresent = processedEnvelopePayloadMessages.add(new ByteArray(DigestUtil.sha256(decryptedBytes)));
+            if (wasNotPresent) {
+                bisq.network.protobuf.EnvelopePayloadMessage decryptedProto = bisq.network.protobuf.EnvelopePayloadMessage.parseFrom(decryptedBytes);
+                EnvelopePayloadMessage decryptedEnvelopePayloadMessage = EnvelopePayloadMessage.fromProto(decryptedProto);
+                PublicKey senderPublicKey = KeyGeneration.generatePublic(confidentialData.getSenderPublicKey());
+                log.info("Decrypted confidentialMessage");
+                runAsync(() -> {
+                    listeners.forEach(listener -> {
+                        try {
+                            listener.onMessage(decryptedEnvelopePayloadMessage);
+                            listener.onConfidentialMessage(decryptedEnvelopePayloadMessage, senderPublicKey);
+                        } catch (Exception e) {
+                            log.error("Calling onMessage(decryptedEnvelopePayloadMessage, senderPublicKey) at messageListener {} failed", listener, e);
+                        }
+                    });
+                }, DISPATCHER);
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("Error at decryption using receiversKeyId={}", confidentialMessage.getReceiverKeyId(), e);
+            throw new RuntimeException(e);
+        }
     }
 }
@@ -0,0 +1,103 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.confidential;
+
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.data.storage.mailbox.MailboxData;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded set of message hashes which expire after TTL. Used for filtering out duplicated messages, which we receive
+ * e.g. as we send mailbox messages in 2 versions, or if a message was sent directly and stored in the mailbox as
+ * well. A mailbox message can be delivered again by any inventory response as long as it is in the network, thus we
+ * keep the hashes for the max. lifetime of a mailbox message.
+ * <p>
+ * Entries are kept in insertion order, so the expired entries are always at the head.
+ */
+class ProcessedMessageCache {
+    // We only add messages which are addressed to us
+    static final int MAX_SIZE = 10_000;
+    static final long TTL = MailboxData.MAX_TLL;
+
+    private final int maxSize;
+    private final long ttl;
+    private final Map<ByteArray, Long> timestampByHash = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    ProcessedMessageCache() {
+        this(MAX_SIZE, TTL);
+    }
+
+    ProcessedMessageCache(int maxSize, long ttl) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+    }
+
+    boolean contains(ByteArray hash) {
+        lock.lock();
+        try {
+            removeExpired(System.currentTimeMillis());
+            return timestampByHash.containsKey(hash);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return True if the hash was not contained
+     */
+    boolean add(ByteArray hash) {
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            removeExpired(now);
+            if (timestampByHash.containsKey(hash)) {
+                return false;
+            }
+            timestampByHash.put(hash, now);
+            if (timestampByHash.size() > maxSize) {
+                Iterator<ByteArray> iterator = timestampByHash.keySet().iterator();
+                iterator.next();
+                iterator.remove();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return timestampByHash.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeExpired(long now) {
+        Iterator<Long> iterator = timestampByHash.values().iterator();
+        while (iterator.hasNext() && now - iterator.next() > ttl) {
+            iterator.remove();
+        }
+    }
+}
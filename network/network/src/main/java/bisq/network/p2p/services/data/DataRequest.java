@@ -69,6 +69,30 @@ public interface DataRequest extends BroadcastMessage {
         throw new UnresolvableProtobufMessageException(proto);
     }
 
+    /**
+     * For data read from our own persisted store. Public keys are created lazily as that data got verified already
+     * when it was received.
+     */
+    static DataRequest fromPersistedProto(bisq.network.protobuf.DataRequest proto) {
+        switch (proto.getMessageCase()) {
+            case ADDAUTHENTICATEDDATAREQUEST: {
+                return AddAuthenticatedDataRequest.fromPersistedProto(proto.getAddAuthenticatedDataRequest());
+            }
+            case REMOVEAUTHENTICATEDDATAREQUEST: {
+                return RemoveAuthenticatedDataRequest.fromPersistedProto(proto.getRemoveAuthenticatedDataRequest());
+            }
+            case ADDMAILBOXREQUEST: {
+                return AddMailboxRequest.fromPersistedProto(proto.getAddMailboxRequest());
+            }
+            case REMOVEMAILBOXREQUEST: {
+                return RemoveMailboxRequest.fromPersistedProto(proto.getRemoveMailboxRequest());
+            }
+            default: {
+                return fromProto(proto);
+            }
+        }
+    }
+
     boolean isExpired();
 
     long getCreated();
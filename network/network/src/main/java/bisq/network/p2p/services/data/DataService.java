@@ -38,10 +38,12 @@ import lombok.extern.slf4j.Slf4j;
 import java.security.GeneralSecurityException;
 import java.security.KeyPair;
 import java.security.PublicKey;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -69,6 +71,14 @@ public class DataService implements StorageService.Listener {
         default void onAuthenticatedDataRefreshed(AuthenticatedData authenticatedData) {
         }
 
+        /**
+         * Called with the authenticated data of a batch of received add requests (e.g. an inventory chunk) before
+         * the requests get processed. The data is not validated yet and might not get added. It allows listeners to
+         * do expensive checks in bulk instead of at each onAuthenticatedDataAdded call.
+         */
+        default void onAuthenticatedDataBatchReceived(List<AuthenticatedData> authenticatedDataList) {
+        }
+
         default void onAppendOnlyDataAdded(AppendOnlyData appendOnlyData) {
         }
 
@@ -271,6 +281,24 @@ public class DataService implements StorageService.Listener {
                 });
     }
 
+    public void notifyAddDataRequestsReceived(List<AddDataRequest> addDataRequests) {
+        List<AuthenticatedData> authenticatedDataList = addDataRequests.stream()
+                .filter(addDataRequest -> addDataRequest instanceof AddAuthenticatedDataRequest)
+                .map(addDataRequest -> (AddAuthenticatedDataRequest) addDataRequest)
+                .map(request -> request.getAuthenticatedSequentialData().getAuthenticatedData())
+                .collect(Collectors.toList());
+        if (authenticatedDataList.isEmpty()) {
+            return;
+        }
+        listeners.forEach(listener -> {
+            try {
+                listener.onAuthenticatedDataBatchReceived(authenticatedDataList);
+            } catch (Exception e) {
+                log.error("Calling onAuthenticatedDataBatchReceived at listener {} failed", listener, e);
+            }
+        });
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////////////
     // Refresh data
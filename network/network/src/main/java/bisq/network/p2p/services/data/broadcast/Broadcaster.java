@@ -17,16 +17,18 @@
 
 package bisq.network.p2p.services.data.broadcast;
 
+import bisq.common.encoding.Hex;
 import bisq.common.util.CollectionUtil;
-import bisq.network.NetworkService;
 import bisq.network.p2p.node.Connection;
 import bisq.network.p2p.node.Node;
+import bisq.security.DigestUtil;
 import dev.failsafe.Failsafe;
 import dev.failsafe.RetryPolicy;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -36,11 +38,20 @@ public class Broadcaster {
     private static final long BROADCAST_TIMEOUT = 90;
     private static final long RE_BROADCAST_DELAY_MS = 100;
 
+    // Share of the peers which need to have received the message before we complete the broadcast future
+    private static final double DEFAULT_QUORUM_FACTOR = 0.5;
+
     private final Node node;
+    private final double quorumFactor;
     private final RetryPolicy<BroadcastResult> retryPolicy;
 
     public Broadcaster(Node node) {
+        this(node, DEFAULT_QUORUM_FACTOR);
+    }
+
+    public Broadcaster(Node node, double quorumFactor) {
         this.node = node;
+        this.quorumFactor = quorumFactor;
 
         retryPolicy = RetryPolicy.<BroadcastResult>builder()
                 .handle(IllegalStateException.class)
@@ -54,7 +65,12 @@ public class Broadcaster {
     }
 
     public CompletableFuture<BroadcastResult> reBroadcast(BroadcastMessage broadcastMessage) {
-        return CompletableFuture.supplyAsync(() -> broadcast(broadcastMessage, 0.75).join(),
+        return CompletableFuture.supplyAsync(() -> {
+                    // We re-broadcast the same data we received from different peers. If it is still queued for a
+                    // connection, there is no need to send it again.
+                    String coalescingKey = Hex.encode(DigestUtil.hash(broadcastMessage.serializeForHash()));
+                    return broadcast(broadcastMessage, 0.75, Optional.of(coalescingKey)).join();
+                },
                 CompletableFuture.delayedExecutor(RE_BROADCAST_DELAY_MS, TimeUnit.MILLISECONDS));
     }
 
@@ -63,10 +79,22 @@ public class Broadcaster {
     }
 
     public CompletableFuture<BroadcastResult> broadcast(BroadcastMessage broadcastMessage, double distributionFactor) {
-        return Failsafe.with(retryPolicy).getAsync(() -> doBroadcast(broadcastMessage, distributionFactor).join());
+        return broadcast(broadcastMessage, distributionFactor, Optional.empty());
+    }
+
+    private CompletableFuture<BroadcastResult> broadcast(BroadcastMessage broadcastMessage,
+                                                         double distributionFactor,
+                                                         Optional<String> coalescingKey) {
+        return Failsafe.with(retryPolicy).getAsync(() -> doBroadcast(broadcastMessage, distributionFactor, coalescingKey).join());
     }
 
     public CompletableFuture<BroadcastResult> doBroadcast(BroadcastMessage broadcastMessage, double distributionFactor) {
+        return doBroadcast(broadcastMessage, distributionFactor, Optional.empty());
+    }
+
+    private CompletableFuture<BroadcastResult> doBroadcast(BroadcastMessage broadcastMessage,
+                                                           double distributionFactor,
+                                                           Optional<String> coalescingKey) {
         if (!node.isInitialized()) {
             throw new IllegalStateException("Node not initialized. node=" + node.getNetworkId() +
                     "; transportType=" + node.getTransportType());
@@ -77,29 +105,30 @@ public class Broadcaster {
                 .orTimeout(BROADCAST_TIMEOUT, TimeUnit.SECONDS);
         AtomicInteger numSuccess = new AtomicInteger(0);
         AtomicInteger numFaults = new AtomicInteger(0);
-        long numConnections = node.getAllActiveConnections().count();
-        long numBroadcasts = Math.min(numConnections, Math.round(numConnections * distributionFactor));
-        log.debug("Broadcast {} to {} out of {} peers. distributionFactor={}",
-                broadcastMessage.getClass().getSimpleName(), numBroadcasts, numConnections, distributionFactor);
         List<Connection> allConnections = CollectionUtil.toShuffledList(node.getAllActiveConnections());
-        NetworkService.NETWORK_IO_POOL.submit(() -> {
-            allConnections.stream()
-                    .limit(numBroadcasts)
-                    .forEach(connection -> {
-                        log.debug("{} broadcast {} to {}", node, broadcastMessage.getClass().getSimpleName(), connection.getPeerAddress());
-                        try {
-                            node.send(broadcastMessage, connection);
-                            numSuccess.incrementAndGet();
-                        } catch (Exception exception) {
-                            numFaults.incrementAndGet();
-                        }
-                        if (numSuccess.get() + numFaults.get() == numBroadcasts) {
-                            future.complete(new BroadcastResult(numSuccess.get(),
-                                    numFaults.get(),
-                                    System.currentTimeMillis() - ts));
-                        }
-                    });
-        });
+        int numConnections = allConnections.size();
+        int numBroadcasts = (int) Math.min(numConnections, Math.round(numConnections * distributionFactor));
+        // We complete the future once the quorum is reached and do not wait for the slowest peers
+        int quorum = (int) Math.max(1, Math.ceil(numBroadcasts * quorumFactor));
+        log.debug("Broadcast {} to {} out of {} peers. distributionFactor={}; quorum={}",
+                broadcastMessage.getClass().getSimpleName(), numBroadcasts, numConnections, distributionFactor, quorum);
+        allConnections.stream()
+                .limit(numBroadcasts)
+                .forEach(connection -> {
+                    log.debug("{} broadcast {} to {}", node, broadcastMessage.getClass().getSimpleName(), connection.getPeerAddress());
+                    // Messages are sent in parallel by the outbound queues of the connections
+                    node.sendAsync(broadcastMessage, connection, coalescingKey)
+                            .whenComplete((result, throwable) -> {
+                                int success = throwable == null ? numSuccess.incrementAndGet() : numSuccess.get();
+                                int faults = throwable == null ? numFaults.get() : numFaults.incrementAndGet();
+                                if (success >= quorum || success + faults == numBroadcasts) {
+                                    // Only the first call completes the future
+                                    future.complete(new BroadcastResult(success,
+                                            faults,
+                                            System.currentTimeMillis() - ts));
+                                }
+                            });
+                });
         return future;
     }
 }
@@ -18,6 +18,7 @@
 package bisq.network.p2p.services.data.inventory;
 
 import bisq.common.data.ByteUnit;
+import bisq.common.timer.Scheduler;
 import bisq.common.util.MathUtils;
 import bisq.network.NetworkService;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
@@ -36,9 +37,13 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static java.util.concurrent.CompletableFuture.runAsync;
@@ -46,15 +51,34 @@ import static java.util.concurrent.CompletableFuture.runAsync;
 @Getter
 @Slf4j
 class InventoryHandler implements Connection.Listener {
+    // Max. size of the chunks we request the inventory in. Smaller chunks let us apply the high priority data (which
+    // is sent first) earlier, at the cost of more messages and proofs of work.
+    static final int MAX_CHUNK_SIZE = (int) ByteUnit.KB.toBytes(100);
+    // The timeout gets applied per response. The peer evaluates our filter before it sends the first chunk, and old
+    // peers send the whole inventory in a single response, thus we wait longer for the first response.
+    static final long FIRST_RESPONSE_TIMEOUT = TimeUnit.SECONDS.toMillis(180);
+    static final long NEXT_CHUNK_TIMEOUT = TimeUnit.SECONDS.toMillis(60);
+
     private final Node node;
     private final Connection connection;
+    private final Consumer<Inventory> inventoryChunkHandler;
     private final CompletableFuture<Inventory> future = new CompletableFuture<>();
     private final int nonce;
+    private final Map<String, Map<String, AtomicInteger>> dataRequestMap = new HashMap<>();
     private long requestTs;
+    private int numReceivedChunks;
+    private long receivedSize;
+    private Optional<Scheduler> timeoutScheduler = Optional.empty();
 
-    InventoryHandler(Node node, Connection connection) {
+    /**
+     * @param inventoryChunkHandler Gets called at the arrival of each inventory chunk, so the data can be applied
+     *                              before the whole inventory has been received. The future returned by the request
+     *                              completes with the last chunk.
+     */
+    InventoryHandler(Node node, Connection connection, Consumer<Inventory> inventoryChunkHandler) {
         this.node = node;
         this.connection = connection;
+        this.inventoryChunkHandler = inventoryChunkHandler;
 
         nonce = new Random().nextInt();
         connection.addListener(this);
@@ -63,10 +87,12 @@ class InventoryHandler implements Connection.Listener {
     CompletableFuture<Inventory> request(InventoryFilter inventoryFilter) {
         requestTs = System.currentTimeMillis();
         log.info("Send InventoryRequest to {} with {}", connection.getPeerAddress(), inventoryFilter.getDetails());
-        InventoryRequest inventoryRequest = new InventoryRequest(inventoryFilter, nonce);
+        InventoryRequest inventoryRequest = new InventoryRequest(inventoryFilter, nonce, MAX_CHUNK_SIZE);
+        restartTimeout(FIRST_RESPONSE_TIMEOUT);
         runAsync(() -> node.send(inventoryRequest, connection), NetworkService.NETWORK_IO_POOL)
                 .whenComplete((connection, throwable) -> {
                     if (throwable != null) {
+                        stopTimeout();
                         future.completeExceptionally(throwable);
                         removeListeners();
                     }
@@ -79,9 +105,7 @@ class InventoryHandler implements Connection.Listener {
         if (envelopePayloadMessage instanceof InventoryResponse) {
             InventoryResponse response = (InventoryResponse) envelopePayloadMessage;
             if (response.getRequestNonce() == nonce) {
-                printReceivedInventory(response);
-                removeListeners();
-                future.complete(response.getInventory());
+                processChunk(response);
             } else {
                 log.warn("Received InventoryResponse from {} with invalid nonce {}. Request nonce was {}. Peer address={}",
                         connection.getPeerAddress(), response.getRequestNonce(), nonce,
@@ -90,9 +114,42 @@ class InventoryHandler implements Connection.Listener {
         }
     }
 
-    private void printReceivedInventory(InventoryResponse response) {
-        Map<String, Map<String, AtomicInteger>> dataRequestMap = new HashMap<>();
+    private void processChunk(InventoryResponse response) {
+        if (future.isDone()) {
+            return;
+        }
+        if (response.getChunkIndex() != numReceivedChunks) {
+            log.warn("Received InventoryResponse from {} with unexpected chunkIndex {}. Expected chunkIndex {}",
+                    connection.getPeerAddress(), response.getChunkIndex(), numReceivedChunks);
+            stopTimeout();
+            removeListeners();
+            future.completeExceptionally(new IllegalStateException("Unexpected chunkIndex " + response.getChunkIndex()));
+            return;
+        }
+
+        numReceivedChunks++;
         Inventory inventory = response.getInventory();
+        receivedSize += inventory.getCachedSerializedSize().orElse(0);
+        addToDataRequestMap(inventory);
+        try {
+            inventoryChunkHandler.accept(inventory);
+        } catch (Exception e) {
+            log.error("Processing inventory chunk {} from {} failed", response.getChunkIndex(), connection.getPeerAddress(), e);
+        }
+
+        if (response.hasMoreResponses()) {
+            restartTimeout(NEXT_CHUNK_TIMEOUT);
+            log.info("Received inventory chunk {} with {} items from {}",
+                    response.getChunkIndex(), inventory.getEntries().size(), connection.getPeerAddress());
+        } else {
+            printReceivedInventory(inventory);
+            stopTimeout();
+            removeListeners();
+            future.complete(inventory);
+        }
+    }
+
+    private void addToDataRequestMap(Inventory inventory) {
         inventory.getEntries()
                 .forEach(dataRequest -> {
                     String dataRequestName = dataRequest.getClass().getSimpleName();
@@ -127,6 +184,9 @@ class InventoryHandler implements Connection.Listener {
                     AtomicInteger counter = payloadMap.get(payloadKey);
                     counter.incrementAndGet();
                 });
+    }
+
+    private void printReceivedInventory(Inventory lastChunk) {
         String report = dataRequestMap.values().stream()
                 .map(payloadMap -> payloadMap.entrySet().stream()
                         .map(entry -> String.format("%4d item(s) of %s", entry.getValue().get(), entry.getKey()))
@@ -136,14 +196,14 @@ class InventoryHandler implements Connection.Listener {
         if (report.isEmpty()) {
             report = "No items received";
         }
-        String maxSizeReached = inventory.isMaxSizeReached()
+        String maxSizeReached = lastChunk.isMaxSizeReached()
                 ? "Still missing data. Response got truncated because max size was reached"
                 : "All data received from peer";
-        String size = ByteUnit.BYTE.toKB((double) inventory.getCachedSerializedSize().orElse(0)) + " KB";
+        String size = ByteUnit.BYTE.toKB((double) receivedSize) + " KB";
         String passed = MathUtils.roundDouble((System.currentTimeMillis() - requestTs) / 1000d, 2) + " sec.";
         log.info("\n##########################################################################################\n" +
-                "Received " + size + " of inventory data from: " + connection.getPeerAddress().getFullAddress() +
-                " after " + passed + "; \n" +
+                "Received " + size + " of inventory data in " + numReceivedChunks + " chunk(s) from: " +
+                connection.getPeerAddress().getFullAddress() + " after " + passed + "; \n" +
                 maxSizeReached +
                 "\n##########################################################################################\n" +
                 report +
@@ -152,14 +212,38 @@ class InventoryHandler implements Connection.Listener {
 
     @Override
     public void onConnectionClosed(CloseReason closeReason) {
+        if (numReceivedChunks > 0 && !future.isDone()) {
+            // The data of the received chunks got applied already. They are part of the filter at our next request,
+            // so the next request continues where this one got interrupted.
+            log.info("Connection to {} got closed after we received {} inventory chunk(s)",
+                    connection.getPeerAddress(), numReceivedChunks);
+        }
         dispose();
     }
 
     void dispose() {
+        stopTimeout();
         removeListeners();
         future.cancel(true);
     }
 
+    private synchronized void restartTimeout(long timeout) {
+        timeoutScheduler.ifPresent(Scheduler::stop);
+        timeoutScheduler = Optional.of(Scheduler.run(() -> {
+            if (!future.isDone()) {
+                log.warn("No InventoryResponse received from {} within {} sec. We received {} chunk(s) before.",
+                        connection.getPeerAddress(), timeout / 1000, numReceivedChunks);
+                removeListeners();
+                future.completeExceptionally(new TimeoutException("InventoryResponse timed out after " + timeout + " ms"));
+            }
+        }).after(timeout));
+    }
+
+    private synchronized void stopTimeout() {
+        timeoutScheduler.ifPresent(Scheduler::stop);
+        timeoutScheduler = Optional.empty();
+    }
+
     private void removeListeners() {
         connection.removeListener(this);
     }
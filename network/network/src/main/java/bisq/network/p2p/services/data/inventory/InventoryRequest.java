@@ -26,6 +26,8 @@ import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 @Slf4j
 @Getter
 @ToString
@@ -38,22 +40,29 @@ public final class InventoryRequest implements BroadcastMessage, Request {
     private final int version;
     private final InventoryFilter inventoryFilter;
     private final int nonce;
+    // Max. size in bytes of the chunks in which we want to receive the inventory. If 0 we get it in one response.
+    // Excluded for the hash, as otherwise old nodes which do not know the field would fail at the PoW verification.
+    @EqualsAndHashCode.Exclude
+    @ExcludeForHash
+    private final int maxChunkSize;
 
 
-    public InventoryRequest(InventoryFilter inventoryFilter, int nonce) {
-        this(VERSION, inventoryFilter, nonce);
+    public InventoryRequest(InventoryFilter inventoryFilter, int nonce, int maxChunkSize) {
+        this(VERSION, inventoryFilter, nonce, maxChunkSize);
     }
 
-    private InventoryRequest(int version, InventoryFilter inventoryFilter, int nonce) {
+    private InventoryRequest(int version, InventoryFilter inventoryFilter, int nonce, int maxChunkSize) {
         this.version = version;
         this.inventoryFilter = inventoryFilter;
         this.nonce = nonce;
+        this.maxChunkSize = maxChunkSize;
 
         verify();
     }
 
     @Override
     public void verify() {
+        checkArgument(maxChunkSize >= 0);
     }
 
     @Override
@@ -71,13 +80,15 @@ public final class InventoryRequest implements BroadcastMessage, Request {
         return bisq.network.protobuf.InventoryRequest.newBuilder()
                 .setVersion(version)
                 .setInventoryFilter(inventoryFilter.toProto(serializeForHash))
-                .setNonce(nonce);
+                .setNonce(nonce)
+                .setMaxChunkSize(maxChunkSize);
     }
 
     public static InventoryRequest fromProto(bisq.network.protobuf.InventoryRequest proto) {
         return new InventoryRequest(proto.getVersion(),
                 InventoryFilter.fromProto(proto.getInventoryFilter()),
-                proto.getNonce());
+                proto.getNonce(),
+                proto.getMaxChunkSize());
     }
 
     @Override
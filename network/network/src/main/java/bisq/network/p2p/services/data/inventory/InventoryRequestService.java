@@ -43,7 +43,6 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -53,8 +52,6 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 @Slf4j
 public class InventoryRequestService implements Node.Listener {
-    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(180);
-
     private final Node node;
     private final PeerGroupService peerGroupService;
     private final DataService dataService;
@@ -65,6 +62,8 @@ public class InventoryRequestService implements Node.Listener {
     @Getter
     private final Observable<Boolean> allDataReceived = new Observable<>(false);
     private final Map<String, InventoryHandler> requestHandlerMap = new ConcurrentHashMap<>();
+    // Filter types which the peer could not decode at our last request. We avoid them at the next request to that peer.
+    private final Map<String, InventoryFilterType> failedFilterTypeByPeer = new ConcurrentHashMap<>();
     private Optional<Scheduler> periodicRequestScheduler = Optional.empty();
     private volatile boolean shutdownInProgress;
 
@@ -147,6 +146,7 @@ public class InventoryRequestService implements Node.Listener {
             requestHandlerMap.remove(key);
             numPendingRequests.set(requestHandlerMap.size());
         }
+        failedFilterTypeByPeer.remove(key);
     }
 
 
@@ -158,30 +158,46 @@ public class InventoryRequestService implements Node.Listener {
         return requestFromPeer(connection)
                 .thenApply(inventory -> {
                     checkNotNull(inventory);
-                    inventory.getEntries().forEach(dataRequest -> {
-                        if (dataRequest instanceof AddDataRequest) {
-                            dataService.processAddDataRequest((AddDataRequest) dataRequest, false);
-                        } else if (dataRequest instanceof RemoveDataRequest) {
-                            dataService.processRemoveDataRequest((RemoveDataRequest) dataRequest, false);
-                        }
-                    });
                     return inventory;
                 });
     }
 
+    // Called for each received inventory chunk, so we have the high priority data available before the
+    // whole inventory has arrived.
+    private void applyInventoryChunk(Inventory inventory) {
+        dataService.notifyAddDataRequestsReceived(inventory.getEntries().stream()
+                .filter(dataRequest -> dataRequest instanceof AddDataRequest)
+                .map(dataRequest -> (AddDataRequest) dataRequest)
+                .collect(Collectors.toList()));
+        inventory.getEntries().forEach(dataRequest -> {
+            if (dataRequest instanceof AddDataRequest) {
+                dataService.processAddDataRequest((AddDataRequest) dataRequest, false);
+            } else if (dataRequest instanceof RemoveDataRequest) {
+                dataService.processRemoveDataRequest((RemoveDataRequest) dataRequest, false);
+            }
+        });
+    }
+
     private CompletableFuture<Inventory> requestFromPeer(Connection connection) {
         String key = getKey(connection);
-        InventoryHandler handler = new InventoryHandler(node, connection);
+        InventoryHandler handler = new InventoryHandler(node, connection, this::applyInventoryChunk);
         requestHandlerMap.put(key, handler);
         numPendingRequests.set(requestHandlerMap.size());
         List<Feature> peersFeatures = connection.getPeersCapability().getFeatures();
-        InventoryFilterType inventoryFilterType = getPreferredFilterType(peersFeatures).orElseThrow(); // we filtered before for presence
+        InventoryFilterType inventoryFilterType = Optional.ofNullable(failedFilterTypeByPeer.remove(key))
+                .flatMap(failedFilterType -> getFallbackFilterType(peersFeatures, failedFilterType))
+                .or(() -> getPreferredFilterType(peersFeatures))
+                .orElseThrow(); // we filtered before for presence
         var filterService = supportedFilterServices.get(inventoryFilterType);
+        // The handler applies the timeout per response
         return handler.request(filterService.getFilter())
-                .orTimeout(TIMEOUT, TimeUnit.MILLISECONDS)
                 .whenComplete((inventory, throwable) -> {
                     if (throwable != null) {
                         handler.dispose();
+                    } else if (inventory.isFilterDecodingFailed()) {
+                        log.info("Peer {} could not decode our {} filter. We use another filter type at the next request.",
+                                key, inventoryFilterType);
+                        failedFilterTypeByPeer.put(key, inventoryFilterType);
                     }
                     requestHandlerMap.remove(key);
                     numPendingRequests.set(requestHandlerMap.size());
@@ -243,6 +259,15 @@ public class InventoryRequestService implements Node.Listener {
                 .findFirst();
     }
 
+    private Optional<InventoryFilterType> getFallbackFilterType(List<Feature> peersFeatures,
+                                                                InventoryFilterType failedFilterType) {
+        List<InventoryFilterType> peersInventoryFilterTypes = toFilterTypes(peersFeatures);
+        return config.getMyPreferredFilterTypes().stream()
+                .filter(filterType -> filterType != failedFilterType)
+                .filter(peersInventoryFilterTypes::contains)
+                .findFirst();
+    }
+
     private List<InventoryFilterType> toFilterTypes(List<Feature> features) {
         return features.stream()
                 .flatMap(feature -> InventoryFilterType.fromFeature(feature).stream())
@@ -24,6 +24,8 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 @Getter
 @ToString
 @EqualsAndHashCode
@@ -39,21 +41,32 @@ public final class InventoryResponse implements BroadcastMessage, Response {
     @ExcludeForHash(excludeOnlyInVersions = {1, 2, 3})
     private final Inventory inventory;
     private final int requestNonce;
+    // If the requester asked for a chunked response, the inventory is delivered in multiple responses with
+    // consecutive chunkIndex values. The last one has hasMoreChunks set to false.
+    private final int chunkIndex;
+    private final boolean hasMoreChunks;
 
     public InventoryResponse(Inventory inventory, int requestNonce) {
         this(VERSION, inventory, requestNonce);
     }
 
     public InventoryResponse(int version, Inventory inventory, int requestNonce) {
+        this(version, inventory, requestNonce, 0, false);
+    }
+
+    public InventoryResponse(int version, Inventory inventory, int requestNonce, int chunkIndex, boolean hasMoreChunks) {
         this.version = version;
         this.inventory = inventory;
         this.requestNonce = requestNonce;
+        this.chunkIndex = chunkIndex;
+        this.hasMoreChunks = hasMoreChunks;
 
         verify();
     }
 
     @Override
     public void verify() {
+        checkArgument(chunkIndex >= 0);
     }
 
     @Override
@@ -71,11 +84,17 @@ public final class InventoryResponse implements BroadcastMessage, Response {
         return bisq.network.protobuf.InventoryResponse.newBuilder()
                 .setVersion(version)
                 .setInventory(inventory.toProto(serializeForHash))
-                .setRequestNonce(requestNonce);
+                .setRequestNonce(requestNonce)
+                .setChunkIndex(chunkIndex)
+                .setHasMoreChunks(hasMoreChunks);
     }
 
     public static InventoryResponse fromProto(bisq.network.protobuf.InventoryResponse proto) {
-        return new InventoryResponse(proto.getVersion(), Inventory.fromProto(proto.getInventory()), proto.getRequestNonce());
+        return new InventoryResponse(proto.getVersion(),
+                Inventory.fromProto(proto.getInventory()),
+                proto.getRequestNonce(),
+                proto.getChunkIndex(),
+                proto.getHasMoreChunks());
     }
 
     @Override
@@ -87,4 +106,9 @@ public final class InventoryResponse implements BroadcastMessage, Response {
     public String getRequestId() {
         return String.valueOf(requestNonce);
     }
+
+    @Override
+    public boolean hasMoreResponses() {
+        return hasMoreChunks;
+    }
 }
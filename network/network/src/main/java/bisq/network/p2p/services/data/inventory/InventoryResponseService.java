@@ -18,14 +18,15 @@
 package bisq.network.p2p.services.data.inventory;
 
 import bisq.common.data.ByteUnit;
+import bisq.common.threading.ExecutorFactory;
 import bisq.common.util.ExceptionUtil;
-import bisq.network.NetworkService;
 import bisq.network.identity.NetworkId;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.node.CloseReason;
 import bisq.network.p2p.node.Connection;
 import bisq.network.p2p.node.Node;
 import bisq.network.p2p.services.data.inventory.filter.FilterService;
+import bisq.network.p2p.services.data.inventory.filter.InventoryChunkIterator;
 import bisq.network.p2p.services.data.inventory.filter.InventoryFilter;
 import bisq.network.p2p.services.data.inventory.filter.InventoryFilterType;
 import lombok.extern.slf4j.Slf4j;
@@ -33,8 +34,13 @@ import lombok.extern.slf4j.Slf4j;
 import java.util.Map;
 import java.util.function.Predicate;
 
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+
 @Slf4j
 public class InventoryResponseService implements Node.Listener {
+    // Each chunk is a separate message with its own proof of work, so we do not accept too small chunks
+    private static final int MIN_CHUNK_SIZE = InventoryHandler.MAX_CHUNK_SIZE;
+
     private final Node node;
     private final Map<InventoryFilterType, FilterService<? extends InventoryFilter>> filterServiceMap;
 
@@ -86,27 +92,58 @@ public class InventoryResponseService implements Node.Listener {
             // This code can be removed once there are no old nodes expected in the network anymore.
             Predicate<Integer> predicate = distributedDataVersion -> requestersVersion > 0 || distributedDataVersion == 0;
 
-            Inventory inventory = filterService.createInventory(inventoryFilter, predicate);
-
-            // The requestersVersion param can be removed once there are no old nodes expected in the network anymore.
-            InventoryResponse inventoryResponse = new InventoryResponse(requestersVersion, inventory, request.getNonce());
-
-            NetworkService.NETWORK_IO_POOL.submit(() -> {
-                try {
-                    node.send(inventoryResponse, connection);
-                    log.info("Successfully sent an InventoryResponse to peer {} with {} kb. Took {} ms",
-                            connection.getPeerAddress(),
-                            ByteUnit.BYTE.toKB(inventory.getSerializedSize()),
-                            System.currentTimeMillis() - ts);
-                } catch (Exception e) {
-                    log.warn("Error at sending InventoryResponse to {}. {}", connection.getPeerAddress(),
-                            ExceptionUtil.getRootCauseMessage(e));
-                }
-            });
+            // Requesters supporting chunked responses set maxChunkSize. Others get the inventory in one response.
+            int maxChunkSize = request.getMaxChunkSize() > 0 ?
+                    Math.max(MIN_CHUNK_SIZE, request.getMaxChunkSize()) :
+                    Integer.MAX_VALUE;
+            // Evaluating the filter can be expensive (e.g. decoding a MiniSketch), so we do not run it on the DISPATCHER.
+            supplyAsync(() -> filterService.createInventoryChunks(inventoryFilter, predicate, maxChunkSize), ExecutorFactory.WORKER_POOL)
+                    .whenComplete((chunks, throwable) -> {
+                        if (throwable != null) {
+                            log.warn("Evaluating the inventory filter for peer {} failed", connection.getPeerAddress(), throwable);
+                        } else {
+                            sendChunk(chunks, requestersVersion, request.getNonce(), connection, ts);
+                        }
+                    });
         } else {
             log.warn("We got an inventoryRequest with filterType {} which we do not support." +
                             "This should never happen if our feature entries are correct and if the peers code is executed as expected.",
                     inventoryFilterType);
         }
     }
-}
\ No newline at end of file
+
+    // Chunks are created and sent one after the other, so we do not hold the whole inventory in memory or fill the
+    // send queue with it, and we stop if sending fails. The requester applies each chunk at arrival.
+    private void sendChunk(InventoryChunkIterator chunks,
+                           int requestersVersion,
+                           int requestNonce,
+                           Connection connection,
+                           long ts) {
+        int chunkIndex = chunks.getNumChunks();
+        supplyAsync(() -> {
+            Inventory inventory = chunks.next();
+            // The requestersVersion param can be removed once there are no old nodes expected in the network anymore.
+            return new InventoryResponse(requestersVersion,
+                    inventory,
+                    requestNonce,
+                    chunkIndex,
+                    chunks.hasNext());
+        }, ExecutorFactory.WORKER_POOL)
+                .thenCompose(inventoryResponse -> node.sendAsync(inventoryResponse, connection))
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        log.warn("Error at creating or sending InventoryResponse chunk {} to {}. {}",
+                                chunkIndex + 1, connection.getPeerAddress(),
+                                ExceptionUtil.getRootCauseMessage(throwable));
+                    } else if (chunks.hasNext()) {
+                        sendChunk(chunks, requestersVersion, requestNonce, connection, ts);
+                    } else {
+                        log.info("Successfully sent an InventoryResponse to peer {} with {} kb in {} chunk(s). Took {} ms",
+                                connection.getPeerAddress(),
+                                ByteUnit.BYTE.toKB(chunks.getAccumulatedSize()),
+                                chunks.getNumChunks(),
+                                System.currentTimeMillis() - ts);
+                    }
+                });
+    }
+}
@@ -17,30 +17,13 @@
 
 package bisq.network.p2p.services.data.inventory.filter;
 
-import bisq.common.data.ByteArray;
-import bisq.common.data.ByteUnit;
-import bisq.network.p2p.services.data.DataRequest;
 import bisq.network.p2p.services.data.inventory.Inventory;
-import bisq.network.p2p.services.data.storage.DistributedData;
+import bisq.network.p2p.services.data.storage.InventoryIndex;
 import bisq.network.p2p.services.data.storage.StorageService;
-import bisq.network.p2p.services.data.storage.append.AddAppendOnlyDataRequest;
-import bisq.network.p2p.services.data.storage.auth.AddAuthenticatedDataRequest;
-import bisq.network.p2p.services.data.storage.auth.AuthenticatedDataRequest;
-import bisq.network.p2p.services.data.storage.auth.RemoveAuthenticatedDataRequest;
-import bisq.network.p2p.services.data.storage.mailbox.AddMailboxRequest;
-import bisq.network.p2p.services.data.storage.mailbox.MailboxRequest;
-import bisq.network.p2p.services.data.storage.mailbox.RemoveMailboxRequest;
-import lombok.extern.slf4j.Slf4j;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Optional;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
-@Slf4j
 public abstract class FilterService<T extends InventoryFilter> {
     protected final StorageService storageService;
     protected final int maxSize;
@@ -52,150 +35,32 @@ public abstract class FilterService<T extends InventoryFilter> {
 
     abstract public T getFilter();
 
-    abstract protected boolean isAuthenticatedDataRequestMissing(T filter, Map.Entry<ByteArray, AuthenticatedDataRequest> mapEntry);
-
-    abstract protected boolean isMailboxRequestMissing(T filter, Map.Entry<ByteArray, MailboxRequest> mapEntry);
-
-    abstract protected boolean isAddAppendOnlyDataRequestMissing(T filter, Map.Entry<ByteArray, AddAppendOnlyDataRequest> entry);
+    /**
+     * @return The predicate for the entries which are missing at the requester, or empty if the filter cannot be
+     * evaluated (e.g. a sketch which cannot be decoded).
+     */
+    abstract protected Optional<Predicate<InventoryIndex.Entry>> findIsMissingPredicate(T filter);
 
     public Inventory createInventory(InventoryFilter inventoryFilter, Predicate<Integer> predicate) {
-        final AtomicInteger accumulatedSize = new AtomicInteger();
-        final AtomicBoolean maxSizeReached = new AtomicBoolean();
+        return createInventoryChunks(inventoryFilter, predicate, Integer.MAX_VALUE).next();
+    }
+
+    /**
+     * Evaluates the filter and returns an iterator which creates the chunks of up to maxChunkSize bytes on demand.
+     * Evaluating the filter can be expensive (e.g. decoding a MiniSketch), thus it should not be called on the
+     * DISPATCHER.
+     */
+    public InventoryChunkIterator createInventoryChunks(InventoryFilter inventoryFilter,
+                                                       Predicate<Integer> predicate,
+                                                       int maxChunkSize) {
         // The type is not defined at compile time, thus we do a safe cast
         T filter = safeCast(inventoryFilter);
-        List<DataRequest> dataRequests = getAuthenticatedDataRequests(filter, accumulatedSize, maxSizeReached, predicate);
-
-        if (!maxSizeReached.get()) {
-            dataRequests.addAll(getMailboxRequests(filter, accumulatedSize, maxSizeReached, predicate));
-        }
-
-        if (!maxSizeReached.get()) {
-            dataRequests.addAll(getAppendOnlyDataRequests(filter, accumulatedSize, maxSizeReached));
-        }
-
-        log.info("Inventory with {} items and accumulatedSize of {} kb. maxSizeReached={}",
-                dataRequests.size(), ByteUnit.BYTE.toKB(accumulatedSize.get()), maxSizeReached.get());
-        return new Inventory(dataRequests, maxSizeReached.get());
+        return new InventoryChunkIterator(storageService.getInventoryIndex(),
+                findIsMissingPredicate(filter),
+                predicate,
+                maxSize,
+                maxChunkSize);
     }
 
     abstract protected T safeCast(InventoryFilter inventoryFilter);
-
-    private List<DataRequest> getAuthenticatedDataRequests(T filter,
-                                                           AtomicInteger accumulatedSize,
-                                                           AtomicBoolean maxSizeReached,
-                                                           Predicate<Integer> predicate) {
-        List<AddAuthenticatedDataRequest> addRequests = new ArrayList<>();
-        List<RemoveAuthenticatedDataRequest> removeRequests = new ArrayList<>();
-        storageService.getAuthenticatedDataStoreMaps().flatMap(map -> map.entrySet().stream())
-                .forEach(mapEntry -> {
-                    if (isAuthenticatedDataRequestMissing(filter, mapEntry)) {
-                        AuthenticatedDataRequest dataRequest = mapEntry.getValue();
-                        if (dataRequest instanceof AddAuthenticatedDataRequest) {
-                            AddAuthenticatedDataRequest addAuthenticatedDataRequest = (AddAuthenticatedDataRequest) dataRequest;
-                            DistributedData distributedData = addAuthenticatedDataRequest.getDistributedData();
-                            if (predicate.test(distributedData.getVersion())) {
-                                addRequests.add(addAuthenticatedDataRequest);
-                            }
-                        } else if (dataRequest instanceof RemoveAuthenticatedDataRequest) {
-                            RemoveAuthenticatedDataRequest removeAuthenticatedDataRequest = (RemoveAuthenticatedDataRequest) dataRequest;
-                            if (predicate.test(removeAuthenticatedDataRequest.getVersion())) {
-                                removeRequests.add(removeAuthenticatedDataRequest);
-                            }
-                        }
-                        // Refresh is ignored
-                    }
-                });
-
-        List<DataRequest> sortedAndFilteredRequests = addRequests.stream()
-                .sorted((o1, o2) -> Integer.compare(o2.getDistributedData().getMetaData().getPriority(),
-                        o1.getDistributedData().getMetaData().getPriority()))
-                .filter(request -> {
-                    if (!maxSizeReached.get()) {
-                        maxSizeReached.set(accumulatedSize.addAndGet(request.getSerializedSize()) > maxSize);
-                    }
-                    return !maxSizeReached.get();
-                })
-                .collect(Collectors.toList());
-
-
-        if (!maxSizeReached.get()) {
-            sortedAndFilteredRequests.addAll(removeRequests.stream()
-                    .sorted((o1, o2) -> Integer.compare(o2.getMetaData().getPriority(), o1.getMetaData().getPriority()))
-                    .filter(request -> {
-                        if (!maxSizeReached.get()) {
-                            maxSizeReached.set(accumulatedSize.addAndGet(request.getSerializedSize()) > maxSize);
-                        }
-                        return !maxSizeReached.get();
-                    })
-                    .collect(Collectors.toList()));
-        }
-        return sortedAndFilteredRequests;
-    }
-
-
-    private List<DataRequest> getMailboxRequests(T filter,
-                                                 AtomicInteger accumulatedSize,
-                                                 AtomicBoolean maxSizeReached,
-                                                 Predicate<Integer> predicate) {
-        List<AddMailboxRequest> addRequests = new ArrayList<>();
-        List<RemoveMailboxRequest> removeRequests = new ArrayList<>();
-        storageService.getMailboxStoreMaps().flatMap(map -> map.entrySet().stream())
-                .forEach(mapEntry -> {
-                    if (isMailboxRequestMissing(filter, mapEntry)) {
-                        MailboxRequest dataRequest = mapEntry.getValue();
-                        if (dataRequest instanceof AddMailboxRequest) {
-                            AddMailboxRequest addMailboxRequest = (AddMailboxRequest) dataRequest;
-                            if (predicate.test(addMailboxRequest.getMailboxSequentialData().getMailboxData().getVersion())) {
-                                addRequests.add(addMailboxRequest);
-                            }
-                        } else if (dataRequest instanceof RemoveMailboxRequest) {
-                            RemoveMailboxRequest removeMailboxRequest = (RemoveMailboxRequest) dataRequest;
-                            if (predicate.test(removeMailboxRequest.getVersion())) {
-                                removeRequests.add(removeMailboxRequest);
-                            }
-                        }
-                    }
-                });
-        List<DataRequest> sortedAndFilteredRequests = addRequests.stream()
-                .sorted((o1, o2) -> Integer.compare(o2.getMailboxSequentialData().getMailboxData().getMetaData().getPriority(),
-                        o1.getMailboxSequentialData().getMailboxData().getMetaData().getPriority()))
-                .filter(request -> {
-                    if (!maxSizeReached.get()) {
-                        maxSizeReached.set(accumulatedSize.addAndGet(request.getSerializedSize()) > maxSize);
-                    }
-                    return !maxSizeReached.get();
-                })
-                .collect(Collectors.toList());
-
-        if (!maxSizeReached.get()) {
-            sortedAndFilteredRequests.addAll(removeRequests.stream()
-                    .sorted((o1, o2) -> Integer.compare(o2.getMetaData().getPriority(), o1.getMetaData().getPriority()))
-                    .filter(request -> {
-                        if (!maxSizeReached.get()) {
-                            maxSizeReached.set(accumulatedSize.addAndGet(request.getSerializedSize()) > maxSize);
-                        }
-                        return !maxSizeReached.get();
-                    })
-                    .collect(Collectors.toList()));
-        }
-        return sortedAndFilteredRequests;
-    }
-
-    private List<DataRequest> getAppendOnlyDataRequests(T filter,
-                                                        AtomicInteger accumulatedSize,
-                                                        AtomicBoolean maxSizeReached) {
-        return storageService.getAddAppendOnlyDataStoreMaps().flatMap(map -> map.entrySet().stream())
-                .filter(entry -> isAddAppendOnlyDataRequestMissing(filter, entry))
-                //hashSetFilter.getFilterEntries().contains(toFilterEntry(mapEntry)))
-                .map(Map.Entry::getValue)
-                .sorted((o1, o2) -> Integer.compare(o2.getAppendOnlyData().getMetaData().getPriority(),
-                        o1.getAppendOnlyData().getMetaData().getPriority()))
-                .filter(request -> {
-                    if (!maxSizeReached.get()) {
-                        maxSizeReached.set(accumulatedSize.addAndGet(request.getSerializedSize()) > maxSize);
-                    }
-                    return !maxSizeReached.get();
-                })
-                .collect(Collectors.toList());
-    }
 }
@@ -0,0 +1,132 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.inventory.filter;
+
+import bisq.common.data.ByteUnit;
+import bisq.network.p2p.services.data.DataRequest;
+import bisq.network.p2p.services.data.inventory.Inventory;
+import bisq.network.p2p.services.data.storage.InventoryIndex;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Creates the chunks of an inventory on demand. We only build the next chunk once the previous one got sent, so we
+ * do not hold the whole inventory in memory. The entries of the inventory index are already sorted by category and
+ * priority, so the high priority data is in the first chunks. The index is backed by concurrent maps, so changes
+ * while we iterate are tolerated. Only the last chunk carries the maxSizeReached flag. There is always at least one
+ * (maybe empty) chunk.
+ */
+@Slf4j
+public class InventoryChunkIterator implements Iterator<Inventory> {
+    private final Iterator<InventoryIndex.Entry> entries;
+    private final Predicate<InventoryIndex.Entry> isMissing;
+    private final Predicate<Integer> versionPredicate;
+    private final int maxSize;
+    private final int maxChunkSize;
+    private final boolean filterDecodingFailed;
+    // The first entry of the next chunk, which did not fit into the previous chunk
+    private InventoryIndex.Entry pendingEntry;
+    private boolean hasNext = true;
+    @Getter
+    private int numChunks;
+    @Getter
+    private int numDataRequests;
+    @Getter
+    private int accumulatedSize;
+    @Getter
+    private boolean maxSizeReached;
+
+    InventoryChunkIterator(InventoryIndex inventoryIndex,
+                           Optional<Predicate<InventoryIndex.Entry>> isMissing,
+                           Predicate<Integer> versionPredicate,
+                           int maxSize,
+                           int maxChunkSize) {
+        this.entries = Arrays.stream(InventoryIndex.Category.values())
+                .flatMap(inventoryIndex::getEntries)
+                .iterator();
+        this.isMissing = isMissing.orElse(entry -> false);
+        this.versionPredicate = versionPredicate;
+        this.maxSize = maxSize;
+        this.maxChunkSize = maxChunkSize;
+        filterDecodingFailed = isMissing.isEmpty();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    @Override
+    public Inventory next() {
+        if (!hasNext) {
+            throw new NoSuchElementException();
+        }
+
+        List<DataRequest> dataRequests = new ArrayList<>();
+        int chunkSize = 0;
+        InventoryIndex.Entry entry = pendingEntry != null ? pendingEntry : findNextEntry();
+        pendingEntry = null;
+        while (entry != null) {
+            int serializedSize = entry.getSerializedSize();
+            if (!dataRequests.isEmpty() && chunkSize + serializedSize > maxChunkSize) {
+                pendingEntry = entry;
+                break;
+            }
+            dataRequests.add(entry.getDataRequest());
+            chunkSize += serializedSize;
+            numDataRequests++;
+            entry = findNextEntry();
+        }
+
+        numChunks++;
+        hasNext = pendingEntry != null;
+        if (!hasNext) {
+            log.info("Inventory with {} items in {} chunk(s) and accumulatedSize of {} kb. maxSizeReached={}",
+                    numDataRequests, numChunks, ByteUnit.BYTE.toKB(accumulatedSize), maxSizeReached);
+        }
+        return new Inventory(dataRequests, !hasNext && maxSizeReached, filterDecodingFailed);
+    }
+
+    // Returns null if there are no more missing entries or if the max size is reached
+    private InventoryIndex.Entry findNextEntry() {
+        while (!maxSizeReached && entries.hasNext()) {
+            InventoryIndex.Entry entry = entries.next();
+            // AddAppendOnlyDataRequest has no version
+            if (entry.getCategory() != InventoryIndex.Category.APPEND_ONLY && !versionPredicate.test(entry.getVersion())) {
+                continue;
+            }
+            if (!isMissing.test(entry)) {
+                continue;
+            }
+            accumulatedSize += entry.getSerializedSize();
+            maxSizeReached = accumulatedSize > maxSize;
+            if (!maxSizeReached) {
+                return entry;
+            }
+        }
+        return null;
+    }
+}
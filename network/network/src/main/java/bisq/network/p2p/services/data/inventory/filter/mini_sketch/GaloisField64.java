@@ -0,0 +1,78 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.inventory.filter.mini_sketch;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Arithmetic in GF(2^64) with the irreducible polynomial x^64 + x^4 + x^3 + x + 1 (same as used in minisketch).
+ * Addition and subtraction are XOR.
+ */
+final class GaloisField64 {
+    private static final long MASK_0 = 0x1111111111111111L;
+    private static final long MASK_1 = 0x2222222222222222L;
+    private static final long MASK_2 = 0x4444444444444444L;
+    private static final long MASK_3 = 0x8888888888888888L;
+
+    private GaloisField64() {
+    }
+
+    // Carry-less multiplication of the 128 bit product, followed by the reduction of the upper 64 bits.
+    static long multiply(long a, long b) {
+        long low = carryLessMultiply(a, b);
+        long high = Long.reverse(carryLessMultiply(Long.reverse(a), Long.reverse(b))) >>> 1;
+        // x^64 = x^4 + x^3 + x + 1. The bits shifted out at the reduction get folded in once more.
+        high ^= (high >>> 63) ^ (high >>> 61) ^ (high >>> 60);
+        return low ^ high ^ (high << 1) ^ (high << 3) ^ (high << 4);
+    }
+
+    // Lower 64 bits of the carry-less product using integer multiplications. We split the operands into 4 parts with
+    // holes of 3 bits between the used bits, so that the carries of the integer multiplications do not spill into
+    // the bits we keep (see BearSSL ghash_ctmul64).
+    private static long carryLessMultiply(long x, long y) {
+        long x0 = x & MASK_0;
+        long x1 = x & MASK_1;
+        long x2 = x & MASK_2;
+        long x3 = x & MASK_3;
+        long y0 = y & MASK_0;
+        long y1 = y & MASK_1;
+        long y2 = y & MASK_2;
+        long y3 = y & MASK_3;
+        long z0 = (x0 * y0) ^ (x1 * y3) ^ (x2 * y2) ^ (x3 * y1);
+        long z1 = (x0 * y1) ^ (x1 * y0) ^ (x2 * y3) ^ (x3 * y2);
+        long z2 = (x0 * y2) ^ (x1 * y1) ^ (x2 * y0) ^ (x3 * y3);
+        long z3 = (x0 * y3) ^ (x1 * y2) ^ (x2 * y1) ^ (x3 * y0);
+        return (z0 & MASK_0) | (z1 & MASK_1) | (z2 & MASK_2) | (z3 & MASK_3);
+    }
+
+    static long square(long value) {
+        return multiply(value, value);
+    }
+
+    // a^(2^64 - 2) = a^-1
+    static long inverse(long value) {
+        checkArgument(value != 0, "Zero has no inverse");
+        long result = 1;
+        long power = value;
+        for (int i = 1; i < 64; i++) {
+            power = square(power);
+            result = multiply(result, power);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.inventory.filter.mini_sketch;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * PinSketch over GF(2^64) following <a href="https://github.com/sipa/minisketch">https://github.com/sipa/minisketch</a>.
+ * <p>
+ * A sketch with capacity c holds the odd power sums s1, s3, ..., s(2c-1) of all added elements. Sketches are linear,
+ * thus merging the sketches of 2 sets results in the sketch of their symmetric difference. That can be decoded as long
+ * it does not contain more than c elements. The size of a sketch depends only on its capacity, not on the set size.
+ * <p>
+ * Adding the same element twice removes it again. Elements must not be 0. Not thread safe.
+ */
+public final class MiniSketch {
+    private static final int MAX_SPLIT_ATTEMPTS = 128;
+    private static final long[] X = new long[]{0, 1};
+
+    @Getter
+    private final int capacity;
+    private final long[] syndromes;
+
+    public MiniSketch(int capacity) {
+        checkArgument(capacity > 0, "Capacity must be positive");
+        this.capacity = capacity;
+        syndromes = new long[capacity];
+    }
+
+    public static MiniSketch fromBytes(byte[] bytes) {
+        checkArgument(bytes.length > 0 && bytes.length % Long.BYTES == 0, "Invalid sketch length");
+        MiniSketch miniSketch = new MiniSketch(bytes.length / Long.BYTES);
+        ByteBuffer.wrap(bytes).asLongBuffer().get(miniSketch.syndromes);
+        return miniSketch;
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(capacity * Long.BYTES);
+        byteBuffer.asLongBuffer().put(syndromes);
+        return byteBuffer.array();
+    }
+
+    public void add(long element) {
+        checkArgument(element != 0, "Element must not be 0");
+        long square = GaloisField64.square(element);
+        long power = element;
+        for (int i = 0; i < capacity; i++) {
+            syndromes[i] ^= power;
+            power = GaloisField64.multiply(power, square);
+        }
+    }
+
+    public void merge(MiniSketch other) {
+        checkArgument(other.capacity == capacity, "Sketches must have the same capacity");
+        for (int i = 0; i < capacity; i++) {
+            syndromes[i] ^= other.syndromes[i];
+        }
+    }
+
+    /**
+     * @return The elements of the sketch or empty if the number of elements exceeds the capacity.
+     */
+    public Optional<long[]> decode() {
+        // Power sums s1 ... s2c. In GF(2^m) the even power sums are the squares: s(2i) = s(i)^2
+        long[] powerSums = new long[2 * capacity];
+        for (int i = 0; i < capacity; i++) {
+            powerSums[2 * i] = syndromes[i];
+        }
+        for (int i = 0; i < capacity; i++) {
+            powerSums[2 * i + 1] = GaloisField64.square(powerSums[i]);
+        }
+
+        long[] locator = berlekampMassey(powerSums);
+        int numElements = locator.length - 1;
+        if (numElements > capacity) {
+            return Optional.empty();
+        }
+        if (numElements == 0) {
+            return Optional.of(new long[0]);
+        }
+
+        // The roots of the locator polynomial are the inverses of the elements, so the roots of the reversed
+        // polynomial are the elements itself. As locator[0] is 1 the reversed polynomial is monic.
+        long[] reversed = new long[locator.length];
+        for (int i = 0; i < locator.length; i++) {
+            reversed[i] = locator[numElements - i];
+        }
+        if (reversed[0] == 0) {
+            // 0 would be a root but is not a valid element
+            return Optional.empty();
+        }
+
+        // The polynomial needs to split into distinct linear factors, which is the case if x^(2^64) = x mod f
+        long[] xPower = X;
+        for (int i = 0; i < 64; i++) {
+            xPower = squareMod(xPower, reversed);
+        }
+        if (!Arrays.equals(xPower, mod(X, reversed))) {
+            return Optional.empty();
+        }
+
+        List<Long> roots = new ArrayList<>(numElements);
+        if (!findRoots(reversed, roots, new SecureRandom()) || roots.size() != numElements) {
+            return Optional.empty();
+        }
+
+        // Re-encode to rule out a wrong decoding in case the capacity was exceeded
+        MiniSketch check = new MiniSketch(capacity);
+        roots.forEach(check::add);
+        if (!Arrays.equals(check.syndromes, syndromes)) {
+            return Optional.empty();
+        }
+        return Optional.of(roots.stream().mapToLong(Long::longValue).toArray());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    // Returns the shortest connection polynomial (lowest degree first) generating the given sequence
+    private static long[] berlekampMassey(long[] sequence) {
+        int maxLength = sequence.length + 1;
+        long[] current = new long[maxLength];
+        long[] previous = new long[maxLength];
+        current[0] = 1;
+        previous[0] = 1;
+        int length = 0;
+        int shift = 1;
+        long previousDiscrepancyInverse = 1;
+        for (int n = 0; n < sequence.length; n++) {
+            long discrepancy = sequence[n];
+            for (int i = 1; i <= length; i++) {
+                discrepancy ^= GaloisField64.multiply(current[i], sequence[n - i]);
+            }
+            if (discrepancy == 0) {
+                shift++;
+                continue;
+            }
+            long factor = GaloisField64.multiply(discrepancy, previousDiscrepancyInverse);
+            long[] copy = 2 * length <= n ? current.clone() : null;
+            for (int i = 0; i + shift < maxLength; i++) {
+                if (previous[i] != 0) {
+                    current[i + shift] ^= GaloisField64.multiply(factor, previous[i]);
+                }
+            }
+            if (copy != null) {
+                length = n + 1 - length;
+                previous = copy;
+                previousDiscrepancyInverse = GaloisField64.inverse(discrepancy);
+                shift = 1;
+            } else {
+                shift++;
+            }
+        }
+        return Arrays.copyOf(current, length + 1);
+    }
+
+    // Berlekamp trace algorithm: for a random beta, gcd(f, Tr(beta * x)) contains the roots r with Tr(beta * r) = 0.
+    private static boolean findRoots(long[] polynomial, List<Long> roots, Random random) {
+        int degree = polynomial.length - 1;
+        if (degree == 0) {
+            return true;
+        }
+        if (degree == 1) {
+            // f is monic, so f = x + f0 and the root is f0
+            roots.add(polynomial[0]);
+            return true;
+        }
+        for (int attempt = 0; attempt < MAX_SPLIT_ATTEMPTS; attempt++) {
+            long beta = random.nextLong();
+            if (beta == 0) {
+                continue;
+            }
+            long[] term = mod(new long[]{0, beta}, polynomial);
+            long[] trace = term;
+            for (int i = 1; i < 64; i++) {
+                term = squareMod(term, polynomial);
+                trace = add(trace, term);
+            }
+            long[] factor = gcd(polynomial, trace);
+            int factorDegree = factor.length - 1;
+            if (factorDegree > 0 && factorDegree < degree) {
+                return findRoots(factor, roots, random) &&
+                        findRoots(divide(polynomial, factor), roots, random);
+            }
+        }
+        return false;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // Polynomials over GF(2^64), lowest degree first, without leading zero coefficients
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static long[] trim(long[] polynomial) {
+        int length = polynomial.length;
+        while (length > 0 && polynomial[length - 1] == 0) {
+            length--;
+        }
+        return length == polynomial.length ? polynomial : Arrays.copyOf(polynomial, length);
+    }
+
+    private static long[] add(long[] a, long[] b) {
+        long[] result = Arrays.copyOf(a, Math.max(a.length, b.length));
+        for (int i = 0; i < b.length; i++) {
+            result[i] ^= b[i];
+        }
+        return trim(result);
+    }
+
+    private static long[] makeMonic(long[] polynomial) {
+        long leading = polynomial[polynomial.length - 1];
+        if (leading == 1) {
+            return polynomial;
+        }
+        long inverse = GaloisField64.inverse(leading);
+        long[] result = new long[polynomial.length];
+        for (int i = 0; i < polynomial.length; i++) {
+            result[i] = GaloisField64.multiply(polynomial[i], inverse);
+        }
+        return result;
+    }
+
+    // Remainder of a divided by the monic polynomial
+    private static long[] mod(long[] a, long[] monic) {
+        int degree = monic.length - 1;
+        if (a.length <= degree) {
+            return trim(a);
+        }
+        long[] remainder = a.clone();
+        for (int i = remainder.length - 1; i >= degree; i--) {
+            long coefficient = remainder[i];
+            if (coefficient != 0) {
+                for (int j = 0; j <= degree; j++) {
+                    remainder[i - degree + j] ^= GaloisField64.multiply(coefficient, monic[j]);
+                }
+            }
+        }
+        return trim(Arrays.copyOf(remainder, degree));
+    }
+
+    // Exact division by the monic polynomial
+    private static long[] divide(long[] a, long[] monic) {
+        int degree = monic.length - 1;
+        long[] remainder = a.clone();
+        long[] quotient = new long[a.length - degree];
+        for (int i = remainder.length - 1; i >= degree; i--) {
+            long coefficient = remainder[i];
+            quotient[i - degree] = coefficient;
+            if (coefficient != 0) {
+                for (int j = 0; j <= degree; j++) {
+                    remainder[i - degree + j] ^= GaloisField64.multiply(coefficient, monic[j]);
+                }
+            }
+        }
+        return trim(quotient);
+    }
+
+    // In characteristic 2 squaring is linear: (sum a_i x^i)^2 = sum a_i^2 x^2i
+    private static long[] squareMod(long[] a, long[] monic) {
+        if (a.length == 0) {
+            return a;
+        }
+        long[] square = new long[2 * a.length - 1];
+        for (int i = 0; i < a.length; i++) {
+            square[2 * i] = GaloisField64.square(a[i]);
+        }
+        return mod(square, monic);
+    }
+
+    private static long[] gcd(long[] a, long[] b) {
+        a = makeMonic(a);
+        while (b.length > 0) {
+            b = makeMonic(b);
+            long[] remainder = mod(a, b);
+            a = b;
+            b = remainder;
+        }
+        return a;
+    }
+}
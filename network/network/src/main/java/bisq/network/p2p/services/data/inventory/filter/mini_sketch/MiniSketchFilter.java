@@ -18,37 +18,53 @@
 package bisq.network.p2p.services.data.inventory.filter.mini_sketch;
 
 
+import bisq.common.data.ByteUnit;
 import bisq.network.p2p.services.data.inventory.filter.InventoryFilter;
 import bisq.network.p2p.services.data.inventory.filter.InventoryFilterType;
+import com.google.protobuf.ByteString;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
-import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
 /**
- * Skeleton for planned MiniSketch implementation based on <a href="https://github.com/sipa/minisketch">https://github.com/sipa/minisketch</a>
+ * Carries the MiniSketch of the requesters data. The responder merges it with the sketch of its own data and decodes
+ * the symmetric difference. Thus, the size depends only on the capacity (8 bytes per element) and not on the number
+ * of entries as with the HashSetFilter.
  */
 @Slf4j
 @Getter
-@ToString
 @EqualsAndHashCode(callSuper = true)
 public final class MiniSketchFilter extends InventoryFilter {
+    // Decoding cost grows quadratically with the capacity, so we only accept capacities close to the default of 128.
+    public final static int MAX_CAPACITY = 256;
 
-    public MiniSketchFilter() {
-        this(InventoryFilterType.MINI_SKETCH);
+    private final int capacity;
+    // Random salt chosen by the requesting node, used for deriving the elements from the map entries. Prevents that
+    // crafted data can produce colliding elements, which would cancel each other out in the sketch.
+    private final long salt;
+    private final byte[] sketch;
+
+    public MiniSketchFilter(int capacity, long salt, byte[] sketch) {
+        this(InventoryFilterType.MINI_SKETCH, capacity, salt, sketch);
     }
 
-    private MiniSketchFilter(InventoryFilterType inventoryFilterType) {
+    private MiniSketchFilter(InventoryFilterType inventoryFilterType, int capacity, long salt, byte[] sketch) {
         super(inventoryFilterType);
 
+        this.capacity = capacity;
+        this.salt = salt;
+        this.sketch = sketch;
+
         verify();
     }
 
     @Override
     public void verify() {
         checkArgument(inventoryFilterType == InventoryFilterType.MINI_SKETCH);
+        checkArgument(capacity > 0 && capacity <= MAX_CAPACITY);
+        checkArgument(sketch.length == capacity * Long.BYTES);
     }
 
     @Override
@@ -59,15 +75,23 @@ public final class MiniSketchFilter extends InventoryFilter {
     @Override
     public bisq.network.protobuf.InventoryFilter.Builder getBuilder(boolean serializeForHash) {
         return getInventoryFilterBuilder().setMiniSketchFilter(
-                bisq.network.protobuf.MiniSketchFilter.newBuilder());
+                bisq.network.protobuf.MiniSketchFilter.newBuilder()
+                        .setCapacity(capacity)
+                        .setSalt(salt)
+                        .setSketch(ByteString.copyFrom(sketch)));
     }
 
     public static MiniSketchFilter fromProto(bisq.network.protobuf.InventoryFilter proto) {
-        return new MiniSketchFilter(InventoryFilterType.fromProto(proto.getInventoryFilterType()));
+        bisq.network.protobuf.MiniSketchFilter miniSketchFilter = proto.getMiniSketchFilter();
+        return new MiniSketchFilter(InventoryFilterType.fromProto(proto.getInventoryFilterType()),
+                miniSketchFilter.getCapacity(),
+                miniSketchFilter.getSalt(),
+                miniSketchFilter.getSketch().toByteArray());
     }
 
     @Override
     public String getDetails() {
-        return "MiniSketchFilter";
+        return "MiniSketchFilter with capacity " + capacity + " and size of " +
+                ByteUnit.BYTE.toKB(getSerializedSize()) + " KB";
     }
-}
\ No newline at end of file
+}
@@ -17,44 +17,79 @@
 
 package bisq.network.p2p.services.data.inventory.filter.mini_sketch;
 
-import bisq.common.data.ByteArray;
 import bisq.network.p2p.services.data.inventory.filter.FilterService;
 import bisq.network.p2p.services.data.inventory.filter.InventoryFilter;
 import bisq.network.p2p.services.data.inventory.filter.InventoryFilterType;
+import bisq.network.p2p.services.data.storage.InventoryIndex;
 import bisq.network.p2p.services.data.storage.StorageService;
-import bisq.network.p2p.services.data.storage.append.AddAppendOnlyDataRequest;
-import bisq.network.p2p.services.data.storage.auth.AuthenticatedDataRequest;
-import bisq.network.p2p.services.data.storage.mailbox.MailboxRequest;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
- * Skeleton for planned MiniSketch implementation based on <a href="https://github.com/sipa/minisketch">https://github.com/sipa/minisketch</a>
+ * Set reconciliation based on <a href="https://github.com/sipa/minisketch">https://github.com/sipa/minisketch</a>.
+ * Each map entry is mapped to a 64 bit element derived from its hash and sequence number. If the symmetric difference
+ * exceeds the capacity the responder cannot decode it and signals that in the inventory, so that the requester can
+ * use another filter type for the next request.
+ * <p>
+ * Each node uses the same salt for all its requests. Adding an element is an XOR, so the sketches of our own salt
+ * and of the salts of recent requesters are cached and kept up to date at each change of the inventory index,
+ * instead of encoding all entries at each request.
  */
 @Slf4j
-public class MiniSketchFilterService extends FilterService<MiniSketchFilter> {
+public class MiniSketchFilterService extends FilterService<MiniSketchFilter> implements InventoryIndex.Listener {
+    // We expect only a few changes between periodic requests. A sketch with capacity of 128 has 1 KB.
+    public static final int DEFAULT_CAPACITY = 128;
+    // Each cached sketch gets updated at each change of the inventory index, so we keep only a few.
+    private static final int MAX_CACHED_SKETCHES = 32;
+
+    private final long salt = new SecureRandom().nextLong();
+    private final CachedSketch ownSketch;
+    private final Map<Long, CachedSketch> sketchBySalt = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedSketch> eldest) {
+            return size() > MAX_CACHED_SKETCHES;
+        }
+    };
+
     public MiniSketchFilterService(StorageService storageService, int maxSize) {
         super(storageService, maxSize);
-    }
 
-    public MiniSketchFilter getFilter() {
-        return new MiniSketchFilter();
+        ownSketch = new CachedSketch(DEFAULT_CAPACITY, salt);
+        encode(ownSketch, () -> storageService.getInventoryIndex().addListener(this));
     }
 
-    @Override
-    protected boolean isAuthenticatedDataRequestMissing(MiniSketchFilter filter, Map.Entry<ByteArray, AuthenticatedDataRequest> mapEntry) {
-        return true;
+    public MiniSketchFilter getFilter() {
+        return new MiniSketchFilter(DEFAULT_CAPACITY, salt, ownSketch.getBytes());
     }
 
     @Override
-    protected boolean isMailboxRequestMissing(MiniSketchFilter filter, Map.Entry<ByteArray, MailboxRequest> mapEntry) {
-        return true;
-    }
+    protected Optional<Predicate<InventoryIndex.Entry>> findIsMissingPredicate(MiniSketchFilter filter) {
+        long ts = System.currentTimeMillis();
+        MiniSketch miniSketch = MiniSketch.fromBytes(getCachedSketch(filter.getCapacity(), filter.getSalt()).getBytes());
+        miniSketch.merge(MiniSketch.fromBytes(filter.getSketch()));
+        Optional<long[]> decoded = miniSketch.decode();
+        if (decoded.isEmpty()) {
+            log.info("Symmetric difference exceeds capacity of {}. Took {} ms",
+                    filter.getCapacity(), System.currentTimeMillis() - ts);
+            return Optional.empty();
+        }
 
-    @Override
-    protected boolean isAddAppendOnlyDataRequestMissing(MiniSketchFilter filter, Map.Entry<ByteArray, AddAppendOnlyDataRequest> mapEntry) {
-        return true;
+        log.info("Decoded symmetric difference with {} elements. Took {} ms",
+                decoded.get().length, System.currentTimeMillis() - ts);
+        // Only entries contained in the symmetric difference can be missing at the requester.
+        Set<Long> symmetricDifference = Arrays.stream(decoded.get()).boxed().collect(Collectors.toSet());
+        long requestersSalt = filter.getSalt();
+        return Optional.of(entry -> symmetricDifference.contains(toElement(entry, requestersSalt)));
     }
 
     @Override
@@ -65,4 +100,120 @@ public class MiniSketchFilterService extends FilterService<MiniSketchFilter> {
         }
         throw new IllegalArgumentException("InventoryFilter not of expected type. inventoryFilter=" + inventoryFilter);
     }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // InventoryIndex.Listener
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void onEntryAdded(InventoryIndex.Entry entry) {
+        toggle(entry);
+    }
+
+    @Override
+    public void onEntryRemoved(InventoryIndex.Entry entry) {
+        toggle(entry);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    // Adding an element which is already in the sketch removes it.
+    private void toggle(InventoryIndex.Entry entry) {
+        ownSketch.add(toElement(entry, ownSketch.getSalt()));
+        synchronized (sketchBySalt) {
+            sketchBySalt.values().forEach(cachedSketch -> cachedSketch.add(toElement(entry, cachedSketch.getSalt())));
+        }
+    }
+
+    private CachedSketch getCachedSketch(int capacity, long salt) {
+        if (salt == this.salt && capacity == ownSketch.getCapacity()) {
+            return ownSketch;
+        }
+        synchronized (sketchBySalt) {
+            CachedSketch cachedSketch = sketchBySalt.get(salt);
+            if (cachedSketch != null && cachedSketch.isComplete() && cachedSketch.getCapacity() == capacity) {
+                return cachedSketch;
+            }
+        }
+        CachedSketch cachedSketch = new CachedSketch(capacity, salt);
+        encode(cachedSketch, () -> {
+            synchronized (sketchBySalt) {
+                sketchBySalt.put(salt, cachedSketch);
+            }
+        });
+        return cachedSketch;
+    }
+
+    // The sketch gets registered for updates atomically with taking the snapshot of the entries. As adding elements
+    // is commutative, updates applied while we encode the snapshot do not corrupt the result.
+    private void encode(CachedSketch cachedSketch, Runnable registerHandler) {
+        List<InventoryIndex.Entry> entries = storageService.getInventoryIndex().getAllEntries(registerHandler);
+        MiniSketch snapshotSketch = new MiniSketch(cachedSketch.getCapacity());
+        entries.forEach(entry -> snapshotSketch.add(toElement(entry, cachedSketch.getSalt())));
+        cachedSketch.merge(snapshotSketch);
+        cachedSketch.setComplete();
+    }
+
+    private static long toElement(InventoryIndex.Entry entry, long salt) {
+        return toElement(entry.getKey().getBytes(), entry.getSequenceNumber(), salt);
+    }
+
+    static long toElement(byte[] hash, int sequenceNumber, long salt) {
+        long element = mix(salt ^ sequenceNumber);
+        for (int i = 0; i < hash.length; i += Long.BYTES) {
+            long chunk = 0;
+            for (int j = i; j < Math.min(i + Long.BYTES, hash.length); j++) {
+                chunk = (chunk << 8) | (hash[j] & 0xFF);
+            }
+            element = mix(element ^ chunk);
+        }
+        // 0 is not a valid element
+        return element == 0 ? 1 : element;
+    }
+
+    // Finalizer of SplitMix64
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    // MiniSketch is not thread safe, so all access is synchronized on the sketch.
+    private static final class CachedSketch {
+        @Getter
+        private final long salt;
+        private final MiniSketch miniSketch;
+        // Set once the snapshot of the entries has been encoded.
+        @Getter
+        private volatile boolean complete;
+
+        private CachedSketch(int capacity, long salt) {
+            this.salt = salt;
+            miniSketch = new MiniSketch(capacity);
+        }
+
+        private int getCapacity() {
+            return miniSketch.getCapacity();
+        }
+
+        private void setComplete() {
+            complete = true;
+        }
+
+        private synchronized void add(long element) {
+            miniSketch.add(element);
+        }
+
+        private synchronized void merge(MiniSketch other) {
+            miniSketch.merge(other);
+        }
+
+        private synchronized byte[] getBytes() {
+            return miniSketch.toBytes();
+        }
+    }
 }
@@ -26,7 +26,8 @@ import bisq.network.p2p.services.data.storage.auth.RemoveAuthenticatedDataReques
 import bisq.network.p2p.services.data.storage.mailbox.AddMailboxRequest;
 import bisq.network.p2p.services.data.storage.mailbox.RemoveMailboxRequest;
 import bisq.persistence.DbSubDirectory;
-import bisq.persistence.Persistence;
+import bisq.persistence.JournaledPersistence;
+import bisq.persistence.JournaledPersistenceClient;
 import bisq.persistence.PersistenceService;
 import bisq.persistence.RateLimitedPersistenceClient;
 import lombok.Getter;
@@ -35,21 +36,41 @@ import lombok.extern.slf4j.Slf4j;
 import java.io.File;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Slf4j
-public abstract class DataStorageService<T extends DataRequest> extends RateLimitedPersistenceClient<DataStore<T>> {
+public abstract class DataStorageService<T extends DataRequest> extends RateLimitedPersistenceClient<DataStore<T>>
+        implements JournaledPersistenceClient<DataStore<T>> {
     public static final String STORE_POST_FIX = "Store";
 
+    // Notified after any change of the map. Used for maintaining derived data like the InventoryIndex.
+    public interface MapListener {
+        void onMapEntryChanged(ByteArray key);
+
+        // Called after the whole map has been replaced, e.g. after the persisted data got applied
+        void onMapReset();
+    }
+
     @Getter
-    protected final Persistence<DataStore<T>> persistence;
+    protected final JournaledPersistence<DataStore<T>> persistence;
     @Getter
     public final DataStore<T> persistableStore = new DataStore<>();
     @Getter
     private final String storeKey;
     @Getter
     protected final String subDirectory;
-    protected Optional<Integer> maxMapSize = Optional.empty();
+    protected volatile Optional<Integer> maxMapSize = Optional.empty();
+    private final Set<MapListener> mapListeners = new CopyOnWriteArraySet<>();
+    // Running totals of the serialized size and the number of the map entries, maintained at persistPut and
+    // persistRemove, so that the network load does not need to serialize the whole network DB.
+    private final Map<ByteArray, Integer> serializedSizeByKey = new ConcurrentHashMap<>();
+    private final AtomicLong serializedSize = new AtomicLong();
+    private final AtomicInteger numEntries = new AtomicInteger();
 
     public DataStorageService(PersistenceService persistenceService, String storeName, String storeKey) {
         super();
@@ -57,7 +78,7 @@ public abstract class DataStorageService<T extends DataRequest> extends RateLimi
         this.storeKey = storeKey;
         String storageFileName = storeKey + STORE_POST_FIX;
         subDirectory = DbSubDirectory.NETWORK_DB.getDbPath() + File.separator + storeName;
-        persistence = persistenceService.getOrCreatePersistence(this,
+        persistence = persistenceService.getOrCreateJournaledPersistence(this,
                 subDirectory,
                 storageFileName,
                 persistableStore);
@@ -66,6 +87,11 @@ public abstract class DataStorageService<T extends DataRequest> extends RateLimi
     public void shutdown() {
     }
 
+    @Override
+    public void onPersistedApplied(DataStore<T> persisted) {
+        notifyMapReset();
+    }
+
     @Override
     public DataStore<T> prunePersisted(DataStore<T> persisted) {
         Map<ByteArray, T> map = persisted.getMap();
@@ -84,14 +110,113 @@ public abstract class DataStorageService<T extends DataRequest> extends RateLimi
         return persisted;
     }
 
+    // Appends the changed entry to the journal instead of rewriting the whole store.
+    // All map changes are followed by persistPut or persistRemove, so we notify the map listeners here as well.
+    protected void persistPut(ByteArray key, T dataRequest) {
+        journalPut(key, serializeForPersistence(dataRequest));
+        notifyMapEntryChanged(key);
+    }
+
+    protected void persistRemove(ByteArray key) {
+        journalRemove(key);
+        notifyMapEntryChanged(key);
+    }
+
+    /**
+     * Serialization is the expensive part of persisting a map entry. Services which guard their map entries with
+     * locks call it before acquiring the lock and use journalPut inside the lock.
+     */
+    protected byte[] serializeForPersistence(T dataRequest) {
+        return dataRequest.toDataRequestProto(false).toByteArray();
+    }
+
+    /**
+     * Appends the serialized entry to the journal. Must be called in the same order as the map changes of that key.
+     * The map listeners are not notified, this has to be done with notifyMapEntryChanged.
+     */
+    protected void journalPut(ByteArray key, byte[] serialized) {
+        persistPut(key.getBytes(), serialized);
+        Integer previousSize = serializedSizeByKey.put(key, serialized.length);
+        if (previousSize == null) {
+            numEntries.incrementAndGet();
+            serializedSize.addAndGet(serialized.length);
+        } else {
+            serializedSize.addAndGet(serialized.length - previousSize);
+        }
+    }
+
+    protected void journalRemove(ByteArray key) {
+        persistRemove(key.getBytes());
+        Integer previousSize = serializedSizeByKey.remove(key);
+        if (previousSize != null) {
+            numEntries.decrementAndGet();
+            serializedSize.addAndGet(-previousSize);
+        }
+    }
+
+    /**
+     * @return The serialized size of all map entries in bytes. Maintained incrementally, thus cheap to call.
+     */
+    public long getSerializedSize() {
+        return serializedSize.get();
+    }
+
+    /**
+     * @return The number of map entries. Maintained incrementally like the serialized size.
+     */
+    public int getNumEntries() {
+        return numEntries.get();
+    }
+
+    public void addMapListener(MapListener listener) {
+        mapListeners.add(listener);
+    }
+
+    public void removeMapListener(MapListener listener) {
+        mapListeners.remove(listener);
+    }
+
+    void notifyMapReset() {
+        resetSerializedSize();
+        mapListeners.forEach(listener -> {
+            try {
+                listener.onMapReset();
+            } catch (Exception e) {
+                log.error("Calling onMapReset at listener {} failed", listener, e);
+            }
+        });
+    }
+
+    private void resetSerializedSize() {
+        serializedSizeByKey.clear();
+        persistableStore.getMap().forEach((key, dataRequest) ->
+                serializedSizeByKey.put(key, dataRequest.toDataRequestProto(false).getSerializedSize()));
+        serializedSize.set(serializedSizeByKey.values().stream().mapToLong(Integer::longValue).sum());
+        numEntries.set(serializedSizeByKey.size());
+    }
+
+    // Listeners read the current map entry, so they can be notified outside the lock guarding the map entry
+    protected void notifyMapEntryChanged(ByteArray key) {
+        mapListeners.forEach(listener -> {
+            try {
+                listener.onMapEntryChanged(key);
+            } catch (Exception e) {
+                log.error("Calling onMapEntryChanged at listener {} failed", listener, e);
+            }
+        });
+    }
+
     protected int getMaxMapSize() {
         if (maxMapSize.isEmpty()) {
-            int size = persistableStore.getMap().values().stream()
+            Optional<Integer> size = persistableStore.getMap().values().stream()
                     .map(DataRequest::getMaxMapSize)
-                    .findFirst()
-                    .orElse(100_000);
+                    .findFirst();
+            if (size.isEmpty()) {
+                // We only cache the value once we got it from the data, otherwise the default would stick forever
+                return 100_000;
+            }
             // Until the too low values in some MetaData are fixed we use 5000 as min size
-            maxMapSize = Optional.of(Math.max(MetaData.MAX_MAP_SIZE_5000, size));
+            maxMapSize = Optional.of(Math.max(MetaData.MAX_MAP_SIZE_5000, size.get()));
         }
         return maxMapSize.get();
     }
@@ -21,6 +21,8 @@ import bisq.common.data.ByteArray;
 import bisq.common.proto.ProtoResolver;
 import bisq.common.proto.UnresolvableProtobufMessageException;
 import bisq.network.p2p.services.data.DataRequest;
+import bisq.persistence.JournalRecord;
+import bisq.persistence.JournaledPersistableStore;
 import bisq.persistence.PersistableStore;
 import com.google.protobuf.InvalidProtocolBufferException;
 import lombok.Getter;
@@ -35,7 +37,7 @@ import java.util.stream.Collectors;
 
 @Slf4j
 @ToString
-public final class DataStore<T extends DataRequest> implements PersistableStore<DataStore<T>> {
+public final class DataStore<T extends DataRequest> implements JournaledPersistableStore<DataStore<T>> {
     @Getter
     private final Map<ByteArray, T> map = new ConcurrentHashMap<>();
 
@@ -64,8 +66,9 @@ public final class DataStore<T extends DataRequest> implements PersistableStore<
     }
 
     public static PersistableStore<?> fromProto(bisq.network.protobuf.DataStore proto) {
-        return new DataStore<>(proto.getMapEntriesList().stream()
-                .collect(Collectors.toMap(e -> ByteArray.fromProto(e.getKey()), e -> DataRequest.fromProto(e.getValue()))));
+        // Entries are independent of each other, so we decode them in parallel to reduce startup time of large stores.
+        return new DataStore<>(proto.getMapEntriesList().parallelStream()
+                .collect(Collectors.toConcurrentMap(e -> ByteArray.fromProto(e.getKey()), e -> DataRequest.fromPersistedProto(e.getValue()))));
     }
 
     @Override
@@ -85,6 +88,23 @@ public final class DataStore<T extends DataRequest> implements PersistableStore<
         map.putAll(persisted.getMap());
     }
 
+    @Override
+    public void applyJournalRecord(JournalRecord journalRecord) {
+        ByteArray key = new ByteArray(journalRecord.getKey());
+        if (journalRecord.isRemove()) {
+            map.remove(key);
+            return;
+        }
+
+        try {
+            //noinspection unchecked
+            T dataRequest = (T) DataRequest.fromPersistedProto(bisq.network.protobuf.DataRequest.parseFrom(journalRecord.getValue()));
+            map.put(key, dataRequest);
+        } catch (InvalidProtocolBufferException e) {
+            throw new UnresolvableProtobufMessageException(e);
+        }
+    }
+
     @Override
     public DataStore<T> getClone() {
         return new DataStore<>(new HashMap<>(map));
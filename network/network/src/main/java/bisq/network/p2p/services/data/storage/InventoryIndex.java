@@ -0,0 +1,259 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.data.DataRequest;
+import bisq.network.p2p.services.data.storage.append.AddAppendOnlyDataRequest;
+import bisq.network.p2p.services.data.storage.auth.AddAuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.auth.RemoveAuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.mailbox.AddMailboxRequest;
+import bisq.network.p2p.services.data.storage.mailbox.MailboxSequentialData;
+import bisq.network.p2p.services.data.storage.mailbox.RemoveMailboxRequest;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.stream.Stream;
+
+/**
+ * Index over the data requests of all stores used for creating inventory responses and filters.
+ * Entries are bucketed by category (in the order they get added to the inventory) and by priority, so that no sorting
+ * is required at inventory requests. It gets updated at each change of a map entry in the registered stores.
+ */
+@Slf4j
+public class InventoryIndex {
+    // Order of the categories is the order in which the data gets added to the inventory.
+    public enum Category {
+        AUTHENTICATED_ADD,
+        AUTHENTICATED_REMOVE,
+        MAILBOX_ADD,
+        MAILBOX_REMOVE,
+        APPEND_ONLY
+    }
+
+    @Getter
+    public static final class Entry {
+        private final ByteArray key;
+        private final DataRequest dataRequest;
+        private final Category category;
+        private final int priority;
+        private final int sequenceNumber;
+        // Version of the distributed data. Not used for append-only data.
+        private final int version;
+        // Serializing is expensive, so we do it only when needed and cache the result.
+        private volatile int serializedSize = -1;
+
+        private Entry(ByteArray key,
+                      DataRequest dataRequest,
+                      Category category,
+                      int priority,
+                      int sequenceNumber,
+                      int version) {
+            this.key = key;
+            this.dataRequest = dataRequest;
+            this.category = category;
+            this.priority = priority;
+            this.sequenceNumber = sequenceNumber;
+            this.version = version;
+        }
+
+        public int getSerializedSize() {
+            if (serializedSize < 0) {
+                serializedSize = dataRequest.getSerializedSize();
+            }
+            return serializedSize;
+        }
+    }
+
+    /**
+     * Listeners get called while the index is locked, thus they must not block.
+     */
+    public interface Listener {
+        void onEntryAdded(Entry entry);
+
+        void onEntryRemoved(Entry entry);
+    }
+
+    private final Map<Category, NavigableMap<Integer, Map<ByteArray, Entry>>> entriesByPriorityByCategory = new EnumMap<>(Category.class);
+    private final Map<ByteArray, Entry> entryByKey = new ConcurrentHashMap<>();
+    private final Map<DataStorageService<? extends DataRequest>, Set<ByteArray>> keysByStore = new ConcurrentHashMap<>();
+    private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
+
+    InventoryIndex() {
+        for (Category category : Category.values()) {
+            entriesByPriorityByCategory.put(category, new ConcurrentSkipListMap<>(Collections.reverseOrder()));
+        }
+    }
+
+    void addStore(DataStorageService<? extends DataRequest> store) {
+        store.addMapListener(new DataStorageService.MapListener() {
+            @Override
+            public void onMapEntryChanged(ByteArray key) {
+                update(store, key);
+            }
+
+            @Override
+            public void onMapReset() {
+                reset(store);
+            }
+        });
+        reset(store);
+    }
+
+    /**
+     * @return The entries of the given category with the highest priority first.
+     */
+    public Stream<Entry> getEntries(Category category) {
+        return entriesByPriorityByCategory.get(category).values().stream()
+                .flatMap(entries -> entries.values().stream());
+    }
+
+    public Stream<Entry> getAllEntries() {
+        return entryByKey.values().stream();
+    }
+
+    public int size() {
+        return entryByKey.size();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Takes a snapshot of all entries and runs onSnapshot without any change in between. Any change after the
+     * snapshot gets notified to the listeners.
+     */
+    public synchronized List<Entry> getAllEntries(Runnable onSnapshot) {
+        List<Entry> entries = new ArrayList<>(entryByKey.values());
+        onSnapshot.run();
+        return entries;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    // We read the value from the map instead of using the value from the change event, as with concurrent changes the
+    // order of the events is not guaranteed. The map is always updated before the listeners get notified.
+    private synchronized void update(DataStorageService<? extends DataRequest> store, ByteArray key) {
+        Set<ByteArray> keys = keysByStore.computeIfAbsent(store, k -> ConcurrentHashMap.newKeySet());
+        remove(key);
+        keys.remove(key);
+        DataRequest dataRequest = store.getPersistableStore().getMap().get(key);
+        if (dataRequest != null) {
+            toEntry(key, dataRequest).ifPresent(entry -> {
+                add(entry);
+                keys.add(key);
+            });
+        }
+    }
+
+    private synchronized void reset(DataStorageService<? extends DataRequest> store) {
+        Set<ByteArray> keys = keysByStore.computeIfAbsent(store, k -> ConcurrentHashMap.newKeySet());
+        new HashSet<>(keys).forEach(this::remove);
+        keys.clear();
+        store.getPersistableStore().getMap().forEach((key, dataRequest) ->
+                toEntry(key, dataRequest).ifPresent(entry -> {
+                    add(entry);
+                    keys.add(key);
+                }));
+    }
+
+    private void add(Entry entry) {
+        entryByKey.put(entry.getKey(), entry);
+        entriesByPriorityByCategory.get(entry.getCategory())
+                .computeIfAbsent(entry.getPriority(), priority -> new ConcurrentHashMap<>())
+                .put(entry.getKey(), entry);
+        listeners.forEach(listener -> {
+            try {
+                listener.onEntryAdded(entry);
+            } catch (Exception e) {
+                log.error("Calling onEntryAdded at listener {} failed", listener, e);
+            }
+        });
+    }
+
+    private void remove(ByteArray key) {
+        Entry entry = entryByKey.remove(key);
+        if (entry != null) {
+            Map<ByteArray, Entry> entries = entriesByPriorityByCategory.get(entry.getCategory()).get(entry.getPriority());
+            if (entries != null) {
+                entries.remove(key);
+            }
+            listeners.forEach(listener -> {
+                try {
+                    listener.onEntryRemoved(entry);
+                } catch (Exception e) {
+                    log.error("Calling onEntryRemoved at listener {} failed", listener, e);
+                }
+            });
+        }
+    }
+
+    private static Optional<Entry> toEntry(ByteArray key, DataRequest dataRequest) {
+        if (dataRequest instanceof AddAuthenticatedDataRequest request) {
+            DistributedData distributedData = request.getDistributedData();
+            return Optional.of(new Entry(key, request, Category.AUTHENTICATED_ADD,
+                    distributedData.getMetaData().getPriority(),
+                    request.getAuthenticatedSequentialData().getSequenceNumber(),
+                    distributedData.getVersion()));
+        } else if (dataRequest instanceof RemoveAuthenticatedDataRequest request) {
+            return Optional.of(new Entry(key, request, Category.AUTHENTICATED_REMOVE,
+                    request.getMetaData().getPriority(),
+                    request.getSequenceNumber(),
+                    request.getVersion()));
+        } else if (dataRequest instanceof AddMailboxRequest request) {
+            MailboxSequentialData mailboxSequentialData = request.getMailboxSequentialData();
+            return Optional.of(new Entry(key, request, Category.MAILBOX_ADD,
+                    mailboxSequentialData.getMailboxData().getMetaData().getPriority(),
+                    request.getSequenceNumber(),
+                    mailboxSequentialData.getMailboxData().getVersion()));
+        } else if (dataRequest instanceof RemoveMailboxRequest request) {
+            return Optional.of(new Entry(key, request, Category.MAILBOX_REMOVE,
+                    request.getMetaData().getPriority(),
+                    request.getSequenceNumber(),
+                    request.getVersion()));
+        } else if (dataRequest instanceof AddAppendOnlyDataRequest request) {
+            // AddAppendOnlyDataRequest does not use a seq nr.
+            return Optional.of(new Entry(key, request, Category.APPEND_ONLY,
+                    request.getAppendOnlyData().getMetaData().getPriority(),
+                    0,
+                    0));
+        }
+        // RefreshAuthenticatedDataRequest is not stored in the map and not part of the inventory
+        return Optional.empty();
+    }
+}
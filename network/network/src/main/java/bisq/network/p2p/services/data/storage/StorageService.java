@@ -36,6 +36,7 @@ import bisq.persistence.DbSubDirectory;
 import bisq.persistence.Persistence;
 import bisq.persistence.PersistenceService;
 import com.google.common.collect.Maps;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
@@ -65,6 +66,8 @@ public class StorageService {
     final Map<String, AppendOnlyDataStorageService> appendOnlyDataStores = new ConcurrentHashMap<>();
     private final PersistenceService persistenceService;
     private final Set<StorageService.Listener> listeners = new CopyOnWriteArraySet<>();
+    @Getter
+    private final InventoryIndex inventoryIndex = new InventoryIndex();
 
     public StorageService(PersistenceService persistenceService) {
         this.persistenceService = persistenceService;
@@ -114,6 +117,7 @@ public class StorageService {
                                 }
                             });
                             authenticatedDataStores.put(storeKey, dataStore);
+                            inventoryIndex.addStore(dataStore);
                         });
             }
             String mailboxStoreName = MAILBOX_DATA_STORE.getStoreName();
@@ -146,6 +150,7 @@ public class StorageService {
                                 }
                             });
                             mailboxStores.put(storeKey, dataStore);
+                            inventoryIndex.addStore(dataStore);
                         });
             }
 
@@ -163,6 +168,7 @@ public class StorageService {
                                 }
                             }));
                             appendOnlyDataStores.put(storeKey, dataStore);
+                            inventoryIndex.addStore(dataStore);
                         });
             }
         } catch (Exception e) {
@@ -314,20 +320,17 @@ public class StorageService {
                 });
     }
 
-    public Stream<Map<ByteArray, AuthenticatedDataRequest>> getAuthenticatedDataStoreMaps() {
-        return authenticatedDataStores.values().stream().map(store -> store.getPersistableStore().getClone().getMap());
-    }
-
-    public Stream<Map<ByteArray, MailboxRequest>> getMailboxStoreMaps() {
-        return mailboxStores.values().stream().map(store -> store.getPersistableStore().getClone().getMap());
+    public Stream<Map.Entry<ByteArray, ? extends DataRequest>> getAllDataRequestMapEntries() {
+        return getStoresByStoreType(ALL).flatMap(store -> new HashMap<>(store.getPersistableStore().getMap()).entrySet().stream());
     }
 
-    public Stream<Map<ByteArray, AddAppendOnlyDataRequest>> getAddAppendOnlyDataStoreMaps() {
-        return appendOnlyDataStores.values().stream().map(store -> store.getPersistableStore().getClone().getMap());
+    // Sum of the serialized size of all stores. The stores maintain their size incrementally.
+    public long getNetworkDatabaseSize() {
+        return getStoresByStoreType(ALL).mapToLong(DataStorageService::getSerializedSize).sum();
     }
 
-    public Stream<Map.Entry<ByteArray, ? extends DataRequest>> getAllDataRequestMapEntries() {
-        return getStoresByStoreType(ALL).flatMap(store -> new HashMap<>(store.getPersistableStore().getMap()).entrySet().stream());
+    public long getNumNetworkDatabaseEntries() {
+        return getStoresByStoreType(ALL).mapToLong(DataStorageService::getNumEntries).sum();
     }
 
 
@@ -364,6 +367,7 @@ public class StorageService {
                 }
             });
             authenticatedDataStores.put(storeKey, dataStore);
+            inventoryIndex.addStore(dataStore);
             return dataStore.readPersisted().thenApplyAsync(store -> dataStore, NetworkService.DISPATCHER);
         } else {
             return CompletableFuture.completedFuture(authenticatedDataStores.get(storeKey));
@@ -399,6 +403,7 @@ public class StorageService {
                 }
             });
             mailboxStores.put(storeKey, dataStore);
+            inventoryIndex.addStore(dataStore);
             return dataStore.readPersisted().thenApply(nil -> dataStore);
         } else {
             return CompletableFuture.completedFuture(mailboxStores.get(storeKey));
@@ -411,6 +416,7 @@ public class StorageService {
                     APPEND_ONLY_DATA_STORE.getStoreName(),
                     storeKey);
             appendOnlyDataStores.put(storeKey, dataStore);
+            inventoryIndex.addStore(dataStore);
             return dataStore.readPersisted().thenApply(nil -> dataStore);
         } else {
             return CompletableFuture.completedFuture(appendOnlyDataStores.get(storeKey));
@@ -476,6 +482,7 @@ public class StorageService {
             log.info("cleanupMap for {}: size of cleaned map {}; size of original map={}", storeKey, cleaned.size(), map.size());
             map.clear();
             map.putAll(cleaned);
+            authenticatedDataStorageService.notifyMapReset();
             authenticatedDataStorageService.persist();
         } catch (Exception e) {
             e.printStackTrace();
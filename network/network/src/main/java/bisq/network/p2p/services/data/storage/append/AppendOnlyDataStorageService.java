@@ -60,20 +60,22 @@ public class AppendOnlyDataStorageService extends DataStorageService<AddAppendOn
     public DataStorageResult add(AddAppendOnlyDataRequest addAppendOnlyDataRequest) {
         AppendOnlyData appendOnlyData = addAppendOnlyDataRequest.getAppendOnlyData();
         Map<ByteArray, AddAppendOnlyDataRequest> map = persistableStore.getMap();
+        ByteArray byteArray;
         synchronized (mapAccessLock) {
             if (isExceedingMapSize()) {
                 return new DataStorageResult(false).maxMapSizeReached();
             }
 
             byte[] hash = DigestUtil.hash(appendOnlyData.serializeForHash());
-            ByteArray byteArray = new ByteArray(hash);
+            byteArray = new ByteArray(hash);
             if (map.containsKey(byteArray)) {
                 return new DataStorageResult(false).payloadAlreadyStored();
             }
 
             map.put(byteArray, addAppendOnlyDataRequest);
+            // Inside the lock to keep the order of the journal entries of a key consistent with the map changes
+            persistPut(byteArray, addAppendOnlyDataRequest);
         }
-        persist();
         listeners.forEach(listener -> {
             try {
                 listener.onAppended(appendOnlyData);
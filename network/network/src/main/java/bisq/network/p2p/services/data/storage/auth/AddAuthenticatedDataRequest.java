@@ -18,6 +18,8 @@
 package bisq.network.p2p.services.data.storage.auth;
 
 import bisq.common.encoding.Hex;
+import bisq.common.proto.MemoizedProto;
+import bisq.common.proto.SerializationCache;
 import bisq.common.util.MathUtils;
 import bisq.common.validation.NetworkDataValidation;
 import bisq.network.p2p.services.data.AddDataRequest;
@@ -35,7 +37,6 @@ import java.security.GeneralSecurityException;
 import java.security.KeyPair;
 import java.security.PublicKey;
 import java.util.Arrays;
-import java.util.Optional;
 
 /**
  * Request for adding authenticated data to the data storage.
@@ -44,7 +45,7 @@ import java.util.Optional;
  */
 @EqualsAndHashCode
 @Slf4j
-public final class AddAuthenticatedDataRequest implements AuthenticatedDataRequest, AddDataRequest {
+public final class AddAuthenticatedDataRequest implements AuthenticatedDataRequest, AddDataRequest, MemoizedProto {
     public static AddAuthenticatedDataRequest from(AuthenticatedDataStorageService store,
                                                    AuthenticatedData authenticatedData,
                                                    KeyPair keyPair)
@@ -73,7 +74,10 @@ public final class AddAuthenticatedDataRequest implements AuthenticatedDataReque
     @Getter
     private final byte[] ownerPublicKeyBytes;
     // transient fields are excluded by default for EqualsAndHashCode
-    private transient final PublicKey ownerPublicKey;
+    // Created lazily from ownerPublicKeyBytes as it is only required for signature verification.
+    private transient volatile PublicKey ownerPublicKey;
+    @Getter
+    private final transient SerializationCache serializationCache = new SerializationCache();
 
     public AddAuthenticatedDataRequest(AuthenticatedSequentialData authenticatedSequentialData,
                                        byte[] signature,
@@ -122,19 +126,23 @@ public final class AddAuthenticatedDataRequest implements AuthenticatedDataReque
     }
 
     public static AddAuthenticatedDataRequest fromProto(bisq.network.protobuf.AddAuthenticatedDataRequest proto) {
-        byte[] ownerPublicKeyBytes = proto.getOwnerPublicKeyBytes().toByteArray();
-        try {
-            PublicKey ownerPublicKey = KeyGeneration.generatePublic(ownerPublicKeyBytes);
-            return new AddAuthenticatedDataRequest(
-                    AuthenticatedSequentialData.fromProto(proto.getAuthenticatedSequentialData()),
-                    proto.getSignature().toByteArray(),
-                    ownerPublicKeyBytes,
-                    ownerPublicKey
-            );
-        } catch (GeneralSecurityException e) {
-            e.printStackTrace();
-            throw new RuntimeException(e);
-        }
+        AddAuthenticatedDataRequest request = fromPersistedProto(proto);
+        // Data received from the network must not pass with a malformed key, so we create it right away.
+        request.getOwnerPublicKey();
+        return request;
+    }
+
+    /**
+     * For data read from our own persisted store, which got verified when it was received. Decoding the EC point
+     * is expensive and persisted data is not verified again, so the public key is only created at first use.
+     */
+    public static AddAuthenticatedDataRequest fromPersistedProto(bisq.network.protobuf.AddAuthenticatedDataRequest proto) {
+        return new AddAuthenticatedDataRequest(
+                AuthenticatedSequentialData.fromProto(proto.getAuthenticatedSequentialData()),
+                proto.getSignature().toByteArray(),
+                proto.getOwnerPublicKeyBytes().toByteArray(),
+                null
+        );
     }
 
     @Override
@@ -164,14 +172,15 @@ public final class AddAuthenticatedDataRequest implements AuthenticatedDataReque
     }
 
     public PublicKey getOwnerPublicKey() {
-        return Optional.ofNullable(ownerPublicKey).orElseGet(() -> {
+        if (ownerPublicKey == null) {
             try {
-                return KeyGeneration.generatePublic(ownerPublicKeyBytes);
+                ownerPublicKey = KeyGeneration.generatePublic(ownerPublicKeyBytes);
             } catch (GeneralSecurityException e) {
-                e.printStackTrace();
+                log.error("Couldn't create public key from ownerPublicKeyBytes", e);
                 throw new RuntimeException(e);
             }
-        });
+        }
+        return ownerPublicKey;
     }
 
     @Override
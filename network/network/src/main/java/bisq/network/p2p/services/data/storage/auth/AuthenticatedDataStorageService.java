@@ -34,6 +34,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -50,12 +51,21 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
         }
     }
 
+    private static final int NUM_LOCKS = 64;
+    private static final int MAX_OPTIMISTIC_ATTEMPTS = 3;
+
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
-    private final Object mapAccessLock = new Object();
+    // Striped locks for the short compare-and-set of map entries. The expensive verification is done outside the lock.
+    private final ReentrantLock[] locks = new ReentrantLock[NUM_LOCKS];
+    private final ReentrantLock newEntryLock = new ReentrantLock();
+    private final VerifiedRequestCache verifiedRequestCache = new VerifiedRequestCache();
     private final Scheduler scheduler;
 
     public AuthenticatedDataStorageService(PersistenceService persistenceService, String storeName, String storeKey) {
         super(persistenceService, storeName, storeKey);
+        for (int i = 0; i < NUM_LOCKS; i++) {
+            locks[i] = new ReentrantLock();
+        }
         scheduler = Scheduler.run(this::pruneExpired).periodically(60, TimeUnit.SECONDS);
     }
 
@@ -64,6 +74,7 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
         maybeLogMapState("onPersistedApplied", persisted);
         pruneInvalidAuthorizedData();
         handlePersistedPublishDateAware(persisted);
+        super.onPersistedApplied(persisted);
     }
 
     @Override
@@ -80,67 +91,77 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
         DistributedData distributedData = authenticatedData.distributedData;
         byte[] hash = DigestUtil.hash(authenticatedData.serializeForHash());
         ByteArray byteArray = new ByteArray(hash);
-        AuthenticatedDataRequest requestFromMap;
         Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            if (isExceedingMapSize()) {
-                return new DataStorageResult(false).maxMapSizeReached();
-            }
-
-            requestFromMap = map.get(byteArray);
-            if (request.equals(requestFromMap)) {
-                return new DataStorageResult(false).requestAlreadyReceived();
-            }
-
-            if (requestFromMap != null && authenticatedSequentialData.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
-                return new DataStorageResult(false).sequenceNrInvalid();
-            }
-
-            if (authenticatedSequentialData.isExpired()) {
-                log.info("AddAuthenticatedDataRequest with {} is expired on {}",
-                        distributedData.getClass().getSimpleName(),
-                        new Date(authenticatedSequentialData.getCreated() + distributedData.getMetaData().getTtl())
-                );
-                log.debug("Data is expired at add. request={}", request);
-                return new DataStorageResult(false).expired();
-            }
+        ReentrantLock lock = getLock(byteArray);
+        byte[] serialized = null;
+        for (int attempt = 1; ; attempt++) {
+            boolean isLockedForChecks = lockForChecksIfContended(lock, attempt);
+            try {
+                AuthenticatedDataRequest requestFromMap = map.get(byteArray);
+                if (request.equals(requestFromMap)) {
+                    return new DataStorageResult(false).requestAlreadyReceived();
+                }
 
-            if (authenticatedData.isDataInvalid(authenticatedSequentialData.getPubKeyHash())) {
-                log.warn("AuthenticatedData is invalid at add. request={}", request);
-                return new DataStorageResult(false).dataInvalid();
-            }
+                if (requestFromMap != null && authenticatedSequentialData.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
+                    return new DataStorageResult(false).sequenceNrInvalid();
+                }
 
-            if (authenticatedData instanceof AuthorizedData authorizedData) {
-                if (authorizedData.isNotAuthorized()) {
-                    log.warn("AuthorizedData is not authorized. request={}", StringUtils.truncate(request.toString(), 500));
-                    return new DataStorageResult(false).isNotAuthorized();
+                if (authenticatedSequentialData.isExpired()) {
+                    log.info("AddAuthenticatedDataRequest with {} is expired on {}",
+                            distributedData.getClass().getSimpleName(),
+                            new Date(authenticatedSequentialData.getCreated() + distributedData.getMetaData().getTtl())
+                    );
+                    log.debug("Data is expired at add. request={}", request);
+                    return new DataStorageResult(false).expired();
                 }
-            }
 
-            if (request.isPublicKeyInvalid()) {
-                log.warn("PublicKey is invalid at add. request={}", request);
-                return new DataStorageResult(false).publicKeyHashInvalid();
-            }
+                // The expensive checks and the serialization are done outside the lock
+                Optional<DataStorageResult> verificationFailure = verifyAddRequest(request);
+                if (verificationFailure.isPresent()) {
+                    return verificationFailure.get();
+                }
+                if (serialized == null) {
+                    serialized = serializeForPersistence(request);
+                }
 
-            if (request.isSignatureInvalid()) {
-                log.warn("Signature is invalid at add. request={}", request);
-                return new DataStorageResult(false).signatureInvalid();
-            }
+                lock.lock();
+                try {
+                    if (map.get(byteArray) != requestFromMap) {
+                        // Another thread has changed the entry since we have checked it. We repeat the checks with the
+                        // new entry. The verification result is cached, so only the cheap checks are repeated.
+                        continue;
+                    }
 
-            if (distributedData instanceof PublishDateAware publishDateAware) {
-                publishDateAware.setPublishDate(authenticatedSequentialData.getCreated());
+                    if (requestFromMap == null) {
+                        if (!tryPutNewEntry(byteArray, request)) {
+                            return new DataStorageResult(false).maxMapSizeReached();
+                        }
+                    } else {
+                        map.put(byteArray, request);
+                    }
+                    if (distributedData instanceof PublishDateAware publishDateAware) {
+                        publishDateAware.setPublishDate(authenticatedSequentialData.getCreated());
+                    }
+                    // The append to the journal is cheap as the write is done async. Doing it inside the lock keeps the
+                    // order of the persisted changes per key consistent with the map.
+                    journalPut(byteArray, serialized);
+
+                    // In case we only updated the seq number we still want to broadcast and update the listeners.
+                    // It is a valid use case that we have both an add and remove data request, and we get repeated sequences
+                    // of add/remove events. In that case only the sequence number changes, but we still want to notify our
+                    // listeners.
+                    break;
+                } finally {
+                    lock.unlock();
+                }
+            } finally {
+                if (isLockedForChecks) {
+                    lock.unlock();
+                }
             }
-
-            map.put(byteArray, request);
-
-            // In case we only updated the seq number we still want to broadcast and update the listeners.
-            // It is a valid use case that we have both an add and remove data request, and we get repeated sequences
-            // of add/remove events. In that case only the sequence number changes, but we still want to notify our
-            // listeners.
         }
 
-        persist();
-
+        notifyMapEntryChanged(byteArray);
         listeners.forEach(listener -> {
             try {
                 listener.onAdded(authenticatedData);
@@ -157,79 +178,116 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
         ByteArray byteArray = new ByteArray(request.getHash());
         AuthenticatedData authenticatedDataFromMap;
         Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            AuthenticatedDataRequest requestFromMap = map.get(byteArray);
-            if (requestFromMap == null) {
-                log.debug("No entry at remove. hash={}", byteArray);
-                // We don't have any entry, but it might be that we would receive later an add request, so we need to keep
-                // track of the sequence number
-                map.put(byteArray, request);
-                persist();
-                return new DataStorageResult(true).noEntry();
-            }
+        ReentrantLock lock = getLock(byteArray);
+        byte[] serialized = serializeForPersistence(request);
+        for (int attempt = 1; ; attempt++) {
+            boolean isLockedForChecks = lockForChecksIfContended(lock, attempt);
+            try {
+                AuthenticatedDataRequest requestFromMap = map.get(byteArray);
+                if (requestFromMap == null || requestFromMap instanceof RemoveAuthenticatedDataRequest) {
+                    DataStorageResult result;
+                    boolean isMapChanged = false;
+                    lock.lock();
+                    try {
+                        if (map.get(byteArray) != requestFromMap) {
+                            continue;
+                        }
 
-            if (requestFromMap instanceof RemoveAuthenticatedDataRequest) {
-                // log.debug("Already removed. request={}, map={}", request, map);
-                // We have had the entry already removed.
-                if (!request.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
-                    // We update the map with the new request with the fresh sequence number.
-                    map.put(byteArray, request);
-                    persist();
+                        if (requestFromMap == null) {
+                            log.debug("No entry at remove. hash={}", byteArray);
+                            // We don't have any entry, but it might be that we would receive later an add request, so we need to keep
+                            // track of the sequence number
+                            map.put(byteArray, request);
+                            journalPut(byteArray, serialized);
+                            isMapChanged = true;
+                            result = new DataStorageResult(true).noEntry();
+                        } else {
+                            // log.debug("Already removed. request={}, map={}", request, map);
+                            // We have had the entry already removed.
+                            if (!request.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
+                                // We update the map with the new request with the fresh sequence number.
+                                map.put(byteArray, request);
+                                journalPut(byteArray, serialized);
+                                isMapChanged = true;
+                            }
+                            result = new DataStorageResult(true).alreadyRemoved();
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                    if (isMapChanged) {
+                        notifyMapEntryChanged(byteArray);
+                    }
+                    return result;
                 }
-                return new DataStorageResult(true).alreadyRemoved();
-            }
 
-            // At that point we know requestFromMap is an AddProtectedDataRequest
-            checkArgument(requestFromMap instanceof AddAuthenticatedDataRequest,
-                    "requestFromMap expected be type of AddProtectedDataRequest");
-            AddAuthenticatedDataRequest addRequestFromMap = (AddAuthenticatedDataRequest) requestFromMap;
-
-            // We have an entry, lets validate if we can remove it
-            AuthenticatedSequentialData dataFromMap = addRequestFromMap.getAuthenticatedSequentialData();
-            authenticatedDataFromMap = dataFromMap.getAuthenticatedData();
-            if (request.isSequenceNrInvalid(dataFromMap.getSequenceNumber())) {
-                log.warn("SequenceNr has not increased at remove. request={}", request);
-                return new DataStorageResult(false).sequenceNrInvalid();
-            }
+                // At that point we know requestFromMap is an AddProtectedDataRequest
+                checkArgument(requestFromMap instanceof AddAuthenticatedDataRequest,
+                        "requestFromMap expected be type of AddProtectedDataRequest");
+                AddAuthenticatedDataRequest addRequestFromMap = (AddAuthenticatedDataRequest) requestFromMap;
 
-            if (request.isPublicKeyHashInvalid(dataFromMap)) {
-                log.warn("PublicKey hash is invalid at remove. request={}", request);
-                return new DataStorageResult(false).publicKeyHashInvalid();
-            }
+                // We have an entry, lets validate if we can remove it
+                AuthenticatedSequentialData dataFromMap = addRequestFromMap.getAuthenticatedSequentialData();
+                if (request.isSequenceNrInvalid(dataFromMap.getSequenceNumber())) {
+                    log.warn("SequenceNr has not increased at remove. request={}", request);
+                    return new DataStorageResult(false).sequenceNrInvalid();
+                }
 
-            if (request.isSignatureInvalid()) {
-                log.warn("Signature is invalid at remove. request={}", request);
-                return new DataStorageResult(false).signatureInvalid();
-            }
+                if (request.isPublicKeyHashInvalid(dataFromMap)) {
+                    log.warn("PublicKey hash is invalid at remove. request={}", request);
+                    return new DataStorageResult(false).publicKeyHashInvalid();
+                }
 
-            // As metaData from distributedData is taken from the users current code base but the one from RemoveAuthenticatedDataRequest
-            // is from the senders version (taken from senders distributedData) it could be different if both users had
-            // different versions and metaData has changed between those versions.
-            // If we detect such a difference we use our metaData version. This also protects against malicious manipulation.
-            MetaData metaDataFromDistributedData = addRequestFromMap.getAuthenticatedSequentialData().getAuthenticatedData().getMetaData();
-            if (!request.getMetaDataFromProto().equals(metaDataFromDistributedData)) {
-                request.setMetaDataFromDistributedData(Optional.of(metaDataFromDistributedData));
-                log.warn("MetaData of remove request not matching the one from the addRequest from the map. We override " +
-                                "metadata with the one we have from the associated distributed data." +
-                                "{} vs. {}",
-                        request.getMetaDataFromProto(),
-                        metaDataFromDistributedData);
-            }
+                if (isSignatureInvalid(request)) {
+                    log.warn("Signature is invalid at remove. request={}", request);
+                    return new DataStorageResult(false).signatureInvalid();
+                }
 
-            map.put(byteArray, request);
-        }
+                lock.lock();
+                try {
+                    if (map.get(byteArray) != requestFromMap) {
+                        continue;
+                    }
 
-        persist();
+                    // As metaData from distributedData is taken from the users current code base but the one from RemoveAuthenticatedDataRequest
+                    // is from the senders version (taken from senders distributedData) it could be different if both users had
+                    // different versions and metaData has changed between those versions.
+                    // If we detect such a difference we use our metaData version. This also protects against malicious manipulation.
+                    MetaData metaDataFromDistributedData = dataFromMap.getAuthenticatedData().getMetaData();
+                    if (!request.getMetaDataFromProto().equals(metaDataFromDistributedData)) {
+                        request.setMetaDataFromDistributedData(Optional.of(metaDataFromDistributedData));
+                        log.warn("MetaData of remove request not matching the one from the addRequest from the map. We override " +
+                                        "metadata with the one we have from the associated distributed data." +
+                                        "{} vs. {}",
+                                request.getMetaDataFromProto(),
+                                metaDataFromDistributedData);
+                    }
 
+                    map.put(byteArray, request);
+                    journalPut(byteArray, serialized);
+                    authenticatedDataFromMap = dataFromMap.getAuthenticatedData();
+                    break;
+                } finally {
+                    lock.unlock();
+                }
+            } finally {
+                if (isLockedForChecks) {
+                    lock.unlock();
+                }
+            }
+        }
+
+        notifyMapEntryChanged(byteArray);
+        AuthenticatedData removedData = authenticatedDataFromMap;
         listeners.forEach(listener -> {
             try {
-                listener.onRemoved(authenticatedDataFromMap);
+                listener.onRemoved(removedData);
             } catch (Exception e) {
                 log.error("Calling onRemoved at listener {} failed", listener, e);
             }
         });
         maybeLogMapState("remove success", persistableStore);
-        return new DataStorageResult(true).removedData(authenticatedDataFromMap);
+        return new DataStorageResult(true).removedData(removedData);
     }
 
     public DataStorageResult refresh(RefreshAuthenticatedDataRequest request) {
@@ -237,56 +295,78 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
         ByteArray byteArray = new ByteArray(request.getHash());
         AddAuthenticatedDataRequest updatedRequest;
         Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            AuthenticatedDataRequest requestFromMap = map.get(byteArray);
+        ReentrantLock lock = getLock(byteArray);
+        for (int attempt = 1; ; attempt++) {
+            boolean isLockedForChecks = lockForChecksIfContended(lock, attempt);
+            try {
+                AuthenticatedDataRequest requestFromMap = map.get(byteArray);
 
-            if (requestFromMap == null) {
-                return new DataStorageResult(false).noEntry();
-            }
+                if (requestFromMap == null) {
+                    return new DataStorageResult(false).noEntry();
+                }
 
-            if (requestFromMap instanceof RemoveAuthenticatedDataRequest) {
-                return new DataStorageResult(false).alreadyRemoved();
-            }
+                if (requestFromMap instanceof RemoveAuthenticatedDataRequest) {
+                    return new DataStorageResult(false).alreadyRemoved();
+                }
 
-            // At that point we know requestFromMap is an AddProtectedDataRequest
-            checkArgument(requestFromMap instanceof AddAuthenticatedDataRequest,
-                    "requestFromMap expected be type of AddAuthenticatedDataRequest");
-            AddAuthenticatedDataRequest addRequestFromMap = (AddAuthenticatedDataRequest) requestFromMap;
-            // We have an entry, lets validate if we can remove it
-            AuthenticatedSequentialData sequentialData = addRequestFromMap.getAuthenticatedSequentialData();
-            if (request.isSequenceNrInvalid(sequentialData.getSequenceNumber())) {
-                log.warn("SequenceNr is invalid at refresh. request={}", request);
-                // Sequence number has not increased
-                return new DataStorageResult(false).sequenceNrInvalid();
-            }
+                // At that point we know requestFromMap is an AddProtectedDataRequest
+                checkArgument(requestFromMap instanceof AddAuthenticatedDataRequest,
+                        "requestFromMap expected be type of AddAuthenticatedDataRequest");
+                AddAuthenticatedDataRequest addRequestFromMap = (AddAuthenticatedDataRequest) requestFromMap;
+                // We have an entry, lets validate if we can remove it
+                AuthenticatedSequentialData sequentialData = addRequestFromMap.getAuthenticatedSequentialData();
+                if (request.isSequenceNrInvalid(sequentialData.getSequenceNumber())) {
+                    log.warn("SequenceNr is invalid at refresh. request={}", request);
+                    // Sequence number has not increased
+                    return new DataStorageResult(false).sequenceNrInvalid();
+                }
 
-            if (request.isPublicKeyInvalid(sequentialData)) {
-                log.warn("PublicKey is invalid at refresh. request={}", request);
-                // Hash of pubKey of data does not match provided one
-                return new DataStorageResult(false).publicKeyHashInvalid();
-            }
+                if (request.isPublicKeyInvalid(sequentialData)) {
+                    log.warn("PublicKey is invalid at refresh. request={}", request);
+                    // Hash of pubKey of data does not match provided one
+                    return new DataStorageResult(false).publicKeyHashInvalid();
+                }
 
-            if (request.isSignatureInvalid()) {
-                log.warn("Signature is invalid at refresh. request={}", request);
-                return new DataStorageResult(false).signatureInvalid();
-            }
+                if (isSignatureInvalid(request)) {
+                    log.warn("Signature is invalid at refresh. request={}", request);
+                    return new DataStorageResult(false).signatureInvalid();
+                }
 
-            long refreshDate = request.getCreated();
-            if (sequentialData.getDistributedData() instanceof PublishDateAware publishDateAware) {
-                publishDateAware.setPublishDate(refreshDate);
-            }
-            AuthenticatedSequentialData updatedData = AuthenticatedSequentialData.from(sequentialData, request.getSequenceNumber(), refreshDate);
-            updatedRequest = new AddAuthenticatedDataRequest(updatedData,
-                    addRequestFromMap.getSignature(),
-                    addRequestFromMap.getOwnerPublicKey());
+                long refreshDate = request.getCreated();
+                AuthenticatedSequentialData updatedData = AuthenticatedSequentialData.from(sequentialData, request.getSequenceNumber(), refreshDate);
+                AddAuthenticatedDataRequest newRequest = new AddAuthenticatedDataRequest(updatedData,
+                        addRequestFromMap.getSignature(),
+                        addRequestFromMap.getOwnerPublicKey());
+                byte[] serialized = serializeForPersistence(newRequest);
+
+                lock.lock();
+                try {
+                    if (map.get(byteArray) != requestFromMap) {
+                        continue;
+                    }
 
-            map.put(byteArray, updatedRequest);
+                    if (sequentialData.getDistributedData() instanceof PublishDateAware publishDateAware) {
+                        publishDateAware.setPublishDate(refreshDate);
+                    }
+                    map.put(byteArray, newRequest);
+                    journalPut(byteArray, serialized);
+                    updatedRequest = newRequest;
+                    break;
+                } finally {
+                    lock.unlock();
+                }
+            } finally {
+                if (isLockedForChecks) {
+                    lock.unlock();
+                }
+            }
         }
 
-        persist();
+        notifyMapEntryChanged(byteArray);
+        AuthenticatedData refreshedData = updatedRequest.getAuthenticatedSequentialData().getAuthenticatedData();
         listeners.forEach(listener -> {
             try {
-                listener.onRefreshed(updatedRequest.getAuthenticatedSequentialData().getAuthenticatedData());
+                listener.onRefreshed(refreshedData);
             } catch (Exception e) {
                 log.error("Calling onRefreshed at listener {} failed", listener, e);
             }
@@ -305,25 +385,121 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
 
     @VisibleForTesting
     public int getSequenceNumber(byte[] hash) {
-        ByteArray byteArray = new ByteArray(hash);
-        int sequenceNumber = 0;
-        Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            if (map.containsKey(byteArray)) {
-                sequenceNumber = map.get(byteArray).getSequenceNumber();
+        AuthenticatedDataRequest request = persistableStore.getMap().get(new ByteArray(hash));
+        return request != null ? request.getSequenceNumber() : 0;
+    }
+
+    private Optional<DataStorageResult> verifyAddRequest(AddAuthenticatedDataRequest request) {
+        ByteArray cacheKey = VerifiedRequestCache.getKey(request);
+        if (verifiedRequestCache.contains(cacheKey)) {
+            return Optional.empty();
+        }
+
+        AuthenticatedSequentialData authenticatedSequentialData = request.getAuthenticatedSequentialData();
+        AuthenticatedData authenticatedData = authenticatedSequentialData.getAuthenticatedData();
+        if (authenticatedData.isDataInvalid(authenticatedSequentialData.getPubKeyHash())) {
+            log.warn("AuthenticatedData is invalid at add. request={}", request);
+            return Optional.of(new DataStorageResult(false).dataInvalid());
+        }
+
+        if (authenticatedData instanceof AuthorizedData authorizedData) {
+            if (authorizedData.isNotAuthorized()) {
+                log.warn("AuthorizedData is not authorized. request={}", StringUtils.truncate(request.toString(), 500));
+                return Optional.of(new DataStorageResult(false).isNotAuthorized());
             }
         }
-        return sequenceNumber;
+
+        if (request.isPublicKeyInvalid()) {
+            log.warn("PublicKey is invalid at add. request={}", request);
+            return Optional.of(new DataStorageResult(false).publicKeyHashInvalid());
+        }
+
+        if (request.isSignatureInvalid()) {
+            log.warn("Signature is invalid at add. request={}", request);
+            return Optional.of(new DataStorageResult(false).signatureInvalid());
+        }
+
+        verifiedRequestCache.add(cacheKey);
+        return Optional.empty();
+    }
+
+    private boolean isSignatureInvalid(RemoveAuthenticatedDataRequest request) {
+        ByteArray cacheKey = VerifiedRequestCache.getKey(request);
+        if (verifiedRequestCache.contains(cacheKey)) {
+            return false;
+        }
+        if (request.isSignatureInvalid()) {
+            return true;
+        }
+        verifiedRequestCache.add(cacheKey);
+        return false;
+    }
+
+    private boolean isSignatureInvalid(RefreshAuthenticatedDataRequest request) {
+        ByteArray cacheKey = VerifiedRequestCache.getKey(request);
+        if (verifiedRequestCache.contains(cacheKey)) {
+            return false;
+        }
+        if (request.isSignatureInvalid()) {
+            return true;
+        }
+        verifiedRequestCache.add(cacheKey);
+        return false;
     }
 
-    private void pruneExpired() {
+    private ReentrantLock getLock(ByteArray key) {
+        return locks[Math.floorMod(key.hashCode(), NUM_LOCKS)];
+    }
+
+    /**
+     * Usually the checks are done without holding the lock and only repeated if the entry got changed meanwhile. If
+     * the entry keeps on changing we hold the lock for the checks as well, so the retries are bounded.
+     * The lock is reentrant, so the caller can acquire it again for the update.
+     *
+     * @return True if the lock got acquired and has to be released by the caller.
+     */
+    private boolean lockForChecksIfContended(ReentrantLock lock, int attempt) {
+        if (attempt <= MAX_OPTIMISTIC_ATTEMPTS) {
+            return false;
+        }
+        lock.lock();
+        return true;
+    }
+
+    // Insertions of new keys are serialized, so concurrent adds of different keys cannot exceed the max. map size.
+    private boolean tryPutNewEntry(ByteArray key, AuthenticatedDataRequest request) {
+        newEntryLock.lock();
+        try {
+            if (isExceedingMapSize()) {
+                return false;
+            }
+            persistableStore.getMap().put(key, request);
+            return true;
+        } finally {
+            newEntryLock.unlock();
+        }
+    }
+
+    @VisibleForTesting
+    void pruneExpired() {
         Set<Map.Entry<ByteArray, AuthenticatedDataRequest>> expiredEntries = persistableStore.getMap().entrySet().stream()
                 .filter(entry -> entry.getValue().isExpired())
                 .collect(Collectors.toSet());
         if (!expiredEntries.isEmpty()) {
             log.info("We remove {} expired entries from our map", expiredEntries.size());
             expiredEntries.forEach(entry -> {
-                persistableStore.getMap().remove(entry.getKey());
+                ReentrantLock lock = getLock(entry.getKey());
+                lock.lock();
+                try {
+                    // The entry might have been replaced by a fresh request meanwhile
+                    if (!persistableStore.getMap().remove(entry.getKey(), entry.getValue())) {
+                        return;
+                    }
+                    journalRemove(entry.getKey());
+                } finally {
+                    lock.unlock();
+                }
+                notifyMapEntryChanged(entry.getKey());
                 if (entry.getValue() instanceof AddAuthenticatedDataRequest) {
                     AuthenticatedData data = ((AddAuthenticatedDataRequest) entry.getValue()).getAuthenticatedSequentialData().getAuthenticatedData();
                     listeners.forEach(listener -> {
@@ -356,8 +532,8 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
                 log.warn("We prune the AddAuthenticatedDataRequest with an invalid AuthorizedData. {}",
                         StringUtils.truncate(value.toString(), 3000));
                 persistableStore.getMap().remove(key);
+                persistRemove(key);
             });
-            persist();
         }
     }
 
@@ -82,7 +82,8 @@ public final class RemoveAuthenticatedDataRequest implements AuthenticatedDataRe
 
     private final byte[] hash;
     private final byte[] ownerPublicKeyBytes;
-    transient private PublicKey ownerPublicKey;
+    // Created lazily from ownerPublicKeyBytes as it is only required for signature verification.
+    transient private volatile PublicKey ownerPublicKey;
     private final int sequenceNumber;
     private final byte[] signature;
     private final long created;
@@ -157,23 +158,38 @@ public final class RemoveAuthenticatedDataRequest implements AuthenticatedDataRe
     }
 
     public static RemoveAuthenticatedDataRequest fromProto(bisq.network.protobuf.RemoveAuthenticatedDataRequest proto) {
-        byte[] ownerPublicKeyBytes = proto.getOwnerPublicKeyBytes().toByteArray();
-        try {
-            PublicKey ownerPublicKey = KeyGeneration.generatePublic(ownerPublicKeyBytes);
-            return new RemoveAuthenticatedDataRequest(
-                    proto.getVersion(),
-                    MetaData.fromProto(proto.getMetaData()),
-                    proto.getHash().toByteArray(),
-                    ownerPublicKeyBytes,
-                    ownerPublicKey,
-                    proto.getSequenceNumber(),
-                    proto.getSignature().toByteArray(),
-                    proto.getCreated()
-            );
-        } catch (GeneralSecurityException e) {
-            e.printStackTrace();
-            throw new RuntimeException(e);
+        RemoveAuthenticatedDataRequest request = fromPersistedProto(proto);
+        // Data received from the network must not pass with a malformed key, so we create it right away.
+        request.getOwnerPublicKey();
+        return request;
+    }
+
+    /**
+     * For data read from our own persisted store. The public key is only created at first use.
+     */
+    public static RemoveAuthenticatedDataRequest fromPersistedProto(bisq.network.protobuf.RemoveAuthenticatedDataRequest proto) {
+        return new RemoveAuthenticatedDataRequest(
+                proto.getVersion(),
+                MetaData.fromProto(proto.getMetaData()),
+                proto.getHash().toByteArray(),
+                proto.getOwnerPublicKeyBytes().toByteArray(),
+                null,
+                proto.getSequenceNumber(),
+                proto.getSignature().toByteArray(),
+                proto.getCreated()
+        );
+    }
+
+    public PublicKey getOwnerPublicKey() {
+        if (ownerPublicKey == null) {
+            try {
+                ownerPublicKey = KeyGeneration.generatePublic(ownerPublicKeyBytes);
+            } catch (GeneralSecurityException e) {
+                log.error("Couldn't create public key from ownerPublicKeyBytes", e);
+                throw new RuntimeException(e);
+            }
         }
+        return ownerPublicKey;
     }
 
     public MetaData getMetaDataFromProto() {
@@ -191,10 +207,7 @@ public final class RemoveAuthenticatedDataRequest implements AuthenticatedDataRe
 
     public boolean isSignatureInvalid() {
         try {
-            if (ownerPublicKey == null) {
-                ownerPublicKey = KeyGeneration.generatePublic(ownerPublicKeyBytes);
-            }
-            return !SignatureUtil.verify(hash, signature, ownerPublicKey);
+            return !SignatureUtil.verify(hash, signature, getOwnerPublicKey());
         } catch (Exception e) {
             return true;
         }
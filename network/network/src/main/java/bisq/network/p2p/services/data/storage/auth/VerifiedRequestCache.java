@@ -0,0 +1,86 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.storage.auth;
+
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.data.DataRequest;
+import bisq.security.DigestUtil;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded LRU set of requests which have passed the expensive validation (public key, signature and authorization
+ * checks). Requests get rebroadcast by many peers, so we receive the same request repeatedly and can skip the
+ * verification for the repeated ones.
+ * <p>
+ * The key is the hash of the whole serialized request and not only of (hash, sequence number, signature), as otherwise
+ * a request with modified fields which are not covered by the signature would bypass the verification.
+ */
+class VerifiedRequestCache {
+    static final int MAX_SIZE = 10_000;
+
+    private final Map<ByteArray, Boolean> verifiedRequests;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    VerifiedRequestCache() {
+        this(MAX_SIZE);
+    }
+
+    VerifiedRequestCache(int maxSize) {
+        verifiedRequests = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteArray, Boolean> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    static ByteArray getKey(DataRequest request) {
+        return new ByteArray(DigestUtil.sha256(request.serialize()));
+    }
+
+    boolean contains(ByteArray key) {
+        lock.lock();
+        try {
+            // Access ordered map, so get is used to update the LRU order
+            return verifiedRequests.get(key) != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void add(ByteArray key) {
+        lock.lock();
+        try {
+            verifiedRequests.put(key, Boolean.TRUE);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return verifiedRequests.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -18,6 +18,8 @@
 package bisq.network.p2p.services.data.storage.mailbox;
 
 import bisq.common.encoding.Hex;
+import bisq.common.proto.MemoizedProto;
+import bisq.common.proto.SerializationCache;
 import bisq.common.util.MathUtils;
 import bisq.common.validation.NetworkDataValidation;
 import bisq.network.p2p.services.data.AddDataRequest;
@@ -33,12 +35,11 @@ import java.security.GeneralSecurityException;
 import java.security.KeyPair;
 import java.security.PublicKey;
 import java.util.Arrays;
-import java.util.Optional;
 
 @Slf4j
 @EqualsAndHashCode
 @Getter
-public final class AddMailboxRequest implements MailboxRequest, AddDataRequest {
+public final class AddMailboxRequest implements MailboxRequest, AddDataRequest, MemoizedProto {
 
     public static AddMailboxRequest from(MailboxData mailboxData,
                                          KeyPair senderKeyPair,
@@ -60,7 +61,10 @@ public final class AddMailboxRequest implements MailboxRequest, AddDataRequest {
     private final MailboxSequentialData mailboxSequentialData;
     private final byte[] signature;
     private final byte[] senderPublicKeyBytes;
-    private final PublicKey senderPublicKey;
+    // Created lazily from senderPublicKeyBytes as it is only required for signature verification.
+    // transient fields are excluded by default for EqualsAndHashCode
+    private transient volatile PublicKey senderPublicKey;
+    private final transient SerializationCache serializationCache = new SerializationCache();
 
     private AddMailboxRequest(MailboxSequentialData mailboxSequentialData,
                              byte[] signature,
@@ -105,19 +109,27 @@ public final class AddMailboxRequest implements MailboxRequest, AddDataRequest {
     }
 
     public static AddMailboxRequest fromProto(bisq.network.protobuf.AddMailboxRequest proto) {
-        byte[] senderPublicKeyBytes = proto.getSenderPublicKeyBytes().toByteArray();
-        try {
-            PublicKey senderPublicKey = KeyGeneration.generatePublic(senderPublicKeyBytes);
-            return new AddMailboxRequest(
-                    MailboxSequentialData.fromProto(proto.getMailboxSequentialData()),
-                    proto.getSignature().toByteArray(),
-                    senderPublicKeyBytes,
-                    senderPublicKey
-            );
-        } catch (GeneralSecurityException e) {
-            e.printStackTrace();
-            throw new RuntimeException(e);
-        }
+        AddMailboxRequest request = new AddMailboxRequest(
+                MailboxSequentialData.fromProto(proto.getMailboxSequentialData()),
+                proto.getSignature().toByteArray(),
+                proto.getSenderPublicKeyBytes().toByteArray(),
+                null
+        );
+        // Data received from the network must not pass with a malformed key, so we create it right away.
+        request.getSenderPublicKey();
+        return request;
+    }
+
+    /**
+     * For data read from our own persisted store. The public keys are only created at first use.
+     */
+    public static AddMailboxRequest fromPersistedProto(bisq.network.protobuf.AddMailboxRequest proto) {
+        return new AddMailboxRequest(
+                MailboxSequentialData.fromPersistedProto(proto.getMailboxSequentialData()),
+                proto.getSignature().toByteArray(),
+                proto.getSenderPublicKeyBytes().toByteArray(),
+                null
+        );
     }
 
     @Override
@@ -148,14 +160,19 @@ public final class AddMailboxRequest implements MailboxRequest, AddDataRequest {
     }
 
     public PublicKey getOwnerPublicKey() {
-        return Optional.ofNullable(senderPublicKey).orElseGet(() -> {
+        return getSenderPublicKey();
+    }
+
+    public PublicKey getSenderPublicKey() {
+        if (senderPublicKey == null) {
             try {
-                return KeyGeneration.generatePublic(senderPublicKeyBytes);
+                senderPublicKey = KeyGeneration.generatePublic(senderPublicKeyBytes);
             } catch (GeneralSecurityException e) {
-                e.printStackTrace();
+                log.error("Couldn't create public key from senderPublicKeyBytes", e);
                 throw new RuntimeException(e);
             }
-        });
+        }
+        return senderPublicKey;
     }
 
 
@@ -185,7 +202,6 @@ public final class AddMailboxRequest implements MailboxRequest, AddDataRequest {
                 "mailboxSequentialData=" + mailboxSequentialData +
                 ", signature=" + Hex.encode(signature) +
                 ", senderPublicKeyBytes=" + Hex.encode(senderPublicKeyBytes) +
-                ", senderPublicKey=" + Hex.encode(senderPublicKey.getEncoded()) +
                 '}';
     }
 }
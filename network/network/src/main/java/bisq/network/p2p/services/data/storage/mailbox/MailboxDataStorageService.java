@@ -56,6 +56,7 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
     @Override
     public void onPersistedApplied(DataStore<MailboxRequest> persisted) {
         maybeLogMapState("onPersistedApplied", persisted);
+        super.onPersistedApplied(persisted);
     }
 
     @Override
@@ -104,10 +105,10 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
                 return new DataStorageResult(false).signatureInvalid();
             }
             map.put(byteArray, request);
+            // Inside the lock to keep the order of the journal entries of a key consistent with the map changes
+            persistPut(byteArray, request);
         }
 
-        persist();
-
         listeners.forEach(listener -> {
             try {
                 listener.onAdded(mailboxData);
@@ -124,14 +125,14 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
         maybeLogMapState("remove ", persistableStore);
         ByteArray byteArray = new ByteArray(request.getHash());
         Map<ByteArray, MailboxRequest> map = persistableStore.getMap();
-        MailboxRequest requestFromMap = map.get(byteArray);
         MailboxSequentialData sequentialDataFromMap;
         synchronized (mapAccessLock) {
+            MailboxRequest requestFromMap = map.get(byteArray);
             if (requestFromMap == null) {
                 // We don't have any entry, but it might be that we would receive later an add request, so we need to keep
                 // track of the sequence number
                 map.put(byteArray, request);
-                persist();
+                persistPut(byteArray, request);
                 return new DataStorageResult(true).noEntry();
             }
 
@@ -140,7 +141,7 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
                 if (!request.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
                     // We update the request, so we have the latest sequence number.
                     map.put(byteArray, request);
-                    persist();
+                    persistPut(byteArray, request);
                 }
                 return new DataStorageResult(true).alreadyRemoved();
             }
@@ -178,6 +179,7 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
             }
 
             map.put(byteArray, request);
+            persistPut(byteArray, request);
             listeners.forEach(listener -> {
                 try {
                     listener.onRemoved(sequentialDataFromMap.getMailboxData());
@@ -187,7 +189,6 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
             });
         }
 
-        persist();
         maybeLogMapState("remove success", persistableStore);
         return new DataStorageResult(true).removedData(sequentialDataFromMap.getMailboxData());
     }
@@ -235,7 +236,14 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
                 .collect(Collectors.toSet());
         if (!expiredEntries.isEmpty()) {
             log.info("We remove {} expired entries from our map", expiredEntries.size());
-            expiredEntries.forEach(entry -> persistableStore.getMap().remove(entry.getKey()));
+            synchronized (mapAccessLock) {
+                expiredEntries.forEach(entry -> {
+                    // The entry might have been replaced since we have collected the expired entries
+                    if (persistableStore.getMap().remove(entry.getKey(), entry.getValue())) {
+                        persistRemove(entry.getKey());
+                    }
+                });
+            }
         }
     }
 
@@ -18,20 +18,24 @@
 package bisq.network.p2p.services.data.storage.mailbox;
 
 import bisq.common.encoding.Hex;
+import bisq.common.proto.MemoizedProto;
 import bisq.common.proto.NetworkProto;
+import bisq.common.proto.SerializationCache;
 import bisq.common.validation.NetworkDataValidation;
 import bisq.security.keys.KeyGeneration;
 import com.google.protobuf.ByteString;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 
 import java.security.GeneralSecurityException;
 import java.security.PublicKey;
 import java.util.Date;
 
+@Slf4j
 @Getter
 @EqualsAndHashCode
-public final class MailboxSequentialData implements NetworkProto {
+public final class MailboxSequentialData implements NetworkProto, MemoizedProto {
     private final MailboxData mailboxData;
     private final byte[] senderPublicKeyHash;
     private final byte[] receiversPublicKeyHash;
@@ -39,7 +43,9 @@ public final class MailboxSequentialData implements NetworkProto {
     private final long created;
     private final int sequenceNumber;
     // transient fields are excluded by default for EqualsAndHashCode
-    private transient final PublicKey receiversPubKey;
+    // Created lazily from receiversPubKeyBytes as it is rarely used.
+    private transient volatile PublicKey receiversPubKey;
+    private final transient SerializationCache serializationCache = new SerializationCache();
 
     public MailboxSequentialData(MailboxData mailboxData,
                                  byte[] senderPublicKeyHash,
@@ -112,22 +118,37 @@ public final class MailboxSequentialData implements NetworkProto {
     }
 
     public static MailboxSequentialData fromProto(bisq.network.protobuf.MailboxSequentialData proto) {
-        byte[] receiversPubKeyBytes = proto.getReceiversPubKeyBytes().toByteArray();
-        try {
-            PublicKey receiversPubKey = KeyGeneration.generatePublic(receiversPubKeyBytes);
-            return new MailboxSequentialData(
-                    MailboxData.fromProto(proto.getMailboxData()),
-                    proto.getSenderPublicKeyHash().toByteArray(),
-                    proto.getReceiversPubKeyHash().toByteArray(),
-                    receiversPubKey,
-                    receiversPubKeyBytes,
-                    proto.getCreated(),
-                    proto.getSequenceNumber()
-            );
-        } catch (GeneralSecurityException e) {
-            e.printStackTrace();
-            throw new RuntimeException(e);
+        MailboxSequentialData mailboxSequentialData = fromPersistedProto(proto);
+        // Data received from the network must not pass with a malformed key, so we create it right away.
+        mailboxSequentialData.getReceiversPubKey();
+        return mailboxSequentialData;
+    }
+
+    /**
+     * For data read from our own persisted store. The public key is only created at first use.
+     */
+    public static MailboxSequentialData fromPersistedProto(bisq.network.protobuf.MailboxSequentialData proto) {
+        return new MailboxSequentialData(
+                MailboxData.fromProto(proto.getMailboxData()),
+                proto.getSenderPublicKeyHash().toByteArray(),
+                proto.getReceiversPubKeyHash().toByteArray(),
+                null,
+                proto.getReceiversPubKeyBytes().toByteArray(),
+                proto.getCreated(),
+                proto.getSequenceNumber()
+        );
+    }
+
+    public PublicKey getReceiversPubKey() {
+        if (receiversPubKey == null) {
+            try {
+                receiversPubKey = KeyGeneration.generatePublic(receiversPubKeyBytes);
+            } catch (GeneralSecurityException e) {
+                log.error("Couldn't create public key from receiversPubKeyBytes", e);
+                throw new RuntimeException(e);
+            }
         }
+        return receiversPubKey;
     }
 
     public boolean isSequenceNrInvalid(long seqNumberFromMap) {
@@ -146,7 +167,6 @@ public final class MailboxSequentialData implements NetworkProto {
                 ", senderPublicKeyHash=" + Hex.encode(senderPublicKeyHash) +
                 ", receiversPublicKeyHash=" + Hex.encode(receiversPublicKeyHash) +
                 ", receiversPubKeyBytes=" + Hex.encode(receiversPubKeyBytes) +
-                ", receiversPubKey=" + Hex.encode(receiversPubKey.getEncoded()) +
                 ", mailboxData=" + mailboxData +
                 '}';
     }
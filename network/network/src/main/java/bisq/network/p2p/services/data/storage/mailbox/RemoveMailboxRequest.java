@@ -82,7 +82,8 @@ public final class RemoveMailboxRequest implements MailboxRequest, RemoveDataReq
     private final byte[] receiverPublicKeyBytes;
     private final byte[] signature;
     private final long created;
-    private transient PublicKey receiverPublicKey;
+    // Created lazily from receiverPublicKeyBytes as it is only required for signature verification.
+    private transient volatile PublicKey receiverPublicKey;
     @Setter
     private transient Optional<MetaData> metaDataFromDistributedData = Optional.empty();
 
@@ -135,22 +136,37 @@ public final class RemoveMailboxRequest implements MailboxRequest, RemoveDataReq
     }
 
     public static RemoveMailboxRequest fromProto(bisq.network.protobuf.RemoveMailboxRequest proto) {
-        byte[] receiverPublicKeyBytes = proto.getReceiverPublicKeyBytes().toByteArray();
-        try {
-            PublicKey receiverPublicKey = KeyGeneration.generatePublic(receiverPublicKeyBytes);
-            return new RemoveMailboxRequest(
-                    proto.getVersion(),
-                    MetaData.fromProto(proto.getMetaData()),
-                    proto.getHash().toByteArray(),
-                    receiverPublicKeyBytes,
-                    receiverPublicKey,
-                    proto.getSignature().toByteArray(),
-                    proto.getCreated()
-            );
-        } catch (GeneralSecurityException e) {
-            e.printStackTrace();
-            throw new RuntimeException(e);
+        RemoveMailboxRequest request = fromPersistedProto(proto);
+        // Data received from the network must not pass with a malformed key, so we create it right away.
+        request.getReceiverPublicKey();
+        return request;
+    }
+
+    /**
+     * For data read from our own persisted store. The public key is only created at first use.
+     */
+    public static RemoveMailboxRequest fromPersistedProto(bisq.network.protobuf.RemoveMailboxRequest proto) {
+        return new RemoveMailboxRequest(
+                proto.getVersion(),
+                MetaData.fromProto(proto.getMetaData()),
+                proto.getHash().toByteArray(),
+                proto.getReceiverPublicKeyBytes().toByteArray(),
+                null,
+                proto.getSignature().toByteArray(),
+                proto.getCreated()
+        );
+    }
+
+    public PublicKey getReceiverPublicKey() {
+        if (receiverPublicKey == null) {
+            try {
+                receiverPublicKey = KeyGeneration.generatePublic(receiverPublicKeyBytes);
+            } catch (GeneralSecurityException e) {
+                log.error("Couldn't create public key from receiverPublicKeyBytes", e);
+                throw new RuntimeException(e);
+            }
         }
+        return receiverPublicKey;
     }
 
     public MetaData getMetaDataFromProto() {
@@ -177,10 +193,7 @@ public final class RemoveMailboxRequest implements MailboxRequest, RemoveDataReq
 
     public boolean isSignatureInvalid() {
         try {
-            if (receiverPublicKey == null) {
-                receiverPublicKey = KeyGeneration.generatePublic(receiverPublicKeyBytes);
-            }
-            return !SignatureUtil.verify(hash, signature, receiverPublicKey);
+            return !SignatureUtil.verify(hash, signature, getReceiverPublicKey());
         } catch (Exception e) {
             return true;
         }
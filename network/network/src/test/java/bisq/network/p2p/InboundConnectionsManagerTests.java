@@ -33,12 +33,14 @@ import bisq.network.p2p.node.authorization.AuthorizationTokenType;
 import bisq.network.p2p.node.envelope.NetworkEnvelopeSocketChannel;
 import bisq.network.p2p.node.envelope.parser.nio.ProtoBufMessageLengthWriter;
 import bisq.network.p2p.node.handshake.ConnectionHandshake;
+import bisq.network.p2p.node.network_load.AggregatedConnectionMetrics;
 import bisq.network.p2p.node.network_load.NetworkLoad;
 import bisq.network.p2p.services.peer_group.BanList;
 import bisq.security.pow.equihash.EquihashProofOfWorkService;
 import bisq.security.pow.hashcash.HashCashProofOfWorkService;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.io.IOException;
 import java.net.InetAddress;
@@ -54,6 +56,10 @@ import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @Slf4j
 public class InboundConnectionsManagerTests {
@@ -87,7 +93,7 @@ public class InboundConnectionsManagerTests {
                 authorizationService,
                 serverSocketChannel,
                 selector,
-                mock(Node.class)
+                createNode()
         );
 
         inboundConnectionsManager.registerOpAccept();
@@ -176,7 +182,7 @@ public class InboundConnectionsManagerTests {
                 authorizationService,
                 serverSocketChannel,
                 selector,
-                mock(Node.class)
+                createNode()
         );
 
         inboundConnectionsManager.registerOpAccept();
@@ -244,6 +250,89 @@ public class InboundConnectionsManagerTests {
         assertThat(receivedReplies).isEqualTo(5);
     }
 
+    @Test
+    void releaseAuthorizationStateOfClosedConnection() throws IOException {
+        ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
+        serverSocketChannel.configureBlocking(false);
+
+        Address myAddress = Address.localHost(NetworkUtils.findFreeSystemPort());
+        InetSocketAddress socketAddress = new InetSocketAddress(
+                InetAddress.getLocalHost(),
+                myAddress.getPort()
+        );
+        serverSocketChannel.socket().bind(socketAddress);
+
+        Capability myCapability = createCapability(myAddress, supportedTransportTypes);
+        AuthorizationService authorizationService = spy(createAuthorizationService());
+
+        Selector selector = SelectorProvider.provider().openSelector();
+        InboundConnectionsManager inboundConnectionsManager = new InboundConnectionsManager(
+                mock(BanList.class),
+                myCapability,
+                new NetworkLoad(),
+                authorizationService,
+                serverSocketChannel,
+                selector,
+                createNode()
+        );
+
+        inboundConnectionsManager.registerOpAccept();
+
+        Thread serverThread = new Thread(() -> {
+            try {
+                while (selector.select() > 0) {
+                    Set<SelectionKey> readyKeys = selector.selectedKeys();
+                    Iterator<SelectionKey> keyIterator = readyKeys.iterator();
+
+                    while (keyIterator.hasNext()) {
+                        SelectionKey selectionKey = keyIterator.next();
+                        keyIterator.remove();
+
+                        if (selectionKey.isAcceptable()) {
+                            inboundConnectionsManager.acceptNewConnection(selectionKey);
+                        }
+
+                        if (selectionKey.isValid() && selectionKey.isReadable()) {
+                            SocketChannel socketChannel = (SocketChannel) selectionKey.channel();
+                            if (inboundConnectionsManager.isInboundConnection(socketChannel)) {
+                                inboundConnectionsManager.handleInboundConnection(socketChannel);
+                            }
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                log.error("Error: ", e);
+            }
+        });
+        serverThread.start();
+
+        SocketChannel socketChannel = SocketChannel.open();
+        socketChannel.connect(socketAddress);
+
+        InetSocketAddress localSocketAddress = (InetSocketAddress) socketChannel.getLocalAddress();
+        Address peerAddress = Address.localHost(localSocketAddress.getPort());
+
+        bisq.network.protobuf.NetworkEnvelope poWRequest = createPoWRequest(myAddress, peerAddress);
+        byte[] requestInBytes = poWRequest.toByteArray();
+        ByteBuffer byteBuffer = ByteBuffer.allocate(1024);
+        ProtoBufMessageLengthWriter.writeToBuffer(requestInBytes.length, byteBuffer);
+        byteBuffer.put(requestInBytes);
+
+        byteBuffer.flip();
+        socketChannel.write(byteBuffer);
+
+        NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel = new NetworkEnvelopeSocketChannel(socketChannel);
+        assertThat(networkEnvelopeSocketChannel.receiveNetworkEnvelopes()).isNotEmpty();
+
+        ArgumentCaptor<String> connectionId = ArgumentCaptor.forClass(String.class);
+        verify(authorizationService, timeout(10_000)).onConnect(connectionId.capture());
+
+        socketChannel.close();
+
+        verify(authorizationService, timeout(10_000)).onDisconnect(connectionId.getValue());
+        assertThat(inboundConnectionsManager.getAllInboundConnections()).isEmpty();
+    }
+
     private bisq.network.protobuf.NetworkEnvelope createPoWRequest(Address myAddress, Address peerAddress) {
         List<TransportType> supportedTransportTypes = new ArrayList<>(1);
         supportedTransportTypes.add(TransportType.CLEAR);
@@ -268,4 +357,10 @@ public class InboundConnectionsManagerTests {
     private static Capability createCapability(Address address, List<TransportType> supportedTransportTypes) {
         return new Capability(Capability.VERSION, address, supportedTransportTypes, new ArrayList<>(), ApplicationVersion.getVersion().getVersionAsString());
     }
+
+    private static Node createNode() {
+        Node node = mock(Node.class);
+        when(node.getAggregatedConnectionMetrics()).thenReturn(new AggregatedConnectionMetrics());
+        return node;
+    }
 }
@@ -0,0 +1,120 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p;
+
+import bisq.network.p2p.node.envelope.parser.nio.ByteBufferPool;
+import bisq.network.p2p.node.envelope.parser.nio.NetworkEnvelopeFrameDecoder;
+import bisq.network.p2p.node.envelope.parser.nio.NetworkEnvelopeFrameEncoder;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.BytesValue;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NetworkEnvelopeFrameDecoderTests {
+    private final ByteBufferPool byteBufferPool = new ByteBufferPool(1024, 4);
+
+    @Test
+    void decodeFramesFromArbitraryChunks() throws IOException {
+        Random random = new Random(1);
+        List<BytesValue> messages = new ArrayList<>();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        for (int i = 0; i < 50; i++) {
+            // Mix of messages smaller and larger than the pooled buffers
+            byte[] payload = new byte[i % 5 == 0 ? random.nextInt(5000) : random.nextInt(200)];
+            random.nextBytes(payload);
+            BytesValue message = BytesValue.of(ByteString.copyFrom(payload));
+            messages.add(message);
+
+            ByteBuffer byteBuffer = NetworkEnvelopeFrameEncoder.encode(message, byteBufferPool);
+            byte[] frame = new byte[byteBuffer.remaining()];
+            byteBuffer.get(frame);
+            byteBufferPool.release(byteBuffer);
+
+            // The frame format must match writeDelimitedTo used by the blocking socket streams
+            ByteArrayOutputStream delimited = new ByteArrayOutputStream();
+            message.writeDelimitedTo(delimited);
+            assertThat(frame).isEqualTo(delimited.toByteArray());
+
+            outputStream.write(frame);
+        }
+
+        byte[] stream = outputStream.toByteArray();
+        NetworkEnvelopeFrameDecoder decoder = new NetworkEnvelopeFrameDecoder(1024 * 1024);
+        List<BytesValue> decoded = new ArrayList<>();
+        int position = 0;
+        while (position < stream.length) {
+            int chunkSize = Math.min(stream.length - position, 1 + random.nextInt(300));
+            decoder.decode(ByteBuffer.wrap(stream, position, chunkSize), frame -> {
+                try {
+                    decoded.add(BytesValue.parseFrom(frame));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            position += chunkSize;
+        }
+
+        assertThat(decoded).isEqualTo(messages);
+        assertThat(decoder.hasPartialFrame()).isFalse();
+    }
+
+    @Test
+    void decodeFrameLargerThanInitialBuffer() throws IOException {
+        byte[] payload = new byte[300_000];
+        new Random(2).nextBytes(payload);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BytesValue.of(ByteString.copyFrom(payload)).writeDelimitedTo(outputStream);
+        byte[] stream = outputStream.toByteArray();
+
+        NetworkEnvelopeFrameDecoder decoder = new NetworkEnvelopeFrameDecoder(1024 * 1024);
+        List<byte[]> frames = new ArrayList<>();
+        for (int position = 0; position < stream.length; position += 1000) {
+            decoder.decode(ByteBuffer.wrap(stream, position, Math.min(1000, stream.length - position)), frames::add);
+        }
+
+        assertThat(frames).hasSize(1);
+        assertThat(BytesValue.parseFrom(frames.get(0)).getValue().toByteArray()).isEqualTo(payload);
+        assertThat(decoder.hasPartialFrame()).isFalse();
+    }
+
+    @Test
+    void rejectFrameLargerThanMaxFrameSize() {
+        NetworkEnvelopeFrameDecoder decoder = new NetworkEnvelopeFrameDecoder(100);
+        // Varint 200
+        ByteBuffer byteBuffer = ByteBuffer.wrap(new byte[]{(byte) 0xC8, 0x01});
+        assertThatThrownBy(() -> decoder.decode(byteBuffer, frame -> {
+        })).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void rejectMalformedLengthPrefix() {
+        NetworkEnvelopeFrameDecoder decoder = new NetworkEnvelopeFrameDecoder(100);
+        ByteBuffer byteBuffer = ByteBuffer.wrap(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF});
+        assertThatThrownBy(() -> decoder.decode(byteBuffer, frame -> {
+        })).isInstanceOf(IOException.class);
+    }
+}
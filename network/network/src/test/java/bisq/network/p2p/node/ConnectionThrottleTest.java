@@ -0,0 +1,114 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import bisq.network.p2p.node.network_load.ConnectionMetrics;
+import bisq.network.p2p.node.network_load.NetworkLoad;
+import bisq.network.p2p.node.network_load.NetworkLoadSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ConnectionThrottleTest {
+    private static final int MAX_BURST = 10;
+    private static final int THROTTLE_TIME = 200;
+    // MIN_THROTTLE_TIME + THROTTLE_TIME * load
+    private static final long INTERVAL = 20 + THROTTLE_TIME / 2;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private ConnectionMetrics connectionMetrics;
+    private ConnectionThrottle throttle;
+
+    @BeforeEach
+    public void setUp() {
+        connectionMetrics = mock(ConnectionMetrics.class);
+        NetworkLoadSnapshot networkLoadSnapshot = new NetworkLoadSnapshot(new NetworkLoad(0.5, NetworkLoad.DEFAULT_DIFFICULTY_ADJUSTMENT));
+        Node.Config config = new Node.Config(null, Set.of(), Set.of(), null, 0, 0, 0, THROTTLE_TIME, THROTTLE_TIME);
+        throttle = new ConnectionThrottle(networkLoadSnapshot, networkLoadSnapshot, connectionMetrics, config, now::get);
+    }
+
+    @Test
+    public void burstPassesWithoutDelay() {
+        for (int i = 0; i < MAX_BURST; i++) {
+            assertThat(throttle.tryAcquireReceiveMessage()).isEqualTo(0);
+        }
+        verify(connectionMetrics, never()).onReceivedMessageDeferred(anyLong());
+
+        for (int i = 0; i < MAX_BURST; i++) {
+            assertThat(throttle.getSendMessageDelay()).isEqualTo(0);
+            throttle.onSendMessage();
+        }
+        verify(connectionMetrics, never()).onSendMessageDeferred(anyLong());
+    }
+
+    @Test
+    public void rejectIfBucketIsEmpty() {
+        exhaustReceiveBucket();
+
+        // Rejected messages do not consume a token, so the delay stays the same
+        assertThat(throttle.tryAcquireReceiveMessage()).isEqualTo(INTERVAL);
+        assertThat(throttle.tryAcquireReceiveMessage()).isEqualTo(INTERVAL);
+        verify(connectionMetrics, times(2)).onReceivedMessageDeferred(INTERVAL);
+
+        // Messages sent directly are never rejected but consume a token, so the delay increases
+        for (int i = 0; i < MAX_BURST + 2; i++) {
+            throttle.onSendMessage();
+        }
+        assertThat(throttle.getSendMessageDelay()).isEqualTo(3 * INTERVAL);
+        verify(connectionMetrics).onSendMessageDeferred(3 * INTERVAL);
+    }
+
+    @Test
+    public void refillOverTime() {
+        exhaustReceiveBucket();
+
+        now.addAndGet(INTERVAL - 1);
+        assertThat(throttle.tryAcquireReceiveMessage()).isEqualTo(1);
+
+        // One token is refilled per interval
+        now.addAndGet(1);
+        assertThat(throttle.tryAcquireReceiveMessage()).isEqualTo(0);
+        assertThat(throttle.tryAcquireReceiveMessage()).isEqualTo(INTERVAL);
+
+        now.addAndGet(3 * INTERVAL);
+        for (int i = 0; i < 3; i++) {
+            assertThat(throttle.tryAcquireReceiveMessage()).isEqualTo(0);
+        }
+        assertThat(throttle.tryAcquireReceiveMessage()).isEqualTo(INTERVAL);
+
+        // After a long idle time the bucket is full, but does not allow more than MAX_BURST messages
+        now.addAndGet(100 * INTERVAL);
+        exhaustReceiveBucket();
+        assertThat(throttle.tryAcquireReceiveMessage()).isEqualTo(INTERVAL);
+    }
+
+    private void exhaustReceiveBucket() {
+        for (int i = 0; i < MAX_BURST; i++) {
+            assertThat(throttle.tryAcquireReceiveMessage()).isEqualTo(0);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.network.p2p.node.authorization.AuthorizationToken;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+public class InboundMessagePipelineTest {
+    private static final int MAX_PENDING_MESSAGES = 100;
+
+    private static class TestHandler implements Connection.Handler {
+        private final InboundMessagePipelineMetrics metrics = new InboundMessagePipelineMetrics();
+        private final Map<Connection, List<EnvelopePayloadMessage>> deliveredByConnection = new ConcurrentHashMap<>();
+        private final AtomicInteger numAuthorized = new AtomicInteger();
+        private final CountDownLatch authorizationReleased;
+
+        private TestHandler(CountDownLatch authorizationReleased) {
+            this.authorizationReleased = authorizationReleased;
+        }
+
+        @Override
+        public boolean isMessageAuthorized(EnvelopePayloadMessage envelopePayloadMessage,
+                                           AuthorizationToken authorizationToken,
+                                           Connection connection) {
+            try {
+                authorizationReleased.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            numAuthorized.incrementAndGet();
+            return true;
+        }
+
+        @Override
+        public void handleAuthorizedNetworkMessage(EnvelopePayloadMessage envelopePayloadMessage, Connection connection) {
+            deliveredByConnection.computeIfAbsent(connection, key -> new CopyOnWriteArrayList<>()).add(envelopePayloadMessage);
+        }
+
+        @Override
+        public void handleConnectionClosed(Connection connection, CloseReason closeReason) {
+        }
+
+        @Override
+        public Connection send(EnvelopePayloadMessage envelopePayloadMessage, Connection connection) {
+            return connection;
+        }
+
+        @Override
+        public InboundMessagePipelineMetrics getInboundMessagePipelineMetrics() {
+            return metrics;
+        }
+
+        private List<EnvelopePayloadMessage> getDelivered(Connection connection) {
+            return deliveredByConnection.getOrDefault(connection, List.of());
+        }
+    }
+
+    @Test
+    public void deliverMessagesOfEachConnectionInOrder() throws Exception {
+        TestHandler handler = new TestHandler(new CountDownLatch(0));
+        Connection connection1 = mock(Connection.class);
+        Connection connection2 = mock(Connection.class);
+        InboundMessagePipeline pipeline1 = new InboundMessagePipeline(connection1, mock(ConnectionThrottle.class), handler);
+        InboundMessagePipeline pipeline2 = new InboundMessagePipeline(connection2, mock(ConnectionThrottle.class), handler);
+
+        int numMessages = 500;
+        List<EnvelopePayloadMessage> messages1 = createMessages(numMessages);
+        List<EnvelopePayloadMessage> messages2 = createMessages(numMessages);
+        CompletableFuture<Void> reader1 = CompletableFuture.runAsync(() -> submitAll(pipeline1, messages1));
+        CompletableFuture<Void> reader2 = CompletableFuture.runAsync(() -> submitAll(pipeline2, messages2));
+        reader1.get(10, TimeUnit.SECONDS);
+        reader2.get(10, TimeUnit.SECONDS);
+
+        waitUntil(() -> handler.getDelivered(connection1).size() + handler.getDelivered(connection2).size() == 2 * numMessages);
+        assertThat(handler.getDelivered(connection1)).containsExactlyElementsOf(messages1);
+        assertThat(handler.getDelivered(connection2)).containsExactlyElementsOf(messages2);
+        assertThat(handler.getInboundMessagePipelineMetrics().getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void blockSubmitIfPipelineIsFull() throws Exception {
+        CountDownLatch authorizationReleased = new CountDownLatch(1);
+        TestHandler handler = new TestHandler(authorizationReleased);
+        Connection connection = mock(Connection.class);
+        InboundMessagePipeline pipeline = new InboundMessagePipeline(connection, mock(ConnectionThrottle.class), handler);
+
+        List<EnvelopePayloadMessage> messages = createMessages(MAX_PENDING_MESSAGES + 1);
+        submitAll(pipeline, messages.subList(0, MAX_PENDING_MESSAGES));
+        assertThat(handler.getInboundMessagePipelineMetrics().getQueueDepth()).isEqualTo(MAX_PENDING_MESSAGES);
+
+        CompletableFuture<Void> reader = CompletableFuture.runAsync(() -> submitAll(pipeline, messages.subList(MAX_PENDING_MESSAGES, MAX_PENDING_MESSAGES + 1)));
+        assertThrows(TimeoutException.class, () -> reader.get(200, TimeUnit.MILLISECONDS));
+
+        authorizationReleased.countDown();
+        reader.get(10, TimeUnit.SECONDS);
+        waitUntil(() -> handler.getDelivered(connection).size() == messages.size());
+        assertThat(handler.getDelivered(connection)).containsExactlyElementsOf(messages);
+    }
+
+    @Test
+    public void notifyCapacityListenerIfPipelineIsNoLongerFull() throws Exception {
+        CountDownLatch authorizationReleased = new CountDownLatch(1);
+        TestHandler handler = new TestHandler(authorizationReleased);
+        Connection connection = mock(Connection.class);
+        InboundMessagePipeline pipeline = new InboundMessagePipeline(connection, mock(ConnectionThrottle.class), handler);
+
+        List<EnvelopePayloadMessage> messages = createMessages(MAX_PENDING_MESSAGES + 1);
+        for (EnvelopePayloadMessage message : messages.subList(0, MAX_PENDING_MESSAGES)) {
+            assertThat(pipeline.tryAcquireCapacity(() -> {
+            })).isTrue();
+            pipeline.submitWithAcquiredCapacity(message, mock(AuthorizationToken.class));
+        }
+
+        // Does not block if the pipeline is full
+        CountDownLatch capacityAvailable = new CountDownLatch(1);
+        assertThat(pipeline.tryAcquireCapacity(capacityAvailable::countDown)).isFalse();
+        assertThat(capacityAvailable.getCount()).isEqualTo(1);
+
+        authorizationReleased.countDown();
+        assertThat(capacityAvailable.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(pipeline.tryAcquireCapacity(() -> {
+        })).isTrue();
+        pipeline.submitWithAcquiredCapacity(messages.get(MAX_PENDING_MESSAGES), mock(AuthorizationToken.class));
+        waitUntil(() -> handler.getDelivered(connection).size() == messages.size());
+        assertThat(handler.getDelivered(connection)).containsExactlyElementsOf(messages);
+    }
+
+    @Test
+    public void releaseBlockedSubmitAtShutdown() throws Exception {
+        CountDownLatch authorizationReleased = new CountDownLatch(1);
+        TestHandler handler = new TestHandler(authorizationReleased);
+        Connection connection = mock(Connection.class);
+        InboundMessagePipeline pipeline = new InboundMessagePipeline(connection, mock(ConnectionThrottle.class), handler);
+
+        List<EnvelopePayloadMessage> messages = createMessages(MAX_PENDING_MESSAGES + 1);
+        submitAll(pipeline, messages.subList(0, MAX_PENDING_MESSAGES));
+        CompletableFuture<Void> reader = CompletableFuture.runAsync(() -> submitAll(pipeline, messages.subList(MAX_PENDING_MESSAGES, MAX_PENDING_MESSAGES + 1)));
+        assertThrows(TimeoutException.class, () -> reader.get(200, TimeUnit.MILLISECONDS));
+
+        pipeline.shutdown();
+        // Returns before the timed wait for capacity would time out
+        reader.get(500, TimeUnit.MILLISECONDS);
+
+        // The message in authorization at shutdown and the dropped pending messages are not delivered
+        authorizationReleased.countDown();
+        waitUntil(() -> handler.numAuthorized.get() == 1);
+        Thread.sleep(100);
+        assertThat(handler.getDelivered(connection)).isEmpty();
+        assertThat(handler.numAuthorized.get()).isEqualTo(1);
+        assertThat(handler.getInboundMessagePipelineMetrics().getQueueDepth()).isEqualTo(0);
+
+        // Messages submitted after shutdown are ignored
+        submitAll(pipeline, createMessages(1));
+        assertThat(handler.getInboundMessagePipelineMetrics().getQueueDepth()).isEqualTo(0);
+    }
+
+    private static List<EnvelopePayloadMessage> createMessages(int numMessages) {
+        List<EnvelopePayloadMessage> messages = new ArrayList<>();
+        for (int i = 0; i < numMessages; i++) {
+            messages.add(mock(EnvelopePayloadMessage.class));
+        }
+        return messages;
+    }
+
+    private static void submitAll(InboundMessagePipeline pipeline, List<EnvelopePayloadMessage> messages) {
+        try {
+            for (EnvelopePayloadMessage message : messages) {
+                pipeline.submit(message, mock(AuthorizationToken.class));
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
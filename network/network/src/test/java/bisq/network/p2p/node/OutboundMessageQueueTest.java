@@ -0,0 +1,131 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.network.p2p.node.authorization.AuthorizationToken;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+public class OutboundMessageQueueTest {
+    // Blocks the sending of the first message until released, so the following messages stay in the queue
+    private static class TestHandler implements Connection.Handler {
+        private final List<EnvelopePayloadMessage> sentMessages = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sendStarted = new CountDownLatch(1);
+        private final CountDownLatch sendReleased = new CountDownLatch(1);
+
+        @Override
+        public boolean isMessageAuthorized(EnvelopePayloadMessage envelopePayloadMessage,
+                                           AuthorizationToken authorizationToken,
+                                           Connection connection) {
+            return true;
+        }
+
+        @Override
+        public void handleAuthorizedNetworkMessage(EnvelopePayloadMessage envelopePayloadMessage, Connection connection) {
+        }
+
+        @Override
+        public void handleConnectionClosed(Connection connection, CloseReason closeReason) {
+        }
+
+        @Override
+        public Connection send(EnvelopePayloadMessage envelopePayloadMessage, Connection connection) {
+            sendStarted.countDown();
+            try {
+                sendReleased.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sentMessages.add(envelopePayloadMessage);
+            return connection;
+        }
+
+        @Override
+        public InboundMessagePipelineMetrics getInboundMessagePipelineMetrics() {
+            return new InboundMessagePipelineMetrics();
+        }
+    }
+
+    @Test
+    public void completePendingMessagesExceptionallyAtShutdown() throws Exception {
+        TestHandler handler = new TestHandler();
+        OutboundMessageQueue queue = new OutboundMessageQueue(mock(Connection.class), mock(ConnectionThrottle.class), handler);
+
+        CompletableFuture<Connection> inFlight = queue.enqueue(mock(EnvelopePayloadMessage.class), Optional.empty());
+        assertThat(handler.sendStarted.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Connection> pending1 = queue.enqueue(mock(EnvelopePayloadMessage.class), Optional.empty());
+        CompletableFuture<Connection> pending2 = queue.enqueue(mock(EnvelopePayloadMessage.class), Optional.of("key"));
+        assertThat(queue.getNumPendingMessages()).isEqualTo(2);
+
+        queue.shutdown();
+        assertThat(queue.getNumPendingMessages()).isEqualTo(0);
+        assertConnectionClosed(pending1);
+        assertConnectionClosed(pending2);
+        assertConnectionClosed(queue.enqueue(mock(EnvelopePayloadMessage.class), Optional.empty()));
+
+        // The message which was already in the send call is not affected
+        handler.sendReleased.countDown();
+        inFlight.get(10, TimeUnit.SECONDS);
+        assertThat(handler.sentMessages).hasSize(1);
+    }
+
+    @Test
+    public void coalesceOnlyMessagesWithSameKey() throws Exception {
+        TestHandler handler = new TestHandler();
+        OutboundMessageQueue queue = new OutboundMessageQueue(mock(Connection.class), mock(ConnectionThrottle.class), handler);
+
+        EnvelopePayloadMessage blocking = mock(EnvelopePayloadMessage.class);
+        queue.enqueue(blocking, Optional.empty());
+        assertThat(handler.sendStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Equal messages without a key are sent each time
+        EnvelopePayloadMessage message = mock(EnvelopePayloadMessage.class);
+        CompletableFuture<Connection> future1 = queue.enqueue(message, Optional.empty());
+        CompletableFuture<Connection> future2 = queue.enqueue(message, Optional.empty());
+        assertThat(future2).isNotSameAs(future1);
+
+        EnvelopePayloadMessage coalescable = mock(EnvelopePayloadMessage.class);
+        CompletableFuture<Connection> future3 = queue.enqueue(coalescable, Optional.of("key"));
+        CompletableFuture<Connection> future4 = queue.enqueue(coalescable, Optional.of("key"));
+        assertThat(future4).isSameAs(future3);
+        CompletableFuture<Connection> future5 = queue.enqueue(coalescable, Optional.of("otherKey"));
+        assertThat(queue.getNumPendingMessages()).isEqualTo(4);
+
+        handler.sendReleased.countDown();
+        CompletableFuture.allOf(future1, future2, future3, future5).get(10, TimeUnit.SECONDS);
+        assertThat(handler.sentMessages).containsExactly(blocking, message, message, coalescable, coalescable);
+        assertThat(queue.getNumPendingMessages()).isEqualTo(0);
+    }
+
+    private static void assertConnectionClosed(CompletableFuture<Connection> future) {
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertThat(exception.getCause()).isInstanceOf(ConnectionClosedException.class);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.authorization;
+
+import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.network.p2p.node.network_load.NetworkLoad;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AuthorizationTokenServiceTest {
+    private static class TestTokenService extends AuthorizationTokenService<AuthorizationToken> {
+        @Override
+        public AuthorizationToken createToken(EnvelopePayloadMessage message,
+                                              NetworkLoad networkLoad,
+                                              String peerAddress,
+                                              int messageCounter) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isAuthorized(EnvelopePayloadMessage message,
+                                    AuthorizationToken authorizationToken,
+                                    NetworkLoad currentNetworkLoad,
+                                    Optional<NetworkLoad> previousNetworkLoad,
+                                    String connectionId,
+                                    String myAddress) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Test
+    void acceptMessageCounterOnlyForConnectedConnections() {
+        TestTokenService service = new TestTokenService();
+        assertFalse(service.tryAcceptMessageCounter("connection", 1));
+
+        service.onConnect("connection");
+        assertTrue(service.tryAcceptMessageCounter("connection", 1));
+        assertFalse(service.tryAcceptMessageCounter("connection", 1));
+        assertTrue(service.tryAcceptMessageCounter("connection", 2));
+
+        // A repeated onConnect must not reset the window
+        service.onConnect("connection");
+        assertFalse(service.tryAcceptMessageCounter("connection", 2));
+
+        service.onDisconnect("connection");
+        // A message authorized after the connection got closed must not recreate the window
+        assertFalse(service.tryAcceptMessageCounter("connection", 3));
+        assertFalse(service.tryAcceptMessageCounter("connection", 4));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.authorization;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MessageCounterWindowTest {
+    private static final int NUM_MESSAGES = 5_000_000;
+
+    @Test
+    void testInOrder() {
+        MessageCounterWindow window = new MessageCounterWindow();
+        for (int counter = 1; counter <= NUM_MESSAGES; counter++) {
+            assertTrue(window.tryAccept(counter));
+            assertFalse(window.tryAccept(counter));
+        }
+        // Every counter inside the window got received already
+        for (int counter = NUM_MESSAGES - MessageCounterWindow.WINDOW_SIZE + 1; counter <= NUM_MESSAGES; counter++) {
+            assertFalse(window.tryAccept(counter));
+        }
+        // Outside the window
+        assertFalse(window.tryAccept(NUM_MESSAGES - MessageCounterWindow.WINDOW_SIZE));
+        assertFalse(window.tryAccept(1));
+    }
+
+    @Test
+    void testOutOfOrder() {
+        MessageCounterWindow window = new MessageCounterWindow();
+        Random random = new Random(42);
+        int blockSize = 64;
+        int[] block = new int[blockSize];
+        int numAccepted = 0;
+        // Counters get shuffled inside blocks. Each counter is replayed immediately and a counter of a previous block
+        // is replayed as well.
+        for (int start = 1; start <= NUM_MESSAGES; start += blockSize) {
+            for (int i = 0; i < blockSize; i++) {
+                block[i] = start + i;
+            }
+            for (int i = blockSize - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int temp = block[i];
+                block[i] = block[j];
+                block[j] = temp;
+            }
+            for (int counter : block) {
+                if (window.tryAccept(counter)) {
+                    numAccepted++;
+                }
+                assertFalse(window.tryAccept(counter));
+                if (start > 1) {
+                    int replayed = Math.max(1, start - 1 - random.nextInt(MessageCounterWindow.WINDOW_SIZE / 2));
+                    assertFalse(window.tryAccept(replayed));
+                }
+            }
+        }
+        assertEquals(NUM_MESSAGES, numAccepted);
+    }
+
+    @Test
+    void testGaps() {
+        MessageCounterWindow window = new MessageCounterWindow();
+        assertTrue(window.tryAccept(10));
+        assertTrue(window.tryAccept(12));
+        assertTrue(window.tryAccept(11));
+        assertFalse(window.tryAccept(11));
+
+        // Jump by less than the window size
+        assertTrue(window.tryAccept(500));
+        assertTrue(window.tryAccept(13));
+        assertFalse(window.tryAccept(10));
+
+        // Jump by more than the window size
+        int counter = 500 + 3 * MessageCounterWindow.WINDOW_SIZE;
+        assertTrue(window.tryAccept(counter));
+        assertFalse(window.tryAccept(500));
+        assertTrue(window.tryAccept(counter - 1));
+        assertTrue(window.tryAccept(counter - MessageCounterWindow.WINDOW_SIZE + 1));
+        assertFalse(window.tryAccept(counter - MessageCounterWindow.WINDOW_SIZE));
+
+        // counter + 1 maps to the same bit as the received counter - WINDOW_SIZE + 1, which got dropped out of the window
+        assertTrue(window.tryAccept(counter + MessageCounterWindow.WINDOW_SIZE - 1));
+        assertFalse(window.tryAccept(counter));
+        assertTrue(window.tryAccept(counter + 1));
+    }
+}
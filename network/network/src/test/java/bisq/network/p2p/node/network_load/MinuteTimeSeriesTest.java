@@ -0,0 +1,64 @@
+package bisq.network.p2p.node.network_load;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MinuteTimeSeriesTest {
+
+    @Test
+    void testSumOfLastMinutes() {
+        MinuteTimeSeries timeSeries = new MinuteTimeSeries();
+        timeSeries.add(0, 1);
+        timeSeries.add(0, 2);
+        timeSeries.add(5, 10);
+        timeSeries.add(59, 100);
+
+        assertEquals(113, timeSeries.getTotal());
+        assertEquals(113, timeSeries.getSumOfLastMinutes(59, 60));
+        assertEquals(110, timeSeries.getSumOfLastMinutes(59, 59));
+        assertEquals(100, timeSeries.getSumOfLastMinutes(59, 1));
+        assertEquals(10, timeSeries.getSumOfLastMinutes(5, 1));
+        // Limited to capacity
+        assertEquals(113, timeSeries.getSumOfLastMinutes(59, 1000));
+        // Buckets older than lastMinutes are not counted even if not overwritten yet
+        assertEquals(100, timeSeries.getSumOfLastMinutes(70, 60));
+    }
+
+    @Test
+    void testRingBufferReusesBuckets() {
+        MinuteTimeSeries timeSeries = new MinuteTimeSeries();
+        for (int minute = 0; minute < 10 * MinuteTimeSeries.CAPACITY_IN_MINUTES; minute++) {
+            timeSeries.add(minute, 1);
+        }
+        long currentMinute = 10 * MinuteTimeSeries.CAPACITY_IN_MINUTES - 1;
+        assertEquals(10 * MinuteTimeSeries.CAPACITY_IN_MINUTES, timeSeries.getTotal());
+        assertEquals(60, timeSeries.getSumOfLastMinutes(currentMinute, 60));
+        assertEquals(5, timeSeries.getSumOfLastMinutes(currentMinute, 5));
+
+        // A late value for an already overwritten minute is only counted in the total
+        timeSeries.add(0, 1);
+        assertEquals(10 * MinuteTimeSeries.CAPACITY_IN_MINUTES + 1, timeSeries.getTotal());
+        assertEquals(60, timeSeries.getSumOfLastMinutes(currentMinute, 60));
+    }
+
+    @Test
+    void testRttHistogram() {
+        RttHistogram rttHistogram = new RttHistogram();
+        assertEquals(0, rttHistogram.getAverage());
+        assertEquals(0, rttHistogram.getPercentile(0.5));
+
+        for (int i = 0; i < 90; i++) {
+            rttHistogram.add(100);
+        }
+        for (int i = 0; i < 10; i++) {
+            rttHistogram.add(1000);
+        }
+        assertEquals(100, rttHistogram.getCount());
+        assertEquals(190, rttHistogram.getAverage());
+        // 100 is in bucket [64, 127], 1000 in bucket [512, 1023]
+        assertEquals(127, rttHistogram.getPercentile(0.5));
+        assertEquals(127, rttHistogram.getPercentile(0.9));
+        assertEquals(1023, rttHistogram.getPercentile(0.95));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.confidential;
+
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.data.storage.mailbox.MailboxData;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProcessedMessageCacheTest {
+    @Test
+    void keepHashesForLifetimeOfMailboxMessages() {
+        // Otherwise a mailbox message delivered again by an inventory response would get processed again
+        assertThat(ProcessedMessageCache.TTL).isGreaterThanOrEqualTo(MailboxData.MAX_TLL);
+    }
+
+    @Test
+    void filterDuplicates() {
+        ProcessedMessageCache cache = new ProcessedMessageCache();
+        assertThat(cache.add(hash(1))).isTrue();
+        assertThat(cache.add(hash(1))).isFalse();
+        assertThat(cache.contains(hash(1))).isTrue();
+        assertThat(cache.contains(hash(2))).isFalse();
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removeOldestEntryIfMaxSizeIsReached() {
+        ProcessedMessageCache cache = new ProcessedMessageCache(3, ProcessedMessageCache.TTL);
+        for (int i = 0; i < 4; i++) {
+            assertThat(cache.add(hash(i))).isTrue();
+        }
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.contains(hash(0))).isFalse();
+        assertThat(cache.contains(hash(1))).isTrue();
+        assertThat(cache.contains(hash(3))).isTrue();
+    }
+
+    @Test
+    void removeExpiredEntries() throws InterruptedException {
+        long ttl = 100;
+        ProcessedMessageCache cache = new ProcessedMessageCache(10, ttl);
+        cache.add(hash(1));
+        TimeUnit.MILLISECONDS.sleep(2 * ttl);
+        cache.add(hash(2));
+
+        assertThat(cache.contains(hash(1))).isFalse();
+        assertThat(cache.contains(hash(2))).isTrue();
+        assertThat(cache.size()).isEqualTo(1);
+        // An expired hash gets accepted again
+        assertThat(cache.add(hash(1))).isTrue();
+    }
+
+    private static ByteArray hash(int value) {
+        return new ByteArray(new byte[]{(byte) value});
+    }
+}
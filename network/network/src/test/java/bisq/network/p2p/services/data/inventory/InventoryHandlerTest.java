@@ -0,0 +1,111 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.inventory;
+
+import bisq.network.common.Address;
+import bisq.network.p2p.node.Connection;
+import bisq.network.p2p.node.Node;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InventoryHandlerTest {
+    private Connection connection;
+    private List<Inventory> appliedChunks;
+    private InventoryHandler handler;
+
+    @BeforeEach
+    public void setUp() {
+        connection = mock(Connection.class);
+        when(connection.getPeerAddress()).thenReturn(new Address("127.0.0.1", 8000));
+        appliedChunks = new ArrayList<>();
+        handler = new InventoryHandler(mock(Node.class), connection, appliedChunks::add);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        handler.dispose();
+    }
+
+    @Test
+    void applyChunksInOrder() throws Exception {
+        Inventory chunk0 = new Inventory(new ArrayList<>(), false);
+        Inventory chunk1 = new Inventory(new ArrayList<>(), false);
+        Inventory chunk2 = new Inventory(new ArrayList<>(), true);
+
+        handler.onNetworkMessage(createResponse(chunk0, 0, true));
+        handler.onNetworkMessage(createResponse(chunk1, 1, true));
+        assertThat(handler.getFuture()).isNotDone();
+        handler.onNetworkMessage(createResponse(chunk2, 2, false));
+
+        assertThat(appliedChunks).containsExactly(chunk0, chunk1, chunk2);
+        assertThat(handler.getNumReceivedChunks()).isEqualTo(3);
+        assertThat(handler.getFuture().get(10, TimeUnit.SECONDS)).isSameAs(chunk2);
+        verify(connection).removeListener(handler);
+    }
+
+    @Test
+    void rejectOutOfOrderChunk() {
+        Inventory chunk0 = new Inventory(new ArrayList<>(), false);
+        handler.onNetworkMessage(createResponse(chunk0, 0, true));
+        // Chunk 1 is missing
+        handler.onNetworkMessage(createResponse(new Inventory(new ArrayList<>(), false), 2, true));
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> handler.getFuture().get(10, TimeUnit.SECONDS));
+        assertThat(exception.getCause()).isInstanceOf(IllegalStateException.class);
+        verify(connection).removeListener(handler);
+
+        // Chunks arriving after the rejection are ignored
+        handler.onNetworkMessage(createResponse(new Inventory(new ArrayList<>(), false), 1, false));
+        assertThat(appliedChunks).containsExactly(chunk0);
+    }
+
+    @Test
+    void completeWithSingleResponseOfOldPeer() throws Exception {
+        // Old peers ignore the maxChunkSize of the request and send the whole inventory in one response
+        Inventory inventory = new Inventory(new ArrayList<>(), false);
+        handler.onNetworkMessage(new InventoryResponse(inventory, handler.getNonce()));
+
+        assertThat(appliedChunks).containsExactly(inventory);
+        assertThat(handler.getFuture().get(10, TimeUnit.SECONDS)).isSameAs(inventory);
+    }
+
+    @Test
+    void ignoreResponseWithOtherNonce() {
+        handler.onNetworkMessage(new InventoryResponse(new Inventory(new ArrayList<>(), false), handler.getNonce() + 1));
+
+        assertThat(appliedChunks).isEmpty();
+        assertThat(handler.getFuture()).isNotDone();
+    }
+
+    private InventoryResponse createResponse(Inventory inventory, int chunkIndex, boolean hasMoreChunks) {
+        return new InventoryResponse(1, inventory, handler.getNonce(), chunkIndex, hasMoreChunks);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.inventory;
+
+import bisq.network.common.Address;
+import bisq.network.p2p.node.Connection;
+import bisq.network.p2p.node.Node;
+import bisq.network.p2p.services.data.inventory.filter.InventoryFilterType;
+import bisq.network.p2p.services.data.inventory.filter.hash_set.HashSetFilter;
+import bisq.network.p2p.services.data.inventory.filter.hash_set.HashSetFilterService;
+import bisq.network.p2p.services.data.storage.DistributedData;
+import bisq.network.p2p.services.data.storage.MetaData;
+import bisq.network.p2p.services.data.storage.StorageService;
+import bisq.network.p2p.services.data.storage.auth.AddAuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedDataStorageService;
+import bisq.network.p2p.services.data.storage.auth.DefaultAuthenticatedData;
+import bisq.persistence.PersistenceService;
+import bisq.security.keys.KeyGeneration;
+import com.google.protobuf.StringValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class InventoryResponseServiceTest {
+    // Each entry has about 250 bytes, so we get multiple chunks of InventoryHandler.MAX_CHUNK_SIZE
+    private static final int NUM_ENTRIES = 2000;
+
+    @TempDir
+    private Path tempDir;
+    private StorageService storageService;
+    private Connection connection;
+    private List<InventoryResponse> sentResponses;
+    private CompletableFuture<InventoryResponse> lastResponse;
+    private InventoryResponseService inventoryResponseService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        storageService = new StorageService(new PersistenceService(tempDir.toString()));
+        AuthenticatedDataStorageService store = storageService.getOrCreateAuthenticatedDataStore("TestStore").get();
+        KeyPair keyPair = KeyGeneration.generateKeyPair();
+        MetaData metaData = new MetaData(MetaData.TTL_10_DAYS, "TestData", MetaData.MAX_MAP_SIZE_10_000);
+        for (int i = 0; i < NUM_ENTRIES; i++) {
+            DefaultAuthenticatedData authenticatedData = new DefaultAuthenticatedData(new TestData("data" + i, metaData));
+            assertThat(store.add(AddAuthenticatedDataRequest.from(store, authenticatedData, keyPair)).isSuccess()).isTrue();
+        }
+
+        connection = mock(Connection.class);
+        when(connection.getPeerAddress()).thenReturn(new Address("127.0.0.1", 8000));
+        sentResponses = new CopyOnWriteArrayList<>();
+        lastResponse = new CompletableFuture<>();
+        Node node = mock(Node.class);
+        when(node.sendAsync(any(), eq(connection))).thenAnswer(invocation -> {
+            InventoryResponse response = invocation.getArgument(0);
+            sentResponses.add(response);
+            if (!response.hasMoreResponses()) {
+                lastResponse.complete(response);
+            }
+            return CompletableFuture.completedFuture(connection);
+        });
+        inventoryResponseService = new InventoryResponseService(node,
+                Map.of(InventoryFilterType.HASH_SET, new HashSetFilterService(storageService, Integer.MAX_VALUE)));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        inventoryResponseService.shutdown();
+        storageService.shutdown();
+    }
+
+    @Test
+    void sendChunksInOrder() throws Exception {
+        int nonce = 1;
+        inventoryResponseService.onMessage(new InventoryRequest(new HashSetFilter(new ArrayList<>()), nonce, 10_000), connection, null);
+        lastResponse.get(10, TimeUnit.SECONDS);
+
+        assertThat(sentResponses.size()).isGreaterThan(1);
+        for (int i = 0; i < sentResponses.size(); i++) {
+            InventoryResponse response = sentResponses.get(i);
+            boolean isLastChunk = i == sentResponses.size() - 1;
+            assertThat(response.getRequestNonce()).isEqualTo(nonce);
+            assertThat(response.getChunkIndex()).isEqualTo(i);
+            assertThat(response.hasMoreResponses()).isEqualTo(!isLastChunk);
+            if (!isLastChunk) {
+                // The requested chunk size of 10 KB got raised to the minimum
+                assertThat(response.getInventory().getSerializedSize()).isGreaterThan(InventoryHandler.MAX_CHUNK_SIZE / 2);
+            }
+        }
+        int numEntries = sentResponses.stream().mapToInt(response -> response.getInventory().getEntries().size()).sum();
+        assertThat(numEntries).isEqualTo(NUM_ENTRIES);
+    }
+
+    @Test
+    void sendSingleResponseToOldPeer() throws Exception {
+        // Old peers do not set the maxChunkSize
+        int nonce = 2;
+        inventoryResponseService.onMessage(new InventoryRequest(new HashSetFilter(new ArrayList<>()), nonce, 0), connection, null);
+        InventoryResponse response = lastResponse.get(10, TimeUnit.SECONDS);
+
+        assertThat(sentResponses).containsExactly(response);
+        assertThat(response.getRequestNonce()).isEqualTo(nonce);
+        assertThat(response.getChunkIndex()).isEqualTo(0);
+        assertThat(response.getInventory().getEntries()).hasSize(NUM_ENTRIES);
+        assertThat(response.getInventory().isMaxSizeReached()).isFalse();
+    }
+
+    private static class TestData implements DistributedData {
+        private final String text;
+        private final MetaData metaData;
+
+        private TestData(String text, MetaData metaData) {
+            this.text = text;
+            this.metaData = metaData;
+        }
+
+        @Override
+        public StringValue.Builder getBuilder(boolean serializeForHash) {
+            return StringValue.newBuilder().setValue(text);
+        }
+
+        @Override
+        public StringValue toProto(boolean serializeForHash) {
+            return resolveProto(serializeForHash);
+        }
+
+        @Override
+        public void verify() {
+        }
+
+        @Override
+        public MetaData getMetaData() {
+            return metaData;
+        }
+
+        @Override
+        public boolean isDataInvalid(byte[] pubKeyHash) {
+            return false;
+        }
+
+        @Override
+        public double getCostFactor() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.inventory.filter;
+
+import bisq.network.p2p.services.data.DataRequest;
+import bisq.network.p2p.services.data.inventory.Inventory;
+import bisq.network.p2p.services.data.inventory.filter.hash_set.HashSetFilter;
+import bisq.network.p2p.services.data.inventory.filter.hash_set.HashSetFilterService;
+import bisq.network.p2p.services.data.storage.DistributedData;
+import bisq.network.p2p.services.data.storage.MetaData;
+import bisq.network.p2p.services.data.storage.StorageService;
+import bisq.network.p2p.services.data.storage.auth.AddAuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedDataStorageService;
+import bisq.network.p2p.services.data.storage.auth.DefaultAuthenticatedData;
+import bisq.persistence.PersistenceService;
+import bisq.security.keys.KeyGeneration;
+import com.google.protobuf.StringValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InventoryChunkIteratorTest {
+    private static final int NUM_ENTRIES_PER_PRIORITY = 30;
+    private static final int MAX_CHUNK_SIZE = 2000;
+
+    @TempDir
+    private Path tempDir;
+    private StorageService storageService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        storageService = new StorageService(new PersistenceService(tempDir.toString()));
+        AuthenticatedDataStorageService store = storageService.getOrCreateAuthenticatedDataStore("TestStore").get();
+        KeyPair keyPair = KeyGeneration.generateKeyPair();
+        // We add low and high priority data alternately, so the order of the map differs from the priority order
+        for (int i = 0; i < NUM_ENTRIES_PER_PRIORITY; i++) {
+            addData(store, keyPair, "low" + i, MetaData.LOW_PRIORITY);
+            addData(store, keyPair, "high" + i, MetaData.HIGH_PRIORITY);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        storageService.shutdown();
+    }
+
+    @Test
+    void chunksAreCreatedInPriorityOrder() {
+        InventoryChunkIterator iterator = new HashSetFilterService(storageService, Integer.MAX_VALUE)
+                .createInventoryChunks(new HashSetFilter(new ArrayList<>()), version -> true, MAX_CHUNK_SIZE);
+        List<Inventory> chunks = collectChunks(iterator);
+
+        assertThat(chunks.size()).isGreaterThan(1);
+        assertThat(iterator.getNumChunks()).isEqualTo(chunks.size());
+        List<DataRequest> dataRequests = new ArrayList<>();
+        chunks.forEach(chunk -> {
+            assertThat(chunk.getEntries()).isNotEmpty();
+            assertThat(chunk.isMaxSizeReached()).isFalse();
+            int chunkSize = chunk.getEntries().stream().mapToInt(DataRequest::getSerializedSize).sum();
+            assertThat(chunkSize).isLessThanOrEqualTo(MAX_CHUNK_SIZE);
+            dataRequests.addAll(chunk.getEntries());
+        });
+
+        assertThat(dataRequests).hasSize(2 * NUM_ENTRIES_PER_PRIORITY);
+        for (int i = 0; i < dataRequests.size(); i++) {
+            int expectedPriority = i < NUM_ENTRIES_PER_PRIORITY ? MetaData.HIGH_PRIORITY : MetaData.LOW_PRIORITY;
+            assertThat(getPriority(dataRequests.get(i))).isEqualTo(expectedPriority);
+        }
+    }
+
+    @Test
+    void onlyLastChunkHasMaxSizeReached() {
+        int maxSize = 5 * MAX_CHUNK_SIZE;
+        InventoryChunkIterator iterator = new HashSetFilterService(storageService, maxSize)
+                .createInventoryChunks(new HashSetFilter(new ArrayList<>()), version -> true, MAX_CHUNK_SIZE);
+        List<Inventory> chunks = collectChunks(iterator);
+
+        Inventory lastChunk = chunks.get(chunks.size() - 1);
+        assertThat(lastChunk.isMaxSizeReached()).isTrue();
+        assertThat(chunks.subList(0, chunks.size() - 1)).noneMatch(Inventory::isMaxSizeReached);
+        int totalSize = chunks.stream()
+                .flatMap(chunk -> chunk.getEntries().stream())
+                .mapToInt(DataRequest::getSerializedSize)
+                .sum();
+        assertThat(totalSize).isLessThanOrEqualTo(maxSize);
+        assertThat(iterator.getNumDataRequests()).isLessThan(2 * NUM_ENTRIES_PER_PRIORITY);
+    }
+
+    @Test
+    void createInventoryReturnsAllDataInOneChunk() {
+        Inventory inventory = new HashSetFilterService(storageService, Integer.MAX_VALUE)
+                .createInventory(new HashSetFilter(new ArrayList<>()), version -> true);
+
+        assertThat(inventory.getEntries()).hasSize(2 * NUM_ENTRIES_PER_PRIORITY);
+        assertThat(inventory.isMaxSizeReached()).isFalse();
+    }
+
+    private static List<Inventory> collectChunks(InventoryChunkIterator iterator) {
+        List<Inventory> chunks = new ArrayList<>();
+        while (iterator.hasNext()) {
+            chunks.add(iterator.next());
+        }
+        return chunks;
+    }
+
+    private static int getPriority(DataRequest dataRequest) {
+        return ((AddAuthenticatedDataRequest) dataRequest).getDistributedData().getMetaData().getPriority();
+    }
+
+    private static void addData(AuthenticatedDataStorageService store, KeyPair keyPair, String text, int priority) throws Exception {
+        TestData testData = new TestData(text, new MetaData(MetaData.TTL_10_DAYS, priority, "TestData", MetaData.MAX_MAP_SIZE_10_000));
+        AddAuthenticatedDataRequest request = AddAuthenticatedDataRequest.from(store, new DefaultAuthenticatedData(testData), keyPair);
+        assertThat(store.add(request).isSuccess()).isTrue();
+    }
+
+    private static class TestData implements DistributedData {
+        private final String text;
+        private final MetaData metaData;
+
+        private TestData(String text, MetaData metaData) {
+            this.text = text;
+            this.metaData = metaData;
+        }
+
+        @Override
+        public StringValue.Builder getBuilder(boolean serializeForHash) {
+            return StringValue.newBuilder().setValue(text);
+        }
+
+        @Override
+        public StringValue toProto(boolean serializeForHash) {
+            return resolveProto(serializeForHash);
+        }
+
+        @Override
+        public void verify() {
+        }
+
+        @Override
+        public MetaData getMetaData() {
+            return metaData;
+        }
+
+        @Override
+        public boolean isDataInvalid(byte[] pubKeyHash) {
+            return false;
+        }
+
+        @Override
+        public double getCostFactor() {
+            return 0;
+        }
+    }
+}
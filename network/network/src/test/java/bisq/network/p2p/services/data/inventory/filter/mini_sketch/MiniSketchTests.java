@@ -0,0 +1,154 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.inventory.filter.mini_sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MiniSketchTests {
+    private final Random random = new Random(42);
+
+    @Test
+    void decodeSymmetricDifference() {
+        int capacity = 64;
+        MiniSketch sketchA = new MiniSketch(capacity);
+        MiniSketch sketchB = new MiniSketch(capacity);
+        for (int i = 0; i < 10_000; i++) {
+            long element = randomElement();
+            sketchA.add(element);
+            sketchB.add(element);
+        }
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            long onlyInA = randomElement();
+            sketchA.add(onlyInA);
+            expected.add(onlyInA);
+            long onlyInB = randomElement();
+            sketchB.add(onlyInB);
+            expected.add(onlyInB);
+        }
+
+        sketchA.merge(sketchB);
+        long[] decoded = sketchA.decode().orElseThrow();
+        assertThat(Arrays.stream(decoded).boxed().collect(Collectors.toSet())).isEqualTo(expected);
+    }
+
+    @Test
+    void decodeEmptyDifference() {
+        MiniSketch sketchA = new MiniSketch(16);
+        MiniSketch sketchB = new MiniSketch(16);
+        long element = randomElement();
+        sketchA.add(element);
+        sketchB.add(element);
+
+        sketchA.merge(sketchB);
+        assertThat(sketchA.decode().orElseThrow()).isEmpty();
+    }
+
+    @Test
+    void failToDecodeIfCapacityExceeded() {
+        MiniSketch sketch = new MiniSketch(16);
+        for (int i = 0; i < 17; i++) {
+            sketch.add(randomElement());
+        }
+        assertThat(sketch.decode()).isEmpty();
+    }
+
+    @Test
+    void serializationRoundTrip() {
+        MiniSketch sketch = new MiniSketch(8);
+        long element = randomElement();
+        sketch.add(element);
+
+        MiniSketch fromBytes = MiniSketch.fromBytes(sketch.toBytes());
+        assertThat(fromBytes.getCapacity()).isEqualTo(8);
+        assertThat(fromBytes.decode().orElseThrow()).containsExactly(element);
+    }
+
+    @Test
+    void sizeDependsOnlyOnCapacity() {
+        MiniSketch sketch = new MiniSketch(MiniSketchFilterService.DEFAULT_CAPACITY);
+        for (int i = 0; i < 100_000; i++) {
+            sketch.add(randomElement());
+        }
+        assertThat(sketch.toBytes()).hasSize(MiniSketchFilterService.DEFAULT_CAPACITY * Long.BYTES);
+    }
+
+    @Test
+    void decodeAtMaxCapacity() {
+        MiniSketch sketch = new MiniSketch(MiniSketchFilter.MAX_CAPACITY);
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < MiniSketchFilter.MAX_CAPACITY; i++) {
+            long element = randomElement();
+            sketch.add(element);
+            expected.add(element);
+        }
+        long[] decoded = sketch.decode().orElseThrow();
+        assertThat(Arrays.stream(decoded).boxed().collect(Collectors.toSet())).isEqualTo(expected);
+    }
+
+    // The cached sketches get updated by adding the element of each added and removed entry in any order.
+    @Test
+    void incrementalUpdatesMatchFullEncoding() {
+        long salt = random.nextLong();
+        byte[] hashA = randomHash();
+        byte[] hashB = randomHash();
+        MiniSketch incremental = new MiniSketch(16);
+        incremental.add(MiniSketchFilterService.toElement(hashA, 1, salt));
+        incremental.add(MiniSketchFilterService.toElement(hashB, 1, salt));
+        // Entry A gets a new sequence number, entry B gets removed
+        incremental.add(MiniSketchFilterService.toElement(hashA, 2, salt));
+        incremental.add(MiniSketchFilterService.toElement(hashB, 1, salt));
+        incremental.add(MiniSketchFilterService.toElement(hashA, 1, salt));
+
+        MiniSketch full = new MiniSketch(16);
+        full.add(MiniSketchFilterService.toElement(hashA, 2, salt));
+        assertThat(incremental.toBytes()).isEqualTo(full.toBytes());
+    }
+
+    @Test
+    void elementDependsOnSalt() {
+        byte[] hash = randomHash();
+        long salt = random.nextLong();
+        assertThat(MiniSketchFilterService.toElement(hash, 1, salt))
+                .isEqualTo(MiniSketchFilterService.toElement(hash, 1, salt))
+                .isNotEqualTo(MiniSketchFilterService.toElement(hash, 1, salt + 1))
+                .isNotEqualTo(MiniSketchFilterService.toElement(hash, 2, salt));
+    }
+
+    private byte[] randomHash() {
+        byte[] hash = new byte[20];
+        random.nextBytes(hash);
+        return hash;
+    }
+
+    private long randomElement() {
+        long element;
+        do {
+            element = random.nextLong();
+        } while (element == 0);
+        return element;
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.data.DataRequest;
+import bisq.network.p2p.services.data.inventory.filter.hash_set.HashSetFilter;
+import bisq.network.p2p.services.data.inventory.filter.hash_set.HashSetFilterEntry;
+import bisq.network.p2p.services.data.inventory.filter.hash_set.HashSetFilterService;
+import bisq.network.p2p.services.data.storage.auth.AddAuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedData;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedDataStorageService;
+import bisq.network.p2p.services.data.storage.auth.DefaultAuthenticatedData;
+import bisq.network.p2p.services.data.storage.auth.RemoveAuthenticatedDataRequest;
+import bisq.persistence.PersistenceService;
+import bisq.security.keys.KeyGeneration;
+import com.google.protobuf.StringValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InventoryIndexTest {
+    private static final int NUM_ENTRIES_PER_PRIORITY = 10;
+    private static final List<Integer> PRIORITIES = List.of(MetaData.LOW_PRIORITY,
+            MetaData.HIGHEST_PRIORITY,
+            MetaData.DEFAULT_PRIORITY,
+            MetaData.HIGH_PRIORITY);
+
+    @TempDir
+    private Path tempDir;
+    private KeyPair keyPair;
+    private StorageService storageService;
+    private AuthenticatedDataStorageService store;
+    private InventoryIndex inventoryIndex;
+    private final List<AuthenticatedData> authenticatedDataList = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        keyPair = KeyGeneration.generateKeyPair();
+        storageService = new StorageService(new PersistenceService(tempDir.toString()));
+        store = storageService.getOrCreateAuthenticatedDataStore("TestStore").get();
+        inventoryIndex = storageService.getInventoryIndex();
+        // We add the priorities alternately, so the order of the map differs from the priority order
+        for (int i = 0; i < NUM_ENTRIES_PER_PRIORITY; i++) {
+            for (int priority : PRIORITIES) {
+                authenticatedDataList.add(addData("data" + priority + "_" + i, priority));
+            }
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        storageService.shutdown();
+    }
+
+    @Test
+    public void entriesAreBucketedByCategoryAndPriority() throws Exception {
+        List<AuthenticatedData> removed = authenticatedDataList.subList(0, 5);
+        for (AuthenticatedData authenticatedData : removed) {
+            removeData(authenticatedData);
+        }
+
+        List<InventoryIndex.Entry> addEntries = inventoryIndex.getEntries(InventoryIndex.Category.AUTHENTICATED_ADD)
+                .collect(Collectors.toList());
+        assertThat(addEntries).hasSize(authenticatedDataList.size() - removed.size());
+        assertThat(addEntries).allMatch(entry -> entry.getDataRequest() instanceof AddAuthenticatedDataRequest);
+        assertThat(addEntries.stream().map(InventoryIndex.Entry::getPriority).collect(Collectors.toList()))
+                .isSortedAccordingTo((o1, o2) -> Integer.compare(o2, o1));
+        addEntries.forEach(entry -> {
+            AddAuthenticatedDataRequest request = (AddAuthenticatedDataRequest) entry.getDataRequest();
+            assertThat(entry.getPriority()).isEqualTo(request.getDistributedData().getMetaData().getPriority());
+            assertThat(entry.getSequenceNumber()).isEqualTo(request.getAuthenticatedSequentialData().getSequenceNumber());
+        });
+
+        List<InventoryIndex.Entry> removeEntries = inventoryIndex.getEntries(InventoryIndex.Category.AUTHENTICATED_REMOVE)
+                .collect(Collectors.toList());
+        assertThat(removeEntries).hasSize(removed.size());
+        assertThat(removeEntries).allMatch(entry -> entry.getDataRequest() instanceof RemoveAuthenticatedDataRequest);
+        assertThat(removeEntries.stream().map(InventoryIndex.Entry::getPriority).collect(Collectors.toList()))
+                .isSortedAccordingTo((o1, o2) -> Integer.compare(o2, o1));
+
+        assertThat(inventoryIndex.getEntries(InventoryIndex.Category.MAILBOX_ADD)).isEmpty();
+        assertThat(inventoryIndex.getEntries(InventoryIndex.Category.MAILBOX_REMOVE)).isEmpty();
+        assertThat(inventoryIndex.getEntries(InventoryIndex.Category.APPEND_ONLY)).isEmpty();
+    }
+
+    @Test
+    public void addAndRemoveKeepBucketsConsistent() throws Exception {
+        List<InventoryIndex.Entry> addedEntries = new CopyOnWriteArrayList<>();
+        List<InventoryIndex.Entry> removedEntries = new CopyOnWriteArrayList<>();
+        inventoryIndex.addListener(new InventoryIndex.Listener() {
+            @Override
+            public void onEntryAdded(InventoryIndex.Entry entry) {
+                addedEntries.add(entry);
+            }
+
+            @Override
+            public void onEntryRemoved(InventoryIndex.Entry entry) {
+                removedEntries.add(entry);
+            }
+        });
+
+        AuthenticatedData authenticatedData = addData("added", MetaData.HIGH_PRIORITY);
+        ByteArray key = addedEntries.get(0).getKey();
+        assertThat(removedEntries).isEmpty();
+        assertThat(findCategories(key)).containsExactly(InventoryIndex.Category.AUTHENTICATED_ADD);
+        assertBucketsMatchMap();
+
+        // The remove request replaces the add request in the map, thus the entry moves to the remove bucket
+        removeData(authenticatedData);
+        assertThat(removedEntries).hasSize(1);
+        assertThat(removedEntries.get(0).getCategory()).isEqualTo(InventoryIndex.Category.AUTHENTICATED_ADD);
+        assertThat(addedEntries).hasSize(2);
+        assertThat(addedEntries.get(1).getKey()).isEqualTo(key);
+        assertThat(findCategories(key)).containsExactly(InventoryIndex.Category.AUTHENTICATED_REMOVE);
+        assertBucketsMatchMap();
+
+        // Removing all other data leaves the add bucket empty
+        for (AuthenticatedData data : authenticatedDataList) {
+            removeData(data);
+        }
+        assertThat(inventoryIndex.getEntries(InventoryIndex.Category.AUTHENTICATED_ADD)).isEmpty();
+        assertBucketsMatchMap();
+    }
+
+    @Test
+    public void filterQueryMatchesFullScan() throws Exception {
+        for (AuthenticatedData authenticatedData : authenticatedDataList.subList(0, 5)) {
+            removeData(authenticatedData);
+        }
+
+        // The requester has every third entry, and the removed entries only with the seq nr from before the removal
+        List<Map.Entry<ByteArray, ? extends DataRequest>> mapEntries = storageService.getAllDataRequestMapEntries()
+                .collect(Collectors.toList());
+        List<HashSetFilterEntry> filterEntries = new ArrayList<>();
+        for (int i = 0; i < mapEntries.size(); i++) {
+            Map.Entry<ByteArray, ? extends DataRequest> mapEntry = mapEntries.get(i);
+            int sequenceNumber = getSequenceNumber(mapEntry.getValue());
+            if (mapEntry.getValue() instanceof RemoveAuthenticatedDataRequest) {
+                filterEntries.add(new HashSetFilterEntry(mapEntry.getKey().getBytes(), sequenceNumber - 1));
+            } else if (i % 3 == 0) {
+                filterEntries.add(new HashSetFilterEntry(mapEntry.getKey().getBytes(), sequenceNumber));
+            }
+        }
+        HashSetFilter filter = new HashSetFilter(filterEntries);
+
+        Set<HashSetFilterEntry> filterEntrySet = filter.getFilterEntriesAsSet();
+        Set<DataRequest> expected = mapEntries.stream()
+                .filter(mapEntry -> !filterEntrySet.contains(new HashSetFilterEntry(mapEntry.getKey().getBytes(),
+                        getSequenceNumber(mapEntry.getValue()))))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toSet());
+        assertThat(expected).isNotEmpty().hasSizeLessThan(mapEntries.size());
+
+        List<DataRequest> inventory = new HashSetFilterService(storageService, Integer.MAX_VALUE)
+                .createInventory(filter, version -> true)
+                .getEntries();
+        assertThat(inventory).hasSameSizeAs(expected);
+        assertThat(Set.copyOf(inventory)).isEqualTo(expected);
+    }
+
+    private void assertBucketsMatchMap() {
+        Map<ByteArray, ? extends DataRequest> map = store.getPersistableStore().getMap();
+        List<InventoryIndex.Entry> bucketEntries = Arrays.stream(InventoryIndex.Category.values())
+                .flatMap(inventoryIndex::getEntries)
+                .collect(Collectors.toList());
+        assertThat(bucketEntries).hasSize(map.size());
+        assertThat(inventoryIndex.size()).isEqualTo(map.size());
+        bucketEntries.forEach(entry -> assertThat(entry.getDataRequest()).isSameAs(map.get(entry.getKey())));
+    }
+
+    private List<InventoryIndex.Category> findCategories(ByteArray key) {
+        return Arrays.stream(InventoryIndex.Category.values())
+                .filter(category -> inventoryIndex.getEntries(category).anyMatch(entry -> entry.getKey().equals(key)))
+                .collect(Collectors.toList());
+    }
+
+    private static int getSequenceNumber(DataRequest dataRequest) {
+        if (dataRequest instanceof AddAuthenticatedDataRequest request) {
+            return request.getAuthenticatedSequentialData().getSequenceNumber();
+        } else if (dataRequest instanceof RemoveAuthenticatedDataRequest request) {
+            return request.getSequenceNumber();
+        }
+        throw new IllegalArgumentException("Unexpected dataRequest " + dataRequest);
+    }
+
+    private AuthenticatedData addData(String text, int priority) throws Exception {
+        TestData testData = new TestData(text, new MetaData(MetaData.TTL_10_DAYS, priority, "TestData", MetaData.MAX_MAP_SIZE_10_000));
+        AuthenticatedData authenticatedData = new DefaultAuthenticatedData(testData);
+        AddAuthenticatedDataRequest request = AddAuthenticatedDataRequest.from(store, authenticatedData, keyPair);
+        assertThat(store.add(request).isSuccess()).isTrue();
+        return authenticatedData;
+    }
+
+    private void removeData(AuthenticatedData authenticatedData) throws Exception {
+        RemoveAuthenticatedDataRequest request = RemoveAuthenticatedDataRequest.from(store, authenticatedData, keyPair);
+        assertThat(store.remove(request).isSuccess()).isTrue();
+    }
+
+    private static class TestData implements DistributedData {
+        private final String text;
+        private final MetaData metaData;
+
+        private TestData(String text, MetaData metaData) {
+            this.text = text;
+            this.metaData = metaData;
+        }
+
+        @Override
+        public StringValue.Builder getBuilder(boolean serializeForHash) {
+            return StringValue.newBuilder().setValue(text);
+        }
+
+        @Override
+        public StringValue toProto(boolean serializeForHash) {
+            return resolveProto(serializeForHash);
+        }
+
+        @Override
+        public void verify() {
+        }
+
+        @Override
+        public MetaData getMetaData() {
+            return metaData;
+        }
+
+        @Override
+        public boolean isDataInvalid(byte[] pubKeyHash) {
+            return false;
+        }
+
+        @Override
+        public double getCostFactor() {
+            return 0;
+        }
+    }
+}
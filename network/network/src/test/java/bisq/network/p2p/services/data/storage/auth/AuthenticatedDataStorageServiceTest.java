@@ -0,0 +1,342 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.storage.auth;
+
+import bisq.common.data.ByteArray;
+import bisq.common.proto.UnresolvableProtobufMessageException;
+import bisq.network.p2p.services.data.DataRequest;
+import bisq.network.p2p.services.data.storage.DataStorageResult;
+import bisq.network.p2p.services.data.storage.DistributedData;
+import bisq.network.p2p.services.data.storage.DistributedDataResolver;
+import bisq.network.p2p.services.data.storage.MetaData;
+import bisq.persistence.PersistenceService;
+import bisq.security.DigestUtil;
+import bisq.security.keys.KeyGeneration;
+import com.google.protobuf.Any;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.StringValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuthenticatedDataStorageServiceTest {
+    private static final int NUM_THREADS = 4;
+
+    @TempDir
+    private Path tempDir;
+    private KeyPair keyPair;
+    private AuthenticatedDataStorageService storageService;
+
+    @BeforeEach
+    public void setUp() {
+        keyPair = KeyGeneration.generateKeyPair();
+        PersistenceService persistenceService = new PersistenceService(tempDir.toString());
+        storageService = new AuthenticatedDataStorageService(persistenceService, "Test", "TestStore");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        storageService.shutdown();
+    }
+
+    @Test
+    public void addRefreshAndRemove() throws Exception {
+        AtomicInteger numAdded = new AtomicInteger();
+        AtomicInteger numRefreshed = new AtomicInteger();
+        AtomicInteger numRemoved = new AtomicInteger();
+        storageService.addListener(new AuthenticatedDataStorageService.Listener() {
+            @Override
+            public void onAdded(AuthenticatedData authenticatedData) {
+                numAdded.incrementAndGet();
+            }
+
+            @Override
+            public void onRemoved(AuthenticatedData authenticatedData) {
+                numRemoved.incrementAndGet();
+            }
+
+            @Override
+            public void onRefreshed(AuthenticatedData authenticatedData) {
+                numRefreshed.incrementAndGet();
+            }
+        });
+
+        AuthenticatedData authenticatedData = new DefaultAuthenticatedData(new TestData("data"));
+        byte[] hash = DigestUtil.hash(authenticatedData.serializeForHash());
+        AddAuthenticatedDataRequest addRequest = AddAuthenticatedDataRequest.from(storageService, authenticatedData, keyPair);
+        assertThat(storageService.add(addRequest).isSuccess()).isTrue();
+        assertThat(storageService.getSequenceNumber(hash)).isEqualTo(1);
+        assertThat(storageService.add(received(addRequest)).isRequestAlreadyReceived()).isTrue();
+
+        RefreshAuthenticatedDataRequest refreshRequest = RefreshAuthenticatedDataRequest.from(storageService, authenticatedData, keyPair);
+        assertThat(storageService.refresh(refreshRequest).isSuccess()).isTrue();
+        assertThat(storageService.getSequenceNumber(hash)).isEqualTo(2);
+        assertThat(storageService.refresh(refreshRequest).isSequenceNrInvalid()).isTrue();
+
+        RemoveAuthenticatedDataRequest removeRequest = RemoveAuthenticatedDataRequest.from(storageService, authenticatedData, keyPair);
+        DataStorageResult removeResult = storageService.remove(removeRequest);
+        assertThat(removeResult.isSuccess()).isTrue();
+        assertThat(removeResult.getRemovedData()).isEqualTo(authenticatedData);
+        assertThat(storageService.getSequenceNumber(hash)).isEqualTo(3);
+        assertThat(storageService.remove(removeRequest).isAlreadyRemoved()).isTrue();
+
+        // The outdated add request must not revive the removed data
+        assertThat(storageService.add(received(addRequest)).isSequenceNrInvalid()).isTrue();
+
+        assertThat(numAdded.get()).isEqualTo(1);
+        assertThat(numRefreshed.get()).isEqualTo(1);
+        assertThat(numRemoved.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void concurrentAddsOfDistinctRequests() throws Exception {
+        List<AddAuthenticatedDataRequest> requests = createRequests("distinct", 400, MetaData.MAX_MAP_SIZE_50_000);
+        int numAdded = addConcurrently(threadIndex -> partition(requests, threadIndex));
+
+        assertThat(numAdded).isEqualTo(requests.size());
+        assertThat(storageService.getPersistableStore().getMap()).hasSize(requests.size());
+    }
+
+    @Test
+    public void concurrentAddsOfSameRequestsSucceedOnlyOnce() throws Exception {
+        // Happens when a request gets rebroadcast by many peers
+        List<AddAuthenticatedDataRequest> requests = createRequests("rebroadcast", 400, MetaData.MAX_MAP_SIZE_50_000);
+        int numAdded = addConcurrently(threadIndex -> {
+            List<AddAuthenticatedDataRequest> shuffled = new ArrayList<>(requests);
+            Collections.shuffle(shuffled);
+            return shuffled;
+        });
+
+        assertThat(numAdded).isEqualTo(requests.size());
+        assertThat(storageService.getPersistableStore().getMap()).hasSize(requests.size());
+    }
+
+    @Test
+    public void concurrentAddsDoNotExceedMaxMapSize() throws Exception {
+        // Lower values than MAX_MAP_SIZE_5000 are not applied
+        int maxMapSize = MetaData.MAX_MAP_SIZE_5000;
+        List<AddAuthenticatedDataRequest> requests = createRequests("maxMapSize", maxMapSize + 200, maxMapSize);
+        int numAdded = addConcurrently(threadIndex -> partition(requests, threadIndex));
+
+        // The size check is done before the put, so the map can reach maxMapSize + 1 entries
+        int mapSize = storageService.getPersistableStore().getMap().size();
+        assertThat(mapSize).isEqualTo(maxMapSize + 1);
+        assertThat(numAdded).isEqualTo(mapSize);
+    }
+
+    @Test
+    public void ownerPublicKeyOfPersistedRequestsIsCreatedLazily() throws Exception {
+        DistributedDataResolver.addResolver("google.protobuf.StringValue", TestData::fromAny);
+        AuthenticatedData authenticatedData = new DefaultAuthenticatedData(new TestData("data"));
+        AddAuthenticatedDataRequest addRequest = AddAuthenticatedDataRequest.from(storageService, authenticatedData, keyPair);
+        assertThat(storageService.add(addRequest).isSuccess()).isTrue();
+        RemoveAuthenticatedDataRequest removeRequest = RemoveAuthenticatedDataRequest.from(storageService, authenticatedData, keyPair);
+        byte[] expectedKey = keyPair.getPublic().getEncoded();
+
+        // Same path as reading the persisted store
+        AddAuthenticatedDataRequest persistedAddRequest = (AddAuthenticatedDataRequest) DataRequest.fromPersistedProto(addRequest.toDataRequestProto(false));
+        AddAuthenticatedDataRequest receivedAddRequest = (AddAuthenticatedDataRequest) DataRequest.fromProto(addRequest.toDataRequestProto(false));
+        PublicKey lazyAddKey = persistedAddRequest.getOwnerPublicKey();
+        assertThat(lazyAddKey.getEncoded()).isEqualTo(expectedKey);
+        assertThat(lazyAddKey.getEncoded()).isEqualTo(receivedAddRequest.getOwnerPublicKey().getEncoded());
+        assertThat(persistedAddRequest.getOwnerPublicKey()).isSameAs(lazyAddKey);
+        assertThat(persistedAddRequest.isSignatureInvalid()).isFalse();
+
+        RemoveAuthenticatedDataRequest persistedRemoveRequest = (RemoveAuthenticatedDataRequest) DataRequest.fromPersistedProto(removeRequest.toDataRequestProto(false));
+        RemoveAuthenticatedDataRequest receivedRemoveRequest = (RemoveAuthenticatedDataRequest) DataRequest.fromProto(removeRequest.toDataRequestProto(false));
+        PublicKey lazyRemoveKey = persistedRemoveRequest.getOwnerPublicKey();
+        assertThat(lazyRemoveKey.getEncoded()).isEqualTo(expectedKey);
+        assertThat(lazyRemoveKey.getEncoded()).isEqualTo(receivedRemoveRequest.getOwnerPublicKey().getEncoded());
+        assertThat(persistedRemoveRequest.getOwnerPublicKey()).isSameAs(lazyRemoveKey);
+        assertThat(persistedRemoveRequest.isSignatureInvalid()).isFalse();
+    }
+
+    @Test
+    public void runningTotalsMatchRecount() throws Exception {
+        List<TestData> testDataList = new ArrayList<>();
+        List<AuthenticatedData> authenticatedDataList = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            // Different lengths, so that the serialized sizes differ
+            TestData testData = new TestData("data" + "x".repeat(i));
+            AuthenticatedData authenticatedData = new DefaultAuthenticatedData(testData);
+            assertThat(storageService.add(AddAuthenticatedDataRequest.from(storageService, authenticatedData, keyPair)).isSuccess()).isTrue();
+            testDataList.add(testData);
+            authenticatedDataList.add(authenticatedData);
+        }
+        assertRunningTotalsMatchRecount();
+
+        // Refresh overwrites the entry with a request with a new seq nr
+        for (int i = 0; i < 10; i++) {
+            AuthenticatedData authenticatedData = authenticatedDataList.get(i);
+            RefreshAuthenticatedDataRequest request = RefreshAuthenticatedDataRequest.from(storageService, authenticatedData, keyPair);
+            assertThat(storageService.refresh(request).isSuccess()).isTrue();
+        }
+        assertRunningTotalsMatchRecount();
+
+        // Remove overwrites the entry with the remove request
+        for (int i = 5; i < 20; i++) {
+            AuthenticatedData authenticatedData = authenticatedDataList.get(i);
+            RemoveAuthenticatedDataRequest request = RemoveAuthenticatedDataRequest.from(storageService, authenticatedData, keyPair);
+            assertThat(storageService.remove(request).isSuccess()).isTrue();
+        }
+        assertRunningTotalsMatchRecount();
+
+        // Expired entries get removed from the map
+        for (int i = 25; i < 40; i++) {
+            testDataList.get(i).expire();
+        }
+        storageService.pruneExpired();
+        assertThat(storageService.getPersistableStore().getMap()).hasSize(25);
+        assertRunningTotalsMatchRecount();
+
+        // Add again after prune
+        for (int i = 25; i < 30; i++) {
+            AuthenticatedData authenticatedData = new DefaultAuthenticatedData(new TestData("data" + "x".repeat(i)));
+            assertThat(storageService.add(AddAuthenticatedDataRequest.from(storageService, authenticatedData, keyPair)).isSuccess()).isTrue();
+        }
+        assertRunningTotalsMatchRecount();
+    }
+
+    private void assertRunningTotalsMatchRecount() {
+        Map<ByteArray, AuthenticatedDataRequest> map = storageService.getPersistableStore().getMap();
+        long serializedSize = map.values().stream()
+                .mapToLong(request -> request.toDataRequestProto(false).getSerializedSize())
+                .sum();
+        assertThat(storageService.getSerializedSize()).isEqualTo(serializedSize);
+        assertThat(storageService.getNumEntries()).isEqualTo(map.size());
+    }
+
+    private int addConcurrently(Function<Integer, List<AddAuthenticatedDataRequest>> requestProvider) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        AtomicInteger numAdded = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < NUM_THREADS; i++) {
+                List<AddAuthenticatedDataRequest> requests = requestProvider.apply(i);
+                futures.add(executor.submit(() -> requests.forEach(request -> {
+                    if (storageService.add(received(request)).isSuccess()) {
+                        numAdded.incrementAndGet();
+                    }
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return numAdded.get();
+    }
+
+    private List<AddAuthenticatedDataRequest> createRequests(String prefix, int numRequests, int maxMapSize) throws Exception {
+        MetaData metaData = new MetaData(MetaData.TTL_10_DAYS, "TestData", maxMapSize);
+        List<AddAuthenticatedDataRequest> requests = new ArrayList<>();
+        for (int i = 0; i < numRequests; i++) {
+            AuthenticatedData authenticatedData = new DefaultAuthenticatedData(new TestData(prefix + i, metaData));
+            requests.add(AddAuthenticatedDataRequest.from(storageService, authenticatedData, keyPair));
+        }
+        return requests;
+    }
+
+    private static List<AddAuthenticatedDataRequest> partition(List<AddAuthenticatedDataRequest> requests, int threadIndex) {
+        List<AddAuthenticatedDataRequest> subList = new ArrayList<>();
+        for (int i = threadIndex; i < requests.size(); i += NUM_THREADS) {
+            subList.add(requests.get(i));
+        }
+        return subList;
+    }
+
+    // New instance as we would get it for a request received from the network
+    private static AddAuthenticatedDataRequest received(AddAuthenticatedDataRequest request) {
+        return new AddAuthenticatedDataRequest(request.getAuthenticatedSequentialData(),
+                request.getSignature(),
+                request.getOwnerPublicKey());
+    }
+
+    private static class TestData implements DistributedData {
+        private final String text;
+        private MetaData metaData;
+
+        private TestData(String text) {
+            this(text, new MetaData(MetaData.TTL_10_DAYS, "TestData", MetaData.MAX_MAP_SIZE_50_000));
+        }
+
+        private TestData(String text, MetaData metaData) {
+            this.text = text;
+            this.metaData = metaData;
+        }
+
+        private static DistributedData fromAny(Any any) {
+            try {
+                return new TestData(any.unpack(StringValue.class).getValue());
+            } catch (InvalidProtocolBufferException e) {
+                throw new UnresolvableProtobufMessageException(e);
+            }
+        }
+
+        // The TTL is not part of the serialized data, so the hash of the data does not change
+        private void expire() {
+            metaData = new MetaData(-1, metaData.getClassName(), metaData.getMaxMapSize());
+        }
+
+        @Override
+        public StringValue.Builder getBuilder(boolean serializeForHash) {
+            return StringValue.newBuilder().setValue(text);
+        }
+
+        @Override
+        public StringValue toProto(boolean serializeForHash) {
+            return resolveProto(serializeForHash);
+        }
+
+        @Override
+        public void verify() {
+        }
+
+        @Override
+        public MetaData getMetaData() {
+            return metaData;
+        }
+
+        @Override
+        public boolean isDataInvalid(byte[] pubKeyHash) {
+            return false;
+        }
+
+        @Override
+        public double getCostFactor() {
+            return 0;
+        }
+    }
+}
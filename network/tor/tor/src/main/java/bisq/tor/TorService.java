@@ -35,8 +35,11 @@ import net.freehaven.tor.control.PasswordDigest;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.nio.file.Path;
 import java.util.Map;
 import java.util.Optional;
@@ -128,7 +131,8 @@ public class TorService implements Service {
         log.info("Start hidden service with port {}", port);
         long ts = System.currentTimeMillis();
         try {
-            var localServerSocket = new ServerSocket(RANDOM_PORT);
+            // Channel backed, so that accepted sockets can be used with a Selector
+            ServerSocket localServerSocket = ServerSocketChannel.open().bind(new InetSocketAddress(RANDOM_PORT)).socket();
             int localPort = localServerSocket.getLocalPort();
 
             String onionAddress = torKeyPair.getOnionAddress();
@@ -165,6 +169,11 @@ public class TorService implements Service {
         return socksProxyFactory.getSocket(streamId);
     }
 
+    public SocketChannel getSocketChannel(String hostName, int port) throws IOException {
+        TorSocksProxyFactory socksProxyFactory = torSocksProxyFactory.orElseThrow();
+        return socksProxyFactory.getSocketChannel(hostName, port);
+    }
+
     public Socks5Proxy getSocks5Proxy(String streamId) throws IOException {
         TorSocksProxyFactory socksProxyFactory = torSocksProxyFactory.orElseThrow();
         return socksProxyFactory.getSocks5Proxy(streamId);
@@ -17,6 +17,8 @@
 
 package bisq.tor;
 
+import bisq.tor.nio.TorSocketChannel;
+import bisq.tor.nio.TorSocksConnectionData;
 import com.runjva.sourceforge.jsocks.protocol.Authentication;
 import com.runjva.sourceforge.jsocks.protocol.Socks5Proxy;
 
@@ -25,9 +27,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.math.BigInteger;
+import java.net.ConnectException;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
@@ -43,6 +48,25 @@ public class TorSocksProxyFactory {
         return new Socket(proxy);
     }
 
+    /**
+     * Connects to the onion address via the socks proxy using a SocketChannel. Blocks until the connection to the
+     * destination is established. The returned channel is in blocking mode.
+     */
+    public SocketChannel getSocketChannel(String hostName, int port) throws IOException {
+        TorSocketChannel torSocketChannel = TorSocketChannel.open();
+        try {
+            var connectionData = new TorSocksConnectionData(socksPort, hostName, port);
+            return torSocketChannel.connect(connectionData, ByteBuffer.allocate(1024));
+        } catch (IOException | RuntimeException e) {
+            torSocketChannel.close();
+            if (e instanceof IOException) {
+                throw (IOException) e;
+            }
+            // The socks reply processing signals a failed connection with an IllegalStateException
+            throw new ConnectException("Could not connect to " + hostName + ":" + port + ". " + e.getMessage());
+        }
+    }
+
     public Socks5Proxy getSocks5Proxy(@Nullable String streamId) throws IOException {
         Socks5Proxy socks5Proxy = new Socks5Proxy("127.0.0.1", socksPort);
         socks5Proxy.resolveAddrLocally(false);
@@ -42,7 +42,7 @@ public class TorSocketChannel implements Closeable, ReadableByteChannel, Writabl
 
     public SocketChannel connect(TorSocksConnectionData torSocksConnectionData, ByteBuffer byteBuffer) throws IOException {
         InetSocketAddress torSocketAddress = new InetSocketAddress(
-                InetAddress.getLocalHost(),
+                InetAddress.getLoopbackAddress(),
                 torSocksConnectionData.getTorSocksProxyPort()
         );
         Socks5ConnectionData connectionData = new Socks5ConnectionData(
@@ -0,0 +1,70 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.persistence;
+
+import bisq.common.proto.PersistableProto;
+import com.google.protobuf.ByteString;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A single put or remove of a key/value entry of a JournaledPersistableStore.
+ * Key and value are the serialized forms provided by the store. For a remove record the value is empty.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class JournalRecord implements PersistableProto {
+    private final byte[] key;
+    private final byte[] value;
+    private final boolean isRemove;
+
+    public static JournalRecord put(byte[] key, byte[] value) {
+        return new JournalRecord(key, value, false);
+    }
+
+    public static JournalRecord remove(byte[] key) {
+        return new JournalRecord(key, new byte[0], true);
+    }
+
+    private JournalRecord(byte[] key, byte[] value, boolean isRemove) {
+        this.key = key;
+        this.value = value;
+        this.isRemove = isRemove;
+    }
+
+    @Override
+    public bisq.persistence.protobuf.JournalRecord toProto(boolean serializeForHash) {
+        return resolveProto(serializeForHash);
+    }
+
+    @Override
+    public bisq.persistence.protobuf.JournalRecord.Builder getBuilder(boolean serializeForHash) {
+        return bisq.persistence.protobuf.JournalRecord.newBuilder()
+                .setKey(ByteString.copyFrom(key))
+                .setValue(ByteString.copyFrom(value))
+                .setIsRemove(isRemove);
+    }
+
+    public static JournalRecord fromProto(bisq.persistence.protobuf.JournalRecord proto) {
+        return new JournalRecord(proto.getKey().toByteArray(),
+                proto.getValue().toByteArray(),
+                proto.getIsRemove());
+    }
+}
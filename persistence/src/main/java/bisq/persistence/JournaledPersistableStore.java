@@ -0,0 +1,28 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.persistence;
+
+/**
+ * PersistableStore which supports incremental persistence of single key/value changes.
+ * Changes are appended as JournalRecords to a journal file next to the store file and get replayed on top of the
+ * last written snapshot at read time. The snapshot is only rewritten when the journal gets compacted.
+ * Applying a JournalRecord must be idempotent as a record can be contained in the snapshot and in the journal.
+ */
+public interface JournaledPersistableStore<T extends PersistableStore<T>> extends PersistableStore<T> {
+    void applyJournalRecord(JournalRecord journalRecord);
+}
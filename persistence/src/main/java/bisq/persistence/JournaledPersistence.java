@@ -0,0 +1,192 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.persistence;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Persistence for JournaledPersistableStores. Single changes are appended to a journal and the full snapshot is only
+ * written at compaction. At read time the journal records get replayed on top of the snapshot.
+ * <p>
+ * At compaction, we rotate the journal first and take the snapshot from the live store afterwards. Any change which
+ * ended up in the rotated journal was applied to the store before, so it is contained in the snapshot. Changes
+ * applied after rotation are in the new journal (and maybe also in the snapshot, which is fine as records are
+ * idempotent). For that reason we ignore the clone passed to persistAsync and always take our own snapshot.
+ */
+@Slf4j
+public class JournaledPersistence<T extends JournaledPersistableStore<T>> extends Persistence<T> {
+    // We compact if the journal has grown to half the size of the last snapshot, so the total write I/O
+    // stays proportional to the size of the changes.
+    private static final double MAX_JOURNAL_TO_SNAPSHOT_SIZE_RATIO = 0.5;
+    private static final long MIN_JOURNAL_SIZE_FOR_COMPACTION = 256 * 1024;
+
+    private final PersistableStoreJournal journal;
+    private final JournaledPersistableStore<T> persistableStore;
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final Queue<PendingAppend> pendingAppends = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean appendScheduled = new AtomicBoolean();
+    private volatile long snapshotSizeInBytes;
+
+    public JournaledPersistence(String directory, String fileName, JournaledPersistableStore<T> persistableStore) {
+        super(directory, fileName);
+        this.persistableStore = persistableStore;
+        journal = new PersistableStoreJournal(getStorePath());
+        snapshotSizeInBytes = getSnapshotFileSize();
+    }
+
+    @Override
+    public CompletableFuture<Optional<T>> readAsync() {
+        return CompletableFuture.supplyAsync(this::readSnapshotAndReplayJournal, executorService);
+    }
+
+    @Override
+    public CompletableFuture<Void> persistAsync(T serializable) {
+        return compactAsync();
+    }
+
+    public CompletableFuture<Boolean> appendAsync(JournalRecord journalRecord) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        pendingAppends.add(new PendingAppend(journalRecord, future));
+        if (appendScheduled.compareAndSet(false, true)) {
+            try {
+                executorService.execute(this::appendPending);
+            } catch (Exception e) {
+                appendScheduled.set(false);
+                future.completeExceptionally(e);
+            }
+        }
+        return future;
+    }
+
+    public boolean isCompactionRequired() {
+        long journalSize = journal.getSizeInBytes();
+        return journalSize > MIN_JOURNAL_SIZE_FOR_COMPACTION &&
+                journalSize > snapshotSizeInBytes * MAX_JOURNAL_TO_SNAPSHOT_SIZE_RATIO;
+    }
+
+    public CompletableFuture<Void> compactAsync() {
+        if (!compactionScheduled.compareAndSet(false, true)) {
+            // Already scheduled compaction will take a snapshot including our changes.
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> {
+            Thread.currentThread().setName("JournaledPersistence.compact-" + getFileName());
+            compactionScheduled.set(false);
+            compact();
+        }, executorService);
+    }
+
+    @Override
+    protected void persist(T persistableStore) {
+        compact();
+    }
+
+    private synchronized void compact() {
+        try {
+            journal.rotate();
+        } catch (IOException e) {
+            log.error("Couldn't rotate journal {}. We skip compaction.", journal.getJournalFilePath(), e);
+            return;
+        }
+
+        if (persistableStoreReaderWriter.write(persistableStore.getClone())) {
+            snapshotSizeInBytes = getSnapshotFileSize();
+            try {
+                journal.deleteRotated();
+            } catch (IOException e) {
+                // Replaying the rotated journal again on top of the new snapshot is harmless as records are idempotent.
+                log.error("Couldn't delete rotated journal of {}", journal.getJournalFilePath(), e);
+            }
+        }
+    }
+
+    // Group commit: All records which got queued while the IO thread was busy are written with a single fsync.
+    private void appendPending() {
+        appendScheduled.set(false);
+        List<PendingAppend> batch = new ArrayList<>();
+        PendingAppend pendingAppend;
+        while ((pendingAppend = pendingAppends.poll()) != null) {
+            batch.add(pendingAppend);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        boolean success;
+        try {
+            journal.append(batch.stream().map(PendingAppend::getJournalRecord).collect(Collectors.toList()));
+            success = true;
+        } catch (IOException e) {
+            log.error("Couldn't append {} records to journal {}", batch.size(), journal.getJournalFilePath(), e);
+            success = false;
+        }
+        for (PendingAppend appended : batch) {
+            appended.getFuture().complete(success);
+        }
+    }
+
+    private Optional<T> readSnapshotAndReplayJournal() {
+        Optional<T> snapshot = persistableStoreReaderWriter.read();
+        List<JournalRecord> records = journal.read();
+        if (records.isEmpty()) {
+            return snapshot;
+        }
+
+        // If there is no snapshot yet we replay on an empty clone of our (not yet initialized) store.
+        T store = snapshot.orElseGet(persistableStore::getClone);
+        int numFailed = 0;
+        for (JournalRecord record : records) {
+            try {
+                store.applyJournalRecord(record);
+            } catch (Exception e) {
+                numFailed++;
+                log.warn("Couldn't apply journal record {}", record, e);
+            }
+        }
+        log.info("Replayed {} journal records on {}. {} records failed.", records.size(), getFileName(), numFailed);
+        return Optional.of(store);
+    }
+
+    private long getSnapshotFileSize() {
+        File storeFile = getStorePath().toFile();
+        return storeFile.exists() ? storeFile.length() : 0;
+    }
+
+    @Getter
+    private static final class PendingAppend {
+        private final JournalRecord journalRecord;
+        private final CompletableFuture<Boolean> future;
+
+        private PendingAppend(JournalRecord journalRecord, CompletableFuture<Boolean> future) {
+            this.journalRecord = journalRecord;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.persistence;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * PersistenceClient for JournaledPersistableStores. Instead of persisting the whole store at each change, the client
+ * appends the changed entry to the journal. Once the journal got too large relative to the snapshot we compact by
+ * persisting the full store.
+ */
+public interface JournaledPersistenceClient<T extends JournaledPersistableStore<T>> extends PersistenceClient<T> {
+    @Override
+    JournaledPersistence<T> getPersistence();
+
+    default CompletableFuture<Boolean> persistPut(byte[] key, byte[] value) {
+        return persistJournalRecord(JournalRecord.put(key, value));
+    }
+
+    default CompletableFuture<Boolean> persistRemove(byte[] key) {
+        return persistJournalRecord(JournalRecord.remove(key));
+    }
+
+    private CompletableFuture<Boolean> persistJournalRecord(JournalRecord journalRecord) {
+        JournaledPersistence<T> persistence = getPersistence();
+        return persistence.appendAsync(journalRecord)
+                .thenCompose(success -> {
+                    if (!success || persistence.isCompactionRequired()) {
+                        // If append failed we fall back to a full write.
+                        return persistence.compactAsync().handle((nil, throwable) -> throwable == null);
+                    }
+                    return CompletableFuture.completedFuture(true);
+                });
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.persistence;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only log of JournalRecords. Records are written length delimited, so a partially written last record
+ * (e.g. after a crash) is detected at read time and ignored.
+ * <p>
+ * At compaction the journal gets rotated before the snapshot is taken. The rotated journal is deleted once the
+ * snapshot is written. If we crash in between, the rotated journal gets replayed before the current one at read time.
+ */
+@Slf4j
+public class PersistableStoreJournal {
+    public static final String EXTENSION = ".journal";
+    public static final String ROTATED_POSTFIX = ".rotated";
+
+    @Getter
+    private final Path journalFilePath;
+    private final Path rotatedJournalFilePath;
+    @Getter
+    private volatile long sizeInBytes;
+
+    public PersistableStoreJournal(Path storeFilePath) {
+        String storeFileName = storeFilePath.getFileName().toString();
+        String baseName = storeFileName.endsWith(Persistence.EXTENSION) ?
+                storeFileName.substring(0, storeFileName.length() - Persistence.EXTENSION.length()) :
+                storeFileName;
+        journalFilePath = storeFilePath.resolveSibling(baseName + EXTENSION);
+        rotatedJournalFilePath = storeFilePath.resolveSibling(baseName + EXTENSION + ROTATED_POSTFIX);
+        File journalFile = journalFilePath.toFile();
+        sizeInBytes = journalFile.exists() ? journalFile.length() : 0;
+    }
+
+    public synchronized List<JournalRecord> read() {
+        List<JournalRecord> records = new ArrayList<>();
+        readFromFile(rotatedJournalFilePath, records);
+        readFromFile(journalFilePath, records);
+        return records;
+    }
+
+    public void append(JournalRecord journalRecord) throws IOException {
+        append(List.of(journalRecord));
+    }
+
+    /**
+     * Writes all records and syncs the file once, so a burst of changes costs a single fsync.
+     */
+    public synchronized void append(List<JournalRecord> journalRecords) throws IOException {
+        try (FileOutputStream fileOutputStream = new FileOutputStream(journalFilePath.toFile(), true);
+             BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(fileOutputStream)) {
+            for (JournalRecord journalRecord : journalRecords) {
+                journalRecord.writeDelimitedTo(bufferedOutputStream);
+            }
+            bufferedOutputStream.flush();
+            fileOutputStream.getFD().sync();
+            sizeInBytes = fileOutputStream.getChannel().size();
+        }
+    }
+
+    public synchronized void rotate() throws IOException {
+        File journalFile = journalFilePath.toFile();
+        if (!journalFile.exists()) {
+            return;
+        }
+
+        if (rotatedJournalFilePath.toFile().exists()) {
+            // A previous compaction failed. We keep the records of both journals in order.
+            Files.write(rotatedJournalFilePath, Files.readAllBytes(journalFilePath), StandardOpenOption.APPEND);
+            Files.delete(journalFilePath);
+        } else {
+            boolean isSuccess = journalFile.renameTo(rotatedJournalFilePath.toFile());
+            if (!isSuccess) {
+                throw new IOException("Couldn't rename " + journalFilePath + " to " + rotatedJournalFilePath);
+            }
+        }
+        sizeInBytes = 0;
+    }
+
+    public synchronized void deleteRotated() throws IOException {
+        Files.deleteIfExists(rotatedJournalFilePath);
+    }
+
+    private void readFromFile(Path path, List<JournalRecord> records) {
+        File file = path.toFile();
+        if (!file.exists()) {
+            return;
+        }
+
+        try (FileInputStream fileInputStream = new FileInputStream(file)) {
+            while (true) {
+                bisq.persistence.protobuf.JournalRecord proto = bisq.persistence.protobuf.JournalRecord.parseDelimitedFrom(fileInputStream);
+                if (proto == null) {
+                    break;
+                }
+                records.add(JournalRecord.fromProto(proto));
+            }
+        } catch (InvalidProtocolBufferException e) {
+            log.warn("Journal {} has a truncated or corrupted record after {} valid records. " +
+                    "We ignore the remaining data.", path, records.size(), e);
+        } catch (IOException e) {
+            log.error("Couldn't read journal {}", path, e);
+        }
+    }
+}
@@ -32,14 +32,14 @@ import java.util.function.Consumer;
 public class Persistence<T extends PersistableStore<T>> {
     public static final String EXTENSION = ".protobuf";
 
-    private static final ExecutorService executorService = ExecutorFactory.newSingleThreadExecutor("Persistence-io-pool");
+    static final ExecutorService executorService = ExecutorFactory.newSingleThreadExecutor("Persistence-io-pool");
 
     @Getter
     private final Path storePath;
     @Getter
     private final String fileName;
 
-    private final PersistableStoreReaderWriter<T> persistableStoreReaderWriter;
+    final PersistableStoreReaderWriter<T> persistableStoreReaderWriter;
 
     public Persistence(String directory, String fileName) {
         this.fileName = fileName;
@@ -65,6 +65,17 @@ public class PersistenceService {
         return persistence;
     }
 
+    public <T extends JournaledPersistableStore<T>> JournaledPersistence<T> getOrCreateJournaledPersistence(JournaledPersistenceClient<T> client,
+                                                                                                           String subDir,
+                                                                                                           String fileName,
+                                                                                                           JournaledPersistableStore<T> persistableStore) {
+        PersistableStoreResolver.addResolver(persistableStore.getResolver());
+        clients.add(client);
+        JournaledPersistence<T> persistence = new JournaledPersistence<>(baseDir + File.separator + subDir, fileName, persistableStore);
+        persistenceInstances.add(persistence);
+        return persistence;
+    }
+
     public CompletableFuture<Boolean> readAllPersisted() {
         List<String> storagePaths = clients.stream()
                 .map(persistenceClient -> persistenceClient.getPersistence().getStorePath()
@@ -0,0 +1,127 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JournaledPersistenceTests {
+
+    @Test
+    void replayJournalWithoutSnapshot(@TempDir Path tempDir) {
+        var timestampStore = new JournaledTimestampStore();
+        PersistableStoreResolver.addResolver(timestampStore.getResolver());
+        var persistence = new JournaledPersistence<>(tempDir.toString(), "journaledTimestampStore", timestampStore);
+
+        persistence.appendAsync(put("A", 1L)).join();
+        persistence.appendAsync(put("B", 2L)).join();
+        persistence.appendAsync(JournalRecord.remove(key("A"))).join();
+
+        Map<String, Long> read = readFromNewPersistence(tempDir);
+        assertThat(read).containsOnlyKeys("B");
+        assertThat(read.get("B")).isEqualTo(2L);
+    }
+
+    @Test
+    void compactAndReplayRemainingJournal(@TempDir Path tempDir) {
+        var timestampStore = new JournaledTimestampStore();
+        PersistableStoreResolver.addResolver(timestampStore.getResolver());
+        var persistence = new JournaledPersistence<>(tempDir.toString(), "journaledTimestampStore", timestampStore);
+
+        timestampStore.getTimestampsByProfileId().put("A", 1L);
+        persistence.appendAsync(put("A", 1L)).join();
+        timestampStore.getTimestampsByProfileId().put("B", 2L);
+        persistence.appendAsync(put("B", 2L)).join();
+
+        persistence.compactAsync().join();
+        assertThat(persistence.getStorePath()).exists();
+        assertThat(tempDir.resolve("journaled_timestamp_store" + PersistableStoreJournal.EXTENSION)).doesNotExist();
+
+        timestampStore.getTimestampsByProfileId().put("B", 3L);
+        persistence.appendAsync(put("B", 3L)).join();
+        timestampStore.getTimestampsByProfileId().remove("A");
+        persistence.appendAsync(JournalRecord.remove(key("A"))).join();
+
+        Map<String, Long> read = readFromNewPersistence(tempDir);
+        assertThat(read).containsOnlyKeys("B");
+        assertThat(read.get("B")).isEqualTo(3L);
+    }
+
+    @Test
+    void ignoreTruncatedLastRecord(@TempDir Path tempDir) throws IOException {
+        var timestampStore = new JournaledTimestampStore();
+        PersistableStoreResolver.addResolver(timestampStore.getResolver());
+        var persistence = new JournaledPersistence<>(tempDir.toString(), "journaledTimestampStore", timestampStore);
+
+        persistence.appendAsync(put("A", 1L)).join();
+        Path journalFilePath = tempDir.resolve("journaled_timestamp_store" + PersistableStoreJournal.EXTENSION);
+        try (FileOutputStream fileOutputStream = new FileOutputStream(journalFilePath.toFile(), true)) {
+            // Length prefix of 100 bytes but only 2 bytes of payload, as after a crash in the middle of a write
+            fileOutputStream.write(new byte[]{100, 10, 1});
+        }
+
+        Map<String, Long> read = readFromNewPersistence(tempDir);
+        assertThat(read).containsOnlyKeys("A");
+    }
+
+    @Test
+    void groupConcurrentAppends(@TempDir Path tempDir) {
+        var timestampStore = new JournaledTimestampStore();
+        PersistableStoreResolver.addResolver(timestampStore.getResolver());
+        var persistence = new JournaledPersistence<>(tempDir.toString(), "journaledTimestampStore", timestampStore);
+
+        List<CompletableFuture<Boolean>> futures = IntStream.range(0, 500)
+                .parallel()
+                .mapToObj(i -> persistence.appendAsync(put(String.valueOf(i), i)))
+                .collect(Collectors.toList());
+        futures.forEach(future -> assertThat(future.join()).isTrue());
+
+        Map<String, Long> read = readFromNewPersistence(tempDir);
+        assertThat(read).hasSize(500);
+        assertThat(read.get("499")).isEqualTo(499L);
+    }
+
+    private static Map<String, Long> readFromNewPersistence(Path tempDir) {
+        var persistence = new JournaledPersistence<>(tempDir.toString(), "journaledTimestampStore", new JournaledTimestampStore());
+        Optional<JournaledTimestampStore> optionalStore = persistence.readAsync().join();
+        assertThat(optionalStore).isPresent();
+        return optionalStore.get().getTimestampsByProfileId();
+    }
+
+    private static JournalRecord put(String profileId, long timestamp) {
+        return JournalRecord.put(key(profileId), ByteBuffer.allocate(8).putLong(timestamp).array());
+    }
+
+    private static byte[] key(String profileId) {
+        return profileId.getBytes(StandardCharsets.UTF_8);
+    }
+}
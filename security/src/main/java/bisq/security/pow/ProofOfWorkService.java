@@ -25,6 +25,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
 
 // Borrowed from: https://github.com/bisq-network/bisq
 @Slf4j
@@ -40,8 +41,29 @@ public abstract class ProofOfWorkService {
 
     public abstract ProofOfWork mint(byte[] payload, byte[] challenge, double difficulty);
 
+    /**
+     * Implementations supporting cancellation throw a CancellationException once isCancelled returns true.
+     */
+    public ProofOfWork mint(byte[] payload, byte[] challenge, double difficulty, BooleanSupplier isCancelled) {
+        return mint(payload, challenge, difficulty);
+    }
+
     public abstract boolean verify(ProofOfWork proofOfWork);
 
+    /**
+     * Verifies many proofs of work at once (e.g. all user profiles of the network database).
+     * Implementations can verify them in parallel.
+     *
+     * @return The verification results in the order of the given proofs of work.
+     */
+    public boolean[] verifyAll(List<ProofOfWork> proofOfWorks) {
+        boolean[] results = new boolean[proofOfWorks.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = verify(proofOfWorks.get(i));
+        }
+        return results;
+    }
+
     public byte[] asUtf8Bytes(String itemId) {
         return itemId.getBytes(StandardCharsets.UTF_8);
     }
@@ -17,10 +17,9 @@
 
 package bisq.security.pow.equihash;
 
+import bisq.common.platform.PlatformUtils;
 import bisq.common.util.ByteArrayUtils;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.ListMultimap;
-import com.google.common.collect.MultimapBuilder;
 import com.google.common.primitives.*;
 import lombok.ToString;
 import org.bouncycastle.crypto.digests.Blake2bDigest;
@@ -28,7 +27,11 @@ import org.bouncycastle.crypto.digests.Blake2bDigest;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
-import java.util.*;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -73,11 +76,13 @@ public class Equihash {
      * Mean solution count per nonce for Equihash puzzles with unit difficulty.
      */
     private static final double MEAN_SOLUTION_COUNT_PER_NONCE = 2.0;
+    // Number of rows or buckets processed as one unit of work when processing in parallel
+    private static final int CHUNK_SIZE = 2048;
 
     private final int k, N;
-    private final int tableCapacity;
     private final int inputNum, inputBits;
     private final int[] hashUpperBound;
+    private final double difficulty;
 
     public Equihash(int n, int k, double difficulty) {
         checkArgument(k > 0 && k < HASH_BIT_LENGTH / 32,
@@ -93,8 +98,8 @@ public class Equihash {
         inputNum = 1 << k;
         inputBits = n / (k + 1) + 1;
         N = 1 << inputBits;
-        tableCapacity = (int) (N * 1.1);
         hashUpperBound = hashUpperBound(difficulty);
+        this.difficulty = difficulty;
     }
 
     @VisibleForTesting
@@ -199,18 +204,51 @@ public class Equihash {
             return new Solution(nonce, inputs);
         }
 
+        /**
+         * Finds the solution with the smallest nonce. If many nonces are expected to be tried (high difficulty),
+         * nonces are searched in parallel, each nonce processed by a single thread. Otherwise, nonces are tried one
+         * after another, and the hashing and the collision rounds of each nonce are processed on all cores.
+         */
         public Solution findSolution() {
+            int parallelism = PlatformUtils.availableProcessors();
+            if (parallelism > 1 && difficulty >= parallelism) {
+                return findSolutionInParallel(parallelism);
+            }
             Optional<int[]> inputs;
-            for (int nonce = 0; ; nonce++) {
-                if ((inputs = withHashPrefix(seed, nonce).findInputs()).isPresent()) {
+            for (long nonce = 0; ; nonce++) {
+                if ((inputs = findInputs(nonce, true)).isPresent()) {
                     return new Solution(nonce, inputs.get());
                 }
             }
         }
 
+        // Worker w tries the nonces w, w + parallelism, w + 2 * parallelism... until a solution is found by any
+        // worker with a smaller nonce. Thus, the result is the same as with a sequential search.
+        private Solution findSolutionInParallel(int parallelism) {
+            AtomicLong solutionNonce = new AtomicLong(Long.MAX_VALUE);
+            Map<Long, int[]> inputsByNonce = new ConcurrentHashMap<>();
+            IntStream.range(0, parallelism).parallel().forEach(worker -> {
+                for (long nonce = worker; nonce < solutionNonce.get(); nonce += parallelism) {
+                    Optional<int[]> inputs = findInputs(nonce, false);
+                    if (inputs.isPresent()) {
+                        inputsByNonce.put(nonce, inputs.get());
+                        solutionNonce.accumulateAndGet(nonce, Math::min);
+                        return;
+                    }
+                }
+            });
+            long nonce = solutionNonce.get();
+            return new Solution(nonce, inputsByNonce.get(nonce));
+        }
+
+        @VisibleForTesting
+        Optional<int[]> findInputs(long nonce, boolean parallel) {
+            return withHashPrefix(seed, nonce).findInputs(parallel);
+        }
+
         @VisibleForTesting
         int countAllSolutionsForNonce(long nonce) {
-            return (int) withHashPrefix(seed, nonce).streamInputsHits()
+            return (int) withHashPrefix(seed, nonce).streamInputsHits(true)
                     .map(ImmutableIntArray::copyOf)
                     .distinct()
                     .count();
@@ -222,44 +260,59 @@ public class Equihash {
     }
 
     private class WithHashPrefix {
-        private final byte[] prefixBytes;
+        // Digest state after hashing the prefix. Only gets copied, never updated.
+        private final Blake2bDigest prefixDigest;
 
         private WithHashPrefix(byte[] prefixBytes) {
-            this.prefixBytes = prefixBytes;
+            prefixDigest = new Blake2bDigest(HASH_BIT_LENGTH);
+            prefixDigest.update(prefixBytes, 0, prefixBytes.length);
         }
 
-        private int[] hashInputs(int... inputs) {
-            var digest = new Blake2bDigest(HASH_BIT_LENGTH);
-            digest.update(prefixBytes, 0, prefixBytes.length);
-            byte[] inputBytes = ByteArrayUtils.integersToBytesBE(inputs);
+        private byte[] hash(byte[] inputBytes, byte[] outputBytes) {
+            var digest = new Blake2bDigest(prefixDigest);
             digest.update(inputBytes, 0, inputBytes.length);
-            byte[] outputBytes = new byte[HASH_BIT_LENGTH / 8];
             digest.doFinal(outputBytes, 0);
+            return outputBytes;
+        }
+
+        private int[] hashInputs(int... inputs) {
+            byte[] outputBytes = hash(ByteArrayUtils.integersToBytesBE(inputs), new byte[HASH_BIT_LENGTH / 8]);
             return ByteArrayUtils.bytesToIntegersBE(outputBytes);
         }
 
-        Stream<int[]> streamInputsHits() {
-            var table = computeAllHashes();
+        Stream<int[]> streamInputsHits(boolean parallel) {
+            var table = computeAllHashes(parallel);
             for (int i = 0; i < k; i++) {
-                table = findCollisions(table, i + 1 < k);
+                table = findCollisions(table, i + 1 < k, parallel);
             }
+            var finalTable = table;
             return IntStream.range(0, table.numRows)
-                    .mapToObj(table::getRow)
-                    .filter(row -> row.stream().distinct().count() == inputNum)
-                    .map(row -> sortInputs(row.toArray()))
+                    .mapToObj(finalTable::copyIndexTuple)
+                    .filter(Equihash::hasDistinctValues)
+                    .map(Equihash::sortInputs)
                     .filter(this::testDifficultyCondition);
         }
 
-        Optional<int[]> findInputs() {
-            return streamInputsHits().findFirst();
+        Optional<int[]> findInputs(boolean parallel) {
+            return streamInputsHits(parallel).findFirst();
         }
 
-        private XorTable computeAllHashes() {
-            var tableValues = IntStream.range(0, N).flatMap(i -> {
-                int[] hash = hashInputs(i);
-                return IntStream.range(0, k + 2).map(j -> j <= k ? hash[j] & (N / 2 - 1) : i);
+        private XorTable computeAllHashes(boolean parallel) {
+            int hashWidth = k + 1;
+            int[] hashes = new int[N * hashWidth];
+            int[] indexTuples = new int[N];
+            forEachRange(N, parallel, (from, to) -> {
+                byte[] inputBytes = new byte[Integer.BYTES];
+                byte[] outputBytes = new byte[HASH_BIT_LENGTH / 8];
+                for (int i = from; i < to; i++) {
+                    hash(toBytes(i, inputBytes), outputBytes);
+                    for (int j = 0; j < hashWidth; j++) {
+                        hashes[i * hashWidth + j] = intAt(outputBytes, j) & (N / 2 - 1);
+                    }
+                    indexTuples[i] = i;
+                }
             });
-            return new XorTable(k + 1, 1, ImmutableIntArray.copyOf(tableValues.parallel()));
+            return new XorTable(hashWidth, 1, N, hashes, indexTuples);
         }
 
         private boolean testDifficultyCondition(int[] inputs) {
@@ -268,23 +321,30 @@ public class Equihash {
         }
 
         boolean verify(int[] inputs) {
-            if (inputs.length != inputNum || Arrays.stream(inputs).distinct().count() < inputNum) {
+            if (inputs.length != inputNum) {
                 return false;
             }
-            if (Arrays.stream(inputs).anyMatch(i -> i < 0 || i >= N)) {
+            for (int input : inputs) {
+                if (input < 0 || input >= N) {
+                    return false;
+                }
+            }
+            if (!hasDistinctValues(inputs)) {
                 return false;
             }
-            if (!Arrays.equals(inputs, sortInputs(inputs))) {
+            if (!Arrays.equals(inputs, sortInputs(inputs.clone()))) {
                 return false;
             }
             if (!testDifficultyCondition(inputs)) {
                 return false;
             }
+            byte[] inputBytes = new byte[Integer.BYTES];
+            byte[] outputBytes = new byte[HASH_BIT_LENGTH / 8];
             int[] hashBlockSums = new int[k + 1];
             for (int i = 0; i < inputs.length; i++) {
-                int[] hash = hashInputs(inputs[i]);
+                hash(toBytes(inputs[i], inputBytes), outputBytes);
                 for (int j = 0; j <= k; j++) {
-                    hashBlockSums[j] ^= hash[j] & (N / 2 - 1);
+                    hashBlockSums[j] ^= intAt(outputBytes, j) & (N / 2 - 1);
                 }
                 for (int ii = i + 1 + inputNum, j = 0; (ii & 1) == 0; ii /= 2, j++) {
                     if (hashBlockSums[j] != 0) {
@@ -296,112 +356,182 @@ public class Equihash {
         }
     }
 
+    /**
+     * Flat table of the rows of one round. Row i has the hash blocks at
+     * hashes[i * hashWidth, (i + 1) * hashWidth) and the index tuple at
+     * indexTuples[i * indexTupleWidth, (i + 1) * indexTupleWidth).
+     */
     private static class XorTable {
-        private final int hashWidth, indexTupleWidth, rowWidth, numRows;
-        private final ImmutableIntArray values;
+        private final int hashWidth, indexTupleWidth, numRows;
+        private final int[] hashes;
+        private final int[] indexTuples;
 
-        XorTable(int hashWidth, int indexTupleWidth, ImmutableIntArray values) {
+        XorTable(int hashWidth, int indexTupleWidth, int numRows, int[] hashes, int[] indexTuples) {
             this.hashWidth = hashWidth;
             this.indexTupleWidth = indexTupleWidth;
-            this.values = values;
-            rowWidth = hashWidth + indexTupleWidth;
-            numRows = (values.length() + rowWidth - 1) / rowWidth;
+            this.numRows = numRows;
+            this.hashes = hashes;
+            this.indexTuples = indexTuples;
         }
 
-        ImmutableIntArray getRow(int index) {
-            return values.subArray(index * rowWidth, index * rowWidth + hashWidth + indexTupleWidth);
+        int[] copyIndexTuple(int row) {
+            return Arrays.copyOfRange(indexTuples, row * indexTupleWidth, (row + 1) * indexTupleWidth);
         }
-    }
-
-    private static class IntListMultimap {
-        final int[] shortLists;
-        final ListMultimap<Integer, Integer> overspillMultimap;
 
-        IntListMultimap(int keyUpperBound) {
-            shortLists = new int[keyUpperBound * 4];
-            overspillMultimap = MultimapBuilder.hashKeys().arrayListValues().build();
+        // Whether the hash blocks after the first one (which is known to collide) are equal
+        boolean isFullCollision(int row, int otherRow) {
+            return Arrays.equals(hashes, row * hashWidth + 1, (row + 1) * hashWidth,
+                    hashes, otherRow * hashWidth + 1, (otherRow + 1) * hashWidth);
         }
+    }
 
-        PrimitiveIterator.OfInt get(int key) {
-            return new PrimitiveIterator.OfInt() {
-                int i;
-                Iterator<Integer> overspillIterator;
+    // Apply a single iteration of Wagner's Algorithm.
+    // The rows get sorted into buckets by their first hash block (counting sort), so all rows within a bucket
+    // collide. The number of resulting rows per bucket is counted first, so the new table can be allocated at its
+    // exact size and the buckets can be processed in parallel, each writing into its own range of the new table.
+    // The order of the resulting rows does not depend on the parallelism.
+    private XorTable findCollisions(XorTable table, boolean isPartial, boolean parallel) {
+        int hashWidth = table.hashWidth;
+        int indexTupleWidth = table.indexTupleWidth;
+        int newHashWidth = isPartial ? hashWidth - 1 : 0;
+        int newIndexTupleWidth = indexTupleWidth * 2;
+        int numBuckets = N / 2;
+
+        int[] bucketStart = new int[numBuckets + 1];
+        for (int row = 0; row < table.numRows; row++) {
+            bucketStart[table.hashes[row * hashWidth] + 1]++;
+        }
+        for (int bucket = 0; bucket < numBuckets; bucket++) {
+            bucketStart[bucket + 1] += bucketStart[bucket];
+        }
+        int[] rowsByBucket = new int[table.numRows];
+        int[] nextInBucket = Arrays.copyOf(bucketStart, numBuckets);
+        for (int row = 0; row < table.numRows; row++) {
+            rowsByBucket[nextInBucket[table.hashes[row * hashWidth]]++] = row;
+        }
 
-                private Iterator<Integer> overspillIterator() {
-                    if (overspillIterator == null) {
-                        overspillIterator = overspillMultimap.get(key).iterator();
+        long[] newRowStart = new long[numBuckets + 1];
+        forEachRange(numBuckets, parallel, (from, to) -> {
+            for (int bucket = from; bucket < to; bucket++) {
+                long bucketSize = bucketStart[bucket + 1] - bucketStart[bucket];
+                if (isPartial) {
+                    newRowStart[bucket + 1] = bucketSize * (bucketSize - 1) / 2;
+                } else {
+                    long numFullCollisions = 0;
+                    for (int i = bucketStart[bucket]; i < bucketStart[bucket + 1]; i++) {
+                        for (int j = i + 1; j < bucketStart[bucket + 1]; j++) {
+                            if (table.isFullCollision(rowsByBucket[i], rowsByBucket[j])) {
+                                numFullCollisions++;
+                            }
+                        }
                     }
-                    return overspillIterator;
+                    newRowStart[bucket + 1] = numFullCollisions;
                 }
-
-                @Override
-                public int nextInt() {
-                    if (!hasNext()) {
-                        throw new NoSuchElementException();
+            }
+        });
+        for (int bucket = 0; bucket < numBuckets; bucket++) {
+            newRowStart[bucket + 1] += newRowStart[bucket];
+        }
+        long numNewRows = newRowStart[numBuckets];
+        checkArgument(numNewRows * newIndexTupleWidth <= Integer.MAX_VALUE - 8,
+                "Collision table too large. numNewRows=%s", numNewRows);
+
+        int[] newHashes = new int[(int) numNewRows * newHashWidth];
+        int[] newIndexTuples = new int[(int) numNewRows * newIndexTupleWidth];
+        forEachRange(numBuckets, parallel, (from, to) -> {
+            for (int bucket = from; bucket < to; bucket++) {
+                int newRow = (int) newRowStart[bucket];
+                for (int i = bucketStart[bucket]; i < bucketStart[bucket + 1]; i++) {
+                    int row = rowsByBucket[i];
+                    for (int j = i + 1; j < bucketStart[bucket + 1]; j++) {
+                        int collidingRow = rowsByBucket[j];
+                        if (!isPartial && !table.isFullCollision(row, collidingRow)) {
+                            continue;
+                        }
+                        for (int h = 1; h <= newHashWidth; h++) {
+                            newHashes[newRow * newHashWidth + h - 1] =
+                                    table.hashes[row * hashWidth + h] ^ table.hashes[collidingRow * hashWidth + h];
+                        }
+                        // Rows are sorted by their position in the bucket, so the earlier row comes first
+                        System.arraycopy(table.indexTuples, row * indexTupleWidth,
+                                newIndexTuples, newRow * newIndexTupleWidth, indexTupleWidth);
+                        System.arraycopy(table.indexTuples, collidingRow * indexTupleWidth,
+                                newIndexTuples, newRow * newIndexTupleWidth + indexTupleWidth, indexTupleWidth);
+                        newRow++;
                     }
-                    return i < 4 ? ~shortLists[key * 4 + i++] : overspillIterator().next();
                 }
+            }
+        });
+        return new XorTable(newHashWidth, newIndexTupleWidth, (int) numNewRows, newHashes, newIndexTuples);
+    }
 
-                @Override
-                public boolean hasNext() {
-                    return i < 4 && shortLists[key * 4 + i] < 0 || i == 4 && overspillIterator().hasNext();
-                }
-            };
-        }
+    private interface RangeConsumer {
+        void accept(int from, int to);
+    }
 
-        // assumes non-negative values only:
-        void put(int key, int value) {
-            for (int i = 0; i < 4; i++) {
-                if (shortLists[key * 4 + i] == 0) {
-                    shortLists[key * 4 + i] = ~value;
-                    return;
-                }
+    private static void forEachRange(int size, boolean parallel, RangeConsumer rangeConsumer) {
+        int numChunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream chunks = parallel ? IntStream.range(0, numChunks).parallel() : IntStream.range(0, numChunks);
+        chunks.forEach(chunk -> rangeConsumer.accept(chunk * CHUNK_SIZE, Math.min(size, (chunk + 1) * CHUNK_SIZE)));
+    }
+
+    private static boolean hasDistinctValues(int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i - 1] == sorted[i]) {
+                return false;
             }
-            overspillMultimap.put(key, value);
         }
+        return true;
     }
 
-    // Apply a single iteration of Wagner's Algorithm.
-    private XorTable findCollisions(XorTable table, boolean isPartial) {
-        int newHashWidth = isPartial ? table.hashWidth - 1 : 0;
-        int newIndexTupleWidth = table.indexTupleWidth * 2;
-        int newRowWidth = newHashWidth + newIndexTupleWidth;
-        var newTableValues = ImmutableIntArray.builder(
-                newRowWidth * (isPartial ? tableCapacity : 10));
-
-        var indexMultimap = new IntListMultimap(N / 2);
-        for (int i = 0; i < table.numRows; i++) {
-            var row = table.getRow(i);
-            var collisionIndices = indexMultimap.get(row.get(0));
-            while (collisionIndices.hasNext()) {
-                var collidingRow = table.getRow(collisionIndices.nextInt());
-                if (isPartial) {
-                    for (int j = 1; j < table.hashWidth; j++) {
-                        newTableValues.add(collidingRow.get(j) ^ row.get(j));
-                    }
-                } else if (!collidingRow.subArray(1, table.hashWidth).equals(row.subArray(1, table.hashWidth))) {
-                    continue;
-                }
-                newTableValues.addAll(collidingRow.subArray(table.hashWidth, collidingRow.length()));
-                newTableValues.addAll(row.subArray(table.hashWidth, row.length()));
-            }
-            indexMultimap.put(row.get(0), i);
+    // Sorts the inputs in place into the canonical order of the binary tree of the solution: At each level the
+    // sublist which is lexicographically smaller (unsigned) comes first. The number of inputs must be a power of 2.
+    // Returns the given array.
+    @VisibleForTesting
+    static int[] sortInputs(int[] inputs) {
+        sortInputs(inputs, 0, inputs.length, new int[inputs.length / 2]);
+        return inputs;
+    }
+
+    private static void sortInputs(int[] inputs, int from, int length, int[] buffer) {
+        if (length < 2) {
+            return;
+        }
+        int half = length / 2;
+        sortInputs(inputs, from, half, buffer);
+        sortInputs(inputs, from + half, half, buffer);
+        if (compareUnsigned(inputs, from, from + half, half) >= 0) {
+            System.arraycopy(inputs, from, buffer, 0, half);
+            System.arraycopy(inputs, from + half, inputs, from, half);
+            System.arraycopy(buffer, 0, inputs, from + half, half);
         }
-        return new XorTable(newHashWidth, newIndexTupleWidth, newTableValues.build());
     }
 
-    private static int[] sortInputs(int[] inputs) {
-        Deque<int[]> sublistStack = new ArrayDeque<>();
-        int[] topSublist;
-        for (int input : inputs) {
-            topSublist = new int[]{input};
-            while (!sublistStack.isEmpty() && sublistStack.peek().length == topSublist.length) {
-                topSublist = UnsignedInts.lexicographicalComparator().compare(sublistStack.peek(), topSublist) < 0
-                        ? Ints.concat(sublistStack.pop(), topSublist)
-                        : Ints.concat(topSublist, sublistStack.pop());
+    private static int compareUnsigned(int[] values, int from, int otherFrom, int length) {
+        for (int i = 0; i < length; i++) {
+            int result = Integer.compareUnsigned(values[from + i], values[otherFrom + i]);
+            if (result != 0) {
+                return result;
             }
-            sublistStack.push(topSublist);
         }
-        return sublistStack.pop();
+        return 0;
+    }
+
+    private static byte[] toBytes(int value, byte[] bytes) {
+        bytes[0] = (byte) (value >>> 24);
+        bytes[1] = (byte) (value >>> 16);
+        bytes[2] = (byte) (value >>> 8);
+        bytes[3] = (byte) value;
+        return bytes;
+    }
+
+    private static int intAt(byte[] bytes, int index) {
+        int offset = index * Integer.BYTES;
+        return (bytes[offset] & 0xFF) << 24 |
+                (bytes[offset + 1] & 0xFF) << 16 |
+                (bytes[offset + 2] & 0xFF) << 8 |
+                (bytes[offset + 3] & 0xFF);
     }
 }
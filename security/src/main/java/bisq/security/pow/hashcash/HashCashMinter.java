@@ -0,0 +1,148 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.security.pow.hashcash;
+
+import bisq.common.platform.PlatformUtils;
+import bisq.common.threading.ExecutorFactory;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Searches the counter for a HashCash proof of work.
+ * <p>
+ * The digest state after hashing payload and challenge (midstate) is computed once and cloned for each attempt, so
+ * only the 8 counter bytes get hashed per attempt. For higher difficulties the counter space is partitioned
+ * across all cores (the calling thread searches one partition itself). The first found counter wins, which is not
+ * necessarily the smallest one. Any valid counter passes verification.
+ */
+class HashCashMinter {
+    // Expected 4096 attempts. Below that the overhead of dispatching to other threads is not worth it.
+    private static final int MIN_LEADING_ZEROS_FOR_PARALLEL_MINTING = 12;
+    // Check for result of other partitions and for cancellation every 256 attempts
+    private static final int CHECK_INTERVAL_MASK = 0xFF;
+    private static final long NOT_FOUND = 0;
+    private static final long CANCELLED = -1;
+    private static final int SHA256_LENGTH = 32;
+
+    private static final int NUM_PARTITIONS = Math.max(1, PlatformUtils.availableProcessors());
+    private static final ExecutorService EXECUTOR = NUM_PARTITIONS > 1 ?
+            ExecutorFactory.newFixedThreadPool("HashCashMinter", NUM_PARTITIONS - 1) :
+            null;
+
+    private HashCashMinter() {
+    }
+
+    /**
+     * @return The counter which results in a hash with more than log2Difficulty leading zeros.
+     * @throws CancellationException if isCancelled returned true before a solution was found.
+     */
+    static long mint(byte[] payload, byte[] challenge, int log2Difficulty, BooleanSupplier isCancelled) {
+        MessageDigest midstate = createMidstate(payload, challenge);
+        AtomicLong result = new AtomicLong(NOT_FOUND);
+        int numPartitions = log2Difficulty >= MIN_LEADING_ZEROS_FOR_PARALLEL_MINTING ? NUM_PARTITIONS : 1;
+        for (int partition = 1; partition < numPartitions; partition++) {
+            MessageDigest partitionMidstate = cloneDigest(midstate);
+            long firstCounter = partition + 1;
+            // If the pool is busy with other mints, the task might start after the result was found and
+            // returns immediately.
+            EXECUTOR.execute(() -> search(partitionMidstate, log2Difficulty, firstCounter, numPartitions, result, isCancelled));
+        }
+        search(midstate, log2Difficulty, 1, numPartitions, result, isCancelled);
+
+        long counter = result.get();
+        if (counter == CANCELLED || counter == NOT_FOUND) {
+            // Stop the other partitions in case we exited by cancellation before they have noticed it
+            result.compareAndSet(NOT_FOUND, CANCELLED);
+            throw new CancellationException("Minting got cancelled");
+        }
+        return counter;
+    }
+
+    /**
+     * Tests the counters firstCounter, firstCounter + step, firstCounter + 2 * step,...
+     * until a solution is found by any partition or minting got cancelled.
+     */
+    private static void search(MessageDigest midstate,
+                               int log2Difficulty,
+                               long firstCounter,
+                               long step,
+                               AtomicLong result,
+                               BooleanSupplier isCancelled) {
+        byte[] counterBytes = new byte[Long.BYTES];
+        byte[] hash = new byte[SHA256_LENGTH];
+        long counter = firstCounter;
+        for (long attempt = 0; ; attempt++, counter += step) {
+            if ((attempt & CHECK_INTERVAL_MASK) == 0) {
+                if (result.get() != NOT_FOUND) {
+                    return;
+                }
+                if (isCancelled.getAsBoolean()) {
+                    result.compareAndSet(NOT_FOUND, CANCELLED);
+                    return;
+                }
+            }
+            MessageDigest digest = cloneDigest(midstate);
+            putLong(counter, counterBytes);
+            digest.update(counterBytes);
+            try {
+                digest.digest(hash, 0, SHA256_LENGTH);
+            } catch (DigestException e) {
+                throw new RuntimeException(e);
+            }
+            if (HashCashProofOfWorkService.numberOfLeadingZeros(hash) > log2Difficulty) {
+                result.compareAndSet(NOT_FOUND, counter);
+                return;
+            }
+        }
+    }
+
+    private static MessageDigest createMidstate(byte[] payload, byte[] challenge) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(payload);
+            if (challenge != null) {
+                digest.update(challenge);
+            }
+            return digest;
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static MessageDigest cloneDigest(MessageDigest digest) {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Big-endian as Longs.toByteArray, which is used at verification
+    private static void putLong(long value, byte[] bytes) {
+        for (int i = Long.BYTES - 1; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>= 8;
+        }
+    }
+}
@@ -17,14 +17,20 @@
 
 package bisq.security.pow.hashcash;
 
-import bisq.security.DigestUtil;
 import bisq.security.pow.ProofOfWork;
 import bisq.security.pow.ProofOfWorkService;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.primitives.Longs;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
 import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
 
 /**
  * HashCash implementation for proof of work
@@ -34,6 +40,20 @@ import java.nio.charset.StandardCharsets;
  */
 @Slf4j
 public class HashCashProofOfWorkService extends ProofOfWorkService {
+    // Verification costs only one hash, so we verify in parallel only if there are many proofs of work
+    private static final int MIN_NUM_FOR_PARALLEL_VERIFICATION = 256;
+    private static final int SHA256_LENGTH = 32;
+    // Verification happens for each received message and user profile, so we reuse the digest and the hash buffer
+    // per thread instead of allocating them and the concatenated pre-image for each verification.
+    private static final ThreadLocal<MessageDigest> SHA256_DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    });
+    private static final ThreadLocal<byte[]> HASH_BUFFER = ThreadLocal.withInitial(() -> new byte[SHA256_LENGTH]);
+
     public HashCashProofOfWorkService() {
     }
 
@@ -41,26 +61,45 @@ public class HashCashProofOfWorkService extends ProofOfWorkService {
     public ProofOfWork mint(byte[] payload,
                             byte[] challenge,
                             double difficulty) {
+        return mint(payload, challenge, difficulty, () -> false);
+    }
+
+    /**
+     * @param isCancelled Gets polled during minting. If it returns true a CancellationException is thrown.
+     */
+    @Override
+    public ProofOfWork mint(byte[] payload,
+                            byte[] challenge,
+                            double difficulty,
+                            BooleanSupplier isCancelled) {
         long ts = System.currentTimeMillis();
         int log2Difficulty = toNumLeadingZeros(difficulty);
-        byte[] hash;
-        long counter = 0;
-        do {
-            hash = toSha256Hash(payload, challenge, ++counter);
-        }
-        while (numberOfLeadingZeros(hash) <= log2Difficulty);
+        long counter = HashCashMinter.mint(payload, challenge, log2Difficulty, isCancelled);
         byte[] solution = Longs.toByteArray(counter);
         return new ProofOfWork(payload, counter, challenge, difficulty, solution, System.currentTimeMillis() - ts);
     }
 
     @Override
     public boolean verify(ProofOfWork proofOfWork) {
-        byte[] hash = toSha256Hash(proofOfWork.getPayload(),
+        byte[] hash = HASH_BUFFER.get();
+        toSha256Hash(proofOfWork.getPayload(),
                 proofOfWork.getChallenge(),
-                proofOfWork.getSolution());
+                proofOfWork.getSolution(),
+                hash);
         return numberOfLeadingZeros(hash) > toNumLeadingZeros(proofOfWork.getDifficulty());
     }
 
+    @Override
+    public boolean[] verifyAll(List<ProofOfWork> proofOfWorks) {
+        if (proofOfWorks.size() < MIN_NUM_FOR_PARALLEL_VERIFICATION) {
+            return super.verifyAll(proofOfWorks);
+        }
+        boolean[] results = new boolean[proofOfWorks.size()];
+        IntStream.range(0, results.length).parallel()
+                .forEach(i -> results[i] = verify(proofOfWorks.get(i)));
+        return results;
+    }
+
     @Override
     public byte[] getChallenge(String itemId, String ownerId) {
         return getBytes(itemId + ownerId);
@@ -87,15 +126,20 @@ public class HashCashProofOfWorkService extends ProofOfWorkService {
         return numberOfLeadingZeros;
     }
 
-    private static byte[] toSha256Hash(byte[] payload, byte[] challenge, long counter) {
-        return toSha256Hash(payload, challenge, Longs.toByteArray(counter));
-    }
-
-    private static byte[] toSha256Hash(byte[] payload, byte[] challenge, byte[] solution) {
-        byte[] preImage = org.bouncycastle.util.Arrays.concatenate(payload,
-                challenge,
-                solution);
-        return DigestUtil.sha256(preImage);
+    // Hashes the concatenation of payload, challenge and solution into the given hash buffer
+    private static void toSha256Hash(byte[] payload, @Nullable byte[] challenge, byte[] solution, byte[] hash) {
+        MessageDigest digest = SHA256_DIGEST.get();
+        digest.reset();
+        digest.update(payload);
+        if (challenge != null) {
+            digest.update(challenge);
+        }
+        digest.update(solution);
+        try {
+            digest.digest(hash, 0, SHA256_LENGTH);
+        } catch (DigestException e) {
+            throw new RuntimeException(e);
+        }
     }
 
 
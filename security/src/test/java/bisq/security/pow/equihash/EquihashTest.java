@@ -0,0 +1,94 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.security.pow.equihash;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static bisq.security.DigestUtil.sha256;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EquihashTest {
+    @Test
+    public void testSortInputs() {
+        assertArrayEquals(new int[]{1}, Equihash.sortInputs(new int[]{1}));
+        assertArrayEquals(new int[]{1, 2}, Equihash.sortInputs(new int[]{2, 1}));
+        assertArrayEquals(new int[]{1, 4, 2, 3}, Equihash.sortInputs(new int[]{3, 2, 4, 1}));
+        // Unsigned comparison
+        assertArrayEquals(new int[]{5, -1, 6, 7}, Equihash.sortInputs(new int[]{7, 6, -1, 5}));
+    }
+
+    @Test
+    public void testFindAndVerifySolution() {
+        Equihash equihash = new Equihash(90, 5, 2.0);
+        byte[] seed = sha256("test seed".getBytes(StandardCharsets.UTF_8));
+        Equihash.Puzzle puzzle = equihash.puzzle(seed);
+        Equihash.Puzzle.Solution solution = puzzle.findSolution();
+        assertTrue(solution.verify());
+
+        byte[] serialized = solution.serialize();
+        assertTrue(puzzle.deserializeSolution(serialized).verify());
+        // Solving is deterministic, even if done in parallel
+        assertArrayEquals(serialized, equihash.puzzle(seed).findSolution().serialize());
+
+        // Solution for other seed
+        byte[] otherSeed = sha256("other seed".getBytes(StandardCharsets.UTF_8));
+        assertFalse(equihash.puzzle(otherSeed).deserializeSolution(serialized).verify());
+
+        // Modified input
+        byte[] tampered = Arrays.copyOf(serialized, serialized.length);
+        tampered[8] ^= 0x01;
+        assertFalse(puzzle.deserializeSolution(tampered).verify());
+    }
+
+    @Test
+    public void testParallelAndSequentialCollisionRoundsFindSameInputs() {
+        Equihash equihash = new Equihash(90, 5, 1.0);
+        Equihash.Puzzle puzzle = equihash.puzzle(sha256("test seed".getBytes(StandardCharsets.UTF_8)));
+        for (long nonce = 0; nonce < 4; nonce++) {
+            Optional<int[]> parallelInputs = puzzle.findInputs(nonce, true);
+            Optional<int[]> sequentialInputs = puzzle.findInputs(nonce, false);
+            assertEquals(sequentialInputs.isPresent(), parallelInputs.isPresent());
+            if (parallelInputs.isPresent()) {
+                assertArrayEquals(sequentialInputs.get(), parallelInputs.get());
+            }
+        }
+    }
+
+    @Test
+    public void testSolutionHasSmallestNonce() {
+        // High enough difficulty to search nonces in parallel on most machines
+        Equihash equihash = new Equihash(90, 5, 8.0);
+        Equihash.Puzzle puzzle = equihash.puzzle(sha256("test seed".getBytes(StandardCharsets.UTF_8)));
+        byte[] serialized = puzzle.findSolution().serialize();
+        assertTrue(puzzle.deserializeSolution(serialized).verify());
+
+        long nonce = ByteBuffer.wrap(serialized).getLong();
+        for (long smallerNonce = 0; smallerNonce < nonce; smallerNonce++) {
+            assertFalse(puzzle.findInputs(smallerNonce, true).isPresent());
+        }
+        assertTrue(puzzle.findInputs(nonce, true).isPresent());
+    }
+}
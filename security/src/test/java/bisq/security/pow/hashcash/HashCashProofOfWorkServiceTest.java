@@ -19,20 +19,24 @@ package bisq.security.pow.hashcash;
 
 import bisq.security.DigestUtil;
 import bisq.security.pow.ProofOfWork;
+import com.google.common.primitives.Longs;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 
 import static bisq.security.pow.hashcash.HashCashProofOfWorkService.numberOfLeadingZeros;
 import static bisq.security.pow.hashcash.HashCashProofOfWorkService.toNumLeadingZeros;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class HashCashProofOfWorkServiceTest {
@@ -62,6 +66,96 @@ class HashCashProofOfWorkServiceTest {
         assertEquals(1024, toNumLeadingZeros(Double.POSITIVE_INFINITY));
     }
 
+    @Test
+    public void testParallelMinting() {
+        // 2^14 is above the threshold for parallel minting
+        double difficulty = Math.scalb(1.0, 14);
+        byte[] payload = RandomStringUtils.random(1000, true, true).getBytes(StandardCharsets.UTF_8);
+        HashCashProofOfWorkService service = new HashCashProofOfWorkService();
+        for (int i = 0; i < 10; i++) {
+            byte[] challenge = DigestUtil.sha256(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+            ProofOfWork proofOfWork = service.mint(payload, challenge, difficulty);
+            assertTrue(service.verify(proofOfWork));
+        }
+    }
+
+    @Test
+    public void testMintingMatchesConcatenatedPreImageHashing() {
+        byte[] payload = RandomStringUtils.random(1000, true, true).getBytes(StandardCharsets.UTF_8);
+        HashCashProofOfWorkService service = new HashCashProofOfWorkService();
+        // Below the threshold for parallel minting the first solution is the smallest counter
+        for (int log2Difficulty = 0; log2Difficulty < 12; log2Difficulty++) {
+            byte[] challenge = DigestUtil.sha256(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+            ProofOfWork proofOfWork = service.mint(payload, challenge, Math.scalb(1.0, log2Difficulty));
+            assertEquals(mintByHashingPreImage(payload, challenge, log2Difficulty), proofOfWork.getCounter());
+        }
+
+        // With parallel minting any valid counter can be found first
+        int log2Difficulty = 14;
+        for (int i = 0; i < 5; i++) {
+            byte[] challenge = DigestUtil.sha256(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+            ProofOfWork proofOfWork = service.mint(payload, challenge, Math.scalb(1.0, log2Difficulty));
+            assertTrue(numberOfLeadingZeros(hashPreImage(payload, challenge, proofOfWork.getCounter())) > log2Difficulty);
+        }
+    }
+
+    @Test
+    public void testMintingWithoutChallenge() {
+        byte[] payload = RandomStringUtils.random(100, true, true).getBytes(StandardCharsets.UTF_8);
+        HashCashProofOfWorkService service = new HashCashProofOfWorkService();
+        ProofOfWork proofOfWork = service.mint(payload, null, Math.scalb(1.0, 8));
+        assertEquals(mintByHashingPreImage(payload, new byte[0], 8), proofOfWork.getCounter());
+        assertTrue(service.verify(proofOfWork));
+    }
+
+    @Test
+    public void testVerifyAll() {
+        HashCashProofOfWorkService service = new HashCashProofOfWorkService();
+        double difficulty = Math.scalb(1.0, 8);
+        byte[] payload = RandomStringUtils.random(20, true, true).getBytes(StandardCharsets.UTF_8);
+        List<ProofOfWork> proofOfWorks = new ArrayList<>();
+        // Above the threshold for parallel verification
+        for (int i = 0; i < 1000; i++) {
+            byte[] challenge = DigestUtil.sha256(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+            ProofOfWork proofOfWork = service.mint(payload, challenge, difficulty);
+            if (i % 10 == 0) {
+                // Tampered solution. Might still be valid by chance, so we compare with the single verification.
+                long counter = proofOfWork.getCounter() + 1;
+                proofOfWork = new ProofOfWork(payload, counter, challenge, difficulty, Longs.toByteArray(counter), 0);
+            }
+            proofOfWorks.add(proofOfWork);
+        }
+
+        boolean[] results = service.verifyAll(proofOfWorks);
+        assertEquals(proofOfWorks.size(), results.length);
+        int numInvalid = 0;
+        for (int i = 0; i < results.length; i++) {
+            assertEquals(service.verify(proofOfWorks.get(i)), results[i]);
+            if (i % 10 != 0) {
+                assertTrue(results[i]);
+            } else if (!results[i]) {
+                numInvalid++;
+            }
+        }
+        assertTrue(numInvalid > 0);
+
+        // Below the threshold for parallel verification
+        boolean[] sequentialResults = service.verifyAll(proofOfWorks.subList(0, 100));
+        for (int i = 0; i < sequentialResults.length; i++) {
+            assertEquals(results[i], sequentialResults[i]);
+        }
+    }
+
+    @Test
+    public void testCancelMinting() {
+        byte[] payload = RandomStringUtils.random(100, true, true).getBytes(StandardCharsets.UTF_8);
+        byte[] challenge = DigestUtil.sha256(payload);
+        // Would take years without cancellation
+        double difficulty = Math.scalb(1.0, 60);
+        assertThrows(CancellationException.class,
+                () -> new HashCashProofOfWorkService().mint(payload, challenge, difficulty, () -> true));
+    }
+
     @Test
     public void testDiffIncrease() throws ExecutionException, InterruptedException {
         StringBuilder stringBuilder = new StringBuilder();
@@ -82,6 +176,25 @@ class HashCashProofOfWorkServiceTest {
 //        Minting 1000 tokens with > 8 leading zeros  took 0.318 ms per token and 526 iterations in average. Verification took 0.001 ms per token.
     }
 
+    // Minting as it was done before using the digest midstate: hashing the concatenated pre-image for each counter
+    private static long mintByHashingPreImage(byte[] payload, byte[] challenge, int log2Difficulty) {
+        long counter = 0;
+        do {
+            counter++;
+        }
+        while (numberOfLeadingZeros(hashPreImage(payload, challenge, counter)) <= log2Difficulty);
+        return counter;
+    }
+
+    private static byte[] hashPreImage(byte[] payload, byte[] challenge, long counter) {
+        byte[] preImage = ByteBuffer.allocate(payload.length + challenge.length + Long.BYTES)
+                .put(payload)
+                .put(challenge)
+                .putLong(counter)
+                .array();
+        return DigestUtil.sha256(preImage);
+    }
+
     private void run(int log2Difficulty, StringBuilder stringBuilder) throws ExecutionException, InterruptedException {
         double difficulty = Math.scalb(1.0, log2Difficulty);
         int numTokens = 1000;
@@ -21,6 +21,7 @@ import bisq.common.application.Service;
 import bisq.common.observable.Observable;
 import bisq.common.observable.collection.ObservableSet;
 import bisq.common.observable.map.ObservableHashMap;
+import bisq.common.timer.Scheduler;
 import bisq.network.NetworkService;
 import bisq.network.p2p.node.Node;
 import bisq.network.p2p.services.data.DataService;
@@ -30,17 +31,38 @@ import bisq.persistence.Persistence;
 import bisq.persistence.PersistenceClient;
 import bisq.persistence.PersistenceService;
 import bisq.security.SecurityService;
+import bisq.security.pow.ProofOfWork;
 import bisq.security.pow.hashcash.HashCashProofOfWorkService;
+import com.google.common.annotations.VisibleForTesting;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 @Slf4j
 public class UserProfileService implements PersistenceClient<UserProfileStore>, DataService.Listener, Service {
+    public interface Listener {
+        void onUserProfileAdded(UserProfile userProfile);
+
+        default void onUserProfileRemoved(UserProfile userProfile) {
+        }
+    }
+
     private static final String SEPARATOR_START = " [";
     private static final String SEPARATOR_END = "]";
+    // Profiles arrive in bursts (e.g. from an inventory response). We persist only once after such a burst, as each
+    // write serializes the whole store.
+    private static final long PERSIST_DELAY = 1000;
+    // Pre-verified proofs of work which did not get used (e.g. as the data got rejected or was already known) get
+    // removed after that time.
+    private static final long PRE_VERIFIED_PROOF_OF_WORK_TTL = TimeUnit.MINUTES.toMillis(1);
+    private static final int MAX_PRE_VERIFIED_PROOF_OF_WORKS = 10_000;
 
     @Getter
     private final UserProfileStore persistableStore = new UserProfileStore();
@@ -50,6 +72,15 @@ public class UserProfileService implements PersistenceClient<UserProfileStore>,
     @Getter
     private final Observable<Integer> numUserProfiles = new Observable<>();
     private final HashCashProofOfWorkService hashCashProofOfWorkService;
+    private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
+    private final AtomicBoolean persistScheduled = new AtomicBoolean();
+    private volatile Optional<Scheduler> persistScheduler = Optional.empty();
+    // Proofs of work of the user profiles of a received batch (e.g. an inventory chunk) which got verified in bulk
+    // before the user profiles get added one by one. The value is the time of the verification.
+    private final Map<ProofOfWork, Long> preVerifiedProofOfWorks = new ConcurrentHashMap<>();
+    // Sum of the versions of all user profiles for calculating the average version without iterating all profiles.
+    // Guarded by persistableStore.
+    private long versionSum;
 
     public UserProfileService(PersistenceService persistenceService,
                               SecurityService securityService,
@@ -63,24 +94,73 @@ public class UserProfileService implements PersistenceClient<UserProfileStore>,
     public CompletableFuture<Boolean> initialize() {
         log.info("initialize");
         networkService.addDataServiceListener(this);
-        networkService.getDataService().ifPresent(ds -> ds.getAuthenticatedData().forEach(this::onAuthenticatedDataAdded));
+        networkService.getDataService().ifPresent(ds -> {
+            List<UserProfile> userProfiles = ds.getAuthenticatedData()
+                    .filter(authenticatedData -> authenticatedData.getDistributedData() instanceof UserProfile)
+                    .map(authenticatedData -> (UserProfile) authenticatedData.getDistributedData())
+                    .collect(Collectors.toList());
+            Set<ProofOfWork> verifiedProofOfWorks = verifyProofOfWorks(userProfiles);
+            userProfiles.forEach(userProfile -> processUserProfileAddedOrRefreshed(userProfile,
+                    verifiedProofOfWorks.contains(userProfile.getProofOfWork())));
+        });
         return CompletableFuture.completedFuture(true);
     }
 
     public CompletableFuture<Boolean> shutdown() {
         networkService.removeDataServiceListener(this);
+        persistScheduler.ifPresent(Scheduler::stop);
+        if (persistScheduled.getAndSet(false)) {
+            persist();
+        }
         return CompletableFuture.completedFuture(true);
     }
 
 
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // PersistenceClient
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void onPersistedApplied(UserProfileStore persisted) {
+        synchronized (persistableStore) {
+            versionSum = getUserProfileById().values().stream()
+                    .mapToLong(UserProfile::getVersion)
+                    .sum();
+        }
+        numUserProfiles.set(getUserProfileById().size());
+    }
+
+
     ///////////////////////////////////////////////////////////////////////////////////////////////////
     // DataService.Listener
     ///////////////////////////////////////////////////////////////////////////////////////////////////
 
+    @Override
+    public void onAuthenticatedDataBatchReceived(List<AuthenticatedData> authenticatedDataList) {
+        List<UserProfile> userProfiles = authenticatedDataList.stream()
+                .filter(authenticatedData -> authenticatedData.getDistributedData() instanceof UserProfile)
+                .map(authenticatedData -> (UserProfile) authenticatedData.getDistributedData())
+                .collect(Collectors.toList());
+        if (userProfiles.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        preVerifiedProofOfWorks.values().removeIf(verificationDate -> now - verificationDate > PRE_VERIFIED_PROOF_OF_WORK_TTL);
+        for (ProofOfWork proofOfWork : verifyProofOfWorks(userProfiles)) {
+            if (preVerifiedProofOfWorks.size() >= MAX_PRE_VERIFIED_PROOF_OF_WORKS) {
+                // The remaining user profiles get verified one by one
+                log.warn("Max. number of pre-verified proofs of work reached");
+                break;
+            }
+            preVerifiedProofOfWorks.put(proofOfWork, now);
+        }
+    }
+
     @Override
     public void onAuthenticatedDataAdded(AuthenticatedData authenticatedData) {
         if (authenticatedData.getDistributedData() instanceof UserProfile userProfile) {
-            processUserProfileAddedOrRefreshed(userProfile);
+            boolean isProofOfWorkVerified = preVerifiedProofOfWorks.remove(userProfile.getProofOfWork()) != null;
+            processUserProfileAddedOrRefreshed(userProfile, isProofOfWorkVerified);
         }
     }
 
@@ -103,6 +183,19 @@ public class UserProfileService implements PersistenceClient<UserProfileStore>,
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * The listener gets called with all already known user profiles, and later with each added, changed or removed
+     * user profile.
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+        getUserProfiles().forEach(listener::onUserProfileAdded);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
     public Optional<UserProfile> findUserProfile(String id) {
         return Optional.ofNullable(getUserProfileById().get(id));
     }
@@ -152,23 +245,41 @@ public class UserProfileService implements PersistenceClient<UserProfileStore>,
         }
     }
 
+    @VisibleForTesting
+    long getVersionSum() {
+        synchronized (persistableStore) {
+            return versionSum;
+        }
+    }
+
     private void processUserProfileAddedOrRefreshed(UserProfile userProfile) {
+        processUserProfileAddedOrRefreshed(userProfile, false);
+    }
+
+    private void processUserProfileAddedOrRefreshed(UserProfile userProfile, boolean isProofOfWorkVerified) {
         Optional<UserProfile> existingUserProfile = findUserProfile(userProfile.getId());
         if (existingUserProfile.isEmpty() || !existingUserProfile.get().equals(userProfile)) {
-            if (verifyUserProfile(userProfile)) {
+            if (verifyUserProfile(userProfile,
+                    isProofOfWorkVerified || hasSameProofOfWork(userProfile, existingUserProfile))) {
                 ObservableHashMap<String, UserProfile> userProfileById = getUserProfileById();
+                double averageVersion;
                 synchronized (persistableStore) {
                     addNymToNickNameHashMap(userProfile.getNym(), userProfile.getNickName());
-                    userProfileById.put(userProfile.getId(), userProfile);
+                    UserProfile previous = userProfileById.put(userProfile.getId(), userProfile);
+                    versionSum += userProfile.getVersion() - (previous != null ? previous.getVersion() : 0);
+                    averageVersion = (double) versionSum / userProfileById.size();
                 }
                 numUserProfiles.set(userProfileById.values().size());
-                persist();
-
-                double updated = getUserProfiles().stream()
-                        .mapToLong(UserProfile::getVersion)
-                        .average()
-                        .orElse(0);
-                if (updated >= 0.5) {
+                schedulePersist();
+                listeners.forEach(listener -> {
+                    try {
+                        listener.onUserProfileAdded(userProfile);
+                    } catch (Exception e) {
+                        log.error("Error at listener.onUserProfileAdded. listener={}", listener, e);
+                    }
+                });
+
+                if (averageVersion >= 0.5) {
                     Node.setPreferredVersion(1);
                 }
             }
@@ -181,21 +292,61 @@ public class UserProfileService implements PersistenceClient<UserProfileStore>,
 
     private void processUserProfileRemoved(UserProfile userProfile) {
         ObservableHashMap<String, UserProfile> userProfileById = getUserProfileById();
+        UserProfile removed;
         synchronized (persistableStore) {
             removeNymFromNickNameHashMap(userProfile.getNym(), userProfile.getNickName());
-            userProfileById.remove(userProfile.getId());
+            removed = userProfileById.remove(userProfile.getId());
+            if (removed != null) {
+                versionSum -= removed.getVersion();
+            }
         }
         numUserProfiles.set(userProfileById.values().size());
-        persist();
+        schedulePersist();
+        if (removed != null) {
+            listeners.forEach(listener -> {
+                try {
+                    listener.onUserProfileRemoved(removed);
+                } catch (Exception e) {
+                    log.error("Error at listener.onUserProfileRemoved. listener={}", listener, e);
+                }
+            });
+        }
     }
 
-    private boolean verifyUserProfile(UserProfile userProfile) {
+    /**
+     * Verifies the proofs of work of the user profiles we do not know yet in parallel.
+     *
+     * @return The valid proofs of work. The invalid ones get verified (and rejected) again at processing the user
+     * profile.
+     */
+    private Set<ProofOfWork> verifyProofOfWorks(List<UserProfile> userProfiles) {
+        List<ProofOfWork> proofOfWorks = userProfiles.stream()
+                .filter(userProfile -> !hasSameProofOfWork(userProfile, findUserProfile(userProfile.getId())))
+                .map(UserProfile::getProofOfWork)
+                .collect(Collectors.toList());
+        Set<ProofOfWork> verifiedProofOfWorks = new HashSet<>();
+        if (proofOfWorks.isEmpty()) {
+            return verifiedProofOfWorks;
+        }
+        long ts = System.currentTimeMillis();
+        boolean[] results = hashCashProofOfWorkService.verifyAll(proofOfWorks);
+        for (int i = 0; i < results.length; i++) {
+            if (results[i]) {
+                verifiedProofOfWorks.add(proofOfWorks.get(i));
+            }
+        }
+        log.info("Verification of proof of work of {} user profiles took {} ms",
+                proofOfWorks.size(), System.currentTimeMillis() - ts);
+        return verifiedProofOfWorks;
+    }
+
+    private boolean verifyUserProfile(UserProfile userProfile, boolean isProofOfWorkVerified) {
         if (!Arrays.equals(userProfile.getProofOfWork().getPayload(), userProfile.getPubKeyHash())) {
             log.warn("Payload of proof of work not matching pubKeyHash of user profile {}", userProfile);
             return false;
         }
 
-        if (!hashCashProofOfWorkService.verify(userProfile.getProofOfWork())) {
+        if (!isProofOfWorkVerified && !hashCashProofOfWorkService.verify(userProfile.getProofOfWork())) {
             log.warn("Proof of work verification of user profile {} failed", userProfile);
             return false;
         }
@@ -203,6 +354,14 @@ public class UserProfileService implements PersistenceClient<UserProfileStore>,
         return true;
     }
 
+    // The user profiles we have stored (also the persisted ones) got verified when we added them. If a user profile
+    // gets updated (e.g. the statement got edited) the proof of work usually stays the same.
+    private boolean hasSameProofOfWork(UserProfile userProfile, Optional<UserProfile> existingUserProfile) {
+        return existingUserProfile
+                .map(existing -> existing.getProofOfWork().equals(userProfile.getProofOfWork()))
+                .orElse(false);
+    }
+
     private Map<String, Set<String>> getNymsByNickName() {
         return persistableStore.getNymsByNickName();
     }
@@ -220,7 +379,6 @@ public class UserProfileService implements PersistenceClient<UserProfileStore>,
         }
         Set<String> nyms = nymsByNickName.get(nickName);
         nyms.add(nym);
-        persist();
     }
 
     private void removeNymFromNickNameHashMap(String nym, String nickName) {
@@ -230,6 +388,20 @@ public class UserProfileService implements PersistenceClient<UserProfileStore>,
         }
         Set<String> nyms = nymsByNickName.get(nickName);
         nyms.remove(nym);
-        persist();
+        if (nyms.isEmpty()) {
+            nymsByNickName.remove(nickName);
+        }
+    }
+
+    private void schedulePersist() {
+        if (persistScheduled.compareAndSet(false, true)) {
+            persistScheduler = Optional.of(Scheduler.run(() -> {
+                        if (persistScheduled.getAndSet(false)) {
+                            persist();
+                        }
+                    })
+                    .name("UserProfileService.persistScheduler")
+                    .after(PERSIST_DELAY));
+        }
     }
 }
@@ -109,9 +109,7 @@ public class AccountAgeService extends SourceReputationService<AuthorizedAccount
             if (isAuthorized(authorizedData)) {
                 AuthorizedAccountAgeData data = (AuthorizedAccountAgeData) authorizedData.getAuthorizedDistributedData();
                 String userProfileId = data.getProfileId();
-                userProfileService.findUserProfile(userProfileId)
-                        .map(this::getUserProfileKey)
-                        .ifPresent(dataSetByHash::remove);
+                dataSetByHash.remove(getDataKey(data));
                 if (scoreByUserProfileId.containsKey(userProfileId)) {
                     scoreByUserProfileId.remove(userProfileId);
                     userProfileIdScorePair.set(new Pair<>(userProfileId, 0L));
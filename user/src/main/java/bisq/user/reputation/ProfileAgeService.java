@@ -89,9 +89,7 @@ public class ProfileAgeService extends SourceReputationService<AuthorizedTimesta
             if (isAuthorized(authorizedData)) {
                 AuthorizedTimestampData timestampData = (AuthorizedTimestampData) authorizedData.getAuthorizedDistributedData();
                 String userProfileId = timestampData.getProfileId();
-                userProfileService.findUserProfile(userProfileId)
-                        .map(this::getUserProfileKey)
-                        .ifPresent(dataSetByHash::remove);
+                dataSetByHash.remove(getDataKey(timestampData));
                 if (scoreByUserProfileId.containsKey(userProfileId)) {
                     scoreByUserProfileId.remove(userProfileId);
                     userProfileIdScorePair.set(new Pair<>(userProfileId, 0L));
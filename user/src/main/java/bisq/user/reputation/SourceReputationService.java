@@ -32,6 +32,7 @@ import bisq.user.identity.UserIdentity;
 import bisq.user.identity.UserIdentityService;
 import bisq.user.profile.UserProfile;
 import bisq.user.profile.UserProfileService;
+import com.google.common.annotations.VisibleForTesting;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -44,7 +45,8 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 
 @Slf4j
-public abstract class SourceReputationService<T extends AuthorizedDistributedData> implements Service, AuthorizedBondedRolesService.Listener {
+public abstract class SourceReputationService<T extends AuthorizedDistributedData> implements Service,
+        AuthorizedBondedRolesService.Listener, UserProfileService.Listener {
     protected static final long DAY_AS_MS = TimeUnit.DAYS.toMillis(1);
 
     public static long getAgeInDays(long date) {
@@ -58,6 +60,9 @@ public abstract class SourceReputationService<T extends AuthorizedDistributedDat
     protected final AuthorizedBondedRolesService authorizedBondedRolesService;
     @Getter
     protected final Map<ByteArray, Set<T>> dataSetByHash = new ConcurrentHashMap<>();
+    // Reverse index from the key used in the reputation data to the user profile ID. Reputation data for user profiles
+    // we do not know yet is kept in dataSetByHash and applied once the user profile gets added.
+    private final Map<ByteArray, String> userProfileIdByKey = new ConcurrentHashMap<>();
     @Getter
     protected final Map<String, Long> scoreByUserProfileId = new ConcurrentHashMap<>();
     @Getter
@@ -76,15 +81,39 @@ public abstract class SourceReputationService<T extends AuthorizedDistributedDat
     }
 
     public CompletableFuture<Boolean> initialize() {
+        userProfileService.addListener(this);
         authorizedBondedRolesService.addListener(this);
         return CompletableFuture.completedFuture(true);
     }
 
     public CompletableFuture<Boolean> shutdown() {
         authorizedBondedRolesService.removeListener(this);
+        userProfileService.removeListener(this);
         return CompletableFuture.completedFuture(true);
     }
 
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // UserProfileService.Listener
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void onUserProfileAdded(UserProfile userProfile) {
+        ByteArray key = getUserProfileKey(userProfile);
+        String previousUserProfileId = userProfileIdByKey.put(key, userProfile.getId());
+        Set<T> dataSet = dataSetByHash.get(key);
+        if (previousUserProfileId == null && dataSet != null) {
+            synchronized (dataSet) {
+                putScore(userProfile.getId(), dataSet);
+            }
+        }
+    }
+
+    @Override
+    public void onUserProfileRemoved(UserProfile userProfile) {
+        userProfileIdByKey.remove(getUserProfileKey(userProfile), userProfile.getId());
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////////////
     // AuthorizedBondedRolesService.Listener
     ///////////////////////////////////////////////////////////////////////////////////////////////////
@@ -95,19 +124,13 @@ public abstract class SourceReputationService<T extends AuthorizedDistributedDat
                 .ifPresent(data -> {
                     if (isAuthorized(authorizedData) && isValidVersion(data)) {
                         ByteArray providedHash = getDataKey(data);
-                        // Clone to avoid ConcurrentModificationException
-                        Collection<UserProfile> values = new ArrayList<>(userProfileService.getUserProfileById().values());
-                        values.stream()
-                                .filter(userProfile -> getUserProfileKey(userProfile).equals(providedHash))
-                                .forEach(userProfile -> {
-                                    ByteArray hash = getUserProfileKey(userProfile);
-                                    if (!dataSetByHash.containsKey(hash)) {
-                                        dataSetByHash.put(hash, new HashSet<>());
-                                    }
-                                    Set<T> dataSet = dataSetByHash.get(hash);
-                                    addToDataSet(dataSet, data);
-                                    putScore(userProfile.getId(), dataSet);
-                                });
+                        Set<T> dataSet = dataSetByHash.computeIfAbsent(providedHash, key -> new HashSet<>());
+                        synchronized (dataSet) {
+                            addToDataSet(dataSet, data);
+                            // If the user profile is not known yet, the score gets applied at onUserProfileAdded
+                            Optional.ofNullable(userProfileIdByKey.get(providedHash))
+                                    .ifPresent(userProfileId -> putScore(userProfileId, dataSet));
+                        }
                     }
                 });
     }
@@ -149,6 +172,11 @@ public abstract class SourceReputationService<T extends AuthorizedDistributedDat
 
     public abstract long calculateScore(T data);
 
+    @VisibleForTesting
+    Optional<String> findUserProfileId(ByteArray key) {
+        return Optional.ofNullable(userProfileIdByKey.get(key));
+    }
+
     protected boolean isAuthorized(AuthorizedData authorizedData) {
         return authorizedBondedRolesService.hasAuthorizedPubKey(authorizedData, BondedRoleType.ORACLE_NODE);
     }
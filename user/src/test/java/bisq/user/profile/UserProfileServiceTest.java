@@ -0,0 +1,133 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.user.profile;
+
+import bisq.network.NetworkService;
+import bisq.network.common.AddressByTransportTypeMap;
+import bisq.network.identity.NetworkId;
+import bisq.network.p2p.services.data.storage.auth.DefaultAuthenticatedData;
+import bisq.persistence.DbSubDirectory;
+import bisq.persistence.Persistence;
+import bisq.persistence.PersistenceService;
+import bisq.security.SecurityService;
+import bisq.security.keys.KeyGeneration;
+import bisq.security.keys.PubKey;
+import bisq.security.pow.ProofOfWork;
+import bisq.security.pow.hashcash.HashCashProofOfWorkService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserProfileServiceTest {
+    private Persistence<UserProfileStore> persistence;
+    private UserProfileService userProfileService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        persistence = mock(Persistence.class);
+        when(persistence.persistAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        PersistenceService persistenceService = mock(PersistenceService.class);
+        doReturn(persistence).when(persistenceService).getOrCreatePersistence(any(), any(DbSubDirectory.class), any());
+
+        HashCashProofOfWorkService hashCashProofOfWorkService = mock(HashCashProofOfWorkService.class);
+        when(hashCashProofOfWorkService.verify(any(ProofOfWork.class))).thenReturn(true);
+        SecurityService securityService = mock(SecurityService.class);
+        when(securityService.getHashCashProofOfWorkService()).thenReturn(hashCashProofOfWorkService);
+
+        userProfileService = new UserProfileService(persistenceService, securityService, mock(NetworkService.class));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userProfileService.shutdown().join();
+    }
+
+    @Test
+    public void persistOnceForUpdatesWithinPersistDelay() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            add(createUserProfile("user" + i));
+        }
+        verify(persistence, timeout(10_000)).persistAsync(any());
+
+        // No further persist is pending, otherwise it would be done at shutdown
+        userProfileService.shutdown().join();
+        verify(persistence, times(1)).persistAsync(any());
+
+        // A pending persist is not lost at shutdown
+        add(createUserProfile("user5"));
+        userProfileService.shutdown().join();
+        verify(persistence, times(2)).persistAsync(any());
+    }
+
+    @Test
+    public void versionSumChangesOnlyIfUserProfilesChange() throws Exception {
+        UserProfile userProfile1 = createUserProfile("user1");
+        UserProfile userProfile2 = createUserProfile("user2");
+        add(userProfile1);
+        add(userProfile2);
+        assertThat(userProfileService.getVersionSum()).isEqualTo(2L * UserProfile.VERSION);
+
+        // Receiving the same user profile again (e.g. from another peer) does not change the user profiles
+        add(userProfile1);
+        userProfileService.onAuthenticatedDataRefreshed(new DefaultAuthenticatedData(userProfile2));
+        assertThat(userProfileService.getVersionSum()).isEqualTo(2L * UserProfile.VERSION);
+
+        // The edited user profile replaces the previous one
+        UserProfile editedUserProfile1 = UserProfile.withVersion(UserProfile.forEdit(userProfile1, "terms", "statement"), 0);
+        add(editedUserProfile1);
+        assertThat(userProfileService.getUserProfiles()).hasSize(2);
+        assertThat(userProfileService.getVersionSum()).isEqualTo(UserProfile.VERSION);
+
+        remove(userProfile2);
+        assertThat(userProfileService.getVersionSum()).isEqualTo(0);
+        remove(userProfile2);
+        remove(createUserProfile("unknown"));
+        assertThat(userProfileService.getVersionSum()).isEqualTo(0);
+        assertThat(userProfileService.getUserProfiles()).containsExactly(editedUserProfile1);
+    }
+
+    private void add(UserProfile userProfile) {
+        userProfileService.onAuthenticatedDataAdded(new DefaultAuthenticatedData(userProfile));
+    }
+
+    private void remove(UserProfile userProfile) {
+        userProfileService.onAuthenticatedDataRemoved(new DefaultAuthenticatedData(userProfile));
+    }
+
+    private static UserProfile createUserProfile(String nickName) throws GeneralSecurityException {
+        KeyPair keyPair = KeyGeneration.generateKeyPair();
+        PubKey pubKey = new PubKey(keyPair.getPublic(), "keyId");
+        ProofOfWork proofOfWork = new ProofOfWork(pubKey.getHash(), 0, null, 1, new byte[8], 0);
+        NetworkId networkId = new NetworkId(new AddressByTransportTypeMap(), pubKey);
+        return UserProfile.createNew(nickName, proofOfWork, 0, networkId, "", "");
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.user.reputation;
+
+import bisq.bonded_roles.BondedRoleType;
+import bisq.bonded_roles.bonded_role.AuthorizedBondedRolesService;
+import bisq.common.data.ByteArray;
+import bisq.network.NetworkService;
+import bisq.network.common.AddressByTransportTypeMap;
+import bisq.network.identity.NetworkId;
+import bisq.network.p2p.services.data.storage.auth.DefaultAuthenticatedData;
+import bisq.network.p2p.services.data.storage.auth.authorized.AuthorizedData;
+import bisq.network.p2p.services.data.storage.auth.authorized.AuthorizedDistributedData;
+import bisq.persistence.DbSubDirectory;
+import bisq.persistence.Persistence;
+import bisq.persistence.PersistenceService;
+import bisq.security.SecurityService;
+import bisq.security.keys.KeyGeneration;
+import bisq.security.keys.PubKey;
+import bisq.security.pow.ProofOfWork;
+import bisq.security.pow.hashcash.HashCashProofOfWorkService;
+import bisq.user.banned.BannedUserService;
+import bisq.user.identity.UserIdentityService;
+import bisq.user.profile.UserProfile;
+import bisq.user.profile.UserProfileService;
+import bisq.user.profile.UserProfileStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SourceReputationServiceTest {
+    private static final long SCORE = 100;
+
+    private UserProfileService userProfileService;
+    private TestReputationService reputationService;
+
+    private static class TestReputationService extends SourceReputationService<AuthorizedDistributedData> {
+        private final Map<AuthorizedDistributedData, ByteArray> keyByData = new HashMap<>();
+
+        private TestReputationService(UserProfileService userProfileService,
+                                      AuthorizedBondedRolesService authorizedBondedRolesService) {
+            super(mock(NetworkService.class),
+                    mock(UserIdentityService.class),
+                    userProfileService,
+                    mock(BannedUserService.class),
+                    authorizedBondedRolesService);
+        }
+
+        @Override
+        protected Optional<AuthorizedDistributedData> findRelevantData(AuthorizedDistributedData authorizedDistributedData) {
+            return Optional.of(authorizedDistributedData);
+        }
+
+        @Override
+        protected ByteArray getDataKey(AuthorizedDistributedData data) {
+            return keyByData.get(data);
+        }
+
+        @Override
+        protected ByteArray getUserProfileKey(UserProfile userProfile) {
+            return userProfile.getProofOfBurnKey();
+        }
+
+        @Override
+        public long calculateScore(AuthorizedDistributedData data) {
+            return SCORE;
+        }
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Persistence<UserProfileStore> persistence = mock(Persistence.class);
+        when(persistence.persistAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        PersistenceService persistenceService = mock(PersistenceService.class);
+        doReturn(persistence).when(persistenceService).getOrCreatePersistence(any(), any(DbSubDirectory.class), any());
+        HashCashProofOfWorkService hashCashProofOfWorkService = mock(HashCashProofOfWorkService.class);
+        when(hashCashProofOfWorkService.verify(any(ProofOfWork.class))).thenReturn(true);
+        SecurityService securityService = mock(SecurityService.class);
+        when(securityService.getHashCashProofOfWorkService()).thenReturn(hashCashProofOfWorkService);
+        userProfileService = new UserProfileService(persistenceService, securityService, mock(NetworkService.class));
+
+        AuthorizedBondedRolesService authorizedBondedRolesService = mock(AuthorizedBondedRolesService.class);
+        when(authorizedBondedRolesService.hasAuthorizedPubKey(any(), eq(BondedRoleType.ORACLE_NODE))).thenReturn(true);
+        reputationService = new TestReputationService(userProfileService, authorizedBondedRolesService);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        reputationService.shutdown().join();
+        userProfileService.shutdown().join();
+    }
+
+    @Test
+    public void indexIsUpdatedOnAddAndRemove() throws Exception {
+        // User profiles known before the listener gets added are indexed as well
+        UserProfile userProfile1 = createUserProfile("user1");
+        addUserProfile(userProfile1);
+        reputationService.initialize().join();
+        assertThat(reputationService.findUserProfileId(userProfile1.getProofOfBurnKey())).contains(userProfile1.getId());
+
+        UserProfile userProfile2 = createUserProfile("user2");
+        addUserProfile(userProfile2);
+        assertThat(reputationService.findUserProfileId(userProfile2.getProofOfBurnKey())).contains(userProfile2.getId());
+
+        removeUserProfile(userProfile1);
+        assertThat(reputationService.findUserProfileId(userProfile1.getProofOfBurnKey())).isEmpty();
+        assertThat(reputationService.findUserProfileId(userProfile2.getProofOfBurnKey())).contains(userProfile2.getId());
+
+        // Reputation data of removed user profiles is kept and applied once the user profile gets added again
+        addReputationData(userProfile1.getProofOfBurnKey());
+        assertThat(reputationService.getScore(userProfile1.getId())).isEqualTo(0);
+        addUserProfile(userProfile1);
+        assertThat(reputationService.getScore(userProfile1.getId())).isEqualTo(SCORE);
+    }
+
+    @Test
+    public void lookupByKeyAfterReplacement() throws Exception {
+        reputationService.initialize().join();
+        UserProfile userProfile = createUserProfile("user");
+        addUserProfile(userProfile);
+        addReputationData(userProfile.getProofOfBurnKey());
+        assertThat(reputationService.getScore(userProfile.getId())).isEqualTo(SCORE);
+
+        // The edited user profile replaces the previous one
+        UserProfile editedUserProfile = UserProfile.forEdit(userProfile, "terms", "statement");
+        addUserProfile(editedUserProfile);
+        assertThat(userProfileService.getUserProfiles()).containsExactly(editedUserProfile);
+        assertThat(reputationService.findUserProfileId(userProfile.getProofOfBurnKey())).contains(userProfile.getId());
+
+        addReputationData(userProfile.getProofOfBurnKey());
+        assertThat(reputationService.getScore(editedUserProfile.getId())).isEqualTo(2 * SCORE);
+
+        removeUserProfile(editedUserProfile);
+        assertThat(reputationService.findUserProfileId(userProfile.getProofOfBurnKey())).isEmpty();
+    }
+
+    @Test
+    public void scoreOfDataReceivedBeforeUserProfileGetsApplied() throws Exception {
+        reputationService.initialize().join();
+        UserProfile userProfile = createUserProfile("user");
+        addReputationData(userProfile.getProofOfBurnKey());
+        assertThat(reputationService.getScore(userProfile.getId())).isEqualTo(0);
+
+        addUserProfile(userProfile);
+        assertThat(reputationService.getScore(userProfile.getId())).isEqualTo(SCORE);
+    }
+
+    private void addUserProfile(UserProfile userProfile) {
+        userProfileService.onAuthenticatedDataAdded(new DefaultAuthenticatedData(userProfile));
+    }
+
+    private void removeUserProfile(UserProfile userProfile) {
+        userProfileService.onAuthenticatedDataRemoved(new DefaultAuthenticatedData(userProfile));
+    }
+
+    private void addReputationData(ByteArray key) throws GeneralSecurityException {
+        AuthorizedDistributedData data = mock(AuthorizedDistributedData.class);
+        reputationService.keyByData.put(data, key);
+        reputationService.onAuthorizedDataAdded(new AuthorizedData(data, KeyGeneration.generateKeyPair().getPublic()));
+    }
+
+    private static UserProfile createUserProfile(String nickName) throws GeneralSecurityException {
+        KeyPair keyPair = KeyGeneration.generateKeyPair();
+        PubKey pubKey = new PubKey(keyPair.getPublic(), "keyId");
+        ProofOfWork proofOfWork = new ProofOfWork(pubKey.getHash(), 0, null, 1, new byte[8], 0);
+        NetworkId networkId = new NetworkId(new AddressByTransportTypeMap(), pubKey);
+        return UserProfile.createNew(nickName, proofOfWork, 0, networkId, "", "");
+    }
+}